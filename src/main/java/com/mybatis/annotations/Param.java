@@ -0,0 +1,34 @@
+package com.mybatis.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mapper方法参数的名字
+ * 
+ * 多个参数的Mapper方法用它给参数起名，SQL中通过#{名字}引用：
+ * <pre>
+ * List&lt;Product&gt; selectByPriceRange(@Param("min") BigDecimal min, @Param("max") BigDecimal max);
+ * 
+ * SELECT * FROM product WHERE price BETWEEN #{min} AND #{max}
+ * </pre>
+ * 
+ * 没有@Param的参数可以用#{arg0}、#{arg1}（参数下标）引用；
+ * 所有参数都可以用#{param1}、#{param2}（从1开始）引用。
+ * 
+ * @author 学习者
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Param {
+    
+    /**
+     * 参数名
+     */
+    String value();
+}
+
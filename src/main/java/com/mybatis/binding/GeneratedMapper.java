@@ -0,0 +1,23 @@
+package com.mybatis.binding;
+
+import com.mybatis.session.SqlSession;
+
+/**
+ * 生成的Mapper实现类都实现这个接口
+ * 
+ * MapperProxyFactory持有一个原型实例（sqlSession为null），
+ * 每次getMapper调用原型的newInstance，生成的代码里就是一次普通的new。
+ * 
+ * @author 学习者
+ */
+public interface GeneratedMapper {
+    
+    /**
+     * 创建绑定到sqlSession的Mapper实例
+     * 
+     * @param sqlSession SqlSession对象
+     * @return Mapper实例
+     */
+    Object newInstance(SqlSession sqlSession);
+}
+
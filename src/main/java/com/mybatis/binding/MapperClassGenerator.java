@@ -0,0 +1,359 @@
+package com.mybatis.binding;
+
+import com.mybatis.session.ResultHandler;
+import com.mybatis.session.SqlSession;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mapper实现类字节码生成器 ⭐⭐⭐⭐
+ * 
+ * 对应配置：<setting name="mapperProxyType" value="BYTECODE"/>
+ * 
+ * 注册Mapper接口时，使用cglib自带的ASM为接口生成一个实现类，代替JDK动态代理。
+ * 生成的代码相当于手写：
+ * <pre>
+ * public final class Mapper$ProductMapper$1 implements ProductMapper, GeneratedMapper {
+ *     private final SqlSession sqlSession;
+ *     private final MapperProxyFactory factory;
+ * 
+ *     public Object newInstance(SqlSession sqlSession) {
+ *         return new Mapper$ProductMapper$1(sqlSession, factory);
+ *     }
+ * 
+ *     public Product selectById(Long id) {
+ *         return (Product) factory.getMapperMethod(0, sqlSession).execute(sqlSession, id, null);
+ *     }
+ * 
+ *     public int deleteById(Long id) {
+ *         return ((Number) factory.getMapperMethod(5, sqlSession).execute(sqlSession, id, null)).intValue();
+ *     }
+ * 
+ *     // 多个参数或带@Param：参数数组直接交给ParamMap
+ *     public List selectByPriceRange(BigDecimal min, BigDecimal max) {
+ *         return (List) factory.getMapperMethod(6, sqlSession).execute(sqlSession, new Object[]{min, max});
+ *     }
+ * }
+ * </pre>
+ * 
+ * 与MapperProxy相比：没有InvocationHandler、没有按Method查Map，单参数方法也不创建Object[]，
+ * 每个接口方法都是单独的调用点。
+ * 
+ * 不能生成时回退到JDK动态代理：
+ * - Mapper接口或某个方法的返回类型不是public
+ * - Mapper接口的类加载器看不到本框架的类
+ * 
+ * @author 学习者
+ */
+public final class MapperClassGenerator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MapperClassGenerator.class);
+    
+    private static final String GENERATED_PACKAGE = "com/mybatis/binding/generated/";
+    
+    private static final String SQL_SESSION = Type.getInternalName(SqlSession.class);
+    
+    private static final String FACTORY = Type.getInternalName(MapperProxyFactory.class);
+    
+    private static final String MAPPER_METHOD = Type.getInternalName(MapperMethod.class);
+    
+    private static final String EXECUTE_ARGS_DESCRIPTOR = "(L" + SQL_SESSION + ";[Ljava/lang/Object;)Ljava/lang/Object;";
+    
+    private static final String EXECUTE_DESCRIPTOR = "(L" + SQL_SESSION + ";Ljava/lang/Object;L"
+        + Type.getInternalName(ResultHandler.class) + ";)Ljava/lang/Object;";
+    
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    
+    private MapperClassGenerator() {
+    }
+    
+    /**
+     * 需要生成实现的接口方法（抽象方法，按签名去重）
+     * 
+     * 生成的类中第i个方法对应MapperProxyFactory.getMapperMethod(i)。
+     */
+    static Method[] abstractMethods(Class<?> mapperInterface) {
+        List<Method> methods = new ArrayList<>();
+        Set<String> signatures = new HashSet<>();
+        for (Method method : mapperInterface.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers())) {
+                continue;
+            }
+            if (signatures.add(method.getName() + Type.getMethodDescriptor(method))) {
+                methods.add(method);
+            }
+        }
+        return methods.toArray(new Method[0]);
+    }
+    
+    /**
+     * 生成Mapper实现类
+     * 
+     * @param factory Mapper代理工厂
+     * @param methods 需要实现的方法（下标和factory.getMapperMethod一致）
+     * @return 原型实例，不能生成时返回null
+     */
+    static GeneratedMapper generate(MapperProxyFactory<?> factory, Method[] methods) {
+        Class<?> mapperInterface = factory.getMapperInterface();
+        if (!isSupported(mapperInterface, methods)) {
+            return null;
+        }
+        
+        String className = GENERATED_PACKAGE + "Mapper$" + mapperInterface.getSimpleName() + "$" + COUNTER.incrementAndGet();
+        byte[] bytecode = generateClass(className, mapperInterface, methods);
+        try {
+            Class<?> mapperClass = new GeneratedClassLoader(mapperInterface.getClassLoader())
+                .define(className.replace('/', '.'), bytecode);
+            GeneratedMapper prototype = (GeneratedMapper) mapperClass
+                .getConstructor(SqlSession.class, MapperProxyFactory.class)
+                .newInstance(null, factory);
+            logger.debug("生成Mapper实现类: {} → {}", mapperInterface.getSimpleName(), mapperClass.getSimpleName());
+            return prototype;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("生成Mapper实现类失败，使用JDK动态代理: {}", mapperInterface.getName(), e);
+            return null;
+        }
+    }
+    
+    private static boolean isSupported(Class<?> mapperInterface, Method[] methods) {
+        if (!Modifier.isPublic(mapperInterface.getModifiers())) {
+            logger.debug("Mapper接口不是public，使用JDK动态代理: {}", mapperInterface.getName());
+            return false;
+        }
+        for (Method method : methods) {
+            Class<?> returnType = method.getReturnType();
+            while (returnType.isArray()) {
+                returnType = returnType.getComponentType();
+            }
+            if (!Modifier.isPublic(returnType.getModifiers())) {
+                logger.debug("返回类型不是public，使用JDK动态代理: {}", method);
+                return false;
+            }
+        }
+        // 生成的类通过接口的类加载器加载框架类，必须和当前的是同一份
+        try {
+            ClassLoader loader = mapperInterface.getClassLoader();
+            if (loader != null && Class.forName(GeneratedMapper.class.getName(), false, loader) != GeneratedMapper.class) {
+                logger.debug("Mapper接口的类加载器看不到当前框架类，使用JDK动态代理: {}", mapperInterface.getName());
+                return false;
+            }
+        } catch (ClassNotFoundException e) {
+            logger.debug("Mapper接口的类加载器看不到当前框架类，使用JDK动态代理: {}", mapperInterface.getName());
+            return false;
+        }
+        return true;
+    }
+    
+    // ========================================
+    // 字节码生成
+    // ========================================
+    
+    /**
+     * 生成类：public final class Mapper$Xxx$N implements Xxx, GeneratedMapper
+     */
+    private static byte[] generateClass(String className, Class<?> mapperInterface, Method[] methods) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // 生成的代码没有分支，不需要加载类
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null,
+            "java/lang/Object", new String[]{Type.getInternalName(mapperInterface), Type.getInternalName(GeneratedMapper.class)});
+        
+        cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "sqlSession", "L" + SQL_SESSION + ";", null, null).visitEnd();
+        cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "factory", "L" + FACTORY + ";", null, null).visitEnd();
+        
+        // 构造器(SqlSession, MapperProxyFactory)
+        String constructorDescriptor = "(L" + SQL_SESSION + ";L" + FACTORY + ";)V";
+        MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", constructorDescriptor, null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitVarInsn(Opcodes.ALOAD, 1);
+        init.visitFieldInsn(Opcodes.PUTFIELD, className, "sqlSession", "L" + SQL_SESSION + ";");
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitVarInsn(Opcodes.ALOAD, 2);
+        init.visitFieldInsn(Opcodes.PUTFIELD, className, "factory", "L" + FACTORY + ";");
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+        
+        // newInstance(SqlSession)：return new Mapper$Xxx$N(sqlSession, this.factory)
+        MethodVisitor newInstance = cw.visitMethod(Opcodes.ACC_PUBLIC, "newInstance",
+            "(L" + SQL_SESSION + ";)Ljava/lang/Object;", null, null);
+        newInstance.visitCode();
+        newInstance.visitTypeInsn(Opcodes.NEW, className);
+        newInstance.visitInsn(Opcodes.DUP);
+        newInstance.visitVarInsn(Opcodes.ALOAD, 1);
+        newInstance.visitVarInsn(Opcodes.ALOAD, 0);
+        newInstance.visitFieldInsn(Opcodes.GETFIELD, className, "factory", "L" + FACTORY + ";");
+        newInstance.visitMethodInsn(Opcodes.INVOKESPECIAL, className, "<init>", constructorDescriptor, false);
+        newInstance.visitInsn(Opcodes.ARETURN);
+        newInstance.visitMaxs(0, 0);
+        newInstance.visitEnd();
+        
+        for (int i = 0; i < methods.length; i++) {
+            generateMethod(cw, className, i, methods[i]);
+        }
+        
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+    
+    /**
+     * 生成一个接口方法：
+     * return (R) factory.getMapperMethod(index, sqlSession).execute(sqlSession, parameter, resultHandler);
+     * 需要ParamMap时：
+     * return (R) factory.getMapperMethod(index, sqlSession).execute(sqlSession, new Object[]{arg0, arg1, ...});
+     */
+    private static void generateMethod(ClassWriter cw, String className, int index, Method method) {
+        Class<?>[] exceptions = method.getExceptionTypes();
+        String[] exceptionNames = new String[exceptions.length];
+        for (int i = 0; i < exceptions.length; i++) {
+            exceptionNames[i] = Type.getInternalName(exceptions[i]);
+        }
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, method.getName(),
+            Type.getMethodDescriptor(method), null, exceptionNames);
+        mv.visitCode();
+        
+        // factory.getMapperMethod(index, sqlSession)
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, className, "factory", "L" + FACTORY + ";");
+        mv.visitLdcInsn(index);
+        loadSqlSession(mv, className);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, FACTORY, "getMapperMethod",
+            "(IL" + SQL_SESSION + ";)L" + MAPPER_METHOD + ";", false);
+        
+        loadSqlSession(mv, className);
+        if (ParamNames.isRequired(method)) {
+            // .execute(sqlSession, new Object[]{arg0, arg1, ...})
+            int count = method.getParameterCount();
+            mv.visitLdcInsn(count);
+            mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/Object");
+            for (int i = 0; i < count; i++) {
+                mv.visitInsn(Opcodes.DUP);
+                mv.visitLdcInsn(i);
+                loadArgument(mv, method, i);
+                mv.visitInsn(Opcodes.AASTORE);
+            }
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, MAPPER_METHOD, "execute", EXECUTE_ARGS_DESCRIPTOR, false);
+        } else {
+            // .execute(sqlSession, parameter, resultHandler)
+            loadArgument(mv, method, MapperMethod.parameterIndex(method));
+            loadArgument(mv, method, MapperMethod.resultHandlerIndex(method));
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, MAPPER_METHOD, "execute", EXECUTE_DESCRIPTOR, false);
+        }
+        
+        returnValue(mv, method.getReturnType());
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+    
+    private static void loadSqlSession(MethodVisitor mv, String className) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, className, "sqlSession", "L" + SQL_SESSION + ";");
+    }
+    
+    /**
+     * 把第index个方法参数压栈（基本类型装箱），index为-1时压入null
+     */
+    private static void loadArgument(MethodVisitor mv, Method method, int index) {
+        if (index == -1) {
+            mv.visitInsn(Opcodes.ACONST_NULL);
+            return;
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        int slot = 1;
+        for (int i = 0; i < index; i++) {
+            slot += Type.getType(parameterTypes[i]).getSize();
+        }
+        Type type = Type.getType(parameterTypes[index]);
+        mv.visitVarInsn(type.getOpcode(Opcodes.ILOAD), slot);
+        if (parameterTypes[index].isPrimitive()) {
+            String wrapper = Type.getInternalName(wrapperType(parameterTypes[index]));
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper, "valueOf",
+                "(" + type.getDescriptor() + ")L" + wrapper + ";", false);
+        }
+    }
+    
+    /**
+     * 把execute的返回值转换成方法的返回类型并返回
+     */
+    private static void returnValue(MethodVisitor mv, Class<?> returnType) {
+        if (returnType == void.class) {
+            mv.visitInsn(Opcodes.POP);
+            mv.visitInsn(Opcodes.RETURN);
+            return;
+        }
+        Type type = Type.getType(returnType);
+        if (returnType.isPrimitive()) {
+            // boolean和char直接拆箱，数值类型统一按Number转换（int方法也能接收Long结果）
+            String wrapper = returnType == boolean.class || returnType == char.class
+                ? Type.getInternalName(wrapperType(returnType)) : "java/lang/Number";
+            mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, returnType.getName() + "Value",
+                "()" + type.getDescriptor(), false);
+        } else if (returnType != Object.class) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, type.getInternalName());
+        }
+        mv.visitInsn(type.getOpcode(Opcodes.IRETURN));
+    }
+    
+    private static Class<?> wrapperType(Class<?> primitive) {
+        if (primitive == int.class) {
+            return Integer.class;
+        }
+        if (primitive == long.class) {
+            return Long.class;
+        }
+        if (primitive == boolean.class) {
+            return Boolean.class;
+        }
+        if (primitive == double.class) {
+            return Double.class;
+        }
+        if (primitive == float.class) {
+            return Float.class;
+        }
+        if (primitive == short.class) {
+            return Short.class;
+        }
+        if (primitive == byte.class) {
+            return Byte.class;
+        }
+        return Character.class;
+    }
+    
+    /**
+     * 加载生成的类
+     * 
+     * 父加载器是Mapper接口的类加载器，这样生成的类能直接实现Mapper接口；
+     * 每个生成的类单独一个加载器。
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+        
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent != null ? parent : MapperClassGenerator.class.getClassLoader());
+        }
+        
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
+
@@ -0,0 +1,271 @@
+package com.mybatis.binding;
+
+import com.mybatis.cursor.Cursor;
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.ResultHandler;
+import com.mybatis.session.SqlSession;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Mapper方法
+ * 
+ * 每个Mapper接口方法对应一个MapperMethod，第一次调用时解析，之后缓存在MapperProxyFactory中，
+ * 所有SqlSession共用。
+ * 
+ * 解析时确定：
+ * 1. MappedStatement（namespace.方法名），之后调用不再拼接statementId、查找Map
+ * 2. SQL命令类型和返回方式（游标、列表、单个对象、回调、增删改）
+ * 3. ResultHandler参数和SQL参数分别是第几个方法参数
+ * 4. 多个参数或带@Param时，每个#{...}取第几个方法参数（ParamNames）
+ * 5. 返回CompletableFuture/CompletionStage时，按泛型参数确定返回方式，执行交给AsyncWorkerPool
+ * 
+ * 方法签名和SQL不匹配（例如查询语句返回void却没有ResultHandler参数）时，解析阶段直接报错。
+ * 
+ * @author 学习者
+ */
+public class MapperMethod {
+    
+    /**
+     * 返回方式
+     */
+    private enum ReturnShape {
+        
+        /** 返回Cursor → selectCursor */
+        CURSOR,
+        
+        /** 返回Collection → selectList */
+        MANY,
+        
+        /** 返回单个对象 → selectOne */
+        ONE,
+        
+        /** 带ResultHandler参数，返回void → select */
+        HANDLER,
+        
+        /** 增删改 → update，影响行数按返回类型转换 */
+        UPDATE
+    }
+    
+    private final MappedStatement mappedStatement;
+    
+    private final SqlCommandType commandType;
+    
+    private final ReturnShape returnShape;
+    
+    /**
+     * 结果类型（异步方法为Future的泛型参数）
+     */
+    private final Class<?> returnType;
+    
+    /**
+     * 是否异步执行（返回CompletableFuture或CompletionStage）
+     */
+    private final boolean async;
+    
+    /**
+     * ResultHandler参数的下标（-1表示没有）
+     */
+    private final int resultHandlerIndex;
+    
+    /**
+     * SQL参数的下标：第一个不是ResultHandler的参数（-1表示没有）
+     */
+    private final int parameterIndex;
+    
+    /**
+     * 多个参数或带@Param时的参数名（null表示直接把唯一的参数传给SQL）
+     */
+    private final ParamNames paramNames;
+    
+    public MapperMethod(Class<?> mapperInterface, Method method, Configuration configuration) {
+        String statementId = mapperInterface.getName() + "." + method.getName();
+        this.mappedStatement = configuration.getMappedStatement(statementId);
+        if (mappedStatement == null) {
+            throw new MyBatisException("未找到SQL语句: " + statementId);
+        }
+        this.commandType = mappedStatement.getSqlCommandType();
+        this.async = isAsync(method.getReturnType());
+        this.returnType = async ? futureResultType(method.getGenericReturnType()) : method.getReturnType();
+        
+        this.resultHandlerIndex = resultHandlerIndex(method);
+        this.parameterIndex = parameterIndex(method);
+        this.paramNames = ParamNames.isRequired(method)
+            ? new ParamNames(method, statementId, mappedStatement.getBoundSql()) : null;
+        this.returnShape = resolveReturnShape(statementId);
+    }
+    
+    /**
+     * 执行Mapper方法（JDK动态代理调用；生成的实现类在需要ParamMap时调用）
+     * 
+     * @param sqlSession 当前SqlSession
+     * @param args 方法参数
+     * @return 方法返回值
+     */
+    public Object execute(SqlSession sqlSession, Object[] args) {
+        Object parameter;
+        if (paramNames != null) {
+            parameter = new ParamMap(paramNames, args);
+        } else {
+            parameter = parameterIndex == -1 ? null : args[parameterIndex];
+        }
+        ResultHandler<?> resultHandler = resultHandlerIndex == -1 ? null : (ResultHandler<?>) args[resultHandlerIndex];
+        return execute(sqlSession, parameter, resultHandler);
+    }
+    
+    /**
+     * 执行Mapper方法（参数已经取好，生成的Mapper实现类直接调用，不需要Object[]）
+     * 
+     * @param sqlSession 当前SqlSession
+     * @param parameter SQL参数
+     * @param resultHandler 结果处理器（没有时为null）
+     * @return 方法返回值
+     */
+    public Object execute(SqlSession sqlSession, Object parameter, ResultHandler<?> resultHandler) {
+        if (async) {
+            // 调用线程只负责提交，语句在工作线程上用自己的SqlSession执行
+            return sqlSession.getConfiguration().getAsyncWorkerPool()
+                .submit(mappedStatement.getId(), session -> executeNow(session, parameter, resultHandler));
+        }
+        return executeNow(sqlSession, parameter, resultHandler);
+    }
+    
+    private Object executeNow(SqlSession sqlSession, Object parameter, ResultHandler<?> resultHandler) {
+        switch (returnShape) {
+            case CURSOR:
+                return sqlSession.selectCursor(mappedStatement, parameter);
+            case MANY:
+                return sqlSession.selectList(mappedStatement, parameter);
+            case HANDLER:
+                sqlSession.select(mappedStatement, parameter, resultHandler);
+                return null;
+            case UPDATE:
+                return rowCountResult(sqlSession.update(mappedStatement, parameter));
+            default:
+                Object result = sqlSession.selectOne(mappedStatement, parameter);
+                if (result == null && returnType.isPrimitive()) {
+                    throw new MyBatisException("查询结果为null，无法返回基本类型" + returnType.getName()
+                            + ": " + mappedStatement.getId());
+                }
+                return result;
+        }
+    }
+    
+    public MappedStatement getMappedStatement() {
+        return mappedStatement;
+    }
+    
+    public SqlCommandType getCommandType() {
+        return commandType;
+    }
+    
+    private static boolean isAsync(Class<?> returnType) {
+        return returnType == CompletableFuture.class || returnType == CompletionStage.class;
+    }
+    
+    /**
+     * Future的泛型参数：CompletableFuture&lt;List&lt;Product&gt;&gt; → List，没有写泛型时为Object
+     */
+    private static Class<?> futureResultType(Type genericReturnType) {
+        if (genericReturnType instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) genericReturnType).getActualTypeArguments()[0];
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+            if (argument instanceof ParameterizedType) {
+                return (Class<?>) ((ParameterizedType) argument).getRawType();
+            }
+        }
+        return Object.class;
+    }
+    
+    /**
+     * ResultHandler参数的下标（-1表示没有）
+     */
+    static int resultHandlerIndex(Method method) {
+        int index = -1;
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (ResultHandler.class.isAssignableFrom(parameterTypes[i])) {
+                if (index != -1) {
+                    throw new MyBatisException("Mapper方法只能有一个ResultHandler参数: " + method);
+                }
+                index = i;
+            }
+        }
+        return index;
+    }
+    
+    /**
+     * SQL参数的下标：第一个不是ResultHandler的参数（-1表示没有）
+     */
+    static int parameterIndex(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!ResultHandler.class.isAssignableFrom(parameterTypes[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 根据SQL命令类型和方法签名确定返回方式
+     */
+    private ReturnShape resolveReturnShape(String statementId) {
+        if (async && Cursor.class.isAssignableFrom(returnType)) {
+            throw new MyBatisException("游标依赖SqlSession，不能异步返回: " + statementId);
+        }
+        if (commandType != SqlCommandType.SELECT) {
+            if (returnType != void.class && returnType != Void.class
+                    && returnType != int.class && returnType != Integer.class
+                    && returnType != long.class && returnType != Long.class
+                    && returnType != boolean.class && returnType != Boolean.class) {
+                throw new MyBatisException("增删改方法只能返回void、int、long或boolean（异步方法为它们的Future）: " + statementId);
+            }
+            return ReturnShape.UPDATE;
+        }
+        
+        if (resultHandlerIndex != -1) {
+            if (returnType != void.class && returnType != Void.class) {
+                throw new MyBatisException("带ResultHandler参数的查询方法必须返回void: " + statementId);
+            }
+            return ReturnShape.HANDLER;
+        }
+        if (returnType == void.class) {
+            throw new MyBatisException("查询方法返回void时必须带ResultHandler参数: " + statementId);
+        }
+        if (Cursor.class.isAssignableFrom(returnType)) {
+            return ReturnShape.CURSOR;
+        }
+        if (Collection.class.isAssignableFrom(returnType)) {
+            return ReturnShape.MANY;
+        }
+        return ReturnShape.ONE;
+    }
+    
+    /**
+     * 影响行数转换为方法的返回类型
+     */
+    private Object rowCountResult(int rowCount) {
+        if (returnType == void.class || returnType == Void.class) {
+            return null;
+        }
+        if (returnType == long.class || returnType == Long.class) {
+            return (long) rowCount;
+        }
+        if (returnType == boolean.class || returnType == Boolean.class) {
+            return rowCount > 0;
+        }
+        return rowCount;
+    }
+}
+
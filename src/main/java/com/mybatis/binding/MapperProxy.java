@@ -1,12 +1,17 @@
 package com.mybatis.binding;
 
+import com.mybatis.exceptions.MyBatisException;
 import com.mybatis.session.SqlSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Mapper接口代理类
@@ -25,6 +30,12 @@ import java.util.Collection;
  * 5. 通过SqlSession执行SQL
  * 6. 返回执行结果
  * 
+ * 第4步的解析结果（MapperMethod）按方法缓存，同一个方法之后的调用只是一次Map查找加一次执行器调用。
+ * 
+ * 不执行SQL的方法：
+ * - equals/hashCode/toString按代理对象本身的身份处理（和生成的实现类一致）
+ * - 接口的default方法直接执行方法体
+ * 
  * 示例：
  * <pre>
  * // 接口定义
@@ -45,6 +56,22 @@ public class MapperProxy<T> implements InvocationHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(MapperProxy.class);
     
+    /**
+     * Java 8的Lookup需要的全部访问权限
+     */
+    private static final int ALLOWED_MODES = MethodHandles.Lookup.PRIVATE | MethodHandles.Lookup.PROTECTED
+        | MethodHandles.Lookup.PACKAGE | MethodHandles.Lookup.PUBLIC;
+    
+    /**
+     * MethodHandles.privateLookupIn（Java 9+，Java 8为null）
+     */
+    private static final Method PRIVATE_LOOKUP_IN = privateLookupIn();
+    
+    /**
+     * 接口default方法 → 可以对代理对象调用的MethodHandle
+     */
+    private static final Map<Method, MethodHandle> DEFAULT_METHODS = new ConcurrentHashMap<>();
+    
     /**
      * SqlSession对象
      */
@@ -55,9 +82,15 @@ public class MapperProxy<T> implements InvocationHandler {
      */
     private Class<T> mapperInterface;
     
-    public MapperProxy(SqlSession sqlSession, Class<T> mapperInterface) {
+    /**
+     * 解析好的Mapper方法（MapperProxyFactory持有，所有SqlSession共用）
+     */
+    private final Map<Method, MapperMethod> methodCache;
+    
+    public MapperProxy(SqlSession sqlSession, Class<T> mapperInterface, Map<Method, MapperMethod> methodCache) {
         this.sqlSession = sqlSession;
         this.mapperInterface = mapperInterface;
+        this.methodCache = methodCache;
     }
     
     /**
@@ -66,10 +99,8 @@ public class MapperProxy<T> implements InvocationHandler {
      * 这是动态代理的核心方法，所有对Mapper接口的方法调用都会被路由到这里。
      * 
      * 核心流程：
-     * 1. 构建statementId（namespace.methodName）
-     * 2. 获取方法参数
-     * 3. 根据返回值类型选择合适的SqlSession方法
-     * 4. 执行SQL并返回结果
+     * 1. 从methodCache取出这个方法的MapperMethod（第一次调用时解析）
+     * 2. MapperMethod直接用解析好的MappedStatement执行SQL并返回结果
      * 
      * @param proxy 代理对象
      * @param method 被调用的方法
@@ -78,55 +109,76 @@ public class MapperProxy<T> implements InvocationHandler {
      */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        // 如果调用的是Object的方法（toString、equals等），直接执行
+        // 如果调用的是Object的方法（toString、equals等），按代理对象本身处理
         if (Object.class.equals(method.getDeclaringClass())) {
-            return method.invoke(this, args);
+            return invokeObjectMethod(proxy, method, args);
+        }
+        // 接口的default方法：执行方法体（里面调用的抽象方法会再回到这里）
+        if (method.isDefault()) {
+            return defaultMethodHandle(method).bindTo(proxy).invokeWithArguments(args);
         }
         
-        // 构建statementId: 包名.类名.方法名
-        String statementId = mapperInterface.getName() + "." + method.getName();
-        
-        logger.debug("Mapper方法调用: {}", statementId);
-        
-        // 获取方法参数（简化处理，只取第一个参数）
-        Object parameter = null;
-        if (args != null && args.length > 0) {
-            parameter = args[0];
+        MapperMethod mapperMethod = methodCache.get(method);
+        if (mapperMethod == null) {
+            mapperMethod = methodCache.computeIfAbsent(method,
+                    m -> new MapperMethod(mapperInterface, m, sqlSession.getConfiguration()));
         }
         
-        // 根据返回值类型判断执行哪种操作
-        return executeMethod(statementId, parameter, method);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Mapper方法调用: {}", mapperMethod.getMappedStatement().getId());
+        }
+        return mapperMethod.execute(sqlSession, args);
+    }
+    
+    private Object invokeObjectMethod(Object proxy, Method method, Object[] args) throws Exception {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return mapperInterface.getName() + "$Proxy@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                return method.invoke(this, args);
+        }
+    }
+    
+    private static MethodHandle defaultMethodHandle(Method method) {
+        MethodHandle handle = DEFAULT_METHODS.get(method);
+        if (handle == null) {
+            handle = DEFAULT_METHODS.computeIfAbsent(method, MapperProxy::unreflectDefaultMethod);
+        }
+        return handle;
     }
     
     /**
-     * 执行方法
-     * 
-     * 根据方法返回值类型，选择调用selectOne还是selectList
+     * 取接口default方法的MethodHandle（invokespecial语义，不会再分派回代理对象）
      * 
-     * 判断依据：
-     * - 返回Collection → 调用selectList
-     * - 返回单个对象 → 调用selectOne
-     * 
-     * 真实的MyBatis会根据SQL类型（@Select、@Insert等注解或XML配置）来判断
+     * Java 9+用privateLookupIn；Java 8只能通过Lookup的私有构造器取得接口的完整访问权限。
      */
-    private Object executeMethod(String statementId, Object parameter, Method method) {
-        Class<?> returnType = method.getReturnType();
-        
-        // 判断是否为集合类型
-        if (Collection.class.isAssignableFrom(returnType)) {
-            logger.debug("执行selectList");
-            return sqlSession.selectList(statementId, parameter);
-        } 
-        // 判断是否为void或int（可能是增删改操作）
-        else if (returnType == void.class || returnType == int.class || returnType == Integer.class) {
-            logger.debug("执行update");
-            return sqlSession.update(statementId, parameter);
+    private static MethodHandle unreflectDefaultMethod(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        try {
+            MethodHandles.Lookup lookup;
+            if (PRIVATE_LOOKUP_IN != null) {
+                lookup = (MethodHandles.Lookup) PRIVATE_LOOKUP_IN.invoke(null, declaringClass, MethodHandles.lookup());
+            } else {
+                Constructor<MethodHandles.Lookup> constructor =
+                    MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+                constructor.setAccessible(true);
+                lookup = constructor.newInstance(declaringClass, ALLOWED_MODES);
+            }
+            return lookup.unreflectSpecial(method, declaringClass);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new MyBatisException("无法调用Mapper接口的default方法: " + method, e);
         }
-        // 其他情况，执行selectOne
-        else {
-            logger.debug("执行selectOne");
-            return sqlSession.selectOne(statementId, parameter);
+    }
+    
+    private static Method privateLookupIn() {
+        try {
+            return MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+        } catch (NoSuchMethodException e) {
+            return null;
         }
     }
 }
-
@@ -4,7 +4,10 @@ import com.mybatis.session.SqlSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Mapper代理工厂
@@ -20,6 +23,12 @@ import java.lang.reflect.Proxy;
  * 2. 需要为不同的SqlSession创建不同的代理对象
  * 3. 工厂模式让代码更清晰、更易维护
  * 
+ * 每个Mapper接口只有一个工厂，解析好的MapperMethod缓存在工厂里，
+ * 所有SqlSession创建的代理对象共用这份缓存。
+ * 
+ * mapperProxyType=BYTECODE时，工厂创建时就为接口生成实现类（见MapperClassGenerator），
+ * 之后getMapper只是一次构造器调用；不能生成时仍然使用JDK动态代理。
+ * 
  * @author 学习者
  */
 public class MapperProxyFactory<T> {
@@ -31,8 +40,48 @@ public class MapperProxyFactory<T> {
      */
     private Class<T> mapperInterface;
     
+    /**
+     * 方法 → MapperMethod（所有SqlSession共用）
+     */
+    private final Map<Method, MapperMethod> methodCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 生成的实现类实现的方法，下标和mapperMethods一致（JDK动态代理时为null）
+     */
+    private final Method[] generatedMethods;
+    
+    /**
+     * 生成的实现类按下标取MapperMethod，第一次调用时解析
+     * 
+     * MapperMethod的字段都是final的，不加锁写入数组也能安全地被其他线程看到，最多重复解析一次。
+     */
+    private final MapperMethod[] mapperMethods;
+    
+    /**
+     * 生成的实现类的原型实例（null表示使用JDK动态代理）
+     */
+    private final GeneratedMapper generatedMapper;
+    
     public MapperProxyFactory(Class<T> mapperInterface) {
+        this(mapperInterface, false);
+    }
+    
+    /**
+     * @param mapperInterface Mapper接口
+     * @param generateClass 是否生成实现类代替JDK动态代理
+     */
+    public MapperProxyFactory(Class<T> mapperInterface, boolean generateClass) {
         this.mapperInterface = mapperInterface;
+        
+        GeneratedMapper prototype = null;
+        Method[] methods = null;
+        if (generateClass) {
+            methods = MapperClassGenerator.abstractMethods(mapperInterface);
+            prototype = MapperClassGenerator.generate(this, methods);
+        }
+        this.generatedMapper = prototype;
+        this.generatedMethods = prototype == null ? null : methods;
+        this.mapperMethods = prototype == null ? null : new MapperMethod[methods.length];
     }
     
     /**
@@ -52,8 +101,13 @@ public class MapperProxyFactory<T> {
     public T newInstance(SqlSession sqlSession) {
         logger.debug("创建Mapper代理对象: {}", mapperInterface.getName());
         
+        // 生成的实现类：直接new
+        if (generatedMapper != null) {
+            return (T) generatedMapper.newInstance(sqlSession);
+        }
+        
         // 创建MapperProxy实例
-        MapperProxy<T> mapperProxy = new MapperProxy<>(sqlSession, mapperInterface);
+        MapperProxy<T> mapperProxy = new MapperProxy<>(sqlSession, mapperInterface, methodCache);
         
         // 使用JDK动态代理创建代理对象
         return (T) Proxy.newProxyInstance(
@@ -63,6 +117,31 @@ public class MapperProxyFactory<T> {
         );
     }
     
+    /**
+     * 生成的实现类调用：按下标取MapperMethod（第一次调用时解析，和JDK动态代理共用methodCache）
+     * 
+     * @param index 方法下标
+     * @param sqlSession 当前SqlSession
+     * @return MapperMethod
+     */
+    public MapperMethod getMapperMethod(int index, SqlSession sqlSession) {
+        MapperMethod mapperMethod = mapperMethods[index];
+        if (mapperMethod == null) {
+            Method method = generatedMethods[index];
+            mapperMethod = methodCache.computeIfAbsent(method,
+                    m -> new MapperMethod(mapperInterface, m, sqlSession.getConfiguration()));
+            mapperMethods[index] = mapperMethod;
+        }
+        return mapperMethod;
+    }
+    
+    /**
+     * 是否使用生成的实现类
+     */
+    public boolean isGenerated() {
+        return generatedMapper != null;
+    }
+    
     public Class<T> getMapperInterface() {
         return mapperInterface;
     }
@@ -89,11 +89,12 @@ public class MapperRegistry {
             return;
         }
         
-        // 创建代理工厂并注册
-        MapperProxyFactory<T> factory = new MapperProxyFactory<>(type);
+        // 创建代理工厂并注册（BYTECODE模式在这里生成实现类，只生成一次）
+        boolean generateClass = Configuration.MAPPER_PROXY_BYTECODE.equalsIgnoreCase(configuration.getMapperProxyType());
+        MapperProxyFactory<T> factory = new MapperProxyFactory<>(type, generateClass);
         knownMappers.put(type, factory);
         
-        logger.info("注册Mapper: {}", type.getName());
+        logger.info("注册Mapper: {}{}", type.getName(), factory.isGenerated() ? " (生成实现类)" : "");
     }
     
     /**
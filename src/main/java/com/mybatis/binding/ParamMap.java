@@ -0,0 +1,89 @@
+package com.mybatis.binding;
+
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.ParameterMapping;
+import com.mybatis.reflection.MetaObject;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 多参数Mapper方法的参数对象 ⭐⭐⭐
+ * 
+ * 例如selectByPriceRange(@Param("min") BigDecimal min, @Param("max") BigDecimal max)，
+ * 每次调用只创建一个ParamMap，直接包装方法参数数组，不复制、不建HashMap。
+ * 
+ * 绑定参数时（StatementHandler、CacheKey）按ParamNames预先算好的下标取值：
+ * #{min} → args[0]，#{max} → args[1]，#{user.id} → args[i]再取id属性，不需要按字符串查找。
+ * 
+ * 它同时也是一个只读的Map（参数名 → 参数值），通过statementId调用或其他参数映射时按名字查找；
+ * 访问不存在的参数名会报错，而不是返回null。
+ * 
+ * @author 学习者
+ */
+public final class ParamMap extends AbstractMap<String, Object> {
+    
+    private final ParamNames names;
+    
+    /**
+     * 方法参数数组（可能包含ResultHandler，按ParamNames中的下标访问）
+     */
+    private final Object[] args;
+    
+    ParamMap(ParamNames names, Object[] args) {
+        this.names = names;
+        this.args = args;
+    }
+    
+    /**
+     * 是否可以按下标绑定这组参数映射（解析MapperMethod时用的是同一条语句的参数映射）
+     * 
+     * @param parameterMappings 语句的参数映射
+     * @return 可以时返回true，否则只能按名字取值
+     */
+    public boolean isBoundTo(List<ParameterMapping> parameterMappings) {
+        return names.isBoundTo(parameterMappings);
+    }
+    
+    /**
+     * 按下标取第mappingIndex个#{...}的值
+     * 
+     * @param mappingIndex 参数映射的下标
+     * @return 参数值
+     */
+    public Object getBoundValue(int mappingIndex) {
+        Object value = args[names.boundArgIndex(mappingIndex)];
+        String path = names.boundPath(mappingIndex);
+        return path == null ? value : MetaObject.getValue(value, path);
+    }
+    
+    @Override
+    public Object get(Object key) {
+        int argIndex = key instanceof String ? names.argIndex((String) key) : -1;
+        if (argIndex < 0) {
+            throw new MyBatisException("参数'" + key + "'不存在，可用参数: " + names.describe());
+        }
+        return args[argIndex];
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && names.argIndex((String) key) >= 0;
+    }
+    
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Map<String, Object> entries = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            entries.put(names.name(i), args[names.argIndexAt(i)]);
+        }
+        for (int i = 0; i < names.size(); i++) {
+            entries.put("param" + (i + 1), args[names.argIndexAt(i)]);
+        }
+        return entries.entrySet();
+    }
+}
+
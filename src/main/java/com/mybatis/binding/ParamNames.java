@@ -0,0 +1,172 @@
+package com.mybatis.binding;
+
+import com.mybatis.annotations.Param;
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.BoundSql;
+import com.mybatis.mapping.ParameterMapping;
+import com.mybatis.session.ResultHandler;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一个Mapper方法的参数名和绑定位置
+ * 
+ * 解析MapperMethod时创建一次，之后所有调用共用（不可变）：
+ * 1. 每个参数的名字：@Param的值，没有@Param时是arg0、arg1...（参数下标），另外都可以用param1、param2...
+ * 2. 语句中每个#{...}取第几个方法参数，嵌套属性（#{user.id}）再记录剩下的路径
+ * 
+ * 执行时ParamMap按第2步的下标直接从参数数组取值，不需要按名字查找。
+ * 
+ * @author 学习者
+ */
+final class ParamNames {
+    
+    /**
+     * 第i个命名参数是第argIndexes[i]个方法参数（跳过ResultHandler）
+     */
+    private final int[] argIndexes;
+    
+    private final String[] names;
+    
+    /**
+     * 解析下标时使用的参数映射（ParamMap只在同一份参数映射上使用下标）
+     */
+    private final List<ParameterMapping> boundMappings;
+    
+    /**
+     * 第i个#{...}取第boundArgIndexes[i]个方法参数
+     */
+    private final int[] boundArgIndexes;
+    
+    /**
+     * 第i个#{...}在方法参数上继续取的属性路径（没有嵌套属性时为null）
+     */
+    private final String[] boundPaths;
+    
+    ParamNames(Method method, String statementId, BoundSql boundSql) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Annotation[][] annotations = method.getParameterAnnotations();
+        List<Integer> indexes = new ArrayList<>();
+        List<String> paramNames = new ArrayList<>();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (ResultHandler.class.isAssignableFrom(parameterTypes[i])) {
+                continue;
+            }
+            String name = paramName(annotations[i]);
+            if (name == null) {
+                name = "arg" + i;
+            } else if (paramNames.contains(name)) {
+                throw new MyBatisException("@Param(\"" + name + "\")重复: " + statementId);
+            }
+            indexes.add(i);
+            paramNames.add(name);
+        }
+        this.argIndexes = indexes.stream().mapToInt(Integer::intValue).toArray();
+        this.names = paramNames.toArray(new String[0]);
+        
+        this.boundMappings = boundSql.getParameterMappings();
+        this.boundArgIndexes = new int[boundMappings.size()];
+        this.boundPaths = new String[boundMappings.size()];
+        for (int i = 0; i < boundMappings.size(); i++) {
+            String property = boundMappings.get(i).getProperty();
+            int dot = property.indexOf('.');
+            String root = dot < 0 ? property : property.substring(0, dot);
+            int argIndex = argIndex(root);
+            if (argIndex < 0) {
+                throw new MyBatisException("#{" + property + "}没有对应的方法参数: " + statementId
+                    + "，可用参数: " + describe());
+            }
+            boundArgIndexes[i] = argIndex;
+            boundPaths[i] = dot < 0 ? null : property.substring(dot + 1);
+        }
+    }
+    
+    /**
+     * 方法参数中有@Param或者不止一个参数时，需要用ParamMap传参
+     */
+    static boolean isRequired(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Annotation[][] annotations = method.getParameterAnnotations();
+        int count = 0;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (ResultHandler.class.isAssignableFrom(parameterTypes[i])) {
+                continue;
+            }
+            if (paramName(annotations[i]) != null || ++count > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String paramName(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Param) {
+                return ((Param) annotation).value();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 按名字找方法参数的下标（找不到返回-1）
+     */
+    int argIndex(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return argIndexes[i];
+            }
+        }
+        if (name.startsWith("param")) {
+            try {
+                int position = Integer.parseInt(name.substring("param".length()));
+                if (position >= 1 && position <= argIndexes.length) {
+                    return argIndexes[position - 1];
+                }
+            } catch (NumberFormatException e) {
+                // 不是paramN
+            }
+        }
+        return -1;
+    }
+    
+    int size() {
+        return names.length;
+    }
+    
+    String name(int i) {
+        return names[i];
+    }
+    
+    int argIndexAt(int i) {
+        return argIndexes[i];
+    }
+    
+    boolean isBoundTo(List<ParameterMapping> parameterMappings) {
+        return boundMappings == parameterMappings;
+    }
+    
+    int boundArgIndex(int mappingIndex) {
+        return boundArgIndexes[mappingIndex];
+    }
+    
+    String boundPath(int mappingIndex) {
+        return boundPaths[mappingIndex];
+    }
+    
+    /**
+     * 可用的参数名（用于错误信息）
+     */
+    String describe() {
+        List<String> all = new ArrayList<>(Arrays.asList(names));
+        for (int i = 1; i <= names.length; i++) {
+            all.add("param" + i);
+        }
+        return all.toString();
+    }
+}
+
@@ -0,0 +1,153 @@
+package com.mybatis.builder;
+
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.BoundSql;
+import com.mybatis.mapping.ParameterMapping;
+import com.mybatis.reflection.Reflector;
+
+import java.sql.JDBCType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL预编译器
+ * 
+ * 在解析Mapper文件时调用一次，把原始SQL解析成BoundSql：
+ * 1. 把#{...}替换为?
+ * 2. 按出现顺序生成ParameterMapping
+ * 
+ * 支持的写法：
+ * - #{id}
+ * - #{price,jdbcType=DECIMAL}
+ * - #{createTime,javaType=java.time.LocalDateTime,jdbcType=TIMESTAMP}
+ * 
+ * @author 学习者
+ */
+public class SqlSourceBuilder {
+    
+    /**
+     * #{} 占位符的正则表达式
+     * 匹配 #{id}、#{name}、#{user.id} 等格式
+     */
+    private static final Pattern PARAM_PATTERN = Pattern.compile("#\\{([^}]+)\\}");
+    
+    /**
+     * 解析SQL
+     * 
+     * @param originalSql 原始SQL（包含#{param}占位符）
+     * @param parameterType 参数类型（可以为null）
+     * @return 预编译后的BoundSql
+     */
+    public static BoundSql parse(String originalSql, Class<?> parameterType) {
+        List<ParameterMapping> parameterMappings = new ArrayList<>();
+        StringBuffer sql = new StringBuffer(originalSql.length());
+        
+        Matcher matcher = PARAM_PATTERN.matcher(originalSql);
+        while (matcher.find()) {
+            parameterMappings.add(buildParameterMapping(matcher.group(1), parameterType));
+            matcher.appendReplacement(sql, "?");
+        }
+        matcher.appendTail(sql);
+        
+        return new BoundSql(sql.toString(), parameterMappings);
+    }
+    
+    /**
+     * 解析#{}中的内容：属性名,javaType=...,jdbcType=...
+     */
+    private static ParameterMapping buildParameterMapping(String content, Class<?> parameterType) {
+        String[] parts = content.split(",");
+        String property = parts[0].trim();
+        if (property.isEmpty()) {
+            throw new MyBatisException("参数占位符缺少属性名: #{" + content + "}");
+        }
+        
+        Class<?> javaType = null;
+        JDBCType jdbcType = null;
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i];
+            int eq = part.indexOf('=');
+            if (eq < 0) {
+                throw new MyBatisException("无法解析参数占位符: #{" + content + "}");
+            }
+            String name = part.substring(0, eq).trim();
+            String value = part.substring(eq + 1).trim();
+            switch (name) {
+                case "javaType":
+                    javaType = resolveClass(value);
+                    break;
+                case "jdbcType":
+                    jdbcType = resolveJdbcType(value);
+                    break;
+                default:
+                    throw new MyBatisException("不支持的参数属性: " + name + "，位于#{" + content + "}");
+            }
+        }
+        
+        if (javaType == null) {
+            javaType = resolveJavaType(parameterType, property);
+        }
+        return new ParameterMapping(property, javaType, jdbcType);
+    }
+    
+    /**
+     * 推断参数的Java类型
+     * 
+     * 简单类型参数（parameterType="java.lang.Long"）：#{}就是参数本身
+     * JavaBean参数：取属性getter的返回类型（支持user.id这样的嵌套属性）
+     * 其他情况（Map、未声明parameterType）无法确定，使用Object
+     */
+    private static Class<?> resolveJavaType(Class<?> parameterType, String property) {
+        if (parameterType == null) {
+            return Object.class;
+        }
+        if (isSimpleType(parameterType)) {
+            return parameterType;
+        }
+        Class<?> type = parameterType;
+        for (String name : property.split("\\.")) {
+            if (Map.class.isAssignableFrom(type)) {
+                return Object.class;
+            }
+            Class<?> propertyType = Reflector.forClass(type).getGetterType(name);
+            if (propertyType == null) {
+                throw new MyBatisException("参数类型" + parameterType.getName() + "中没有可读的属性: " + property);
+            }
+            type = propertyType;
+        }
+        return type;
+    }
+    
+    private static Class<?> resolveClass(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new MyBatisException("javaType不存在: " + className, e);
+        }
+    }
+    
+    private static JDBCType resolveJdbcType(String name) {
+        try {
+            return JDBCType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new MyBatisException("未知的jdbcType: " + name, e);
+        }
+    }
+    
+    /**
+     * 判断是否为简单类型（基本类型、包装类、String、Date等）
+     */
+    public static boolean isSimpleType(Class<?> clazz) {
+        return clazz.isPrimitive() ||
+               clazz == String.class ||
+               clazz == Boolean.class ||
+               clazz == Character.class ||
+               Number.class.isAssignableFrom(clazz) ||
+               java.util.Date.class.isAssignableFrom(clazz) ||
+               java.time.temporal.Temporal.class.isAssignableFrom(clazz);
+    }
+}
+
@@ -0,0 +1,304 @@
+package com.mybatis.builder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SQL表名提取器
+ * 
+ * 在解析Mapper文件时调用一次，找出每条SQL读了哪些表、写了哪些表，
+ * 缓存失效时只清理读过被写表的结果，而不是清空整个缓存。
+ * 
+ * 只做轻量的词法分析，不是完整的SQL解析器：
+ * - 读表：FROM、JOIN后面的表（包括FROM a, b的逗号列表和子查询里的表）
+ * - 写表：INSERT INTO、REPLACE INTO、UPDATE、DELETE FROM后面的表（只支持单表）
+ * - 表名统一转小写，去掉反引号和库名前缀
+ * 
+ * 无法确定时返回null，调用方应退回到清空整个缓存（结果也不按表打标记）：
+ * - 包含${}的动态SQL
+ * - 双引号括起来的标识符（UPDATE "order" ...），大小写和引号规则因数据库而异
+ * - 多表UPDATE、DELETE（带JOIN、逗号分隔的表列表或USING），只认第一张表会漏掉其他表
+ * - 一张表都没有读的查询（SELECT now()），没有表可以让它失效
+ * 
+ * 视图从SQL上看不出来：读视图的查询只会被写视图本身的语句失效，写底层表时不会失效。
+ * 读视图的语句应配置useCache="false"或cacheTtl。
+ * 
+ * 示例：
+ * <pre>
+ * readTables("SELECT * FROM product p JOIN user u ON p.uid = u.id")  // [product, user]
+ * writeTables("UPDATE product SET stock = ? WHERE id = ?")           // [product]
+ * </pre>
+ * 
+ * @author 学习者
+ */
+public class TableExtractor {
+    
+    /**
+     * 表名后面出现这些词时，说明没有别名
+     */
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+        "where", "group", "order", "having", "limit", "offset", "join", "inner", "left", "right",
+        "full", "cross", "outer", "natural", "straight_join", "on", "using", "union", "set",
+        "values", "value", "select", "for", "lock", "window", "into", "from", "partition"));
+    
+    /**
+     * UPDATE、DELETE后面可以出现的修饰词
+     */
+    private static final Set<String> MODIFIERS = new HashSet<>(Arrays.asList("low_priority", "quick", "ignore"));
+    
+    /**
+     * UPDATE的表列表到这些词结束
+     */
+    private static final Set<String> UPDATE_END = Collections.singleton("set");
+    
+    /**
+     * DELETE的表列表到这些词结束
+     */
+    private static final Set<String> DELETE_END = new HashSet<>(Arrays.asList("where", "order", "limit"));
+    
+    /**
+     * 双引号标识符（或字符串），出现在表名的位置时无法确定
+     */
+    private static final String QUOTED = "\"";
+    
+    private TableExtractor() {
+    }
+    
+    /**
+     * 提取SQL读取的表
+     * 
+     * @param sql 原始SQL
+     * @return 表名集合，没有读表或无法确定时返回null
+     */
+    public static Set<String> readTables(String sql) {
+        List<String> tokens = tokenize(sql);
+        if (tokens == null) {
+            return null;
+        }
+        
+        Set<String> tables = new LinkedHashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            boolean known = true;
+            if ("from".equals(token)) {
+                known = readTableList(tokens, i + 1, tables, true);
+            } else if ("join".equals(token) || "straight_join".equals(token)) {
+                known = readTableList(tokens, i + 1, tables, false);
+            }
+            if (!known) {
+                return null;
+            }
+        }
+        return tables.isEmpty() ? null : Collections.unmodifiableSet(tables);
+    }
+    
+    /**
+     * 提取SQL写入的表
+     * 
+     * @param sql 原始SQL
+     * @return 表名集合，无法确定时返回null
+     */
+    public static Set<String> writeTables(String sql) {
+        List<String> tokens = tokenize(sql);
+        if (tokens == null || tokens.isEmpty()) {
+            return null;
+        }
+        
+        String table = null;
+        switch (tokens.get(0)) {
+            case "insert":
+            case "replace":
+                table = tableAfter(tokens, "into");
+                break;
+            case "update":
+                int i = skipModifiers(tokens, 1);
+                if (i < tokens.size() && !isMultiTable(tokens, i + 1, UPDATE_END)) {
+                    table = tableName(tokens.get(i));
+                }
+                break;
+            case "delete":
+                // DELETE t1, t2 FROM ...：FROM前面还有表名时是多表删除
+                int from = skipModifiers(tokens, 1);
+                if (from + 1 < tokens.size() && "from".equals(tokens.get(from))
+                        && !isMultiTable(tokens, from + 2, DELETE_END)) {
+                    table = tableName(tokens.get(from + 1));
+                }
+                break;
+            default:
+                break;
+        }
+        return table == null ? null : Collections.singleton(table);
+    }
+    
+    /**
+     * 跳过UPDATE、DELETE后面的LOW_PRIORITY、QUICK、IGNORE
+     */
+    private static int skipModifiers(List<String> tokens, int i) {
+        while (i < tokens.size() && MODIFIERS.contains(tokens.get(i))) {
+            i++;
+        }
+        return i;
+    }
+    
+    /**
+     * 从i到表列表结束（不在括号里的ends关键字）之间是否出现了JOIN、逗号或USING
+     */
+    private static boolean isMultiTable(List<String> tokens, int i, Set<String> ends) {
+        int depth = 0;
+        for (; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if ("(".equals(token)) {
+                depth++;
+            } else if (")".equals(token)) {
+                depth--;
+            } else if (depth == 0) {
+                if (ends.contains(token)) {
+                    return false;
+                }
+                if (",".equals(token) || "join".equals(token) || "straight_join".equals(token) || "using".equals(token)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 读取FROM、JOIN后面的表，逗号分隔的列表只在FROM后面出现
+     * 
+     * @return 表名位置是双引号标识符时返回false
+     */
+    private static boolean readTableList(List<String> tokens, int i, Set<String> tables, boolean allowList) {
+        while (i < tokens.size()) {
+            if (QUOTED.equals(tokens.get(i))) {
+                return false;
+            }
+            String name = tableName(tokens.get(i));
+            // 子查询：里面的FROM由外层循环处理
+            if (name == null) {
+                return true;
+            }
+            tables.add(name);
+            i++;
+            
+            // 跳过别名：[AS] alias
+            if (i < tokens.size() && "as".equals(tokens.get(i))) {
+                i += 2;
+            } else if (i < tokens.size() && tableName(tokens.get(i)) != null && !KEYWORDS.contains(tokens.get(i))) {
+                i++;
+            }
+            
+            if (!allowList || i >= tokens.size() || !",".equals(tokens.get(i))) {
+                return true;
+            }
+            i++;
+        }
+        return true;
+    }
+    
+    private static String tableAfter(List<String> tokens, String keyword) {
+        int index = tokens.indexOf(keyword);
+        if (index < 0 || index + 1 >= tokens.size()) {
+            return null;
+        }
+        return tableName(tokens.get(index + 1));
+    }
+    
+    /**
+     * 标识符转换为表名（去掉库名前缀），不是标识符时返回null
+     */
+    private static String tableName(String token) {
+        if (token.isEmpty() || !(Character.isLetter(token.charAt(0)) || token.charAt(0) == '_')) {
+            return null;
+        }
+        int dot = token.lastIndexOf('.');
+        return dot >= 0 ? token.substring(dot + 1) : token;
+    }
+    
+    /**
+     * 词法分析：标识符（小写、去掉反引号）、括号、逗号，跳过字符串、注释和其他符号
+     * 
+     * 双引号括起来的内容可能是标识符，记为一个QUOTED，由调用方判断是不是出现在表名的位置
+     * 
+     * @return 单词列表，包含${}时返回null
+     */
+    private static List<String> tokenize(String sql) {
+        if (sql == null || sql.contains("${")) {
+            return null;
+        }
+        
+        List<String> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // 字符串
+                i = skipQuoted(sql, i, c);
+            } else if (c == '"') {
+                // 双引号标识符（MySQL中也可能是字符串）
+                tokens.add(QUOTED);
+                i = skipQuoted(sql, i, c);
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                // 单行注释
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                // 多行注释
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '#' && i + 1 < length && sql.charAt(i + 1) == '{') {
+                // #{}参数
+                int end = sql.indexOf('}', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '(' || c == ')' || c == ',') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '`') {
+                StringBuilder word = new StringBuilder();
+                while (i < length) {
+                    char ch = sql.charAt(i);
+                    if (ch == '`') {
+                        i++;
+                    } else if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '$' || ch == '.') {
+                        word.append(Character.toLowerCase(ch));
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                tokens.add(word.toString());
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+    
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                // 两个连续的引号表示转义
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+}
+
@@ -1,5 +1,6 @@
 package com.mybatis.builder.xml;
 
+import com.mybatis.datasource.DataSourceFactory;
 import com.mybatis.exceptions.MyBatisException;
 import com.mybatis.io.Resources;
 import com.mybatis.mapping.MappedStatement;
@@ -14,6 +15,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.Properties;
 
 /**
  * XML配置文件解析器
@@ -56,6 +58,9 @@ public class XMLConfigBuilder {
             
             logger.info("开始解析MyBatis配置文件...");
             
+            // 解析<settings>标签
+            parseSettings(root.element("settings"));
+            
             // 解析<environments>标签
             parseEnvironments(root.element("environments"));
             
@@ -69,6 +74,86 @@ public class XMLConfigBuilder {
         }
     }
     
+    /**
+     * 解析<settings>标签
+     * 
+     * 示例：
+     * <settings>
+     *   <setting name="defaultExecutorType" value="REUSE"/>
+     *   <setting name="statementCacheSize" value="256"/>
+     *   <setting name="defaultStatementTimeout" value="30"/>
+     * </settings>
+     */
+    private void parseSettings(Element settings) {
+        if (settings == null) {
+            return;
+        }
+        
+        List<Element> settingList = settings.elements("setting");
+        for (Element setting : settingList) {
+            String name = setting.attributeValue("name");
+            String value = setting.attributeValue("value");
+            
+            switch (name) {
+                case "cacheEnabled":
+                    configuration.setCacheEnabled(Boolean.parseBoolean(value));
+                    break;
+                case "cacheStatisticsEnabled":
+                    configuration.setCacheStatisticsEnabled(Boolean.parseBoolean(value));
+                    break;
+                case "cacheJmxEnabled":
+                    configuration.setCacheJmxEnabled(Boolean.parseBoolean(value));
+                    break;
+                case "cacheRefreshThreads":
+                    configuration.setCacheRefreshThreads(Integer.parseInt(value));
+                    break;
+                case "asyncWorkerThreads":
+                    configuration.setAsyncWorkerThreads(Integer.parseInt(value));
+                    break;
+                case "asyncWorkerQueueSize":
+                    configuration.setAsyncWorkerQueueSize(Integer.parseInt(value));
+                    break;
+                case "asyncWorkerType":
+                    configuration.setAsyncWorkerType(value);
+                    break;
+                case "lazyLoadingEnabled":
+                    configuration.setLazyLoadingEnabled(Boolean.parseBoolean(value));
+                    break;
+                case "defaultExecutorType":
+                    configuration.setDefaultExecutorType(value);
+                    break;
+                case "statementCacheSize":
+                    configuration.setStatementCacheSize(Integer.parseInt(value));
+                    break;
+                case "batchSize":
+                    configuration.setBatchSize(Integer.parseInt(value));
+                    break;
+                case "rowMapperType":
+                    configuration.setRowMapperType(value);
+                    break;
+                case "mapperProxyType":
+                    configuration.setMapperProxyType(value);
+                    break;
+                case "defaultFetchSize":
+                    configuration.setDefaultFetchSize(Integer.valueOf(value));
+                    break;
+                case "defaultStatementTimeout":
+                    configuration.setDefaultStatementTimeout(Integer.valueOf(value));
+                    break;
+                case "defaultResultSetType":
+                    configuration.setDefaultResultSetType(XMLMapperBuilder.parseResultSetType(value));
+                    break;
+                case "defaultMaxRows":
+                    configuration.setDefaultMaxRows(Integer.valueOf(value));
+                    break;
+                default:
+                    logger.warn("未知的setting: {}", name);
+                    continue;
+            }
+            logger.debug("setting: {} = {}", name, value);
+        }
+    }
+    
     /**
      * 解析<environments>标签
      * 
@@ -114,12 +199,21 @@ public class XMLConfigBuilder {
     
     /**
      * 解析<dataSource>标签
+     * 
+     * type属性决定数据源实现：POOLED（连接池）、UNPOOLED（每次新建连接）或DataSource实现类的全限定名。
+     * 除了driver/url/username/password，连接池参数也通过<property>配置，例如：
+     * <property name="poolMaximumActiveConnections" value="20"/>
+     * <property name="poolPingEnabled" value="true"/>
      */
     private void parseDataSource(Element dataSource) {
+        String type = dataSource.attributeValue("type");
+        Properties props = new Properties();
+        
         List<Element> properties = dataSource.elements("property");
         for (Element property : properties) {
             String name = property.attributeValue("name");
             String value = property.attributeValue("value");
+            props.setProperty(name, value);
             
             switch (name) {
                 case "driver":
@@ -138,8 +232,13 @@ public class XMLConfigBuilder {
                     configuration.setJdbcPassword(value);
                     logger.debug("数据库密码: ******");
                     break;
+                default:
+                    logger.debug("数据源属性: {} = {}", name, value);
             }
         }
+        
+        configuration.setDataSource(DataSourceFactory.create(type, props));
+        logger.debug("数据源类型: {}", type);
     }
     
     /**
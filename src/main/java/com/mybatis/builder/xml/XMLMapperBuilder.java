@@ -1,7 +1,18 @@
 package com.mybatis.builder.xml;
 
+import com.mybatis.builder.SqlSourceBuilder;
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheBuilder;
+import com.mybatis.cache.CacheCodec;
+import com.mybatis.cache.decorators.FifoCache;
+import com.mybatis.cache.decorators.LruCache;
+import com.mybatis.cache.decorators.SoftCache;
+import com.mybatis.cache.decorators.WeakCache;
+import com.mybatis.cache.impl.OffHeapCache;
 import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.BoundSql;
 import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.ResultSetType;
 import com.mybatis.mapping.SqlCommandType;
 import com.mybatis.session.Configuration;
 import org.dom4j.Document;
@@ -13,6 +24,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.Properties;
 
 /**
  * Mapper XML文件解析器
@@ -24,6 +36,7 @@ import java.util.List;
  * 2. <insert> - 插入语句
  * 3. <update> - 更新语句
  * 4. <delete> - 删除语句
+ * 5. <cache> - 二级缓存
  * 
  * 每个SQL标签都会被解析成一个MappedStatement对象，存储在Configuration中。
  * 
@@ -36,6 +49,11 @@ public class XMLMapperBuilder {
     private InputStream inputStream;
     private Configuration configuration;
     
+    /**
+     * 二级缓存把结果编码后存储时的编解码器（例如OffHeapCache），用来检查resultType
+     */
+    private CacheCodec cacheCodec;
+    
     public XMLMapperBuilder(InputStream inputStream, Configuration configuration) {
         this.inputStream = inputStream;
         this.configuration = configuration;
@@ -57,6 +75,9 @@ public class XMLMapperBuilder {
             // 注册Mapper接口
             registerMapper(namespace);
             
+            // 解析<cache>标签（必须在SQL语句之前，语句要引用这个缓存）
+            parseCache(root.element("cache"), namespace);
+            
             // 解析<select>标签
             parseStatements(root.elements("select"), namespace, SqlCommandType.SELECT);
             
@@ -92,6 +113,91 @@ public class XMLMapperBuilder {
         }
     }
     
+    /**
+     * 解析<cache>标签
+     * 
+     * 示例：
+     * <cache/>
+     * <cache eviction="LRU" size="10000" flushInterval="60000" maxRows="100000"/>
+     * <cache blocking="true" blockingTimeout="3000"/>
+     * <cache type="com.mybatis.cache.impl.OffHeapCache">
+     *     <property name="maxBytes" value="268435456"/>
+     * </cache>
+     * 
+     * 属性：
+     * - type：基础缓存实现类（默认PerpetualCache）
+     * - eviction：淘汰策略 LRU（默认）、FIFO、SOFT、WEAK，或装饰器的全限定类名
+     * - size：淘汰策略保留的key个数
+     * - flushInterval：定时清空的间隔（毫秒）
+     * - maxRows：最多缓存的总行数
+     * - blocking：同一个key未命中时只让一个线程查数据库，其他线程等待结果
+     * - blockingTimeout：等待的超时时间（毫秒）
+     * - <property>子标签：通过setter设置给基础缓存
+     */
+    private void parseCache(Element element, String namespace) {
+        if (element == null) {
+            return;
+        }
+        
+        CacheBuilder cacheBuilder = new CacheBuilder(namespace)
+            .eviction(resolveEviction(element.attributeValue("eviction")))
+            .size(parseInteger(element, "size"))
+            .clearInterval(parseLong(element, "flushInterval"))
+            .maxRows(parseLong(element, "maxRows"))
+            .blocking(parseBoolean(element.attributeValue("blocking"), false))
+            .blockingTimeout(parseLong(element, "blockingTimeout"))
+            .statistics(configuration.isCacheStatisticsEnabled());
+        String type = element.attributeValue("type");
+        if (type != null && !type.isEmpty()) {
+            cacheBuilder.implementation(resolveCacheClass(type));
+        }
+        List<Element> propertyElements = element.elements("property");
+        if (!propertyElements.isEmpty()) {
+            Properties properties = new Properties();
+            for (Element property : propertyElements) {
+                properties.setProperty(property.attributeValue("name"), property.attributeValue("value"));
+            }
+            cacheBuilder.properties(properties);
+        }
+        
+        configuration.addCache(cacheBuilder.build());
+        if (cacheBuilder.getBaseCache() instanceof OffHeapCache) {
+            cacheCodec = ((OffHeapCache) cacheBuilder.getBaseCache()).getCodec();
+        }
+        logger.debug("开启二级缓存: {}", namespace);
+    }
+    
+    private Class<? extends Cache> resolveEviction(String eviction) {
+        if (eviction == null || eviction.trim().isEmpty()) {
+            return null;
+        }
+        switch (eviction.trim().toUpperCase()) {
+            case "LRU":
+                return LruCache.class;
+            case "FIFO":
+                return FifoCache.class;
+            case "SOFT":
+                return SoftCache.class;
+            case "WEAK":
+                return WeakCache.class;
+            default:
+                return resolveCacheClass(eviction.trim());
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Class<? extends Cache> resolveCacheClass(String type) {
+        try {
+            Class<?> cacheClass = Class.forName(type);
+            if (!Cache.class.isAssignableFrom(cacheClass)) {
+                throw new MyBatisException("不是Cache的实现类: " + type);
+            }
+            return (Class<? extends Cache>) cacheClass;
+        } catch (ClassNotFoundException e) {
+            throw new MyBatisException("缓存类型不存在: " + type, e);
+        }
+    }
+    
     /**
      * 解析SQL语句标签
      * 
@@ -118,10 +224,17 @@ public class XMLMapperBuilder {
             
             builder.sql(sql);
             
+            // 二级缓存：SELECT默认使用缓存，增删改默认清空缓存
+            boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
+            builder.cache(configuration.getCache(namespace))
+                   .useCache(parseBoolean(element.attributeValue("useCache"), isSelect))
+                   .flushCache(parseBoolean(element.attributeValue("flushCache"), !isSelect));
+            
             // 设置参数类型
+            Class<?> parameterClass = null;
             if (parameterType != null && !parameterType.isEmpty()) {
                 try {
-                    Class<?> parameterClass = Class.forName(parameterType);
+                    parameterClass = Class.forName(parameterType);
                     builder.parameterType(parameterClass);
                 } catch (ClassNotFoundException e) {
                     logger.warn("参数类型不存在: {}", parameterType);
@@ -132,16 +245,122 @@ public class XMLMapperBuilder {
             if (resultType != null && !resultType.isEmpty()) {
                 try {
                     Class<?> resultClass = Class.forName(resultType);
+                    checkCacheable(statementId, element, isSelect, resultClass);
                     builder.resultType(resultClass);
                 } catch (ClassNotFoundException e) {
                     logger.warn("返回类型不存在: {}", resultType);
                 }
             }
             
+            // 执行参数：未配置时使用全局默认值 ⭐
+            builder.fetchSize(parseInteger(element, "fetchSize"))
+                   .timeout(parseInteger(element, "timeout"))
+                   .maxRows(parseInteger(element, "maxRows"))
+                   .resultSetType(parseResultSetType(element.attributeValue("resultSetType")));
+            
+            // 二级缓存的过期时间和提前刷新（只对SELECT有效）
+            Long cacheTtl = parseLong(element, "cacheTtl");
+            Double refreshAhead = parseRefreshAhead(element, statementId, cacheTtl);
+            builder.cacheTtl(cacheTtl)
+                   .refreshAhead(refreshAhead);
+            
+            // 预编译SQL：#{}替换为?，生成参数映射（只在这里做一次）⭐
+            BoundSql boundSql = SqlSourceBuilder.parse(sql, parameterClass);
+            builder.boundSql(boundSql);
+            logger.debug("预编译SQL: {}", boundSql.getSql());
+            
             // 构建MappedStatement并添加到Configuration
+            // build()时从SQL中提取读写的表，缓存按表失效 ⭐
             MappedStatement mappedStatement = builder.build();
+            logger.debug("读表: {}, 写表: {}", mappedStatement.getReadTables(), mappedStatement.getWriteTables());
             configuration.addMappedStatement(statementId, mappedStatement);
         }
     }
+    
+    /**
+     * 二级缓存需要编码结果时（OffHeapCache），编解码器不支持的resultType在解析时就报错，
+     * 不要等到事务提交写缓存时才失败
+     */
+    private void checkCacheable(String statementId, Element element, boolean isSelect, Class<?> resultClass) {
+        if (cacheCodec == null || !isSelect || !parseBoolean(element.attributeValue("useCache"), true)) {
+            return;
+        }
+        if (!cacheCodec.supports(resultClass)) {
+            throw new MyBatisException("二级缓存的编解码器" + cacheCodec.getClass().getSimpleName()
+                    + "不支持结果类型" + resultClass.getName() + "（Java序列化需要实现Serializable），"
+                    + "请实现Serializable、配置useCache=\"false\"或换用其他codecType: " + statementId);
+        }
+    }
+    
+    private boolean parseBoolean(String value, boolean defaultValue) {
+        return value == null || value.trim().isEmpty() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+    
+    /**
+     * 读取整数属性（未配置时返回null）
+     */
+    private Integer parseInteger(Element element, String name) {
+        String value = element.attributeValue(name);
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new MyBatisException("属性" + name + "不是整数: " + value);
+        }
+    }
+    
+    /**
+     * 读取长整数属性（未配置时返回null）
+     */
+    private Long parseLong(Element element, String name) {
+        String value = element.attributeValue(name);
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new MyBatisException("属性" + name + "不是整数: " + value);
+        }
+    }
+    
+    /**
+     * 解析refreshAhead属性：0~1之间的比例，必须同时配置cacheTtl
+     */
+    private Double parseRefreshAhead(Element element, String statementId, Long cacheTtl) {
+        String value = element.attributeValue("refreshAhead");
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        double refreshAhead;
+        try {
+            refreshAhead = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new MyBatisException("属性refreshAhead不是数字: " + value);
+        }
+        if (refreshAhead <= 0 || refreshAhead >= 1) {
+            throw new MyBatisException("refreshAhead必须在0和1之间: " + statementId);
+        }
+        if (cacheTtl == null) {
+            throw new MyBatisException("refreshAhead需要同时配置cacheTtl: " + statementId);
+        }
+        return refreshAhead;
+    }
+    
+    /**
+     * 解析resultSetType属性：FORWARD_ONLY、SCROLL_INSENSITIVE、SCROLL_SENSITIVE、DEFAULT
+     */
+    static ResultSetType parseResultSetType(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return ResultSetType.DEFAULT;
+        }
+        try {
+            return ResultSetType.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new MyBatisException("未知的resultSetType: " + value);
+        }
+    }
 }
 
@@ -42,7 +42,7 @@ public interface Cache {
      * 移除缓存
      * 
      * @param key 缓存键
-     * @return 被移除的值
+     * @return 被移除的值（取值代价高的实现可以返回null，例如OffHeapCache）
      */
     Object removeObject(Object key);
     
@@ -55,4 +55,15 @@ public interface Cache {
      * 获取缓存大小
      */
     int getSize();
+    
+    /**
+     * 获取缓存统计
+     * 
+     * 装饰器转发给被装饰的缓存，最终由StatsCache提供。
+     * 
+     * @return 缓存统计，没有统计时返回null
+     */
+    default CacheStats getStats() {
+        return null;
+    }
 }
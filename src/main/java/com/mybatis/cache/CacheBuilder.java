@@ -0,0 +1,290 @@
+package com.mybatis.cache;
+
+import com.mybatis.cache.decorators.BlockingCache;
+import com.mybatis.cache.decorators.LruCache;
+import com.mybatis.cache.decorators.ScheduledCache;
+import com.mybatis.cache.decorators.SizeBoundedCache;
+import com.mybatis.cache.decorators.StatsCache;
+import com.mybatis.cache.decorators.SynchronizedCache;
+import com.mybatis.cache.impl.ConcurrentCache;
+import com.mybatis.cache.impl.OffHeapCache;
+import com.mybatis.cache.impl.PerpetualCache;
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.reflection.Reflector;
+
+import java.lang.reflect.Constructor;
+import java.util.Properties;
+
+/**
+ * 二级缓存建造者
+ * 
+ * 根据<cache>标签创建namespace级别的缓存，装饰器从内到外依次为：
+ * 1. 基础缓存（type属性，默认PerpetualCache），构造方法参数为缓存ID
+ * 2. SizeBoundedCache：按缓存的总行数限制（maxRows属性）
+ * 3. 淘汰策略（eviction属性，默认LRU），size属性为最多缓存的key个数
+ * 4. ScheduledCache：定时清空（flushInterval属性，毫秒）
+ * 5. StatsCache：统计命中率、淘汰次数等（statistics=true，默认开启）；
+ *    同一个CacheStats通过setStats交给内层有这个setter的缓存（淘汰策略、ScheduledCache），由它们记录淘汰和定时清空
+ * 6. SynchronizedCache：二级缓存被所有SqlSession共享，最外层必须是线程安全的
+ *    （type为ConcurrentCache、OffHeapCache时本身就是线程安全的，不再套这一层）
+ * 7. BlockingCache：blocking=true时，同一个key未命中只让一个线程查数据库（在锁外面等待）
+ * 
+ * 自定义的type不是PerpetualCache时，认为它自己负责淘汰（例如TinyLfuCache），
+ * 不再套2、3两层，size属性通过它的setSize设置。
+ * 
+ * <property>子标签通过基础缓存对应的setter设置（例如OffHeapCache的maxBytes、spillDirectory）。
+ * 
+ * 示例：
+ * <pre>
+ * Cache cache = new CacheBuilder("com.mybatis.mapper.UserMapper")
+ *     .eviction(LruCache.class)
+ *     .size(10000)
+ *     .clearInterval(60000L)
+ *     .build();
+ * </pre>
+ * 
+ * @author 学习者
+ */
+public class CacheBuilder {
+    
+    /**
+     * 缓存ID（namespace）
+     */
+    private final String id;
+    
+    /**
+     * 基础缓存实现类
+     */
+    private Class<? extends Cache> implementation;
+    
+    /**
+     * 淘汰策略装饰器
+     */
+    private Class<? extends Cache> eviction;
+    
+    /**
+     * 淘汰策略保留的key个数（null表示使用装饰器的默认值）
+     */
+    private Integer size;
+    
+    /**
+     * 定时清空的间隔，毫秒（null表示不定时清空）
+     */
+    private Long clearInterval;
+    
+    /**
+     * 最多缓存的总行数（null表示不限制）
+     */
+    private Long maxRows;
+    
+    /**
+     * 是否防止缓存击穿（同一个key只有一个线程查数据库）
+     */
+    private boolean blocking;
+    
+    /**
+     * 等待其他线程加载的超时时间，毫秒（null表示一直等）
+     */
+    private Long blockingTimeout;
+    
+    /**
+     * 是否统计命中率等指标
+     */
+    private boolean statistics = true;
+    
+    /**
+     * 设置给基础缓存的属性
+     */
+    private Properties properties;
+    
+    /**
+     * build()创建的基础缓存
+     */
+    private Cache baseCache;
+    
+    public CacheBuilder(String id) {
+        this.id = id;
+    }
+    
+    public CacheBuilder implementation(Class<? extends Cache> implementation) {
+        this.implementation = implementation;
+        return this;
+    }
+    
+    public CacheBuilder eviction(Class<? extends Cache> eviction) {
+        this.eviction = eviction;
+        return this;
+    }
+    
+    public CacheBuilder size(Integer size) {
+        this.size = size;
+        return this;
+    }
+    
+    public CacheBuilder clearInterval(Long clearInterval) {
+        this.clearInterval = clearInterval;
+        return this;
+    }
+    
+    public CacheBuilder maxRows(Long maxRows) {
+        this.maxRows = maxRows;
+        return this;
+    }
+    
+    public CacheBuilder blocking(boolean blocking) {
+        this.blocking = blocking;
+        return this;
+    }
+    
+    public CacheBuilder blockingTimeout(Long blockingTimeout) {
+        this.blockingTimeout = blockingTimeout;
+        return this;
+    }
+    
+    public CacheBuilder statistics(boolean statistics) {
+        this.statistics = statistics;
+        return this;
+    }
+    
+    public CacheBuilder properties(Properties properties) {
+        this.properties = properties;
+        return this;
+    }
+    
+    public Cache build() {
+        Class<? extends Cache> type = implementation == null ? PerpetualCache.class : implementation;
+        CacheStats stats = statistics ? new CacheStats() : null;
+        Cache cache = newBaseCacheInstance(type);
+        setProperties(cache);
+        baseCache = cache;
+        setStats(cache, stats);
+        
+        if (PerpetualCache.class.equals(type)) {
+            if (maxRows != null) {
+                SizeBoundedCache sizeBoundedCache = new SizeBoundedCache(cache);
+                sizeBoundedCache.setMaxRows(maxRows);
+                cache = sizeBoundedCache;
+                setStats(cache, stats);
+            }
+            cache = newCacheDecoratorInstance(eviction == null ? LruCache.class : eviction, cache);
+            if (size != null) {
+                setSize(cache, size);
+            }
+            setStats(cache, stats);
+        } else if (size != null && Reflector.forClass(type).hasSetter("size")) {
+            // 自带淘汰的实现（例如TinyLfuCache），size直接设置给它
+            setSize(cache, size);
+        }
+        
+        if (clearInterval != null) {
+            ScheduledCache scheduledCache = new ScheduledCache(cache);
+            scheduledCache.setClearInterval(clearInterval);
+            scheduledCache.setStats(stats);
+            cache = scheduledCache;
+        }
+        
+        if (stats != null) {
+            cache = new StatsCache(cache, stats);
+        }
+        
+        // 本身线程安全的实现不再套全局锁，否则读操作又要排队（OffHeapCache的解码也会被串行化）
+        if (!ConcurrentCache.class.equals(type) && !OffHeapCache.class.equals(type)) {
+            cache = new SynchronizedCache(cache);
+        }
+        
+        if (blocking) {
+            BlockingCache blockingCache = new BlockingCache(cache);
+            if (blockingTimeout != null) {
+                blockingCache.setTimeout(blockingTimeout);
+            }
+            cache = blockingCache;
+        }
+        return cache;
+    }
+    
+    /**
+     * build()创建的基础缓存（没有装饰器），build()之前为null
+     */
+    public Cache getBaseCache() {
+        return baseCache;
+    }
+    
+    private Cache newBaseCacheInstance(Class<? extends Cache> type) {
+        try {
+            Constructor<? extends Cache> constructor = type.getConstructor(String.class);
+            return constructor.newInstance(id);
+        } catch (ReflectiveOperationException e) {
+            throw new MyBatisException("创建缓存失败，缓存实现类需要一个String参数（缓存ID）的构造方法: " + type.getName(), e);
+        }
+    }
+    
+    private Cache newCacheDecoratorInstance(Class<? extends Cache> type, Cache delegate) {
+        try {
+            Constructor<? extends Cache> constructor = type.getConstructor(Cache.class);
+            return constructor.newInstance(delegate);
+        } catch (ReflectiveOperationException e) {
+            throw new MyBatisException("创建缓存装饰器失败，装饰器需要一个Cache参数的构造方法: " + type.getName(), e);
+        }
+    }
+    
+    /**
+     * 通过setSize(int)设置淘汰策略的大小
+     */
+    private void setSize(Cache cache, int size) {
+        Reflector reflector = Reflector.forClass(cache.getClass());
+        if (!reflector.hasSetter("size")) {
+            throw new MyBatisException("缓存装饰器不支持size属性: " + cache.getClass().getName());
+        }
+        reflector.setValue(cache, "size", size);
+    }
+    
+    /**
+     * 通过setStats(CacheStats)把统计交给记录淘汰次数的缓存，没有这个setter时跳过
+     */
+    private void setStats(Cache cache, CacheStats stats) {
+        if (stats == null) {
+            return;
+        }
+        Reflector reflector = Reflector.forClass(cache.getClass());
+        if (reflector.hasSetter("stats") && reflector.getSetterType("stats") == CacheStats.class) {
+            reflector.setValue(cache, "stats", stats);
+        }
+    }
+    
+    /**
+     * 通过setter把<property>设置到基础缓存（支持String、int、long、boolean参数）
+     */
+    private void setProperties(Cache cache) {
+        if (properties == null) {
+            return;
+        }
+        Reflector reflector = Reflector.forClass(cache.getClass());
+        for (String name : properties.stringPropertyNames()) {
+            if (!reflector.hasSetter(name)) {
+                throw new MyBatisException("缓存" + cache.getClass().getName() + "不支持属性: " + name);
+            }
+            reflector.setValue(cache, name, convert(name, reflector.getSetterType(name), properties.getProperty(name)));
+        }
+    }
+    
+    private Object convert(String name, Class<?> type, String value) {
+        try {
+            if (type == String.class) {
+                return value;
+            }
+            if (type == int.class || type == Integer.class) {
+                return Integer.valueOf(value.trim());
+            }
+            if (type == long.class || type == Long.class) {
+                return Long.valueOf(value.trim());
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return Boolean.valueOf(value.trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new MyBatisException("缓存属性" + name + "不是数字: " + value);
+        }
+        throw new MyBatisException("缓存属性" + name + "的类型不支持配置: " + type.getName());
+    }
+}
+
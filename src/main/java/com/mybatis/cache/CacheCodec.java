@@ -0,0 +1,42 @@
+package com.mybatis.cache;
+
+/**
+ * 缓存值编解码器
+ * 
+ * 把缓存值存到堆外内存或文件时使用（例如OffHeapCache），
+ * 缓存值在存入时编码成字节数组，每次读取时再解码成一个新的对象。
+ * 
+ * 默认实现是JavaSerializationCodec（Java序列化），
+ * 可以换成更紧凑、更快的实现（例如Kryo、Protobuf），需要提供无参构造方法。
+ * 
+ * @author 学习者
+ */
+public interface CacheCodec {
+    
+    /**
+     * 编码
+     * 
+     * @param value 缓存值
+     * @return 字节数组
+     */
+    byte[] encode(Object value);
+    
+    /**
+     * 解码
+     * 
+     * @param bytes encode的结果
+     * @return 新的缓存值对象
+     */
+    Object decode(byte[] bytes);
+    
+    /**
+     * 是否能编码这个类型的结果对象（解析Mapper时检查，不支持的语句直接报错）
+     * 
+     * @param type 结果类型（resultType）
+     * @return 默认都支持
+     */
+    default boolean supports(Class<?> type) {
+        return true;
+    }
+}
+
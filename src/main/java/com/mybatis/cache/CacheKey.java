@@ -1,8 +1,7 @@
 package com.mybatis.cache;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * 缓存Key
@@ -20,7 +19,8 @@ import java.util.List;
  * - hashCode相同
  * - checksum相同
  * - count相同
- * - updateList中的每个元素都相同
+ * - 前缀相同（通常是同一个对象，直接按引用判断）
+ * - values中的每个元素都相同
  * 
  * 示例：
  * <pre>
@@ -32,26 +32,27 @@ import java.util.List;
  * key.update(parameterValue);  // 1L
  * </pre>
  * 
+ * 紧凑形式（执行器使用）⭐：
+ * <pre>
+ * // 解析阶段：语句ID和SQL只哈希一次，得到不可变的前缀
+ * CacheKey prefix = CacheKey.prefix(statementId, sql);
+ * 
+ * // 查询时：前缀引用 + 参数值数组，不再创建ArrayList，也不再哈希SQL
+ * CacheKey key = new CacheKey(prefix, new Object[]{1L});
+ * </pre>
+ * 
  * @author 学习者
  */
 public class CacheKey implements Cloneable, Serializable {
     
     private static final long serialVersionUID = 1L;
     
+    private static final Object[] EMPTY_VALUES = new Object[0];
+    
     /**
      * 默认哈希码
      */
-    public static final CacheKey NULL_CACHE_KEY = new CacheKey() {
-        @Override
-        public void update(Object object) {
-            throw new UnsupportedOperationException("Not allowed to update NULL_CACHE_KEY");
-        }
-        
-        @Override
-        public void updateAll(Object[] objects) {
-            throw new UnsupportedOperationException("Not allowed to update NULL_CACHE_KEY");
-        }
-    };
+    public static final CacheKey NULL_CACHE_KEY = new UnmodifiableCacheKey();
     
     private static final int DEFAULT_MULTIPLIER = 37;
     private static final int DEFAULT_HASHCODE = 17;
@@ -72,20 +73,27 @@ public class CacheKey implements Cloneable, Serializable {
     private long checksum;
     
     /**
-     * 更新次数
+     * 更新次数（包含前缀的更新次数）
      */
     private int count;
     
     /**
-     * 更新列表（存储所有影响缓存的因素）
+     * 不可变的前缀（例如MappedStatement预先计算的语句ID + SQL），没有时为null
      */
-    private List<Object> updateList;
+    private CacheKey prefix;
+    
+    /**
+     * 影响缓存的因素（前缀之后的部分），只有前size个有效
+     */
+    private Object[] values;
+    
+    private int size;
     
     public CacheKey() {
         this.hashcode = DEFAULT_HASHCODE;
         this.multiplier = DEFAULT_MULTIPLIER;
         this.count = 0;
-        this.updateList = new ArrayList<>();
+        this.values = EMPTY_VALUES;
     }
     
     public CacheKey(Object[] objects) {
@@ -93,6 +101,45 @@ public class CacheKey implements Cloneable, Serializable {
         updateAll(objects);
     }
     
+    /**
+     * 紧凑形式：前缀 + 参数值数组 ⭐
+     * 
+     * 哈希从前缀已经算好的结果继续累加，前缀本身不会再被哈希；
+     * values数组直接归这个CacheKey所有，调用方之后不能再修改它。
+     * 
+     * @param prefix 不可变的前缀（由{@link #prefix(Object...)}创建）
+     * @param values 参数值
+     */
+    public CacheKey(CacheKey prefix, Object[] values) {
+        this.multiplier = DEFAULT_MULTIPLIER;
+        this.hashcode = prefix.hashcode;
+        this.checksum = prefix.checksum;
+        this.count = prefix.count;
+        this.prefix = prefix;
+        this.values = values;
+        this.size = values.length;
+        for (Object value : values) {
+            mix(value);
+        }
+    }
+    
+    /**
+     * 创建不可变的前缀
+     * 
+     * 一般在解析阶段创建一次，之后所有查询共享同一个对象，
+     * 所以比较两个CacheKey的前缀时，绝大多数情况下按引用就能判断。
+     * 
+     * @param components 前缀的组成部分
+     * @return 不可变的CacheKey
+     */
+    public static CacheKey prefix(Object... components) {
+        CacheKey prefix = new UnmodifiableCacheKey();
+        for (Object component : components) {
+            prefix.append(component);
+        }
+        return prefix;
+    }
+    
     public int getUpdateCount() {
         return count;
     }
@@ -100,12 +147,30 @@ public class CacheKey implements Cloneable, Serializable {
     /**
      * 更新缓存Key
      * 
-     * 将影响缓存的因素添加到updateList中，
+     * 将影响缓存的因素添加到values中，
      * 并更新hashcode和checksum。
      * 
      * @param object 影响缓存的因素
      */
     public void update(Object object) {
+        append(object);
+    }
+    
+    public void updateAll(Object[] objects) {
+        for (Object o : objects) {
+            update(o);
+        }
+    }
+    
+    private void append(Object object) {
+        mix(object);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size * 2));
+        }
+        values[size++] = object;
+    }
+    
+    private void mix(Object object) {
         int baseHashCode = object == null ? 1 : getHashCode(object);
         
         count++;
@@ -113,14 +178,6 @@ public class CacheKey implements Cloneable, Serializable {
         baseHashCode *= count;
         
         hashcode = multiplier * hashcode + baseHashCode;
-        
-        updateList.add(object);
-    }
-    
-    public void updateAll(Object[] objects) {
-        for (Object o : objects) {
-            update(o);
-        }
     }
     
     /**
@@ -130,7 +187,8 @@ public class CacheKey implements Cloneable, Serializable {
      * 1. hashcode相同
      * 2. checksum相同
      * 3. count相同
-     * 4. updateList中的每个元素都相同
+     * 4. 前缀相同（先按引用判断）
+     * 5. values中的每个元素都相同
      */
     @Override
     public boolean equals(Object object) {
@@ -152,11 +210,15 @@ public class CacheKey implements Cloneable, Serializable {
         if (count != cacheKey.count) {
             return false;
         }
+        if (size != cacheKey.size) {
+            return false;
+        }
+        if (prefix != cacheKey.prefix && (prefix == null || !prefix.equals(cacheKey.prefix))) {
+            return false;
+        }
         
-        for (int i = 0; i < updateList.size(); i++) {
-            Object thisObject = updateList.get(i);
-            Object thatObject = cacheKey.updateList.get(i);
-            if (!equals(thisObject, thatObject)) {
+        for (int i = 0; i < size; i++) {
+            if (!equals(values[i], cacheKey.values[i])) {
                 return false;
             }
         }
@@ -172,16 +234,23 @@ public class CacheKey implements Cloneable, Serializable {
     @Override
     public String toString() {
         StringBuilder returnValue = new StringBuilder().append(hashcode).append(':').append(checksum);
-        for (Object object : updateList) {
-            returnValue.append(':').append(object);
+        if (prefix != null) {
+            prefix.appendValues(returnValue);
         }
+        appendValues(returnValue);
         return returnValue.toString();
     }
     
+    private void appendValues(StringBuilder builder) {
+        for (int i = 0; i < size; i++) {
+            builder.append(':').append(values[i]);
+        }
+    }
+    
     @Override
     public CacheKey clone() throws CloneNotSupportedException {
         CacheKey clonedCacheKey = (CacheKey) super.clone();
-        clonedCacheKey.updateList = new ArrayList<>(updateList);
+        clonedCacheKey.values = Arrays.copyOf(values, size);
         return clonedCacheKey;
     }
     
@@ -246,4 +315,23 @@ public class CacheKey implements Cloneable, Serializable {
         
         return thisObject.equals(thatObject);
     }
+    
+    /**
+     * 不可变的CacheKey（NULL_CACHE_KEY和前缀）
+     */
+    private static final class UnmodifiableCacheKey extends CacheKey {
+        
+        private static final long serialVersionUID = 1L;
+        
+        @Override
+        public void update(Object object) {
+            throw new UnsupportedOperationException("Not allowed to update an unmodifiable CacheKey");
+        }
+        
+        @Override
+        public void updateAll(Object[] objects) {
+            throw new UnsupportedOperationException("Not allowed to update an unmodifiable CacheKey");
+        }
+    }
 }
+
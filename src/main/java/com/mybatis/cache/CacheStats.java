@@ -0,0 +1,171 @@
+package com.mybatis.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存统计
+ * 
+ * 由StatsCache装饰器维护，所有计数器都是LongAdder，多线程同时记录时不加锁、不竞争同一个变量，
+ * 生产环境一直开着也不影响吞吐量（不需要为了看命中率打开debug日志）。
+ * 
+ * 统计项：
+ * 1. 命中、未命中次数（命中率）
+ * 2. 写入次数，以及写入数据的估算字节数
+ * 3. 淘汰次数（由LRU、FIFO、TinyLFU等淘汰策略在真正淘汰时记录）和清空次数
+ * 4. 加载次数和加载耗时（未命中后查询数据库的时间，由CachingExecutor记录）
+ * 
+ * 获取方式：
+ * <pre>
+ * CacheStats stats = configuration.getCacheStats("com.mybatis.mapper.UserMapper");
+ * double hitRatio = stats.getHitRatio();
+ * </pre>
+ * 
+ * 开启cacheJmxEnabled后，也可以通过JMX（com.mybatis:type=Cache）查看。
+ * 
+ * @author 学习者
+ */
+public class CacheStats {
+    
+    private final LongAdder hitCount = new LongAdder();
+    
+    private final LongAdder missCount = new LongAdder();
+    
+    private final LongAdder putCount = new LongAdder();
+    
+    private final LongAdder evictionCount = new LongAdder();
+    
+    private final LongAdder clearCount = new LongAdder();
+    
+    private final LongAdder loadCount = new LongAdder();
+    
+    private final LongAdder totalLoadTime = new LongAdder();
+    
+    private final LongAdder estimatedPutBytes = new LongAdder();
+    
+    public void recordHit() {
+        hitCount.increment();
+    }
+    
+    public void recordMiss() {
+        missCount.increment();
+    }
+    
+    /**
+     * 缓存返回了数据，但调用方发现已经过期（例如表版本号变了），改记为未命中
+     */
+    public void recordStaleHit() {
+        hitCount.decrement();
+        missCount.increment();
+    }
+    
+    /**
+     * @param estimatedBytes 写入数据的估算字节数
+     */
+    public void recordPut(long estimatedBytes) {
+        putCount.increment();
+        estimatedPutBytes.add(estimatedBytes);
+    }
+    
+    /**
+     * 淘汰策略因为容量不够移除了一个key（覆盖已有的key、清空缓存都不算）
+     */
+    public void recordEviction() {
+        evictionCount.increment();
+    }
+    
+    /**
+     * 整个缓存被清空（调用clear()或ScheduledCache定时清空）
+     */
+    public void recordClear() {
+        clearCount.increment();
+    }
+    
+    /**
+     * @param loadTime 未命中后加载数据的耗时，纳秒
+     */
+    public void recordLoad(long loadTime) {
+        loadCount.increment();
+        totalLoadTime.add(loadTime);
+    }
+    
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+    
+    public long getMissCount() {
+        return missCount.sum();
+    }
+    
+    public long getRequestCount() {
+        return getHitCount() + getMissCount();
+    }
+    
+    /**
+     * 命中率（还没有请求时为0）
+     */
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long requests = hits + getMissCount();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+    
+    public long getPutCount() {
+        return putCount.sum();
+    }
+    
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+    
+    public long getClearCount() {
+        return clearCount.sum();
+    }
+    
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+    
+    /**
+     * 加载总耗时，纳秒
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime.sum();
+    }
+    
+    /**
+     * 平均每次加载的耗时，纳秒
+     */
+    public double getAverageLoadPenalty() {
+        long loads = getLoadCount();
+        return loads == 0 ? 0 : (double) getTotalLoadTime() / loads;
+    }
+    
+    /**
+     * 所有写入数据的估算字节数之和
+     */
+    public long getEstimatedPutBytes() {
+        return estimatedPutBytes.sum();
+    }
+    
+    /**
+     * 清零（并发记录时不保证所有计数器在同一时刻清零）
+     */
+    public void reset() {
+        hitCount.reset();
+        missCount.reset();
+        putCount.reset();
+        evictionCount.reset();
+        clearCount.reset();
+        loadCount.reset();
+        totalLoadTime.reset();
+        estimatedPutBytes.reset();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d, hitRatio=%.2f%%, puts=%d, evictions=%d, clears=%d, "
+                + "loads=%d, avgLoad=%.2fms, putBytes=%d", getHitCount(), getMissCount(), getHitRatio() * 100,
+                getPutCount(), getEvictionCount(), getClearCount(), getLoadCount(), getAverageLoadPenalty() / 1_000_000, getEstimatedPutBytes());
+    }
+}
+
@@ -0,0 +1,141 @@
+package com.mybatis.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 把二级缓存的统计注册到JMX（平台MBeanServer）
+ * 
+ * 同一个namespace再次注册时（例如创建了第二个SqlSessionFactory）替换掉旧的MBean。
+ * 注册失败只打印警告，不影响缓存本身。
+ * 
+ * @author 学习者
+ */
+public final class CacheStatsJmx {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheStatsJmx.class);
+    
+    private CacheStatsJmx() {
+    }
+    
+    /**
+     * 注册缓存的统计MBean
+     * 
+     * @param cache 二级缓存（getStats()为null时不注册）
+     */
+    public static void register(Cache cache) {
+        if (cache.getStats() == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = objectName(cache.getId());
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new CacheStatsView(cache), name);
+            logger.debug("缓存统计已注册到JMX: {}", name);
+        } catch (JMException e) {
+            logger.warn("缓存统计注册到JMX失败: {}", cache.getId(), e);
+        }
+    }
+    
+    /**
+     * 注销缓存的统计MBean
+     * 
+     * @param id 缓存ID
+     */
+    public static void unregister(String id) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = objectName(id);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            logger.warn("缓存统计从JMX注销失败: {}", id, e);
+        }
+    }
+    
+    public static ObjectName objectName(String id) throws JMException {
+        return new ObjectName("com.mybatis:type=Cache,name=" + ObjectName.quote(id));
+    }
+    
+    /**
+     * 每次读取时从缓存取最新的统计
+     */
+    private static final class CacheStatsView implements CacheStatsMXBean {
+        
+        private final Cache cache;
+        
+        CacheStatsView(Cache cache) {
+            this.cache = cache;
+        }
+        
+        @Override
+        public String getCacheId() {
+            return cache.getId();
+        }
+        
+        @Override
+        public int getSize() {
+            return cache.getSize();
+        }
+        
+        @Override
+        public long getHitCount() {
+            return cache.getStats().getHitCount();
+        }
+        
+        @Override
+        public long getMissCount() {
+            return cache.getStats().getMissCount();
+        }
+        
+        @Override
+        public double getHitRatio() {
+            return cache.getStats().getHitRatio();
+        }
+        
+        @Override
+        public long getPutCount() {
+            return cache.getStats().getPutCount();
+        }
+        
+        @Override
+        public long getEvictionCount() {
+            return cache.getStats().getEvictionCount();
+        }
+        
+        @Override
+        public long getClearCount() {
+            return cache.getStats().getClearCount();
+        }
+        
+        @Override
+        public long getLoadCount() {
+            return cache.getStats().getLoadCount();
+        }
+        
+        @Override
+        public double getAverageLoadPenalty() {
+            return cache.getStats().getAverageLoadPenalty();
+        }
+        
+        @Override
+        public long getEstimatedPutBytes() {
+            return cache.getStats().getEstimatedPutBytes();
+        }
+        
+        @Override
+        public void resetStatistics() {
+            cache.getStats().reset();
+        }
+    }
+}
+
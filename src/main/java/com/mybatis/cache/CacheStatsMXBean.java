@@ -0,0 +1,43 @@
+package com.mybatis.cache;
+
+/**
+ * 缓存统计的JMX接口
+ * 
+ * 开启cacheJmxEnabled后，每个二级缓存注册一个MBean：
+ * com.mybatis:type=Cache,name="namespace"
+ * 
+ * @author 学习者
+ */
+public interface CacheStatsMXBean {
+    
+    String getCacheId();
+    
+    int getSize();
+    
+    long getHitCount();
+    
+    long getMissCount();
+    
+    double getHitRatio();
+    
+    long getPutCount();
+    
+    long getEvictionCount();
+    
+    long getClearCount();
+    
+    long getLoadCount();
+    
+    /**
+     * 平均每次加载的耗时，纳秒
+     */
+    double getAverageLoadPenalty();
+    
+    long getEstimatedPutBytes();
+    
+    /**
+     * 统计清零
+     */
+    void resetStatistics();
+}
+
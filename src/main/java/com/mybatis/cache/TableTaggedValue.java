@@ -0,0 +1,66 @@
+package com.mybatis.cache;
+
+import java.io.Serializable;
+
+/**
+ * 带表版本号的缓存值
+ * 
+ * 二级缓存中实际存放的对象：查询结果 + 查询前读过的各表的版本号和全局纪元 + 加载时间。
+ * 
+ * tables和versions为null时只按cacheTtl过期；CachingExecutor写入时不知道读了哪些表的结果记录的是TableVersions.ANY_TABLE。
+ * 
+ * @author 学习者
+ */
+public final class TableTaggedValue implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final String[] tables;
+    
+    private final long[] versions;
+    
+    /**
+     * 查询前的全局纪元（TableVersions.epoch）
+     */
+    private final long epoch;
+    
+    private final Object value;
+    
+    /**
+     * 开始加载的时间（毫秒），用于判断cacheTtl是否过期
+     */
+    private final long createTime;
+    
+    public TableTaggedValue(String[] tables, long[] versions, long epoch, Object value) {
+        this(tables, versions, epoch, value, System.currentTimeMillis());
+    }
+    
+    public TableTaggedValue(String[] tables, long[] versions, long epoch, Object value, long createTime) {
+        this.tables = tables;
+        this.versions = versions;
+        this.epoch = epoch;
+        this.value = value;
+        this.createTime = createTime;
+    }
+    
+    public String[] getTables() {
+        return tables;
+    }
+    
+    public long[] getVersions() {
+        return versions;
+    }
+    
+    public long getEpoch() {
+        return epoch;
+    }
+    
+    public Object getValue() {
+        return value;
+    }
+    
+    public long getCreateTime() {
+        return createTime;
+    }
+}
+
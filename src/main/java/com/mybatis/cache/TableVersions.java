@@ -0,0 +1,113 @@
+package com.mybatis.cache;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 表版本号
+ * 
+ * 每张表一个递增的版本号，写入并提交后加一。
+ * 二级缓存中的结果记录查询前各表的版本号（TableTaggedValue），
+ * 读取时任何一张表的版本号变了，这个结果就视为过期。
+ * 
+ * 这样一次更新只让读过这张表的结果失效，而且不需要遍历缓存、
+ * 也不区分namespace：UserMapper更新user表，ProductMapper里关联了user表的查询同样会失效。
+ * 
+ * 版本号必须在查询之前取：查询期间有其他事务提交了更新，结果会被判为过期，而不会把旧数据当成新的。
+ * 
+ * 不知道读了哪些表的结果记录ANY_TABLE的版本号，任何一次写入提交后都会过期。
+ * 
+ * 反过来，不知道写了哪些表的写入（invalidate的参数里有ANY_TABLE）会增加全局纪元（epoch），
+ * 所有结果都记录查询前的纪元，纪元变了就全部过期，不管它在哪个namespace、读的是哪张表。
+ * 
+ * @author 学习者
+ */
+public class TableVersions {
+    
+    /**
+     * 代表"所有表"：任何表更新时它的版本号都会增加
+     */
+    public static final String ANY_TABLE = "*";
+    
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    
+    /**
+     * 全局纪元：不知道写了哪些表的写入提交后加一
+     */
+    private final AtomicLong epoch = new AtomicLong();
+    
+    /**
+     * 查询结果要记录版本号的表
+     * 
+     * @param readTables 查询读取的表，null表示不知道
+     * @return 不知道时为ANY_TABLE
+     */
+    public static String[] tablesOf(Set<String> readTables) {
+        return readTables == null ? new String[] {ANY_TABLE} : readTables.toArray(new String[0]);
+    }
+    
+    /**
+     * 取各表当前的版本号
+     */
+    public long[] snapshot(String[] tables) {
+        long[] snapshot = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            snapshot[i] = versionOf(tables[i]).get();
+        }
+        return snapshot;
+    }
+    
+    /**
+     * 取当前的全局纪元（和snapshot一样必须在查询之前取）
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+    
+    /**
+     * 结果读过的表是否都没有被更新过
+     */
+    public boolean isCurrent(TableTaggedValue value) {
+        if (value.getEpoch() != epoch.get()) {
+            return false;
+        }
+        String[] tables = value.getTables();
+        long[] snapshot = value.getVersions();
+        if (tables == null) {
+            return true;
+        }
+        for (int i = 0; i < tables.length; i++) {
+            if (versionOf(tables[i]).get() != snapshot[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 表已更新（事务提交后调用），读过这些表的缓存结果全部过期
+     * 
+     * @param tables 写过的表，包含ANY_TABLE时表示不知道写了哪些表，所有缓存结果都过期
+     */
+    public void invalidate(Collection<String> tables) {
+        for (String table : tables) {
+            versionOf(table).incrementAndGet();
+        }
+        if (tables.contains(ANY_TABLE)) {
+            epoch.incrementAndGet();
+        } else {
+            versionOf(ANY_TABLE).incrementAndGet();
+        }
+    }
+    
+    private AtomicLong versionOf(String table) {
+        AtomicLong version = versions.get(table);
+        if (version == null) {
+            version = versions.computeIfAbsent(table, t -> new AtomicLong());
+        }
+        return version;
+    }
+}
+
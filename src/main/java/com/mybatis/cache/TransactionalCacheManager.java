@@ -0,0 +1,97 @@
+package com.mybatis.cache;
+
+import com.mybatis.cache.decorators.TransactionalCache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 事务缓存管理器
+ * 
+ * 一个SqlSession可能访问多个namespace的二级缓存，
+ * 这里为每个二级缓存维护一个TransactionalCache，并统一提交或回滚。
+ * 
+ * 同时记录事务中写过的表，提交时才增加这些表的版本号（TableVersions）。
+ * 
+ * @author 学习者
+ */
+public class TransactionalCacheManager {
+    
+    /**
+     * key: 二级缓存
+     * value: 当前会话对应的事务缓存
+     */
+    private final Map<Cache, TransactionalCache> transactionalCaches = new HashMap<>();
+    
+    /**
+     * 全局的表版本号
+     */
+    private final TableVersions tableVersions;
+    
+    /**
+     * 事务中写过、等待提交的表
+     */
+    private final Set<String> writtenTables = new HashSet<>();
+    
+    public TransactionalCacheManager(TableVersions tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+    
+    public Object getObject(Cache cache, CacheKey key) {
+        return getTransactionalCache(cache).getObject(key);
+    }
+    
+    public void putObject(Cache cache, CacheKey key, Object value) {
+        getTransactionalCache(cache).putObject(key, value);
+    }
+    
+    public void clear(Cache cache) {
+        getTransactionalCache(cache).clear();
+    }
+    
+    /**
+     * 记录事务中写过的表
+     */
+    public void invalidateTables(Collection<String> tables) {
+        writtenTables.addAll(tables);
+    }
+    
+    /**
+     * 事务中是否写过这些表（写过时本事务的查询不能读写二级缓存）
+     * 
+     * @param tables 查询读取的表，null表示不知道（事务中写过任何表都算）
+     */
+    public boolean isWritten(Set<String> tables) {
+        if (writtenTables.isEmpty()) {
+            return false;
+        }
+        return tables == null || writtenTables.contains(TableVersions.ANY_TABLE)
+            || !Collections.disjoint(writtenTables, tables);
+    }
+    
+    public void commit() {
+        for (TransactionalCache txCache : transactionalCaches.values()) {
+            txCache.commit();
+        }
+        if (!writtenTables.isEmpty()) {
+            tableVersions.invalidate(writtenTables);
+            writtenTables.clear();
+        }
+    }
+    
+    public void rollback() {
+        for (TransactionalCache txCache : transactionalCaches.values()) {
+            txCache.rollback();
+        }
+        writtenTables.clear();
+    }
+    
+    private TransactionalCache getTransactionalCache(Cache cache) {
+        return transactionalCaches.computeIfAbsent(cache, TransactionalCache::new);
+    }
+}
+
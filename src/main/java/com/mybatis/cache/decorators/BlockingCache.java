@@ -0,0 +1,170 @@
+package com.mybatis.cache.decorators;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+import com.mybatis.exceptions.MyBatisException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阻塞缓存装饰器（防止缓存击穿）
+ * 
+ * 热点数据失效的瞬间，大量线程同时未命中，全部去查数据库。
+ * BlockingCache给每个key加一把锁：
+ * 1. getObject未命中时，调用方持有这个key的锁返回null，由它去查数据库
+ * 2. 其他调用方再getObject同一个key时等待，直到持有者putObject（或releaseLock）释放锁
+ * 3. 等待的线程醒来后重新读缓存，直接拿到第一个线程查到的结果
+ * 
+ * 锁记录持有者，并且可重入：
+ * - 二级缓存的写入在事务提交时才发生，释放锁的不一定是加锁的线程，
+ *   所以TransactionalCache用自己作为持有者（getObject/putObject/releaseLock带owner的重载），
+ *   其他调用方（例如CacheRefresher）以当前线程作为持有者
+ * - 持有者再次读同一个key时不等待（同一个事务里重复查询不会等自己）
+ * - 只有持有者能释放锁，别人写入同一个key不会提前放行正在等待的线程
+ * 
+ * 等待超过timeout（毫秒，0表示一直等）会抛出异常，避免持锁的事务迟迟不提交时请求线程全部卡住。
+ * 
+ * @author 学习者
+ */
+public class BlockingCache implements Cache {
+    
+    private final Cache delegate;
+    
+    /**
+     * 正在加载的key
+     */
+    private final ConcurrentHashMap<Object, KeyLock> locks = new ConcurrentHashMap<>();
+    
+    private long timeout;
+    
+    public BlockingCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+    
+    /**
+     * 设置等待超时时间
+     * 
+     * @param timeout 毫秒，0表示一直等
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+    
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+    
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return delegate.getStats();
+    }
+    
+    /**
+     * 写入，当前线程持有这个key的锁时释放
+     */
+    @Override
+    public void putObject(Object key, Object value) {
+        putObject(key, value, Thread.currentThread());
+    }
+    
+    /**
+     * 写入，owner持有这个key的锁时释放
+     */
+    public void putObject(Object key, Object value, Object owner) {
+        try {
+            delegate.putObject(key, value);
+        } finally {
+            releaseLock(key, owner);
+        }
+    }
+    
+    /**
+     * 读取，以当前线程作为锁的持有者
+     */
+    @Override
+    public Object getObject(Object key) {
+        return getObject(key, Thread.currentThread());
+    }
+    
+    /**
+     * 读取：命中直接返回；未命中时owner持有锁返回null，调用方必须随后putObject或releaseLock
+     */
+    public Object getObject(Object key, Object owner) {
+        acquireLock(key, owner);
+        Object value = delegate.getObject(key);
+        if (value != null) {
+            releaseLock(key, owner);
+        }
+        return value;
+    }
+    
+    /**
+     * 删除数据（例如已经过期的结果），不影响正在加载这个key的调用方
+     */
+    @Override
+    public Object removeObject(Object key) {
+        return delegate.removeObject(key);
+    }
+    
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+    
+    /**
+     * 放弃加载（查询失败或事务回滚）：释放owner持有的锁，不删除数据
+     * 
+     * 锁不属于owner时什么也不做：事务中先清空了缓存、再写入命中过的key，
+     * 或者锁已经被超时等原因释放时会出现这种情况
+     */
+    public void releaseLock(Object key, Object owner) {
+        KeyLock lock = locks.get(key);
+        if (lock != null && lock.owner == owner && locks.remove(key, lock)) {
+            lock.latch.countDown();
+        }
+    }
+    
+    private void acquireLock(Object key, Object owner) {
+        KeyLock newLock = new KeyLock(owner);
+        while (true) {
+            KeyLock lock = locks.putIfAbsent(key, newLock);
+            if (lock == null || lock.owner == owner) {
+                return;
+            }
+            try {
+                if (timeout > 0) {
+                    if (!lock.latch.await(timeout, TimeUnit.MILLISECONDS)) {
+                        throw new MyBatisException("等待缓存加载超时（" + timeout + "ms）: " + getId() + " " + key);
+                    }
+                } else {
+                    lock.latch.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MyBatisException("等待缓存加载时被中断: " + getId() + " " + key, e);
+            }
+        }
+    }
+    
+    /**
+     * 一个key的锁：持有者和等待它的线程共用的latch
+     */
+    private static final class KeyLock {
+        
+        private final Object owner;
+        
+        private final CountDownLatch latch = new CountDownLatch(1);
+        
+        private KeyLock(Object owner) {
+            this.owner = owner;
+        }
+    }
+}
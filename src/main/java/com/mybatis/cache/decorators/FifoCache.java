@@ -0,0 +1,107 @@
+package com.mybatis.cache.decorators;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * FIFO缓存装饰器（先进先出）
+ * 
+ * 按写入顺序记录key，超出size时移除最早写入的key。
+ * 读操作不改变顺序，比LRU少一次链表调整。
+ * 
+ * 线程不安全，由外层的SynchronizedCache保证。
+ * 
+ * @author 学习者
+ */
+public class FifoCache implements Cache {
+    
+    private final Cache delegate;
+    
+    /**
+     * 写入顺序（移除任意key都是O(1)）
+     */
+    private final Set<Object> keys = new LinkedHashSet<>();
+    
+    private int size = 1024;
+    
+    /**
+     * 淘汰时记录到这里（CacheBuilder开启统计时设置）
+     */
+    private CacheStats stats;
+    
+    public FifoCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+    
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return delegate.getStats();
+    }
+    
+    /**
+     * 设置淘汰次数记录到哪个统计（由CacheBuilder设置为StatsCache的统计）
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+    
+    /**
+     * 设置最多缓存多少个key
+     */
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        // 已存在的key只更新值，不重复入队
+        if (keys.add(key)) {
+            evictIfFull();
+        }
+        delegate.putObject(key, value);
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        return delegate.getObject(key);
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        keys.remove(key);
+        return delegate.removeObject(key);
+    }
+    
+    @Override
+    public void clear() {
+        delegate.clear();
+        keys.clear();
+    }
+    
+    private void evictIfFull() {
+        if (keys.size() > size) {
+            Iterator<Object> oldest = keys.iterator();
+            Object oldestKey = oldest.next();
+            oldest.remove();
+            delegate.removeObject(oldestKey);
+            if (stats != null) {
+                stats.recordEviction();
+            }
+        }
+    }
+}
+
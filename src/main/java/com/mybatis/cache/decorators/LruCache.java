@@ -0,0 +1,119 @@
+package com.mybatis.cache.decorators;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU缓存装饰器（最近最少使用）
+ * 
+ * 用accessOrder=true的LinkedHashMap记录key的访问顺序，
+ * 超出size时从被装饰的缓存中移除最久未访问的key。
+ * 
+ * 线程不安全，由外层的SynchronizedCache保证。
+ * 
+ * @author 学习者
+ */
+public class LruCache implements Cache {
+    
+    private final Cache delegate;
+    
+    /**
+     * 只记录key的访问顺序（value也是key）
+     */
+    private Map<Object, Object> keyMap;
+    
+    /**
+     * 下一个要淘汰的key
+     */
+    private Object eldestKey;
+    
+    /**
+     * 淘汰时记录到这里（CacheBuilder开启统计时设置）
+     */
+    private CacheStats stats;
+    
+    public LruCache(Cache delegate) {
+        this.delegate = delegate;
+        setSize(1024);
+    }
+    
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+    
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return delegate.getStats();
+    }
+    
+    /**
+     * 设置淘汰次数记录到哪个统计（由CacheBuilder设置为StatsCache的统计）
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+    
+    /**
+     * 设置最多缓存多少个key
+     */
+    public void setSize(final int size) {
+        keyMap = new LinkedHashMap<Object, Object>(size, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                boolean tooBig = size() > size;
+                if (tooBig) {
+                    eldestKey = eldest.getKey();
+                }
+                return tooBig;
+            }
+        };
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, value);
+        cycleKeyList(key);
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        // 触发一次访问，调整顺序
+        keyMap.get(key);
+        return delegate.getObject(key);
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        keyMap.remove(key);
+        return delegate.removeObject(key);
+    }
+    
+    @Override
+    public void clear() {
+        delegate.clear();
+        keyMap.clear();
+    }
+    
+    private void cycleKeyList(Object key) {
+        keyMap.put(key, key);
+        if (eldestKey != null) {
+            delegate.removeObject(eldestKey);
+            eldestKey = null;
+            if (stats != null) {
+                stats.recordEviction();
+            }
+        }
+    }
+}
+
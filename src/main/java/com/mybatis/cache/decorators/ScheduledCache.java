@@ -0,0 +1,111 @@
+package com.mybatis.cache.decorators;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时清空缓存装饰器
+ * 
+ * 距离上次清空超过clearInterval后，下一次访问时清空整个缓存。
+ * 不启动后台线程，检查发生在每次读写时。
+ * 
+ * 适用场景：数据可能被其他系统修改，只能接受一定时间内的脏读。
+ * 
+ * @author 学习者
+ */
+public class ScheduledCache implements Cache {
+    
+    private final Cache delegate;
+    
+    /**
+     * 清空间隔（纳秒）
+     */
+    private long clearInterval;
+    
+    /**
+     * 上次清空的时间（System.nanoTime()）
+     * 
+     * volatile：套在ConcurrentCache外面时没有外层锁，并发下最多多清空一次
+     */
+    private volatile long lastClear;
+    
+    /**
+     * 定时清空时记录到这里（CacheBuilder开启统计时设置）
+     */
+    private CacheStats stats;
+    
+    public ScheduledCache(Cache delegate) {
+        this.delegate = delegate;
+        this.clearInterval = TimeUnit.HOURS.toNanos(1);
+        this.lastClear = System.nanoTime();
+    }
+    
+    /**
+     * 设置定时清空记录到哪个统计（由CacheBuilder设置为StatsCache的统计）
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+    
+    /**
+     * 设置清空间隔
+     * 
+     * @param clearInterval 间隔（毫秒）
+     */
+    public void setClearInterval(long clearInterval) {
+        this.clearInterval = TimeUnit.MILLISECONDS.toNanos(clearInterval);
+    }
+    
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+    
+    @Override
+    public int getSize() {
+        clearWhenStale();
+        return delegate.getSize();
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return delegate.getStats();
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        clearWhenStale();
+        delegate.putObject(key, value);
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        return clearWhenStale() ? null : delegate.getObject(key);
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        clearWhenStale();
+        return delegate.removeObject(key);
+    }
+    
+    @Override
+    public void clear() {
+        lastClear = System.nanoTime();
+        delegate.clear();
+    }
+    
+    private boolean clearWhenStale() {
+        if (System.nanoTime() - lastClear > clearInterval) {
+            clear();
+            if (stats != null) {
+                stats.recordClear();
+            }
+            return true;
+        }
+        return false;
+    }
+}
+
@@ -0,0 +1,145 @@
+package com.mybatis.cache.decorators;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+import com.mybatis.cache.TableTaggedValue;
+
+import java.lang.ref.Reference;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按行数限制总量的缓存装饰器
+ * 
+ * LRU、FIFO只限制key的个数，但二级缓存的值是查询结果List，
+ * 一个selectAll就可能是几万行。这个装饰器按缓存的总行数限制内存占用：
+ * 1. 每个值的权重 = 结果List的大小（其他类型为1）
+ * 2. 单个值超过maxRows时直接不缓存
+ * 3. 总行数超过maxRows时，按写入顺序移除最早的值
+ * 
+ * CacheBuilder把它放在淘汰策略装饰器的内层，这样LRU等淘汰key时会经过removeObject，权重不会漏算。
+ * 
+ * 线程不安全，由外层的SynchronizedCache保证。
+ * 
+ * @author 学习者
+ */
+public class SizeBoundedCache implements Cache {
+    
+    private final Cache delegate;
+    
+    /**
+     * 每个key的权重，按写入顺序排列（移除任意key都是O(1)）
+     */
+    private final Map<Object, Integer> weights = new LinkedHashMap<>();
+    
+    /**
+     * 当前总行数
+     */
+    private long totalRows;
+    
+    private long maxRows = 100000;
+    
+    /**
+     * 淘汰时记录到这里（CacheBuilder开启统计时设置）
+     */
+    private CacheStats stats;
+    
+    public SizeBoundedCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+    
+    /**
+     * 设置淘汰次数记录到哪个统计（由CacheBuilder设置为StatsCache的统计）
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+    
+    /**
+     * 设置最多缓存的总行数
+     */
+    public void setMaxRows(long maxRows) {
+        this.maxRows = maxRows;
+    }
+    
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+    
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return delegate.getStats();
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        int weight = weigh(value);
+        if (weight > maxRows) {
+            return;
+        }
+        
+        forget(key);
+        delegate.putObject(key, value);
+        weights.put(key, weight);
+        totalRows += weight;
+        
+        Iterator<Map.Entry<Object, Integer>> oldest = weights.entrySet().iterator();
+        while (totalRows > maxRows && oldest.hasNext()) {
+            Map.Entry<Object, Integer> entry = oldest.next();
+            oldest.remove();
+            totalRows -= entry.getValue();
+            delegate.removeObject(entry.getKey());
+            if (stats != null) {
+                stats.recordEviction();
+            }
+        }
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        return delegate.getObject(key);
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        forget(key);
+        return delegate.removeObject(key);
+    }
+    
+    @Override
+    public void clear() {
+        delegate.clear();
+        weights.clear();
+        totalRows = 0;
+    }
+    
+    private void forget(Object key) {
+        Integer weight = weights.remove(key);
+        if (weight != null) {
+            totalRows -= weight;
+        }
+    }
+    
+    private static int weigh(Object value) {
+        // SoftCache、WeakCache在外层时，值是包装后的引用；二级缓存的值带有表版本号
+        if (value instanceof Reference) {
+            value = ((Reference<?>) value).get();
+        }
+        if (value instanceof TableTaggedValue) {
+            value = ((TableTaggedValue) value).getValue();
+        }
+        if (value instanceof Collection) {
+            return Math.max(1, ((Collection<?>) value).size());
+        }
+        return 1;
+    }
+}
+
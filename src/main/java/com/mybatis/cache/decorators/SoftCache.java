@@ -0,0 +1,126 @@
+package com.mybatis.cache.decorators;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 软引用缓存装饰器
+ * 
+ * 值用SoftReference包装，内存不足时由GC回收，不会因为缓存导致OOM。
+ * 最近命中的numberOfHardLinks个值另外保留强引用，避免热点数据被回收。
+ * 
+ * 被回收的值通过ReferenceQueue在下次操作时从被装饰的缓存中移除。
+ * 
+ * 线程不安全，由外层的SynchronizedCache保证。
+ * 
+ * @author 学习者
+ */
+public class SoftCache implements Cache {
+    
+    private final Cache delegate;
+    
+    /**
+     * 最近命中的值（强引用）
+     */
+    private final Deque<Object> hardLinksToAvoidGarbageCollection = new ArrayDeque<>();
+    
+    /**
+     * 被GC回收的软引用
+     */
+    private final ReferenceQueue<Object> queueOfGarbageCollectedEntries = new ReferenceQueue<>();
+    
+    private int numberOfHardLinks = 256;
+    
+    public SoftCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+    
+    @Override
+    public int getSize() {
+        removeGarbageCollectedItems();
+        return delegate.getSize();
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return delegate.getStats();
+    }
+    
+    /**
+     * 设置保留强引用的个数
+     */
+    public void setSize(int size) {
+        this.numberOfHardLinks = size;
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        removeGarbageCollectedItems();
+        delegate.putObject(key, new SoftEntry(key, value, queueOfGarbageCollectedEntries));
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        Object result = null;
+        @SuppressWarnings("unchecked")
+        SoftReference<Object> softReference = (SoftReference<Object>) delegate.getObject(key);
+        if (softReference != null) {
+            result = softReference.get();
+            if (result == null) {
+                delegate.removeObject(key);
+            } else {
+                hardLinksToAvoidGarbageCollection.addFirst(result);
+                if (hardLinksToAvoidGarbageCollection.size() > numberOfHardLinks) {
+                    hardLinksToAvoidGarbageCollection.removeLast();
+                }
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        removeGarbageCollectedItems();
+        @SuppressWarnings("unchecked")
+        SoftReference<Object> softReference = (SoftReference<Object>) delegate.removeObject(key);
+        return softReference == null ? null : softReference.get();
+    }
+    
+    @Override
+    public void clear() {
+        hardLinksToAvoidGarbageCollection.clear();
+        removeGarbageCollectedItems();
+        delegate.clear();
+    }
+    
+    private void removeGarbageCollectedItems() {
+        SoftEntry sv;
+        while ((sv = (SoftEntry) queueOfGarbageCollectedEntries.poll()) != null) {
+            // 同一个key可能已经放入了新值，只移除被回收的那一个
+            if (delegate.getObject(sv.key) == sv) {
+                delegate.removeObject(sv.key);
+            }
+        }
+    }
+    
+    private static class SoftEntry extends SoftReference<Object> {
+        
+        private final Object key;
+        
+        SoftEntry(Object key, Object value, ReferenceQueue<Object> garbageCollectionQueue) {
+            super(value, garbageCollectionQueue);
+            this.key = key;
+        }
+    }
+}
+
@@ -0,0 +1,219 @@
+package com.mybatis.cache.decorators;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+import com.mybatis.cache.TableTaggedValue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 统计缓存装饰器
+ * 
+ * 记录命中、未命中、写入、清空次数和写入的估算字节数，计数器见CacheStats。
+ * 
+ * 淘汰次数不在这里推算：只有淘汰策略自己知道哪次写入挤掉了数据，
+ * CacheBuilder把同一个CacheStats通过setStats交给内层的LRU、FIFO、TinyLFU等装饰器，由它们在淘汰时记录；
+ * ScheduledCache定时清空时记录一次清空。
+ * 
+ * 字节数只估算：集合按第一行的大小乘以行数，JavaBean按字段估算一层。
+ * 
+ * @author 学习者
+ */
+public class StatsCache implements Cache {
+    
+    /**
+     * 对象头 + 引用（按开启压缩指针估算）
+     */
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    
+    /**
+     * 每个类的浅大小（对象头 + 所有实例字段），每个类只反射一次
+     */
+    private static final ClassValue<Integer> SHALLOW_SIZES = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            long size = OBJECT_HEADER;
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += fieldSize(field.getType());
+                    }
+                }
+            }
+            return (int) align(size);
+        }
+    };
+    
+    /**
+     * JavaBean的引用类型字段，每个类只反射一次
+     */
+    private static final ClassValue<List<Field>> REFERENCE_FIELDS = new ClassValue<List<Field>>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    } catch (RuntimeException e) {
+                        // 无法访问的字段（例如模块限制）不计入
+                    }
+                }
+            }
+            return fields;
+        }
+    };
+    
+    private final Cache delegate;
+    
+    private final CacheStats stats;
+    
+    public StatsCache(Cache delegate) {
+        this(delegate, new CacheStats());
+    }
+    
+    /**
+     * @param stats 和内层淘汰策略共用的统计
+     */
+    public StatsCache(Cache delegate, CacheStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+    
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, value);
+        stats.recordPut(estimateSize(value));
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        Object value = delegate.getObject(key);
+        if (value == null) {
+            stats.recordMiss();
+        } else {
+            stats.recordHit();
+        }
+        return value;
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        return delegate.removeObject(key);
+    }
+    
+    @Override
+    public void clear() {
+        delegate.clear();
+        stats.recordClear();
+    }
+    
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+    
+    /**
+     * 估算缓存值的字节数
+     */
+    private static long estimateSize(Object value) {
+        if (value instanceof TableTaggedValue) {
+            TableTaggedValue tagged = (TableTaggedValue) value;
+            return OBJECT_HEADER + REFERENCE * 3 + estimateSize(tagged.getValue());
+        }
+        if (value instanceof Collection) {
+            Collection<?> rows = (Collection<?>) value;
+            if (rows.isEmpty()) {
+                return OBJECT_HEADER * 2;
+            }
+            // 查询结果每一行结构相同，只估算第一行
+            Object first = rows.iterator().next();
+            return OBJECT_HEADER * 2 + (long) rows.size() * (REFERENCE + estimateRow(first));
+        }
+        return estimateRow(value);
+    }
+    
+    private static long estimateRow(Object row) {
+        if (row == null) {
+            return 0;
+        }
+        if (row instanceof Map) {
+            long size = OBJECT_HEADER * 3;
+            for (Object column : ((Map<?, ?>) row).values()) {
+                // 每个Entry：对象头 + key、value、next引用 + hash
+                size += OBJECT_HEADER + REFERENCE * 3 + 4 + estimateValue(column);
+            }
+            return size;
+        }
+        if (row.getClass().getName().startsWith("java.")) {
+            return estimateValue(row);
+        }
+        long size = SHALLOW_SIZES.get(row.getClass());
+        for (Field field : REFERENCE_FIELDS.get(row.getClass())) {
+            try {
+                size += estimateValue(field.get(row));
+            } catch (IllegalAccessException e) {
+                // 读不到的字段只算引用本身
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * 估算单个列值（不再往下递归）
+     */
+    private static long estimateValue(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence) {
+            // String对象 + char/byte数组
+            return OBJECT_HEADER + 8 + OBJECT_HEADER + align(((CharSequence) value).length() * 2L);
+        }
+        if (value instanceof byte[]) {
+            return OBJECT_HEADER + align(((byte[]) value).length);
+        }
+        return SHALLOW_SIZES.get(value.getClass());
+    }
+    
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+    
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
+
@@ -0,0 +1,98 @@
+package com.mybatis.cache.decorators;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 同步缓存装饰器
+ * 
+ * 二级缓存被所有SqlSession共享，而PerpetualCache基于HashMap，线程不安全。
+ * 这个装饰器用一把锁把所有操作串行化。
+ * 
+ * 设计模式：装饰器模式
+ * 
+ * @author 学习者
+ */
+public class SynchronizedCache implements Cache {
+    
+    private final Cache delegate;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    public SynchronizedCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        lock.lock();
+        try {
+            delegate.putObject(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        lock.lock();
+        try {
+            return delegate.getObject(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        lock.lock();
+        try {
+            return delegate.removeObject(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            delegate.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public int getSize() {
+        lock.lock();
+        try {
+            return delegate.getSize();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return delegate.getStats();
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        return delegate.equals(obj);
+    }
+    
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+}
+
@@ -0,0 +1,156 @@
+package com.mybatis.cache.decorators;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 事务缓存装饰器
+ * 
+ * 二级缓存被所有SqlSession共享，未提交事务里查到的数据不能马上让别的会话看到：
+ * 1. putObject只暂存在当前事务中，commit()时才真正写入二级缓存
+ * 2. clear()只做标记，commit()时才真正清空二级缓存
+ * 3. rollback()丢弃暂存的数据
+ * 
+ * 每个SqlSession对每个二级缓存各有一个TransactionalCache，所以本身不需要加锁。
+ * 
+ * @author 学习者
+ */
+public class TransactionalCache implements Cache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransactionalCache.class);
+    
+    /**
+     * 真正的二级缓存
+     */
+    private final Cache delegate;
+    
+    /**
+     * 提交时是否先清空二级缓存（事务中执行过更新）
+     */
+    private boolean clearOnCommit;
+    
+    /**
+     * 等待提交的数据
+     */
+    private final Map<Object, Object> entriesToAddOnCommit = new HashMap<>();
+    
+    /**
+     * 未命中的key
+     * 
+     * 外层是BlockingCache时，未命中的key被当前事务锁住，提交或回滚时必须释放
+     */
+    private final Set<Object> entriesMissedInCache = new HashSet<>();
+    
+    /**
+     * 外层的BlockingCache（没有时为null），以当前事务缓存作为锁的持有者
+     */
+    private final BlockingCache blockingCache;
+    
+    public TransactionalCache(Cache delegate) {
+        this.delegate = delegate;
+        this.blockingCache = delegate instanceof BlockingCache ? (BlockingCache) delegate : null;
+    }
+    
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+    
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return delegate.getStats();
+    }
+    
+    /**
+     * 事务中已经执行过更新时，二级缓存里的数据可能已经过期，直接当作未命中
+     */
+    @Override
+    public Object getObject(Object key) {
+        Object object = blockingCache != null ? blockingCache.getObject(key, this) : delegate.getObject(key);
+        if (object == null) {
+            entriesMissedInCache.add(key);
+        }
+        if (clearOnCommit) {
+            return null;
+        }
+        return object;
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        entriesToAddOnCommit.put(key, value);
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        return null;
+    }
+    
+    @Override
+    public void clear() {
+        clearOnCommit = true;
+        entriesToAddOnCommit.clear();
+    }
+    
+    /**
+     * 提交：按需清空二级缓存，再写入暂存的数据
+     */
+    public void commit() {
+        if (clearOnCommit) {
+            delegate.clear();
+            logger.debug("二级缓存已清空: {}", getId());
+        }
+        for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
+            if (blockingCache != null) {
+                blockingCache.putObject(entry.getKey(), entry.getValue(), this);
+            } else {
+                delegate.putObject(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!entriesToAddOnCommit.isEmpty()) {
+            logger.debug("写入二级缓存: {} [{}条]", getId(), entriesToAddOnCommit.size());
+        }
+        // 未命中但也没有写入的key（例如查询失败），释放锁
+        for (Object key : entriesMissedInCache) {
+            if (!entriesToAddOnCommit.containsKey(key)) {
+                releaseLock(key);
+            }
+        }
+        reset();
+    }
+    
+    /**
+     * 回滚：丢弃暂存的数据，释放未命中的key
+     */
+    public void rollback() {
+        for (Object key : entriesMissedInCache) {
+            releaseLock(key);
+        }
+        reset();
+    }
+    
+    private void releaseLock(Object key) {
+        if (blockingCache != null) {
+            blockingCache.releaseLock(key, this);
+        }
+    }
+    
+    private void reset() {
+        clearOnCommit = false;
+        entriesToAddOnCommit.clear();
+        entriesMissedInCache.clear();
+    }
+}
+
@@ -0,0 +1,126 @@
+package com.mybatis.cache.decorators;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 弱引用缓存装饰器
+ * 
+ * 值用WeakReference包装，没有其他强引用时下一次GC就会回收，比SoftCache回收得更积极。
+ * 最近命中的numberOfHardLinks个值另外保留强引用，避免热点数据被回收。
+ * 
+ * 被回收的值通过ReferenceQueue在下次操作时从被装饰的缓存中移除。
+ * 
+ * 线程不安全，由外层的SynchronizedCache保证。
+ * 
+ * @author 学习者
+ */
+public class WeakCache implements Cache {
+    
+    private final Cache delegate;
+    
+    /**
+     * 最近命中的值（强引用）
+     */
+    private final Deque<Object> hardLinksToAvoidGarbageCollection = new ArrayDeque<>();
+    
+    /**
+     * 被GC回收的弱引用
+     */
+    private final ReferenceQueue<Object> queueOfGarbageCollectedEntries = new ReferenceQueue<>();
+    
+    private int numberOfHardLinks = 256;
+    
+    public WeakCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+    
+    @Override
+    public int getSize() {
+        removeGarbageCollectedItems();
+        return delegate.getSize();
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return delegate.getStats();
+    }
+    
+    /**
+     * 设置保留强引用的个数
+     */
+    public void setSize(int size) {
+        this.numberOfHardLinks = size;
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        removeGarbageCollectedItems();
+        delegate.putObject(key, new WeakEntry(key, value, queueOfGarbageCollectedEntries));
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        Object result = null;
+        @SuppressWarnings("unchecked")
+        WeakReference<Object> weakReference = (WeakReference<Object>) delegate.getObject(key);
+        if (weakReference != null) {
+            result = weakReference.get();
+            if (result == null) {
+                delegate.removeObject(key);
+            } else {
+                hardLinksToAvoidGarbageCollection.addFirst(result);
+                if (hardLinksToAvoidGarbageCollection.size() > numberOfHardLinks) {
+                    hardLinksToAvoidGarbageCollection.removeLast();
+                }
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        removeGarbageCollectedItems();
+        @SuppressWarnings("unchecked")
+        WeakReference<Object> weakReference = (WeakReference<Object>) delegate.removeObject(key);
+        return weakReference == null ? null : weakReference.get();
+    }
+    
+    @Override
+    public void clear() {
+        hardLinksToAvoidGarbageCollection.clear();
+        removeGarbageCollectedItems();
+        delegate.clear();
+    }
+    
+    private void removeGarbageCollectedItems() {
+        WeakEntry sv;
+        while ((sv = (WeakEntry) queueOfGarbageCollectedEntries.poll()) != null) {
+            // 同一个key可能已经放入了新值，只移除被回收的那一个
+            if (delegate.getObject(sv.key) == sv) {
+                delegate.removeObject(sv.key);
+            }
+        }
+    }
+    
+    private static class WeakEntry extends WeakReference<Object> {
+        
+        private final Object key;
+        
+        WeakEntry(Object key, Object value, ReferenceQueue<Object> garbageCollectionQueue) {
+            super(value, garbageCollectionQueue);
+            this.key = key;
+        }
+    }
+}
+
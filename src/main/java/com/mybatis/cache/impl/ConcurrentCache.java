@@ -0,0 +1,212 @@
+package com.mybatis.cache.impl;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 并发缓存实现
+ * 
+ * PerpetualCache基于HashMap，作为二级缓存时只能套一层SynchronizedCache，
+ * 所有请求线程都在同一把锁上排队。ConcurrentCache本身就是线程安全的：
+ * 1. 按key的哈希分成多个段，每段一个ConcurrentHashMap和一把锁
+ * 2. 读操作不加锁，只在命中的节点上打一个"最近访问"标记
+ * 3. 写操作只锁自己的段；段内超出容量时按CLOCK算法淘汰（近似LRU）：
+ *    从最早写入的节点开始，有访问标记的清掉标记再给一次机会，没有标记的淘汰
+ * 
+ * 每次写入最多淘汰到段容量以内，淘汰开销分摊到每次写入上。
+ * 
+ * 使用方式：
+ * <cache type="com.mybatis.cache.impl.ConcurrentCache" size="10000"/>
+ * 
+ * CacheBuilder不会再给它套SynchronizedCache。
+ * 
+ * @author 学习者
+ */
+public class ConcurrentCache implements Cache {
+    
+    private static final int MAX_SEGMENTS = 64;
+    
+    private final String id;
+    
+    private volatile Segment[] segments;
+    
+    /**
+     * 淘汰时记录到这里（CacheBuilder开启统计时设置）
+     */
+    private volatile CacheStats stats;
+    
+    public ConcurrentCache(String id) {
+        this.id = id;
+        setSize(1024);
+    }
+    
+    /**
+     * 设置淘汰次数记录到哪个统计（由CacheBuilder设置为StatsCache的统计）
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+    
+    /**
+     * 设置最多缓存多少个key（会清空已有数据）
+     */
+    public void setSize(int size) {
+        int maximumSize = Math.max(1, size);
+        // 段数：CPU核数的4倍向上取2的幂，不超过MAX_SEGMENTS，每段至少能放16个key
+        int count = 1;
+        int wanted = Math.min(MAX_SEGMENTS, Runtime.getRuntime().availableProcessors() * 4);
+        while (count < wanted && count * 2 * 16 <= maximumSize) {
+            count <<= 1;
+        }
+        
+        int perSegment = (maximumSize + count - 1) / count;
+        Segment[] newSegments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            newSegments[i] = new Segment(perSegment);
+        }
+        this.segments = newSegments;
+    }
+    
+    @Override
+    public String getId() {
+        return id;
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        segmentFor(key).put(key, value, stats);
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        Node node = segmentFor(key).map.get(key);
+        if (node == null) {
+            return null;
+        }
+        // 只写一个volatile标记，不加锁
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        return node.value;
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        Node node = segmentFor(key).map.remove(key);
+        return node == null ? null : node.value;
+    }
+    
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+    
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.map.size();
+        }
+        return size;
+    }
+    
+    private Segment segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        h *= 0x45d9f3b;
+        h ^= (h >>> 16);
+        Segment[] current = segments;
+        return current[h & (current.length - 1)];
+    }
+    
+    private static final class Node {
+        
+        private final Object key;
+        
+        private volatile Object value;
+        
+        private volatile boolean referenced;
+        
+        Node(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+    
+    private static final class Segment {
+        
+        private final Map<Object, Node> map = new ConcurrentHashMap<>();
+        
+        private final ReentrantLock lock = new ReentrantLock();
+        
+        /**
+         * CLOCK队列（写入顺序，只在持有锁时访问）
+         */
+        private final ArrayDeque<Node> clock = new ArrayDeque<>();
+        
+        private final int capacity;
+        
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+        
+        void put(Object key, Object value, CacheStats stats) {
+            lock.lock();
+            try {
+                Node node = map.get(key);
+                if (node != null) {
+                    node.value = value;
+                    node.referenced = true;
+                    return;
+                }
+                node = new Node(key, value);
+                map.put(key, node);
+                clock.addLast(node);
+                evictIfNeeded(stats);
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void clear() {
+            lock.lock();
+            try {
+                map.clear();
+                clock.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private void evictIfNeeded(CacheStats stats) {
+            while (map.size() > capacity) {
+                Node node = clock.pollFirst();
+                if (node == null) {
+                    return;
+                }
+                // 已经被removeObject移除或被替换的节点，直接丢弃
+                if (map.get(node.key) != node) {
+                    continue;
+                }
+                if (node.referenced) {
+                    node.referenced = false;
+                    clock.addLast(node);
+                } else if (map.remove(node.key, node) && stats != null) {
+                    stats.recordEviction();
+                }
+            }
+            // 被removeObject移除的节点会留在队列里，队列明显偏长时清理一次
+            if (clock.size() > capacity * 2) {
+                clock.removeIf(node -> map.get(node.key) != node);
+            }
+        }
+    }
+}
+
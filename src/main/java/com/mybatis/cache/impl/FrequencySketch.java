@@ -0,0 +1,115 @@
+package com.mybatis.cache.impl;
+
+/**
+ * 访问频率估计器（Count-Min Sketch）
+ * 
+ * 用固定大小的计数器表近似记录每个key的访问次数，内存占用与缓存容量成正比，
+ * 与访问过的key总数无关。
+ * 
+ * 实现要点：
+ * 1. 每个long存放16个4位计数器，单个计数器最大为15
+ * 2. 每个key按4个不同的种子映射到4个计数器，取最小值作为估计频率
+ * 3. 累计增加次数达到sampleSize（10倍容量）时所有计数器减半，让旧的热点逐渐冷却
+ * 
+ * 线程不安全，只在TinyLfuCache内部使用。
+ * 
+ * @author 学习者
+ */
+final class FrequencySketch {
+    
+    private static final long[] SEED = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    
+    private static final long RESET_MASK = 0x7777777777777777L;
+    
+    private static final long ONE_MASK = 0x1111111111111111L;
+    
+    private final long[] table;
+    
+    private final int tableMask;
+    
+    private final int sampleSize;
+    
+    /**
+     * 距离上次减半以来增加的次数
+     */
+    private int size;
+    
+    FrequencySketch(int maximumSize) {
+        int capacity = Math.max(16, Math.min(maximumSize, 1 << 30));
+        this.table = new long[ceilingPowerOfTwo(capacity)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * capacity;
+    }
+    
+    /**
+     * 估计key的访问频率（0~15）
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+    
+    /**
+     * 记录一次访问
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+    
+    private boolean incrementAt(int i, int j) {
+        int offset = j << 2;
+        long mask = 0xfL << offset;
+        if ((table[i] & mask) != mask) {
+            table[i] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 所有计数器减半
+     */
+    private void reset() {
+        int count = 0;
+        for (int i = 0; i < table.length; i++) {
+            // 奇数计数器减半时丢掉的那一半
+            count += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (count >>> 2);
+    }
+    
+    private int indexOf(int item, int i) {
+        long hash = (item + SEED[i]) * SEED[i];
+        hash += hash >>> 32;
+        return ((int) hash) & tableMask;
+    }
+    
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+    
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+}
+
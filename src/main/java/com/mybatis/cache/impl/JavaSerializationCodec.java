@@ -0,0 +1,53 @@
+package com.mybatis.cache.impl;
+
+import com.mybatis.cache.CacheCodec;
+import com.mybatis.exceptions.MyBatisException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Modifier;
+
+/**
+ * 基于Java序列化的缓存编解码器
+ * 
+ * 缓存值（查询结果List中的每个对象）必须实现Serializable，解析Mapper时通过supports检查resultType。
+ * 
+ * @author 学习者
+ */
+public class JavaSerializationCodec implements CacheCodec {
+    
+    @Override
+    public byte[] encode(Object value) {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new MyBatisException("缓存值序列化失败（结果对象需要实现Serializable）: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 接口和抽象类（例如resultType为Map）只能在运行时看实际的对象，这里放过
+     */
+    @Override
+    public boolean supports(Class<?> type) {
+        return type.isPrimitive() || type.isInterface() || Modifier.isAbstract(type.getModifiers())
+            || Serializable.class.isAssignableFrom(type);
+    }
+    
+    @Override
+    public Object decode(byte[] bytes) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new MyBatisException("缓存值反序列化失败: " + e.getMessage(), e);
+        }
+    }
+}
+
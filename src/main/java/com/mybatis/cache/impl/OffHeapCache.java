@@ -0,0 +1,470 @@
+package com.mybatis.cache.impl;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheCodec;
+import com.mybatis.exceptions.MyBatisException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 堆外缓存实现
+ * 
+ * 缓存值经过CacheCodec编码后存放在堆外的ByteBuffer中，堆上只保留key和位置信息，
+ * 缓存几百MB的查询结果也不会让GC停顿变长。
+ * 
+ * 存储结构（日志结构，只追加）：
+ * 1. 内存层：若干个固定大小的堆外slab（DirectByteBuffer），总大小不超过maxBytes
+ * 2. 溢出层（配置了spillDirectory时）：spillDirectory下内存映射的文件slab，总大小不超过maxSpillBytes
+ * 
+ * 写入总是追加到当前slab的末尾；slab写满且数量已到上限时，最旧的slab被回收：
+ * - 内存层：slab中仍然有效的数据搬到溢出层（没有溢出层时直接丢弃），然后slab被重新使用
+ * - 溢出层：slab中仍然有效的数据直接丢弃
+ * 覆盖和删除只修改堆上的索引，旧数据占用的空间在slab被回收时一起释放。
+ * 
+ * 每次读取都解码出一个新的对象，调用方修改结果不会影响缓存（读时复制）。
+ * removeObject不解码，总是返回null。
+ * 
+ * 使用方式：
+ * <pre>
+ * &lt;cache type="com.mybatis.cache.impl.OffHeapCache"&gt;
+ *     &lt;property name="maxBytes" value="268435456"/&gt;
+ *     &lt;property name="spillDirectory" value="/data/mybatis-cache"/&gt;
+ *     &lt;property name="maxSpillBytes" value="2147483648"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ * 
+ * 线程安全：索引和slab由一把ReentrantLock保护，锁内只做字节拷贝；
+ * 编码和解码（序列化）都在锁外进行，CacheBuilder不再给它套SynchronizedCache。
+ * 
+ * @author 学习者
+ */
+public class OffHeapCache implements Cache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapCache.class);
+    
+    private final String id;
+    
+    /**
+     * key → 缓存值在slab中的位置（堆上只有这一部分）
+     */
+    private final Map<Object, Location> index = new HashMap<>();
+    
+    /**
+     * 保护index、两层存储和配置
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private volatile CacheCodec codec = new JavaSerializationCodec();
+    
+    /**
+     * 是否已经打印过编码失败的警告（只打印一次，并发时最多多打印几次）
+     */
+    private volatile boolean encodeFailureLogged;
+    
+    /**
+     * 单个slab的字节数，超过这个大小的值不缓存
+     */
+    private int slabSize = 4 * 1024 * 1024;
+    
+    /**
+     * 堆外内存的字节上限
+     */
+    private long maxBytes = 64L * 1024 * 1024;
+    
+    /**
+     * 溢出文件所在目录（null表示不溢出）
+     */
+    private File spillDirectory;
+    
+    /**
+     * 溢出文件的字节上限
+     */
+    private long maxSpillBytes = 1024L * 1024 * 1024;
+    
+    private Tier memory;
+    
+    private Tier spill;
+    
+    public OffHeapCache(String id) {
+        this.id = id;
+        reset();
+    }
+    
+    /**
+     * 设置单个slab的字节数（会清空已有数据）
+     */
+    public void setSlabSize(int slabSize) {
+        if (slabSize <= 0) {
+            throw new MyBatisException("slabSize必须大于0: " + slabSize);
+        }
+        this.slabSize = slabSize;
+        reset();
+    }
+    
+    /**
+     * 设置堆外内存的字节上限（会清空已有数据）
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        reset();
+    }
+    
+    /**
+     * 设置溢出文件所在目录，目录不存在时自动创建（会清空已有数据）
+     */
+    public void setSpillDirectory(String spillDirectory) {
+        if (spillDirectory == null || spillDirectory.trim().isEmpty()) {
+            this.spillDirectory = null;
+        } else {
+            File directory = new File(spillDirectory.trim());
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new MyBatisException("无法创建缓存溢出目录: " + directory.getAbsolutePath());
+            }
+            this.spillDirectory = directory;
+        }
+        reset();
+    }
+    
+    /**
+     * 设置溢出文件的字节上限（会清空已有数据）
+     */
+    public void setMaxSpillBytes(long maxSpillBytes) {
+        this.maxSpillBytes = maxSpillBytes;
+        reset();
+    }
+    
+    /**
+     * 设置编解码器（会清空已有数据）
+     */
+    public void setCodec(CacheCodec codec) {
+        this.codec = codec;
+        reset();
+    }
+    
+    public CacheCodec getCodec() {
+        return codec;
+    }
+    
+    /**
+     * 按类名设置编解码器，需要无参构造方法（会清空已有数据）
+     */
+    public void setCodecType(String codecType) {
+        try {
+            Class<?> codecClass = Class.forName(codecType.trim());
+            if (!CacheCodec.class.isAssignableFrom(codecClass)) {
+                throw new MyBatisException("不是CacheCodec的实现类: " + codecType);
+            }
+            setCodec((CacheCodec) codecClass.getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new MyBatisException("创建缓存编解码器失败: " + codecType, e);
+        }
+    }
+    
+    /**
+     * 堆外内存中有效数据的字节数
+     */
+    public long getMemoryBytes() {
+        lock.lock();
+        try {
+            return memory.liveBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 溢出文件中有效数据的字节数
+     */
+    public long getSpillBytes() {
+        lock.lock();
+        try {
+            return spill == null ? 0 : spill.liveBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public String getId() {
+        return id;
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        // 编码在锁外进行；写入发生在事务提交之后，编码失败不能让已经提交的事务报错，只是不缓存这个值
+        byte[] bytes;
+        try {
+            bytes = codec.encode(value);
+        } catch (RuntimeException e) {
+            if (!encodeFailureLogged) {
+                encodeFailureLogged = true;
+                logger.warn("缓存值编码失败，不缓存（之后的失败不再提示）: {}", id, e);
+            } else {
+                logger.debug("缓存值编码失败，不缓存: {} {}", id, e.getMessage());
+            }
+            bytes = null;
+        }
+        
+        lock.lock();
+        try {
+            discard(index.remove(key));
+            if (bytes == null) {
+                return;
+            }
+            if (bytes.length > slabSize) {
+                logger.warn("缓存值{}字节，超过slabSize({})，不缓存: {}", bytes.length, slabSize, id);
+                return;
+            }
+            index.put(key, write(memory, key, bytes));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        // 锁内只拷贝字节，解码在锁外进行（slab可能在锁释放后被回收，不能直接在slab上解码）
+        byte[] bytes;
+        lock.lock();
+        try {
+            Location location = index.get(key);
+            if (location == null) {
+                return null;
+            }
+            bytes = read(location);
+        } finally {
+            lock.unlock();
+        }
+        return codec.decode(bytes);
+    }
+    
+    /**
+     * 移除缓存值：只释放空间，不解码旧值
+     * 
+     * @return 总是null
+     */
+    @Override
+    public Object removeObject(Object key) {
+        lock.lock();
+        try {
+            discard(index.remove(key));
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            index.clear();
+            memory.clear();
+            if (spill != null) {
+                spill.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public int getSize() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 按当前配置重建两层存储（已有数据全部丢弃）
+     */
+    private void reset() {
+        lock.lock();
+        try {
+            index.clear();
+            memory = new Tier(false, maxSlabs(maxBytes));
+            spill = spillDirectory == null ? null : new Tier(true, maxSlabs(maxSpillBytes));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private int maxSlabs(long limit) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, limit / slabSize));
+    }
+    
+    /**
+     * 追加写入一层存储，当前slab写满时换到下一个slab
+     */
+    private Location write(Tier tier, Object key, byte[] bytes) {
+        Slab slab = tier.slabs.peekLast();
+        if (slab == null || slabSize - slab.position < bytes.length) {
+            slab = nextSlab(tier);
+        }
+        
+        Location location = new Location(tier, slab, slab.position, bytes.length);
+        ByteBuffer buffer = slab.buffer.duplicate();
+        // 转成Buffer调用，避免JDK9+编译出的ByteBuffer.position(int)在Java 8上找不到
+        ((Buffer) buffer).position(slab.position);
+        buffer.put(bytes);
+        slab.position += bytes.length;
+        slab.keys.add(key);
+        tier.liveBytes += bytes.length;
+        return location;
+    }
+    
+    /**
+     * 取一个空的slab：数量没到上限时新建，否则回收最旧的slab
+     */
+    private Slab nextSlab(Tier tier) {
+        Slab slab;
+        if (tier.slabs.size() < tier.maxSlabs) {
+            slab = new Slab(tier.mapped ? mapSpillFile() : ByteBuffer.allocateDirect(slabSize));
+        } else {
+            slab = tier.slabs.pollFirst();
+            recycle(tier, slab);
+        }
+        tier.slabs.addLast(slab);
+        return slab;
+    }
+    
+    /**
+     * 回收slab：内存层中仍然有效的数据搬到溢出层，溢出层中的直接丢弃
+     */
+    private void recycle(Tier tier, Slab slab) {
+        int moved = 0;
+        int dropped = 0;
+        for (Object key : slab.keys) {
+            Location location = index.get(key);
+            if (location == null || location.slab != slab) {
+                continue;
+            }
+            tier.liveBytes -= location.length;
+            if (!tier.mapped && spill != null) {
+                index.put(key, write(spill, key, read(location)));
+                moved++;
+            } else {
+                index.remove(key);
+                dropped++;
+            }
+        }
+        slab.clear();
+        logger.debug("回收{}slab: {} (溢出{}个，淘汰{}个)", tier.mapped ? "溢出文件" : "堆外内存", id, moved, dropped);
+    }
+    
+    private ByteBuffer mapSpillFile() {
+        try {
+            File file = File.createTempFile(id + "-", ".slab", spillDirectory);
+            file.deleteOnExit();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(slabSize);
+                // 映射在文件关闭后依然有效
+                return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, slabSize);
+            }
+        } catch (IOException e) {
+            throw new MyBatisException("创建缓存溢出文件失败: " + spillDirectory.getAbsolutePath(), e);
+        }
+    }
+    
+    private byte[] read(Location location) {
+        byte[] bytes = new byte[location.length];
+        ByteBuffer buffer = location.slab.buffer.duplicate();
+        ((Buffer) buffer).position(location.offset);
+        buffer.get(bytes);
+        return bytes;
+    }
+    
+    /**
+     * 覆盖或删除后，旧数据不再有效（空间在slab回收时释放）
+     */
+    private void discard(Location location) {
+        if (location != null) {
+            location.tier.liveBytes -= location.length;
+        }
+    }
+    
+    /**
+     * 一层存储：内存层或溢出层
+     */
+    private static final class Tier {
+        
+        private final boolean mapped;
+        
+        private final int maxSlabs;
+        
+        /**
+         * 头部最旧，尾部是当前写入的slab
+         */
+        private final ArrayDeque<Slab> slabs = new ArrayDeque<>();
+        
+        private long liveBytes;
+        
+        Tier(boolean mapped, int maxSlabs) {
+            this.mapped = mapped;
+            this.maxSlabs = maxSlabs;
+        }
+        
+        void clear() {
+            for (Slab slab : slabs) {
+                slab.clear();
+            }
+            liveBytes = 0;
+        }
+    }
+    
+    private static final class Slab {
+        
+        private final ByteBuffer buffer;
+        
+        /**
+         * 写入过这个slab的key（回收时用来找出仍然有效的数据）
+         */
+        private final List<Object> keys = new ArrayList<>();
+        
+        private int position;
+        
+        Slab(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        void clear() {
+            keys.clear();
+            position = 0;
+        }
+    }
+    
+    private static final class Location {
+        
+        private final Tier tier;
+        
+        private final Slab slab;
+        
+        private final int offset;
+        
+        private final int length;
+        
+        Location(Tier tier, Slab slab, int offset, int length) {
+            this.tier = tier;
+            this.slab = slab;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
+
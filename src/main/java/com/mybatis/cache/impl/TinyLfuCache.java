@@ -0,0 +1,288 @@
+package com.mybatis.cache.impl;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * W-TinyLFU缓存实现
+ * 
+ * LRU只看最近一次访问，一次全表扫描（例如selectAll的大量不同参数）就能把热点数据全部挤出去。
+ * W-TinyLFU在淘汰前先比较访问频率，只有比被淘汰者更"热"的数据才能进入主区域。
+ * 
+ * 结构：
+ * 1. 窗口区（1%容量，LRU）：新数据先进入这里，给突发的新热点一个积累频率的机会
+ * 2. 主区域（99%容量，分段LRU）：
+ *    - 试用段（20%）：从窗口区晋升上来的数据
+ *    - 保护段（80%）：在试用段中再次被访问的数据
+ * 3. 频率过滤器（FrequencySketch）：记录所有key（包括已经被淘汰的）的近似访问频率
+ * 
+ * 淘汰过程：
+ * - 窗口区满了，最旧的数据成为候选者，进入试用段
+ * - 总数超出容量时，候选者与试用段最旧的数据（受害者）比较频率，频率低的被淘汰
+ * 
+ * 使用方式：
+ * <cache type="com.mybatis.cache.impl.TinyLfuCache" size="10000"/>
+ * 
+ * 线程不安全，由外层的SynchronizedCache保证。
+ * 
+ * @author 学习者
+ */
+public class TinyLfuCache implements Cache {
+    
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    
+    private final String id;
+    
+    private final Map<Object, Node> data = new HashMap<>();
+    
+    /**
+     * 三个区域的LRU链表（头部最旧，尾部最新）
+     */
+    private final AccessOrderDeque[] queues = {
+        new AccessOrderDeque(), new AccessOrderDeque(), new AccessOrderDeque()
+    };
+    
+    private int maximumSize;
+    
+    private int maxWindow;
+    
+    private int maxProtected;
+    
+    private FrequencySketch sketch;
+    
+    /**
+     * 淘汰时记录到这里（CacheBuilder开启统计时设置）
+     */
+    private CacheStats stats;
+    
+    public TinyLfuCache(String id) {
+        this.id = id;
+        setSize(1024);
+    }
+    
+    /**
+     * 设置淘汰次数记录到哪个统计（由CacheBuilder设置为StatsCache的统计）
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+    
+    /**
+     * 设置最多缓存多少个key（会清空已有数据）
+     */
+    public void setSize(int size) {
+        this.maximumSize = Math.max(1, size);
+        this.maxWindow = Math.max(1, maximumSize / 100);
+        this.maxProtected = (int) ((maximumSize - maxWindow) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+        clear();
+    }
+    
+    @Override
+    public String getId() {
+        return id;
+    }
+    
+    @Override
+    public void putObject(Object key, Object value) {
+        sketch.increment(key);
+        Node node = data.get(key);
+        if (node != null) {
+            node.value = value;
+            onHit(node);
+            return;
+        }
+        
+        node = new Node(key, value);
+        data.put(key, node);
+        queues[WINDOW].addLast(node);
+        
+        // 窗口区满了：最旧的数据成为候选者进入试用段
+        Node candidate = null;
+        if (queues[WINDOW].size > maxWindow) {
+            candidate = queues[WINDOW].pollFirst();
+            candidate.queue = PROBATION;
+            queues[PROBATION].addLast(candidate);
+        }
+        
+        if (data.size() > maximumSize) {
+            evict(candidate);
+        }
+    }
+    
+    @Override
+    public Object getObject(Object key) {
+        sketch.increment(key);
+        Node node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        onHit(node);
+        return node.value;
+    }
+    
+    @Override
+    public Object removeObject(Object key) {
+        Node node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        queues[node.queue].remove(node);
+        return node.value;
+    }
+    
+    @Override
+    public void clear() {
+        data.clear();
+        for (AccessOrderDeque queue : queues) {
+            queue.clear();
+        }
+    }
+    
+    @Override
+    public int getSize() {
+        return data.size();
+    }
+    
+    /**
+     * 命中：窗口区和保护段内移到尾部，试用段的数据晋升到保护段
+     */
+    private void onHit(Node node) {
+        if (node.queue != PROBATION) {
+            queues[node.queue].moveToLast(node);
+            return;
+        }
+        
+        queues[PROBATION].remove(node);
+        node.queue = PROTECTED;
+        queues[PROTECTED].addLast(node);
+        
+        // 保护段满了：最旧的数据降级回试用段
+        if (queues[PROTECTED].size > maxProtected) {
+            Node demoted = queues[PROTECTED].pollFirst();
+            demoted.queue = PROBATION;
+            queues[PROBATION].addLast(demoted);
+        }
+    }
+    
+    /**
+     * 淘汰一个数据
+     * 
+     * 有候选者时，候选者与受害者（试用段最旧的数据）比较频率，保留更热的那个；
+     * 频率相同时淘汰候选者，避免一次性扫描的数据挤掉老数据。
+     */
+    private void evict(Node candidate) {
+        Node victim = queues[PROBATION].peekFirst();
+        if (victim == candidate) {
+            victim = null;
+        }
+        if (victim == null) {
+            victim = queues[PROTECTED].peekFirst();
+        }
+        if (victim == null) {
+            victim = queues[WINDOW].peekFirst();
+        }
+        
+        Node evicted = victim;
+        if (candidate != null && victim != null
+                && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+            evicted = candidate;
+        }
+        if (evicted == null) {
+            evicted = candidate;
+        }
+        removeObject(evicted.key);
+        if (stats != null) {
+            stats.recordEviction();
+        }
+    }
+    
+    private static final class Node {
+        
+        private final Object key;
+        
+        private Object value;
+        
+        private int queue = WINDOW;
+        
+        private Node prev;
+        
+        private Node next;
+        
+        Node(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+    
+    /**
+     * 双向链表，节点自带前后指针，移动是O(1)
+     */
+    private static final class AccessOrderDeque {
+        
+        private Node head;
+        
+        private Node tail;
+        
+        private int size;
+        
+        void addLast(Node node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+        
+        Node peekFirst() {
+            return head;
+        }
+        
+        Node pollFirst() {
+            Node node = head;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+        
+        void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+        
+        void moveToLast(Node node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+        
+        void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
+
@@ -0,0 +1,49 @@
+package com.mybatis.cursor;
+
+import java.io.Closeable;
+
+/**
+ * 游标 - 流式读取查询结果 ⭐⭐⭐⭐
+ * 
+ * 与selectList的区别：
+ * - selectList：一次性把所有行映射成对象放进List，内存占用和结果集大小成正比
+ * - Cursor：遍历时才从ResultSet读取下一行并映射，任何时刻只持有当前这一行
+ * 
+ * 游标不会放进一级缓存。
+ * 
+ * 使用示例：
+ * <pre>
+ * try (Cursor&lt;Product&gt; cursor = session.selectCursor("ProductMapper.selectAll", null)) {
+ *     for (Product product : cursor) {
+ *         export(product);
+ *     }
+ * }
+ * </pre>
+ * 
+ * 注意：
+ * - 游标依赖数据库连接，必须在SqlSession关闭之前读取完毕
+ * - 只能遍历一次
+ * - MySQL默认会把整个结果集读到客户端，需要配置fetchSize（例如Integer.MIN_VALUE）
+ *   或在URL中开启useCursorFetch=true才能真正流式读取
+ * 
+ * @author 学习者
+ * @param <T> 结果类型
+ */
+public interface Cursor<T> extends Closeable, Iterable<T> {
+    
+    /**
+     * 游标是否已打开（开始读取之前也算打开）
+     */
+    boolean isOpen();
+    
+    /**
+     * 是否已经读取完所有行
+     */
+    boolean isConsumed();
+    
+    /**
+     * 当前读取到的行号（从0开始，还没有读取时为-1）
+     */
+    int getCurrentIndex();
+}
+
@@ -0,0 +1,180 @@
+package com.mybatis.cursor.defaults;
+
+import com.mybatis.cursor.Cursor;
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.executor.resultset.RowMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 游标的默认实现
+ * 
+ * 包装一个ResultSet，迭代时逐行调用RowMapper映射。
+ * 读取完毕或调用close()时关闭ResultSet（Statement设置了closeOnCompletion，会随之关闭）。
+ * 
+ * @author 学习者
+ * @param <T> 结果类型
+ */
+public class DefaultCursor<T> implements Cursor<T> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DefaultCursor.class);
+    
+    private final ResultSet resultSet;
+    
+    private final RowMapper<T> rowMapper;
+    
+    private final CursorIterator iterator = new CursorIterator();
+    
+    private boolean iteratorRetrieved;
+    
+    private CursorStatus status = CursorStatus.CREATED;
+    
+    private int indexWithRowBound = -1;
+    
+    private enum CursorStatus {
+        /**
+         * 已创建，还没有开始读取
+         */
+        CREATED,
+        /**
+         * 正在读取
+         */
+        OPEN,
+        /**
+         * 读取前被关闭
+         */
+        CLOSED,
+        /**
+         * 已读取完所有行
+         */
+        CONSUMED
+    }
+    
+    public DefaultCursor(ResultSet resultSet, RowMapper<T> rowMapper) {
+        this.resultSet = resultSet;
+        this.rowMapper = rowMapper;
+    }
+    
+    @Override
+    public boolean isOpen() {
+        return status == CursorStatus.OPEN || status == CursorStatus.CREATED;
+    }
+    
+    @Override
+    public boolean isConsumed() {
+        return status == CursorStatus.CONSUMED;
+    }
+    
+    @Override
+    public int getCurrentIndex() {
+        return indexWithRowBound;
+    }
+    
+    @Override
+    public Iterator<T> iterator() {
+        if (iteratorRetrieved) {
+            throw new IllegalStateException("游标只能遍历一次");
+        }
+        if (!isOpen()) {
+            throw new IllegalStateException("游标已关闭");
+        }
+        iteratorRetrieved = true;
+        return iterator;
+    }
+    
+    @Override
+    public void close() {
+        if (!isOpen()) {
+            return;
+        }
+        closeResultSet();
+        status = CursorStatus.CLOSED;
+    }
+    
+    /**
+     * 移动到下一行，没有更多行时关闭结果集
+     * 
+     * @return 是否还有数据
+     */
+    private boolean fetchNextRow() {
+        try {
+            if (!isOpen()) {
+                return false;
+            }
+            status = CursorStatus.OPEN;
+            if (!resultSet.next()) {
+                closeResultSet();
+                status = CursorStatus.CONSUMED;
+                return false;
+            }
+            indexWithRowBound++;
+            return true;
+        } catch (SQLException e) {
+            close();
+            throw new MyBatisException("游标读取失败", e);
+        }
+    }
+    
+    private T mapCurrentRow() {
+        try {
+            return rowMapper.mapRow(resultSet);
+        } catch (SQLException e) {
+            close();
+            throw new MyBatisException("游标映射第" + indexWithRowBound + "行失败", e);
+        }
+    }
+    
+    private void closeResultSet() {
+        try {
+            resultSet.close();
+            logger.debug("游标已关闭 [读取{}行]", indexWithRowBound + 1);
+        } catch (SQLException e) {
+            logger.warn("关闭游标结果集失败", e);
+        }
+    }
+    
+    /**
+     * 游标迭代器：hasNext()时移动到下一行，next()时才映射
+     */
+    private class CursorIterator implements Iterator<T> {
+        
+        /**
+         * hasNext()是否已经移动过游标
+         */
+        private boolean fetched;
+        
+        /**
+         * 当前行是否有数据
+         */
+        private boolean hasRow;
+        
+        @Override
+        public boolean hasNext() {
+            if (!fetched) {
+                hasRow = fetchNextRow();
+                fetched = true;
+            }
+            return hasRow;
+        }
+        
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            fetched = false;
+            return mapCurrentRow();
+        }
+        
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("游标不支持删除元素");
+        }
+    }
+}
+
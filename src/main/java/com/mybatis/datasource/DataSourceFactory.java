@@ -0,0 +1,106 @@
+package com.mybatis.datasource;
+
+import com.mybatis.datasource.pooled.PooledDataSource;
+import com.mybatis.datasource.unpooled.UnpooledDataSource;
+import com.mybatis.exceptions.MyBatisException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.Properties;
+
+/**
+ * 数据源工厂
+ * 
+ * 根据<dataSource>标签的type属性创建数据源：
+ * - POOLED：PooledDataSource（默认）
+ * - UNPOOLED：UnpooledDataSource
+ * - 其他：当作DataSource实现类的全限定名，通过无参构造器创建（例如DruidDataSource）
+ * 
+ * <property>通过对应的setter注入，例如
+ * <property name="poolMaximumActiveConnections" value="20"/> 调用 setPoolMaximumActiveConnections(20)
+ * 
+ * @author 学习者
+ */
+public final class DataSourceFactory {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceFactory.class);
+    
+    private DataSourceFactory() {
+    }
+    
+    /**
+     * 创建数据源
+     * 
+     * @param type 数据源类型：POOLED、UNPOOLED或DataSource实现类的全限定名
+     * @param properties <dataSource>下的所有<property>
+     * @return 数据源
+     */
+    public static DataSource create(String type, Properties properties) {
+        DataSource dataSource = newDataSource(type);
+        for (String name : properties.stringPropertyNames()) {
+            setProperty(dataSource, name, properties.getProperty(name));
+        }
+        logger.debug("数据源创建成功: {}", dataSource.getClass().getSimpleName());
+        return dataSource;
+    }
+    
+    private static DataSource newDataSource(String type) {
+        if (type == null || "POOLED".equalsIgnoreCase(type)) {
+            return new PooledDataSource();
+        }
+        if ("UNPOOLED".equalsIgnoreCase(type)) {
+            return new UnpooledDataSource();
+        }
+        try {
+            Class<?> clazz = Class.forName(type);
+            if (!DataSource.class.isAssignableFrom(clazz)) {
+                throw new MyBatisException("不是DataSource的实现类: " + type);
+            }
+            return (DataSource) clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new MyBatisException("创建数据源失败: " + type, e);
+        }
+    }
+    
+    /**
+     * 调用setter设置属性（支持String、int、long、boolean参数）
+     */
+    private static void setProperty(DataSource dataSource, String name, String value) {
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (Method method : dataSource.getClass().getMethods()) {
+            if (!method.getName().equals(setterName) || method.getParameterCount() != 1) {
+                continue;
+            }
+            Object arg = convert(method.getParameterTypes()[0], value);
+            if (arg == null) {
+                continue;
+            }
+            try {
+                method.invoke(dataSource, arg);
+                return;
+            } catch (ReflectiveOperationException e) {
+                throw new MyBatisException("设置数据源属性失败: " + name, e);
+            }
+        }
+        logger.warn("数据源{}不支持属性: {}", dataSource.getClass().getSimpleName(), name);
+    }
+    
+    private static Object convert(Class<?> type, String value) {
+        if (type == String.class) {
+            return value;
+        }
+        if (type == int.class || type == Integer.class) {
+            return Integer.valueOf(value.trim());
+        }
+        if (type == long.class || type == Long.class) {
+            return Long.valueOf(value.trim());
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean.valueOf(value.trim());
+        }
+        return null;
+    }
+}
+
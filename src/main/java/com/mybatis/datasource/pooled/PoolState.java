@@ -0,0 +1,154 @@
+package com.mybatis.datasource.pooled;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 连接池状态
+ * 
+ * 保存空闲连接、活跃连接以及连接池的统计信息。
+ * 所有字段都只在PooledDataSource的锁内访问。
+ * 
+ * @author 学习者
+ */
+public class PoolState {
+    
+    private final PooledDataSource dataSource;
+    
+    /**
+     * 空闲连接（按归还顺序排列，末尾是最近归还的）
+     */
+    final List<PooledConnection> idleConnections = new ArrayList<>();
+    
+    /**
+     * 活跃连接（按借出顺序排列，开头是借出最久的）
+     */
+    final List<PooledConnection> activeConnections = new ArrayList<>();
+    
+    /**
+     * 正在创建或正在归还中的连接数（占用活跃名额，但不在两个列表里）
+     */
+    int reservedCount;
+    
+    long requestCount;
+    long accumulatedWaitTime;
+    long hadToWaitCount;
+    long timeoutCount;
+    long claimedOverdueConnectionCount;
+    long badConnectionCount;
+    long evictedIdleCount;
+    long leakedConnectionCount;
+    
+    PoolState(PooledDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
+    public long getRequestCount() {
+        dataSource.lock.lock();
+        try {
+            return requestCount;
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+    
+    public long getAverageWaitTime() {
+        dataSource.lock.lock();
+        try {
+            return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+    
+    public long getHadToWaitCount() {
+        dataSource.lock.lock();
+        try {
+            return hadToWaitCount;
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+    
+    public long getTimeoutCount() {
+        dataSource.lock.lock();
+        try {
+            return timeoutCount;
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+    
+    public long getClaimedOverdueConnectionCount() {
+        dataSource.lock.lock();
+        try {
+            return claimedOverdueConnectionCount;
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+    
+    public long getBadConnectionCount() {
+        dataSource.lock.lock();
+        try {
+            return badConnectionCount;
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+    
+    public long getEvictedIdleCount() {
+        dataSource.lock.lock();
+        try {
+            return evictedIdleCount;
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+    
+    public long getLeakedConnectionCount() {
+        dataSource.lock.lock();
+        try {
+            return leakedConnectionCount;
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+    
+    public int getIdleConnectionCount() {
+        dataSource.lock.lock();
+        try {
+            return idleConnections.size();
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+    
+    public int getActiveConnectionCount() {
+        dataSource.lock.lock();
+        try {
+            return activeConnections.size();
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+    
+    @Override
+    public String toString() {
+        dataSource.lock.lock();
+        try {
+            return "PoolState{active=" + activeConnections.size()
+                + ", idle=" + idleConnections.size()
+                + ", requests=" + requestCount
+                + ", hadToWait=" + hadToWaitCount
+                + ", timeouts=" + timeoutCount
+                + ", claimedOverdue=" + claimedOverdueConnectionCount
+                + ", bad=" + badConnectionCount
+                + ", evictedIdle=" + evictedIdleCount
+                + ", leaked=" + leakedConnectionCount + "}";
+        } finally {
+            dataSource.lock.unlock();
+        }
+    }
+}
+
@@ -0,0 +1,176 @@
+package com.mybatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 池化连接
+ * 
+ * 使用JDK动态代理包装真实的数据库连接：
+ * - 拦截close()方法：不关闭物理连接，而是归还到连接池 ⭐
+ * - 其他方法：检查连接是否仍然有效后，转发给真实连接
+ * 
+ * 每次归还都会为同一个物理连接创建新的PooledConnection，
+ * 这样旧的代理对象在归还后就失效了，防止"关闭后继续使用"。
+ * 
+ * @author 学习者
+ */
+class PooledConnection implements InvocationHandler {
+    
+    private static final String CLOSE = "close";
+    
+    private static final String IS_CLOSED = "isClosed";
+    
+    private static final Class<?>[] IFACES = new Class<?>[]{Connection.class};
+    
+    private final PooledDataSource dataSource;
+    
+    /**
+     * 真实的物理连接
+     */
+    private final Connection realConnection;
+    
+    /**
+     * 交给用户使用的代理连接
+     */
+    private final Connection proxyConnection;
+    
+    /**
+     * 物理连接的创建时间
+     */
+    private final long createdTimestamp;
+    
+    /**
+     * 本次借出的时间
+     */
+    private long checkoutTimestamp;
+    
+    /**
+     * 最后一次使用（借出或归还）的时间
+     */
+    private long lastUsedTimestamp;
+    
+    /**
+     * 借出位置（仅在开启泄漏检测时记录）
+     */
+    private Throwable checkoutTrace;
+    
+    /**
+     * 是否已经报告过泄漏
+     */
+    private boolean leakReported;
+    
+    private volatile boolean valid;
+    
+    PooledConnection(Connection realConnection, PooledDataSource dataSource) {
+        this(realConnection, dataSource, System.currentTimeMillis());
+    }
+    
+    PooledConnection(Connection realConnection, PooledDataSource dataSource, long createdTimestamp) {
+        this.realConnection = realConnection;
+        this.dataSource = dataSource;
+        this.createdTimestamp = createdTimestamp;
+        this.lastUsedTimestamp = System.currentTimeMillis();
+        this.valid = true;
+        this.proxyConnection = (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(), IFACES, this);
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String methodName = method.getName();
+        
+        // close()：归还到连接池 ⭐（重复close忽略）
+        if (CLOSE.equals(methodName)) {
+            if (valid) {
+                dataSource.pushConnection(this);
+            }
+            return null;
+        }
+        
+        // 已归还的连接对用户来说就是已关闭
+        if (IS_CLOSED.equals(methodName) && !valid) {
+            return true;
+        }
+        
+        if (!Object.class.equals(method.getDeclaringClass())) {
+            checkConnection();
+        }
+        
+        try {
+            return method.invoke(realConnection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+    
+    private void checkConnection() throws SQLException {
+        if (!valid) {
+            throw new SQLException("连接已归还到连接池，不能继续使用");
+        }
+    }
+    
+    void invalidate() {
+        valid = false;
+    }
+    
+    boolean isValid() {
+        return valid;
+    }
+    
+    Connection getRealConnection() {
+        return realConnection;
+    }
+    
+    Connection getProxyConnection() {
+        return proxyConnection;
+    }
+    
+    long getCreatedTimestamp() {
+        return createdTimestamp;
+    }
+    
+    long getCheckoutTimestamp() {
+        return checkoutTimestamp;
+    }
+    
+    long getCheckoutTime() {
+        return System.currentTimeMillis() - checkoutTimestamp;
+    }
+    
+    long getLastUsedTimestamp() {
+        return lastUsedTimestamp;
+    }
+    
+    long getTimeElapsedSinceLastUse() {
+        return System.currentTimeMillis() - lastUsedTimestamp;
+    }
+    
+    Throwable getCheckoutTrace() {
+        return checkoutTrace;
+    }
+    
+    boolean isLeakReported() {
+        return leakReported;
+    }
+    
+    void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+    
+    /**
+     * 标记借出
+     */
+    void markCheckout(boolean traceCheckout) {
+        long now = System.currentTimeMillis();
+        this.checkoutTimestamp = now;
+        this.lastUsedTimestamp = now;
+        this.checkoutTrace = traceCheckout ? new Throwable("连接借出位置") : null;
+        this.leakReported = false;
+    }
+}
+
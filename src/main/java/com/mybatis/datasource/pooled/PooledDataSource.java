@@ -0,0 +1,678 @@
+package com.mybatis.datasource.pooled;
+
+import com.mybatis.datasource.unpooled.UnpooledDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 池化数据源 ⭐⭐⭐⭐⭐
+ * 
+ * 对应配置：<dataSource type="POOLED">
+ * 
+ * 连接池解决的问题：
+ * 每次openSession都新建物理连接，TCP握手+数据库认证的开销会成为请求延迟的大头。
+ * 连接池把用完的连接留下来，下一个会话直接复用。
+ * 
+ * 核心流程：
+ * 1. 借出（popConnection）：优先取空闲连接 → 未达上限则新建 → 回收超时未还的连接 → 等待
+ * 2. 归还（pushConnection）：回滚未提交的事务 → 空闲未满则放回空闲列表，否则关闭
+ * 
+ * 支持的配置：
+ * - poolMaximumActiveConnections：最大活跃连接数
+ * - poolMaximumIdleConnections：最大空闲连接数
+ * - poolMinimumIdleConnections：最小空闲连接数（空闲回收时会保留并补足）
+ * - poolTimeToWait：借连接时的最长等待时间（毫秒），超时抛出SQLException
+ * - poolMaximumCheckoutTime：连接被借出超过这个时间，池满时会被强制回收
+ * - poolPingEnabled / poolPingQuery / poolPingConnectionsNotUsedFor：借出前的连接有效性校验
+ * - poolIdleTimeout / poolTimeBetweenEvictionRuns：空闲连接回收（借连接时顺带执行，回收后补足最小空闲连接）
+ * - poolLeakDetectionThreshold：连接泄漏检测阈值（毫秒），超过后打印借出位置
+ * 
+ * 线程安全：
+ * 所有状态都由一把ReentrantLock保护；创建物理连接、回滚、校验这些网络操作都在锁外进行。
+ * 
+ * @author 学习者
+ */
+public class PooledDataSource implements DataSource {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PooledDataSource.class);
+    
+    /**
+     * 负责创建物理连接
+     */
+    private final UnpooledDataSource dataSource;
+    
+    /**
+     * 连接池锁
+     */
+    final ReentrantLock lock = new ReentrantLock();
+    
+    /**
+     * 有连接归还时通知等待者
+     */
+    private final Condition connectionAvailable = lock.newCondition();
+    
+    private final PoolState state = new PoolState(this);
+    
+    // ==================== 可配置项 ====================
+    
+    protected int poolMaximumActiveConnections = 10;
+    protected int poolMaximumIdleConnections = 5;
+    protected int poolMinimumIdleConnections = 0;
+    protected long poolMaximumCheckoutTime = 20000;
+    protected long poolTimeToWait = 20000;
+    protected String poolPingQuery = "SELECT 1";
+    protected boolean poolPingEnabled;
+    protected long poolPingConnectionsNotUsedFor;
+    protected long poolIdleTimeout = 600000;
+    protected long poolTimeBetweenEvictionRuns = 30000;
+    protected long poolLeakDetectionThreshold;
+    
+    /**
+     * 上一次空闲回收的时间
+     */
+    private long lastEvictionRun = System.currentTimeMillis();
+    
+    public PooledDataSource() {
+        this.dataSource = new UnpooledDataSource();
+    }
+    
+    public PooledDataSource(String driver, String url, String username, String password) {
+        this.dataSource = new UnpooledDataSource(driver, url, username, password);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return popConnection().getProxyConnection();
+    }
+    
+    /**
+     * 连接池只缓存默认账号的连接，其他账号直接创建物理连接
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return dataSource.getConnection(username, password);
+    }
+    
+    // ========================================
+    // 借出连接 ⭐⭐⭐⭐⭐
+    // ========================================
+    
+    /**
+     * 从连接池借出一个连接
+     * 
+     * 顺序：
+     * 1. 有空闲连接：取最近归还的那个（LIFO，连接最"热"）
+     * 2. 活跃连接未达上限：新建物理连接（在锁外创建）
+     * 3. 借出最久的连接已超过poolMaximumCheckoutTime：强制回收它
+     * 4. 否则等待，直到有连接归还或超过poolTimeToWait
+     */
+    private PooledConnection popConnection() throws SQLException {
+        long start = System.currentTimeMillis();
+        long deadline = start + poolTimeToWait;
+        boolean countedWait = false;
+        int localBadConnectionCount = 0;
+        
+        while (true) {
+            PooledConnection conn = null;
+            boolean createNew = false;
+            boolean claimed = false;
+            long idleFor = 0;
+            List<PooledConnection> evicted = Collections.emptyList();
+            int refill = 0;
+            
+            lock.lock();
+            try {
+                long now = System.currentTimeMillis();
+                if (isEvictionDue(now)) {
+                    evicted = runEviction(now);
+                    refill = reserveRefill();
+                }
+                
+                if (!state.idleConnections.isEmpty()) {
+                    // 1. 复用空闲连接
+                    conn = state.idleConnections.remove(state.idleConnections.size() - 1);
+                    idleFor = conn.getTimeElapsedSinceLastUse();
+                } else if (state.activeConnections.size() + state.reservedCount < poolMaximumActiveConnections) {
+                    // 2. 预留名额，锁外创建
+                    state.reservedCount++;
+                    createNew = true;
+                } else {
+                    detectLeaks(now);
+                    PooledConnection oldest = state.activeConnections.isEmpty() ? null : state.activeConnections.get(0);
+                    if (oldest != null && poolMaximumCheckoutTime > 0 && oldest.getCheckoutTime() > poolMaximumCheckoutTime) {
+                        // 3. 强制回收超时未还的连接
+                        state.claimedOverdueConnectionCount++;
+                        state.activeConnections.remove(0);
+                        oldest.invalidate();
+                        logger.warn("回收超时未归还的连接 [借出{}ms]", oldest.getCheckoutTime(), oldest.getCheckoutTrace());
+                        conn = new PooledConnection(oldest.getRealConnection(), this, oldest.getCreatedTimestamp());
+                        claimed = true;
+                    } else {
+                        // 4. 等待
+                        long remaining = deadline - now;
+                        if (remaining <= 0) {
+                            state.timeoutCount++;
+                            throw new SQLException("获取数据库连接超时（等待" + poolTimeToWait + "ms）: " + state.activeConnections.size() + "个连接全部在使用中");
+                        }
+                        if (!countedWait) {
+                            state.hadToWaitCount++;
+                            countedWait = true;
+                        }
+                        logger.debug("连接池已满，等待连接归还 [最多{}ms]", remaining);
+                        try {
+                            connectionAvailable.await(remaining, TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new SQLException("等待数据库连接时被中断", e);
+                        }
+                        continue;
+                    }
+                }
+                
+                if (conn != null) {
+                    checkout(conn, start);
+                }
+            } finally {
+                lock.unlock();
+            }
+            
+            closeAll(evicted);
+            refill(refill);
+            
+            if (createNew) {
+                return createConnection(start);
+            }
+            
+            // 强制回收的连接：回滚前一个使用者没提交的事务
+            // 空闲连接：按需ping校验
+            boolean usable = claimed ? rollbackQuietly(conn.getRealConnection()) : pingConnection(conn, idleFor);
+            if (usable) {
+                return conn;
+            }
+            
+            // 坏连接：丢弃后重试
+            lock.lock();
+            try {
+                state.activeConnections.remove(conn);
+                state.badConnectionCount++;
+                connectionAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+            conn.invalidate();
+            closeQuietly(conn.getRealConnection());
+            
+            localBadConnectionCount++;
+            logger.warn("连接池中的连接已失效，已丢弃并重新获取");
+            if (localBadConnectionCount > poolMaximumIdleConnections + 3) {
+                throw new SQLException("无法从连接池获取有效的数据库连接");
+            }
+        }
+    }
+    
+    /**
+     * 在锁外创建物理连接，然后在锁内登记为活跃连接
+     */
+    private PooledConnection createConnection(long start) throws SQLException {
+        Connection realConnection;
+        try {
+            realConnection = dataSource.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            releaseReservation();
+            throw e;
+        }
+        
+        PooledConnection conn = new PooledConnection(realConnection, this);
+        lock.lock();
+        try {
+            state.reservedCount--;
+            checkout(conn, start);
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("连接池新建连接 [active={}]", state.activeConnections.size());
+        return conn;
+    }
+    
+    /**
+     * 登记借出（锁内调用）
+     */
+    private void checkout(PooledConnection conn, long start) {
+        conn.markCheckout(poolLeakDetectionThreshold > 0);
+        state.activeConnections.add(conn);
+        state.requestCount++;
+        state.accumulatedWaitTime += System.currentTimeMillis() - start;
+    }
+    
+    private void releaseReservation() {
+        lock.lock();
+        try {
+            state.reservedCount--;
+            connectionAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // ========================================
+    // 归还连接 ⭐⭐⭐⭐⭐
+    // ========================================
+    
+    /**
+     * 归还连接（由PooledConnection.close()触发）
+     * 
+     * 1. 从活跃列表移除（如果已经被强制回收，说明连接已经属于别人，直接忽略）
+     * 2. 锁外回滚未提交的事务
+     * 3. 空闲未满：用新的PooledConnection包装后放回空闲列表；否则关闭物理连接
+     */
+    void pushConnection(PooledConnection conn) throws SQLException {
+        lock.lock();
+        try {
+            if (!state.activeConnections.remove(conn)) {
+                conn.invalidate();
+                return;
+            }
+            conn.invalidate();
+            state.reservedCount++;
+        } finally {
+            lock.unlock();
+        }
+        
+        Connection realConnection = conn.getRealConnection();
+        boolean reusable = rollbackQuietly(realConnection);
+        
+        boolean close = true;
+        lock.lock();
+        try {
+            state.reservedCount--;
+            if (reusable && state.idleConnections.size() < poolMaximumIdleConnections) {
+                state.idleConnections.add(new PooledConnection(realConnection, this, conn.getCreatedTimestamp()));
+                close = false;
+            }
+            connectionAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        
+        if (close) {
+            closeQuietly(realConnection);
+            logger.debug("空闲连接已满，关闭物理连接");
+        }
+    }
+    
+    // ========================================
+    // 空闲回收与泄漏检测
+    // ========================================
+    
+    /**
+     * 是否到了空闲回收周期（锁内调用）
+     */
+    private boolean isEvictionDue(long now) {
+        return poolTimeBetweenEvictionRuns > 0 && now - lastEvictionRun >= poolTimeBetweenEvictionRuns;
+    }
+    
+    /**
+     * 执行一次泄漏检测和空闲回收（锁内调用）
+     * 
+     * @return 需要在锁外关闭的连接
+     */
+    private List<PooledConnection> runEviction(long now) {
+        lastEvictionRun = now;
+        detectLeaks(now);
+        return evictIdle();
+    }
+    
+    /**
+     * 为补足poolMinimumIdleConnections预留名额（锁内调用），不超过poolMaximumActiveConnections
+     * 
+     * @return 需要在锁外创建的连接数
+     */
+    private int reserveRefill() {
+        int total = state.idleConnections.size() + state.activeConnections.size() + state.reservedCount;
+        int deficit = Math.min(poolMinimumIdleConnections - state.idleConnections.size(),
+            poolMaximumActiveConnections - total);
+        if (deficit <= 0) {
+            return 0;
+        }
+        state.reservedCount += deficit;
+        return deficit;
+    }
+    
+    /**
+     * 在锁外创建reserveRefill预留的连接并放入空闲列表（失败时只打印警告，归还剩余名额）
+     */
+    private void refill(int count) {
+        for (int i = 0; i < count; i++) {
+            Connection realConnection;
+            try {
+                realConnection = dataSource.getConnection();
+            } catch (SQLException | RuntimeException e) {
+                logger.warn("补充空闲连接失败", e);
+                lock.lock();
+                try {
+                    state.reservedCount -= count - i;
+                    connectionAvailable.signal();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            lock.lock();
+            try {
+                state.reservedCount--;
+                state.idleConnections.add(new PooledConnection(realConnection, this));
+                connectionAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (count > 0) {
+            logger.debug("补充空闲连接: {}个", count);
+        }
+    }
+    
+    /**
+     * 回收空闲超时的连接，保留poolMinimumIdleConnections个（锁内调用）
+     */
+    private List<PooledConnection> evictIdle() {
+        if (poolIdleTimeout <= 0) {
+            return Collections.emptyList();
+        }
+        List<PooledConnection> evicted = new ArrayList<>();
+        // 列表开头是最久没用的
+        while (state.idleConnections.size() > poolMinimumIdleConnections
+                && state.idleConnections.get(0).getTimeElapsedSinceLastUse() > poolIdleTimeout) {
+            PooledConnection conn = state.idleConnections.remove(0);
+            conn.invalidate();
+            evicted.add(conn);
+            state.evictedIdleCount++;
+        }
+        if (!evicted.isEmpty()) {
+            logger.debug("回收空闲连接: {}个", evicted.size());
+        }
+        return evicted;
+    }
+    
+    /**
+     * 泄漏检测：借出时间超过阈值的连接打印一次借出位置（锁内调用）
+     */
+    private void detectLeaks(long now) {
+        if (poolLeakDetectionThreshold <= 0) {
+            return;
+        }
+        for (PooledConnection conn : state.activeConnections) {
+            if (!conn.isLeakReported() && now - conn.getCheckoutTimestamp() > poolLeakDetectionThreshold) {
+                conn.setLeakReported(true);
+                state.leakedConnectionCount++;
+                logger.warn("疑似连接泄漏：连接已借出{}ms仍未归还", now - conn.getCheckoutTimestamp(), conn.getCheckoutTrace());
+            }
+        }
+    }
+    
+    /**
+     * 立即执行一次空闲回收，并把空闲连接补足到poolMinimumIdleConnections
+     */
+    public void evictIdleConnections() {
+        List<PooledConnection> evicted;
+        int refill;
+        lock.lock();
+        try {
+            evicted = runEviction(System.currentTimeMillis());
+            refill = reserveRefill();
+        } finally {
+            lock.unlock();
+        }
+        closeAll(evicted);
+        refill(refill);
+    }
+    
+    /**
+     * 关闭连接池中的所有连接（SqlSessionFactory.close()时调用）
+     * 
+     * 借出中的连接也会被关闭，之后再借连接会重新创建。
+     */
+    public void forceCloseAll() {
+        List<PooledConnection> all = new ArrayList<>();
+        lock.lock();
+        try {
+            all.addAll(state.idleConnections);
+            all.addAll(state.activeConnections);
+            state.idleConnections.clear();
+            state.activeConnections.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection conn : all) {
+            conn.invalidate();
+            rollbackQuietly(conn.getRealConnection());
+            closeQuietly(conn.getRealConnection());
+        }
+        logger.info("连接池已关闭全部连接: {}个", all.size());
+    }
+    
+    // ========================================
+    // 工具方法
+    // ========================================
+    
+    /**
+     * 校验连接是否可用
+     * 
+     * 开启poolPingEnabled且空闲时间超过poolPingConnectionsNotUsedFor时，执行poolPingQuery
+     */
+    private boolean pingConnection(PooledConnection conn, long idleFor) {
+        Connection realConnection = conn.getRealConnection();
+        try {
+            if (realConnection.isClosed()) {
+                return false;
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+        
+        if (!poolPingEnabled || idleFor <= poolPingConnectionsNotUsedFor) {
+            return true;
+        }
+        
+        try (Statement statement = realConnection.createStatement()) {
+            statement.executeQuery(poolPingQuery).close();
+            if (!realConnection.getAutoCommit()) {
+                realConnection.rollback();
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.warn("连接校验失败: {}", poolPingQuery, e);
+            return false;
+        }
+    }
+    
+    private boolean rollbackQuietly(Connection realConnection) {
+        try {
+            if (!realConnection.isClosed() && !realConnection.getAutoCommit()) {
+                realConnection.rollback();
+            }
+            return !realConnection.isClosed();
+        } catch (SQLException e) {
+            logger.warn("回滚连接失败", e);
+            return false;
+        }
+    }
+    
+    private void closeAll(List<PooledConnection> connections) {
+        for (PooledConnection conn : connections) {
+            closeQuietly(conn.getRealConnection());
+        }
+    }
+    
+    private void closeQuietly(Connection realConnection) {
+        try {
+            realConnection.close();
+        } catch (SQLException e) {
+            logger.warn("关闭物理连接失败", e);
+        }
+    }
+    
+    public PoolState getPoolState() {
+        return state;
+    }
+    
+    // ==================== 配置属性 ====================
+    
+    public void setDriver(String driver) {
+        dataSource.setDriver(driver);
+    }
+    
+    public void setUrl(String url) {
+        dataSource.setUrl(url);
+    }
+    
+    public void setUsername(String username) {
+        dataSource.setUsername(username);
+    }
+    
+    public void setPassword(String password) {
+        dataSource.setPassword(password);
+    }
+    
+    public String getUrl() {
+        return dataSource.getUrl();
+    }
+    
+    public int getPoolMaximumActiveConnections() {
+        return poolMaximumActiveConnections;
+    }
+    
+    public void setPoolMaximumActiveConnections(int poolMaximumActiveConnections) {
+        this.poolMaximumActiveConnections = poolMaximumActiveConnections;
+    }
+    
+    public int getPoolMaximumIdleConnections() {
+        return poolMaximumIdleConnections;
+    }
+    
+    public void setPoolMaximumIdleConnections(int poolMaximumIdleConnections) {
+        this.poolMaximumIdleConnections = poolMaximumIdleConnections;
+    }
+    
+    public int getPoolMinimumIdleConnections() {
+        return poolMinimumIdleConnections;
+    }
+    
+    public void setPoolMinimumIdleConnections(int poolMinimumIdleConnections) {
+        this.poolMinimumIdleConnections = poolMinimumIdleConnections;
+    }
+    
+    public long getPoolMaximumCheckoutTime() {
+        return poolMaximumCheckoutTime;
+    }
+    
+    public void setPoolMaximumCheckoutTime(long poolMaximumCheckoutTime) {
+        this.poolMaximumCheckoutTime = poolMaximumCheckoutTime;
+    }
+    
+    public long getPoolTimeToWait() {
+        return poolTimeToWait;
+    }
+    
+    public void setPoolTimeToWait(long poolTimeToWait) {
+        this.poolTimeToWait = poolTimeToWait;
+    }
+    
+    public String getPoolPingQuery() {
+        return poolPingQuery;
+    }
+    
+    public void setPoolPingQuery(String poolPingQuery) {
+        this.poolPingQuery = poolPingQuery;
+    }
+    
+    public boolean isPoolPingEnabled() {
+        return poolPingEnabled;
+    }
+    
+    public void setPoolPingEnabled(boolean poolPingEnabled) {
+        this.poolPingEnabled = poolPingEnabled;
+    }
+    
+    public long getPoolPingConnectionsNotUsedFor() {
+        return poolPingConnectionsNotUsedFor;
+    }
+    
+    public void setPoolPingConnectionsNotUsedFor(long poolPingConnectionsNotUsedFor) {
+        this.poolPingConnectionsNotUsedFor = poolPingConnectionsNotUsedFor;
+    }
+    
+    public long getPoolIdleTimeout() {
+        return poolIdleTimeout;
+    }
+    
+    public void setPoolIdleTimeout(long poolIdleTimeout) {
+        this.poolIdleTimeout = poolIdleTimeout;
+    }
+    
+    public long getPoolTimeBetweenEvictionRuns() {
+        return poolTimeBetweenEvictionRuns;
+    }
+    
+    public void setPoolTimeBetweenEvictionRuns(long poolTimeBetweenEvictionRuns) {
+        this.poolTimeBetweenEvictionRuns = poolTimeBetweenEvictionRuns;
+    }
+    
+    public long getPoolLeakDetectionThreshold() {
+        return poolLeakDetectionThreshold;
+    }
+    
+    public void setPoolLeakDetectionThreshold(long poolLeakDetectionThreshold) {
+        this.poolLeakDetectionThreshold = poolLeakDetectionThreshold;
+    }
+    
+    // ==================== DataSource接口的其他方法 ====================
+    
+    @Override
+    public PrintWriter getLogWriter() {
+        return dataSource.getLogWriter();
+    }
+    
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        dataSource.setLogWriter(out);
+    }
+    
+    @Override
+    public void setLoginTimeout(int seconds) {
+        dataSource.setLoginTimeout(seconds);
+    }
+    
+    @Override
+    public int getLoginTimeout() {
+        return dataSource.getLoginTimeout();
+    }
+    
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("getParentLogger");
+    }
+    
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        throw new SQLException(getClass().getName() + " is not a wrapper.");
+    }
+    
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return false;
+    }
+}
+
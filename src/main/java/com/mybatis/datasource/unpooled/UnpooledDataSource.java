@@ -0,0 +1,154 @@
+package com.mybatis.datasource.unpooled;
+
+import com.mybatis.exceptions.MyBatisException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 非池化数据源
+ * 
+ * 每次getConnection()都通过DriverManager新建一个物理连接，close()时真正关闭。
+ * 对应配置：<dataSource type="UNPOOLED">
+ * 
+ * 与原来DefaultSqlSession里直接调用DriverManager相比：
+ * - 驱动类只加载一次，不会每次打开会话都Class.forName
+ * - 同时作为PooledDataSource创建物理连接的底层实现
+ * 
+ * @author 学习者
+ */
+public class UnpooledDataSource implements DataSource {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UnpooledDataSource.class);
+    
+    /**
+     * 已经加载过的驱动类（全局只需要加载一次）
+     */
+    private static final Set<String> loadedDrivers = ConcurrentHashMap.newKeySet();
+    
+    private String driver;
+    private String url;
+    private String username;
+    private String password;
+    
+    private int loginTimeout;
+    
+    public UnpooledDataSource() {
+    }
+    
+    public UnpooledDataSource(String driver, String url, String username, String password) {
+        this.driver = driver;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(username, password);
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        initializeDriver();
+        Connection connection = DriverManager.getConnection(url, username, password);
+        logger.debug("新建物理连接: {}", url);
+        return connection;
+    }
+    
+    /**
+     * 加载数据库驱动（只加载一次）
+     */
+    private void initializeDriver() {
+        if (driver == null || loadedDrivers.contains(driver)) {
+            return;
+        }
+        try {
+            Class.forName(driver);
+            loadedDrivers.add(driver);
+        } catch (ClassNotFoundException e) {
+            throw new MyBatisException("数据库驱动未找到: " + driver, e);
+        }
+    }
+    
+    // ==================== 配置属性 ====================
+    
+    public String getDriver() {
+        return driver;
+    }
+    
+    public void setDriver(String driver) {
+        this.driver = driver;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public void setUrl(String url) {
+        this.url = url;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public String getPassword() {
+        return password;
+    }
+    
+    public void setPassword(String password) {
+        this.password = password;
+    }
+    
+    // ==================== DataSource接口的其他方法 ====================
+    
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+    
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+    
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+        DriverManager.setLoginTimeout(seconds);
+    }
+    
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+    
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("getParentLogger");
+    }
+    
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        throw new SQLException(getClass().getName() + " is not a wrapper.");
+    }
+    
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return false;
+    }
+}
+
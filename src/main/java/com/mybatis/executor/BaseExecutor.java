@@ -1,17 +1,28 @@
 package com.mybatis.executor;
 
+import com.mybatis.binding.ParamMap;
+import com.mybatis.builder.SqlSourceBuilder;
 import com.mybatis.cache.Cache;
 import com.mybatis.cache.CacheKey;
 import com.mybatis.cache.impl.PerpetualCache;
+import com.mybatis.cursor.Cursor;
 import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.BoundSql;
 import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.ParameterMapping;
+import com.mybatis.reflection.MetaObject;
 import com.mybatis.session.Configuration;
+import com.mybatis.session.ResultHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Executor的基础实现（抽象类）
@@ -40,6 +51,8 @@ public abstract class BaseExecutor implements Executor {
     
     private static final Logger logger = LoggerFactory.getLogger(BaseExecutor.class);
     
+    private static final Object[] NO_PARAMETER_VALUES = new Object[0];
+    
     /**
      * 全局配置
      */
@@ -59,6 +72,18 @@ public abstract class BaseExecutor implements Executor {
      */
     protected Cache localCache;
     
+    /**
+     * 一级缓存中的key按读取的表分组（更新时只清理读过被写表的结果）⭐
+     * key: 表名
+     * value: 读过这张表的CacheKey
+     */
+    private final Map<String, List<CacheKey>> localKeysByTable = new HashMap<>();
+    
+    /**
+     * 无法确定读了哪些表的CacheKey（任何更新都要清理）
+     */
+    private final List<CacheKey> untaggedLocalKeys = new ArrayList<>();
+    
     /**
      * 查询栈深度（防止循环引用）
      */
@@ -103,10 +128,7 @@ public abstract class BaseExecutor implements Executor {
         logger.debug("执行查询: {}", statementId);
         
         // 1. 获取MappedStatement
-        MappedStatement ms = configuration.getMappedStatement(statementId);
-        if (ms == null) {
-            throw new MyBatisException("未找到SQL语句: " + statementId);
-        }
+        MappedStatement ms = getMappedStatement(statementId);
         
         // 2. 创建缓存Key ⭐⭐⭐⭐⭐
         CacheKey key = createCacheKey(ms, parameter);
@@ -118,6 +140,7 @@ public abstract class BaseExecutor implements Executor {
     /**
      * 查询操作（带CacheKey）
      */
+    @Override
     @SuppressWarnings("unchecked")
     public <E> List<E> query(MappedStatement ms, Object parameter, CacheKey key) throws SQLException {
         List<E> list;
@@ -150,6 +173,51 @@ public abstract class BaseExecutor implements Executor {
         return list;
     }
     
+    /**
+     * 游标查询
+     * 
+     * 与query()不同：不读取也不写入一级缓存，结果由游标逐行映射 ⭐
+     */
+    @Override
+    public <E> Cursor<E> queryCursor(String statementId, Object parameter) throws SQLException {
+        return queryCursor(getMappedStatement(statementId), parameter);
+    }
+    
+    @Override
+    public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter) throws SQLException {
+        if (closed) {
+            throw new MyBatisException("Executor已关闭");
+        }
+        
+        logger.debug("执行游标查询: {}", ms.getId());
+        
+        return doQueryCursor(ms, parameter);
+    }
+    
+    /**
+     * 回调查询
+     * 
+     * 每映射一行就交给resultHandler，不累积结果，也不读写一级缓存 ⭐
+     */
+    @Override
+    public void query(String statementId, Object parameter, ResultHandler<?> resultHandler) throws SQLException {
+        query(getMappedStatement(statementId), parameter, resultHandler);
+    }
+    
+    @Override
+    public void query(MappedStatement ms, Object parameter, ResultHandler<?> resultHandler) throws SQLException {
+        if (closed) {
+            throw new MyBatisException("Executor已关闭");
+        }
+        if (resultHandler == null) {
+            throw new MyBatisException("ResultHandler不能为空");
+        }
+        
+        logger.debug("执行回调查询: {}", ms.getId());
+        
+        doQuery(ms, parameter, resultHandler);
+    }
+    
     /**
      * 从数据库查询
      */
@@ -163,7 +231,7 @@ public abstract class BaseExecutor implements Executor {
         
         try {
             // 执行查询（抽象方法，由子类实现）⭐⭐⭐⭐⭐
-            list = doQuery(ms, parameter);
+            list = doQuery(ms, parameter, null);
             
         } finally {
             // 移除占位符
@@ -172,6 +240,7 @@ public abstract class BaseExecutor implements Executor {
         
         // 放入缓存 ⭐⭐⭐⭐⭐
         localCache.putObject(key, list);
+        tagLocalKey(ms, key);
         
         logger.debug("查询完成，结果已缓存: {} [size={}, cacheKey={}]", 
             ms.getId(), list.size(), key);
@@ -188,28 +257,27 @@ public abstract class BaseExecutor implements Executor {
      * 
      * 执行流程：
      * 1. 检查是否已关闭
-     * 2. 清空一级缓存（重要！）
+     * 2. 清理一级缓存中读过被写表的结果（重要！）
      * 3. 执行更新（调用子类的doUpdate方法）
      * 4. 返回影响行数
      */
     @Override
     public int update(String statementId, Object parameter) throws SQLException {
-        // 检查是否已关闭
+        return update(getMappedStatement(statementId), parameter);
+    }
+    
+    @Override
+    public int update(MappedStatement ms, Object parameter) throws SQLException {
+        // 1. 检查是否已关闭
         if (closed) {
             throw new MyBatisException("Executor已关闭");
         }
         
-        logger.debug("执行更新: {}", statementId);
+        logger.debug("执行更新: {}", ms.getId());
         
-        // 1. 获取MappedStatement
-        MappedStatement ms = configuration.getMappedStatement(statementId);
-        if (ms == null) {
-            throw new MyBatisException("未找到SQL语句: " + statementId);
-        }
-        
-        // 2. 清空一级缓存 ⭐⭐⭐⭐⭐
-        // 因为更新操作会改变数据，缓存的数据可能已经过期
-        clearLocalCache();
+        // 2. 清理一级缓存 ⭐⭐⭐⭐⭐
+        // 因为更新操作会改变数据，读过被写表的缓存数据可能已经过期
+        invalidateLocalCache(ms);
         
         // 3. 执行更新（抽象方法，由子类实现）⭐⭐⭐⭐⭐
         int rows = doUpdate(ms, parameter);
@@ -219,6 +287,14 @@ public abstract class BaseExecutor implements Executor {
         return rows;
     }
     
+    private MappedStatement getMappedStatement(String statementId) {
+        MappedStatement ms = configuration.getMappedStatement(statementId);
+        if (ms == null) {
+            throw new MyBatisException("未找到SQL语句: " + statementId);
+        }
+        return ms;
+    }
+    
     // ========================================
     // 缓存相关方法 ⭐⭐⭐⭐⭐
     // ========================================
@@ -227,34 +303,59 @@ public abstract class BaseExecutor implements Executor {
      * 创建缓存Key
      * 
      * CacheKey的组成：
-     * 1. MappedStatement的ID
-     * 2. SQL语句
-     * 3. 参数值
+     * 1. MappedStatement的ID和SQL语句（MappedStatement预先算好的前缀，按引用共享）⭐
+     * 2. 绑定到占位符的参数值
+     * 
+     * 热路径上只创建CacheKey和参数值数组，不再创建ArrayList，也不再哈希SQL文本。
      * 
      * @param ms MappedStatement
      * @param parameter 参数
      * @return CacheKey
      */
+    @Override
     public CacheKey createCacheKey(MappedStatement ms, Object parameter) {
         if (closed) {
             throw new MyBatisException("Executor已关闭");
         }
         
-        CacheKey cacheKey = new CacheKey();
-        
-        // 1. MappedStatement的ID
-        cacheKey.update(ms.getId());
-        
-        // 2. SQL语句
-        cacheKey.update(ms.getSql());
-        
-        // 3. 参数值
-        cacheKey.update(parameter);
-        
-        // 4. Environment（如果有的话）
+        // Environment（如果有的话）
         // 这里简化了，真实MyBatis会加上Environment ID
         
-        return cacheKey;
+        return new CacheKey(ms.getCacheKeyPrefix(), parameterValues(ms, parameter));
+    }
+    
+    /**
+     * 取出绑定到占位符的参数值
+     * 
+     * - 没有占位符：参数不影响结果，返回空数组
+     * - 简单类型：参数本身
+     * - JavaBean/Map：按ParameterMapping的顺序取属性值（和StatementHandler绑定参数的方式一致）
+     * - ParamMap：按预先算好的下标取方法参数
+     */
+    private Object[] parameterValues(MappedStatement ms, Object parameter) {
+        BoundSql boundSql = ms.getBoundSql();
+        if (boundSql == null) {
+            return new Object[]{parameter};
+        }
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        if (parameterMappings.isEmpty()) {
+            return NO_PARAMETER_VALUES;
+        }
+        if (parameter == null || SqlSourceBuilder.isSimpleType(parameter.getClass())) {
+            return new Object[]{parameter};
+        }
+        Object[] values = new Object[parameterMappings.size()];
+        if (parameter instanceof ParamMap && ((ParamMap) parameter).isBoundTo(parameterMappings)) {
+            ParamMap paramMap = (ParamMap) parameter;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = paramMap.getBoundValue(i);
+            }
+            return values;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = MetaObject.getValue(parameter, parameterMappings.get(i).getProperty());
+        }
+        return values;
     }
     
     /**
@@ -270,10 +371,70 @@ public abstract class BaseExecutor implements Executor {
     public void clearLocalCache() {
         if (!closed) {
             localCache.clear();
+            localKeysByTable.clear();
+            untaggedLocalKeys.clear();
             logger.debug("一级缓存已清空");
         }
     }
     
+    /**
+     * 按读取的表记录CacheKey
+     */
+    private void tagLocalKey(MappedStatement ms, CacheKey key) {
+        Set<String> readTables = ms.getReadTables();
+        if (readTables == null) {
+            untaggedLocalKeys.add(key);
+            return;
+        }
+        for (String table : readTables) {
+            localKeysByTable.computeIfAbsent(table, t -> new ArrayList<>()).add(key);
+        }
+    }
+    
+    /**
+     * 更新后清理一级缓存
+     * 
+     * 能确定写了哪些表时，只移除读过这些表的结果；否则清空整个一级缓存。
+     */
+    private void invalidateLocalCache(MappedStatement ms) {
+        Set<String> writeTables = ms.getWriteTables();
+        if (writeTables == null || writeTables.isEmpty()) {
+            clearLocalCache();
+            return;
+        }
+        
+        int removed = 0;
+        for (String table : writeTables) {
+            List<CacheKey> keys = localKeysByTable.remove(table);
+            if (keys != null) {
+                for (CacheKey key : keys) {
+                    if (localCache.removeObject(key) != null) {
+                        removed++;
+                    }
+                }
+            }
+        }
+        for (CacheKey key : untaggedLocalKeys) {
+            if (localCache.removeObject(key) != null) {
+                removed++;
+            }
+        }
+        untaggedLocalKeys.clear();
+        logger.debug("一级缓存已按表清理: {} [移除{}条]", writeTables, removed);
+    }
+    
+    // ========================================
+    // 批处理
+    // ========================================
+    
+    @Override
+    public List<BatchResult> flushStatements() throws SQLException {
+        if (closed) {
+            throw new MyBatisException("Executor已关闭");
+        }
+        return doFlushStatements(false);
+    }
+    
     // ========================================
     // 事务管理
     // ========================================
@@ -287,6 +448,9 @@ public abstract class BaseExecutor implements Executor {
         // 清空缓存
         clearLocalCache();
         
+        // 执行未提交的批处理
+        flushStatements();
+        
         // 提交事务
         if (connection != null && !connection.getAutoCommit()) {
             connection.commit();
@@ -303,10 +467,15 @@ public abstract class BaseExecutor implements Executor {
         // 清空缓存
         clearLocalCache();
         
-        // 回滚事务
-        if (connection != null && !connection.getAutoCommit()) {
-            connection.rollback();
-            logger.debug("事务已回滚");
+        try {
+            // 丢弃未执行的批处理
+            doFlushStatements(true);
+        } finally {
+            // 回滚事务
+            if (connection != null && !connection.getAutoCommit()) {
+                connection.rollback();
+                logger.debug("事务已回滚");
+            }
         }
     }
     
@@ -319,8 +488,13 @@ public abstract class BaseExecutor implements Executor {
         // 清空缓存
         clearLocalCache();
         
-        // 执行子类的清理工作
-        doClose();
+        try {
+            // 丢弃未执行的批处理
+            doFlushStatements(true);
+        } finally {
+            // 执行子类的清理工作
+            doClose();
+        }
         
         closed = true;
         logger.debug("Executor已关闭");
@@ -339,11 +513,24 @@ public abstract class BaseExecutor implements Executor {
      * 
      * @param ms MappedStatement
      * @param parameter 参数
+     * @param resultHandler 结果处理器（为null时返回结果列表）
      * @param <E> 结果类型
      * @return 查询结果
      * @throws SQLException SQL异常
      */
-    protected abstract <E> List<E> doQuery(MappedStatement ms, Object parameter) 
+    protected abstract <E> List<E> doQuery(MappedStatement ms, Object parameter, ResultHandler<?> resultHandler) 
+            throws SQLException;
+    
+    /**
+     * 执行游标查询（由子类实现）
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数
+     * @param <E> 结果类型
+     * @return 游标
+     * @throws SQLException SQL异常
+     */
+    protected abstract <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter) 
             throws SQLException;
     
     /**
@@ -357,6 +544,16 @@ public abstract class BaseExecutor implements Executor {
     protected abstract int doUpdate(MappedStatement ms, Object parameter) 
             throws SQLException;
     
+    /**
+     * 刷新批处理（由子类实现）
+     * 
+     * @param isRollback true表示丢弃未执行的批处理
+     * @return 批处理执行结果
+     * @throws SQLException SQL异常
+     */
+    protected abstract List<BatchResult> doFlushStatements(boolean isRollback) 
+            throws SQLException;
+    
     /**
      * 关闭时的清理工作（由子类实现）
      * 
@@ -0,0 +1,238 @@
+package com.mybatis.executor;
+
+import com.mybatis.cursor.Cursor;
+import com.mybatis.executor.statement.StatementHandler;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.ResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量执行器
+ * 
+ * BatchExecutor把连续的、相同MappedStatement的更新操作攒成一个JDBC批处理（addBatch），
+ * 一次网络往返提交多条记录，适合大批量导入数据的场景。
+ * 
+ * 批处理的执行时机（flush）：
+ * 1. 遇到不同的MappedStatement时 ⭐
+ * 2. 当前批次达到batchSize时 ⭐
+ * 3. 执行查询之前（保证能查到刚写入的数据）
+ * 4. 调用SqlSession.flushStatements()或commit()时 ⭐
+ * 
+ * 注意：
+ * - update()返回的是BATCH_UPDATE_RETURN_VALUE，真正的影响行数要通过flushStatements()获取
+ * - 连续执行的同一条语句只对应一个BatchResult（达到batchSize分批执行的结果会合并）
+ * - rollback()和close()会丢弃还没有执行的批次
+ * 
+ * @author 学习者
+ */
+public class BatchExecutor extends BaseExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchExecutor.class);
+    
+    /**
+     * 批量模式下update()的返回值（此时还不知道真正的影响行数）
+     */
+    public static final int BATCH_UPDATE_RETURN_VALUE = Integer.MIN_VALUE + 1002;
+    
+    /**
+     * 当前正在攒批的Statement
+     */
+    private Statement currentStatementHandle;
+    
+    /**
+     * 当前批次对应的MappedStatement
+     */
+    private MappedStatement currentStatement;
+    
+    /**
+     * 当前批次对应的SQL
+     */
+    private String currentSql;
+    
+    /**
+     * 当前批次已经addBatch的记录数
+     */
+    private int currentBatchCount;
+    
+    /**
+     * 已经执行、但还没有被flushStatements()取走的批次结果
+     * 
+     * 同一条语句分多次executeBatch时合并成一个BatchResult，影响行数压缩保存，
+     * 大批量导入中途不调用flushStatements()也不会按批次数增长。
+     */
+    private List<BatchResult> batchResultList = new ArrayList<>();
+    
+    public BatchExecutor(Configuration configuration, Connection connection) {
+        super(configuration, connection);
+    }
+    
+    /**
+     * 执行更新（子类实现）
+     * 
+     * BatchExecutor的策略：
+     * - 和上一次是同一条语句：复用Statement，直接addBatch
+     * - 不是同一条语句：先执行上一批，再新建Statement
+     * - 达到batchSize：立即执行当前批次
+     */
+    @Override
+    protected int doUpdate(MappedStatement ms, Object parameter) throws SQLException {
+        StatementHandler handler = new StatementHandler(configuration, ms);
+        String sql = handler.getBoundSql().getSql();
+        
+        if (currentStatementHandle == null || ms != currentStatement || !sql.equals(currentSql)) {
+            // 语句变化，先执行上一批 ⭐
+            executeCurrentBatch(true);
+            
+            currentStatementHandle = handler.prepare(connection);
+            currentStatement = ms;
+            currentSql = sql;
+            logger.debug("BatchExecutor开始新批次: {}", ms.getId());
+        }
+        
+        handler.parameterize(currentStatementHandle, parameter);
+        handler.batch(currentStatementHandle);
+        currentBatchCount++;
+        
+        // 达到批次大小，立即执行 ⭐
+        int batchSize = configuration.getBatchSize();
+        if (batchSize > 0 && currentBatchCount >= batchSize) {
+            logger.debug("批次达到batchSize={}，执行批处理: {}", batchSize, ms.getId());
+            executeCurrentBatch(false);
+        }
+        
+        return BATCH_UPDATE_RETURN_VALUE;
+    }
+    
+    /**
+     * 执行查询（子类实现）
+     * 
+     * 查询前先执行所有未提交的批次，然后和SimpleExecutor一样新建Statement执行查询。
+     */
+    @Override
+    protected <E> List<E> doQuery(MappedStatement ms, Object parameter, ResultHandler<?> resultHandler) throws SQLException {
+        executeCurrentBatch(true);
+        
+        Statement stmt = null;
+        try {
+            StatementHandler handler = new StatementHandler(configuration, ms);
+            stmt = handler.prepare(connection);
+            handler.parameterize(stmt, parameter);
+            return handler.query(stmt, resultHandler);
+        } finally {
+            closeStatement(stmt);
+        }
+    }
+    
+    /**
+     * 执行游标查询（子类实现）
+     * 
+     * 先执行所有未提交的批次，然后和SimpleExecutor一样新建Statement，
+     * 并设置closeOnCompletion：游标关闭结果集时Statement随之关闭
+     */
+    @Override
+    protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter) throws SQLException {
+        logger.debug("BatchExecutor.doQueryCursor: {}", ms.getId());
+        executeCurrentBatch(true);
+        
+        StatementHandler handler = new StatementHandler(configuration, ms);
+        Statement stmt = handler.prepare(connection);
+        try {
+            stmt.closeOnCompletion();
+            handler.parameterize(stmt, parameter);
+            return handler.queryCursor(stmt);
+        } catch (SQLException | RuntimeException e) {
+            closeStatement(stmt);
+            throw e;
+        }
+    }
+    
+    /**
+     * 刷新批处理
+     * 
+     * @param isRollback true表示丢弃未执行的批次
+     * @return 自上次刷新以来执行过的所有批次结果
+     */
+    @Override
+    protected List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
+        try {
+            if (isRollback) {
+                if (currentBatchCount > 0) {
+                    logger.warn("丢弃未执行的批次: {} [count={}]", currentStatement.getId(), currentBatchCount);
+                }
+                return Collections.emptyList();
+            }
+            
+            executeCurrentBatch(true);
+            return batchResultList;
+        } finally {
+            closeStatement(currentStatementHandle);
+            currentStatementHandle = null;
+            currentStatement = null;
+            currentSql = null;
+            currentBatchCount = 0;
+            batchResultList = new ArrayList<>();
+        }
+    }
+    
+    @Override
+    protected void doClose() throws SQLException {
+        logger.debug("BatchExecutor.doClose");
+        closeStatement(currentStatementHandle);
+        currentStatementHandle = null;
+    }
+    
+    /**
+     * 执行当前批次
+     * 
+     * @param closeStatement 执行后是否关闭Statement（语句切换时关闭，达到batchSize时保留继续复用）
+     */
+    private void executeCurrentBatch(boolean closeStatement) throws SQLException {
+        if (currentStatementHandle == null) {
+            return;
+        }
+        
+        try {
+            if (currentBatchCount > 0) {
+                int[] updateCounts = currentStatementHandle.executeBatch();
+                BatchResult last = batchResultList.isEmpty() ? null : batchResultList.get(batchResultList.size() - 1);
+                if (last != null && last.isSameStatement(currentStatement, currentSql)) {
+                    last.append(updateCounts);
+                } else {
+                    batchResultList.add(new BatchResult(currentStatement, currentSql, updateCounts));
+                }
+                logger.debug("批处理执行完成: {} [count={}]", currentStatement.getId(), updateCounts.length);
+            }
+        } finally {
+            currentBatchCount = 0;
+            if (closeStatement) {
+                closeStatement(currentStatementHandle);
+                currentStatementHandle = null;
+                currentStatement = null;
+                currentSql = null;
+            }
+        }
+    }
+    
+    /**
+     * 关闭Statement
+     */
+    private void closeStatement(Statement stmt) {
+        if (stmt != null) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                logger.warn("关闭Statement失败", e);
+            }
+        }
+    }
+}
+
@@ -0,0 +1,110 @@
+package com.mybatis.executor;
+
+import com.mybatis.mapping.MappedStatement;
+
+import java.util.Arrays;
+
+/**
+ * 批量执行结果
+ * 
+ * 连续执行的同一条语句（同一个MappedStatement、同一条SQL）对应一个BatchResult，
+ * 达到batchSize分成多次executeBatch时，后面的影响行数追加到同一个BatchResult里。
+ * 
+ * 注意：为了让大批量导入的内存占用保持平稳，这里不保存每一行的参数对象，
+ * 影响行数也按连续相同的值压缩保存（导入时通常每行都是1），
+ * 调用getUpdateCounts()时才展开成数组。
+ * 
+ * @author 学习者
+ */
+public class BatchResult {
+    
+    /**
+     * 对应的SQL语句映射
+     */
+    private final MappedStatement mappedStatement;
+    
+    /**
+     * 执行的SQL
+     */
+    private final String sql;
+    
+    /**
+     * 第i段连续相同的影响行数：值为runValues[i]，共runLengths[i]条
+     */
+    private int[] runValues = new int[1];
+    
+    private int[] runLengths = new int[1];
+    
+    private int runCount;
+    
+    /**
+     * 记录总数
+     */
+    private int size;
+    
+    public BatchResult(MappedStatement mappedStatement, String sql, int[] updateCounts) {
+        this.mappedStatement = mappedStatement;
+        this.sql = sql;
+        append(updateCounts);
+    }
+    
+    /**
+     * 追加同一条语句下一次executeBatch的影响行数
+     */
+    void append(int[] updateCounts) {
+        for (int count : updateCounts) {
+            if (runCount > 0 && runValues[runCount - 1] == count) {
+                runLengths[runCount - 1]++;
+            } else {
+                if (runCount == runValues.length) {
+                    runValues = Arrays.copyOf(runValues, runCount * 2);
+                    runLengths = Arrays.copyOf(runLengths, runCount * 2);
+                }
+                runValues[runCount] = count;
+                runLengths[runCount] = 1;
+                runCount++;
+            }
+        }
+        size += updateCounts.length;
+    }
+    
+    /**
+     * 是否是同一条语句的结果（可以追加）
+     */
+    boolean isSameStatement(MappedStatement ms, String sql) {
+        return mappedStatement == ms && this.sql.equals(sql);
+    }
+    
+    public MappedStatement getMappedStatement() {
+        return mappedStatement;
+    }
+    
+    public String getSql() {
+        return sql;
+    }
+    
+    /**
+     * 每一条记录的影响行数（JDBC executeBatch的返回值，按执行顺序）
+     */
+    public int[] getUpdateCounts() {
+        int[] updateCounts = new int[size];
+        int position = 0;
+        for (int i = 0; i < runCount; i++) {
+            Arrays.fill(updateCounts, position, position + runLengths[i], runValues[i]);
+            position += runLengths[i];
+        }
+        return updateCounts;
+    }
+    
+    /**
+     * 记录条数
+     */
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchResult{statement=" + mappedStatement.getId() + ", size=" + size + "}";
+    }
+}
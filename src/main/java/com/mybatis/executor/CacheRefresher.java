@@ -0,0 +1,145 @@
+package com.mybatis.executor;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheKey;
+import com.mybatis.cache.TableTaggedValue;
+import com.mybatis.cache.TableVersions;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 二级缓存的后台刷新器（refresh-ahead）
+ * 
+ * 配置了refreshAhead的语句，缓存结果快要过期时（存活超过cacheTtl * refreshAhead），
+ * CachingExecutor仍然返回旧结果，同时把这个key交给刷新器在后台重新查询，
+ * 查询完成后直接写入二级缓存。请求线程不用等数据库，热点key也不会在过期的瞬间一起打到数据库。
+ * 
+ * 刷新规则：
+ * 1. 同一个key同一时刻只刷新一次
+ * 2. 后台线程自己从DataSource取连接（autoCommit），用SimpleExecutor查询，不经过二级缓存
+ * 3. 线程池和队列都是有界的，队列满了就跳过这次刷新（旧结果到期后由请求线程正常加载）
+ * 4. 刷新失败只打印警告，旧结果保留到过期
+ * 5. 参数对象在提交刷新后被调用方修改过（重新计算的CacheKey不一样了）时跳过，不把别的参数的结果写到这个key下
+ * 
+ * 线程数通过cacheRefreshThreads设置（默认2），线程是守护线程，第一次刷新时才创建。
+ * 
+ * @author 学习者
+ */
+public class CacheRefresher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheRefresher.class);
+    
+    private static final int QUEUE_CAPACITY = 1024;
+    
+    private final Configuration configuration;
+    
+    /**
+     * 正在刷新的key
+     */
+    private final Set<CacheKey> refreshing = ConcurrentHashMap.newKeySet();
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private volatile ThreadPoolExecutor threadPool;
+    
+    public CacheRefresher(Configuration configuration) {
+        this.configuration = configuration;
+    }
+    
+    /**
+     * 提交一次后台刷新（同一个key正在刷新时忽略）
+     * 
+     * @param ms MappedStatement
+     * @param parameter 查询参数
+     * @param key 缓存Key
+     */
+    public void refresh(MappedStatement ms, Object parameter, CacheKey key) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            threadPool().execute(() -> {
+                try {
+                    reload(ms, parameter, key);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+            logger.debug("提交后台刷新: {}", ms.getId());
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            logger.debug("后台刷新队列已满，跳过: {}", ms.getId());
+        }
+    }
+    
+    /**
+     * 重新查询并写入二级缓存
+     */
+    private void reload(MappedStatement ms, Object parameter, CacheKey key) {
+        Cache cache = ms.getCache();
+        Set<String> readTables = ms.getReadTables();
+        // 版本号和加载时间必须在查询之前取
+        String[] tables = TableVersions.tablesOf(readTables);
+        long[] versions = configuration.getTableVersions().snapshot(tables);
+        long epoch = configuration.getTableVersions().epoch();
+        long createTime = System.currentTimeMillis();
+        
+        try (Connection connection = configuration.getDataSource().getConnection()) {
+            connection.setAutoCommit(true);
+            Executor executor = new SimpleExecutor(configuration, connection);
+            try {
+                // 参数对象是调用方的，提交刷新之后可能被改过：按现在的值查到的结果不能写到原来的key下
+                if (!key.equals(executor.createCacheKey(ms, parameter))) {
+                    logger.debug("查询参数已被修改，跳过后台刷新: {}", ms.getId());
+                    return;
+                }
+                List<Object> list = executor.query(ms, parameter, key);
+                cache.putObject(key, new TableTaggedValue(tables, versions, epoch, list, createTime));
+                logger.debug("后台刷新完成: {} [{}行]", ms.getId(), list.size());
+            } finally {
+                executor.close();
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("后台刷新二级缓存失败: {}", ms.getId(), e);
+        }
+    }
+    
+    private ThreadPoolExecutor threadPool() {
+        ThreadPoolExecutor pool = threadPool;
+        if (pool != null) {
+            return pool;
+        }
+        lock.lock();
+        try {
+            if (threadPool == null) {
+                int threads = Math.max(1, configuration.getCacheRefreshThreads());
+                AtomicInteger counter = new AtomicInteger();
+                threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                            Thread thread = new Thread(runnable, "mybatis-cache-refresher-" + counter.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                threadPool.allowCoreThreadTimeOut(true);
+            }
+            return threadPool;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
+
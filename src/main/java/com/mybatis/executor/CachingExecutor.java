@@ -0,0 +1,305 @@
+package com.mybatis.executor;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheKey;
+import com.mybatis.cache.CacheStats;
+import com.mybatis.cache.TableTaggedValue;
+import com.mybatis.cache.TableVersions;
+import com.mybatis.cache.TransactionalCacheManager;
+import com.mybatis.cursor.Cursor;
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.ResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 二级缓存执行器
+ * 
+ * CachingExecutor是Executor的装饰器，在真正的执行器外面加上namespace级别的二级缓存。
+ * 二级缓存保存在Configuration中，被所有SqlSession共享。
+ * 
+ * 查询流程：
+ * 1. 语句所在namespace没有配置<cache/>，或useCache=false：直接交给被装饰的执行器
+ * 2. 先查二级缓存，命中直接返回（超过cacheTtl的结果当作未命中；
+ *    配置了refreshAhead时，快要过期的结果照常返回，同时交给CacheRefresher在后台重新查询）
+ * 3. 未命中时交给被装饰的执行器（一级缓存 → 数据库），结果暂存到事务缓存
+ * 4. commit()时暂存的结果才写入二级缓存，rollback()时丢弃
+ * 
+ * 更新流程：
+ * - flushCache=true的语句（增删改默认）记录写了哪些表，commit()时增加这些表的版本号，
+ *   所有namespace中读过这些表的结果随之过期（TableVersions）
+ * - 从SQL中提取不出写了哪些表时，退回到commit()时清空本namespace的二级缓存，
+ *   并让所有不知道读了哪些表的结果过期（TableVersions.ANY_TABLE）
+ * 
+ * autoCommit=true时每条语句都已经提交，暂存的数据立即写入二级缓存。
+ * BatchExecutor攒批的更新例外：批处理执行（flushStatements()）之后才增加表的版本号。
+ * 
+ * 注意：二级缓存里的对象被所有会话共享，拿到后不要修改。
+ * 
+ * 设计模式：装饰器模式
+ * 
+ * @author 学习者
+ */
+public class CachingExecutor implements Executor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CachingExecutor.class);
+    
+    /**
+     * 全局配置
+     */
+    private final Configuration configuration;
+    
+    /**
+     * 被装饰的执行器
+     */
+    private final Executor delegate;
+    
+    /**
+     * 连接是否自动提交
+     */
+    private final boolean autoCommit;
+    
+    /**
+     * 全局的表版本号
+     */
+    private final TableVersions tableVersions;
+    
+    /**
+     * 当前会话的事务缓存
+     */
+    private final TransactionalCacheManager tcm;
+    
+    /**
+     * 未提交的事务中是否执行过更新
+     */
+    private boolean dirty;
+    
+    public CachingExecutor(Configuration configuration, Executor delegate, boolean autoCommit) {
+        this.configuration = configuration;
+        this.delegate = delegate;
+        this.autoCommit = autoCommit;
+        this.tableVersions = configuration.getTableVersions();
+        this.tcm = new TransactionalCacheManager(tableVersions);
+    }
+    
+    @Override
+    public <E> List<E> query(String statementId, Object parameter) throws SQLException {
+        MappedStatement ms = getMappedStatement(statementId);
+        CacheKey key = delegate.createCacheKey(ms, parameter);
+        return query(ms, parameter, key);
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> List<E> query(MappedStatement ms, Object parameter, CacheKey key) throws SQLException {
+        Cache cache = ms.getCache();
+        if (cache == null) {
+            return delegate.query(ms, parameter, key);
+        }
+        
+        flushCacheIfRequired(ms);
+        Set<String> readTables = ms.getReadTables();
+        // 本事务写过的表还没提交，二级缓存里的数据对本事务来说已经过期
+        if (!ms.isUseCache() || tcm.isWritten(readTables)) {
+            return delegate.query(ms, parameter, key);
+        }
+        
+        // 先查二级缓存 ⭐⭐⭐⭐⭐
+        Object cached = tcm.getObject(cache, key);
+        if (cached instanceof TableTaggedValue) {
+            TableTaggedValue tagged = (TableTaggedValue) cached;
+            long age = System.currentTimeMillis() - tagged.getCreateTime();
+            if (tableVersions.isCurrent(tagged) && !isExpired(ms, age)) {
+                logger.debug("二级缓存命中: {}", ms.getId());
+                refreshAheadIfRequired(ms, parameter, key, age);
+                return (List<E>) tagged.getValue();
+            }
+            logger.debug("二级缓存已过期（表已更新或超过cacheTtl）: {}", ms.getId());
+            // 过期的数据对所有会话都没用了，直接移除（重新加载后写入的是新key，不会被统计成淘汰）
+            cache.removeObject(key);
+            CacheStats stats = cache.getStats();
+            if (stats != null) {
+                stats.recordStaleHit();
+            }
+        } else if (cached != null) {
+            logger.debug("二级缓存命中: {}", ms.getId());
+            return (List<E>) cached;
+        }
+        
+        // 版本号和加载时间必须在查询之前取
+        // 不知道读了哪些表时记录ANY_TABLE，任何写入提交后都会过期
+        String[] tables = TableVersions.tablesOf(readTables);
+        long[] versions = tableVersions.snapshot(tables);
+        long epoch = tableVersions.epoch();
+        long createTime = System.currentTimeMillis();
+        
+        long start = System.nanoTime();
+        List<E> list = delegate.query(ms, parameter, key);
+        CacheStats stats = cache.getStats();
+        if (stats != null) {
+            stats.recordLoad(System.nanoTime() - start);
+        }
+        
+        // 暂存，提交后才对其他会话可见
+        tcm.putObject(cache, key, new TableTaggedValue(tables, versions, epoch, list, createTime));
+        if (autoCommit) {
+            tcm.commit();
+        }
+        return list;
+    }
+    
+    /**
+     * 是否超过语句的cacheTtl
+     */
+    private boolean isExpired(MappedStatement ms, long age) {
+        Long ttl = ms.getCacheTtl();
+        return ttl != null && age >= ttl;
+    }
+    
+    /**
+     * 快要过期时交给后台刷新，这次仍然返回旧结果 ⭐
+     */
+    private void refreshAheadIfRequired(MappedStatement ms, Object parameter, CacheKey key, long age) {
+        Double refreshAhead = ms.getRefreshAhead();
+        if (refreshAhead != null && age >= ms.getCacheTtl() * refreshAhead) {
+            configuration.getCacheRefresher().refresh(ms, parameter, key);
+        }
+    }
+    
+    @Override
+    public CacheKey createCacheKey(MappedStatement ms, Object parameter) {
+        return delegate.createCacheKey(ms, parameter);
+    }
+    
+    /**
+     * 游标查询不走二级缓存
+     */
+    @Override
+    public <E> Cursor<E> queryCursor(String statementId, Object parameter) throws SQLException {
+        return queryCursor(getMappedStatement(statementId), parameter);
+    }
+    
+    @Override
+    public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter) throws SQLException {
+        flushCacheIfRequired(ms);
+        return delegate.queryCursor(ms, parameter);
+    }
+    
+    /**
+     * 回调查询不走二级缓存
+     */
+    @Override
+    public void query(String statementId, Object parameter, ResultHandler<?> resultHandler) throws SQLException {
+        query(getMappedStatement(statementId), parameter, resultHandler);
+    }
+    
+    @Override
+    public void query(MappedStatement ms, Object parameter, ResultHandler<?> resultHandler) throws SQLException {
+        flushCacheIfRequired(ms);
+        delegate.query(ms, parameter, resultHandler);
+    }
+    
+    @Override
+    public int update(String statementId, Object parameter) throws SQLException {
+        return update(getMappedStatement(statementId), parameter);
+    }
+    
+    @Override
+    public int update(MappedStatement ms, Object parameter) throws SQLException {
+        flushCacheIfRequired(ms);
+        int rows = delegate.update(ms, parameter);
+        // 批处理只是攒起来还没执行，表版本号要等flushStatements()真正执行之后再增加，
+        // 否则其他会话可能按新版本号缓存到旧数据
+        if (!autoCommit) {
+            dirty = true;
+        } else if (rows != BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+            tcm.commit();
+        }
+        return rows;
+    }
+    
+    @Override
+    public List<BatchResult> flushStatements() throws SQLException {
+        List<BatchResult> results = delegate.flushStatements();
+        if (autoCommit) {
+            tcm.commit();
+        }
+        return results;
+    }
+    
+    @Override
+    public void commit() throws SQLException {
+        delegate.commit();
+        tcm.commit();
+        dirty = false;
+    }
+    
+    @Override
+    public void rollback() throws SQLException {
+        try {
+            delegate.rollback();
+        } finally {
+            tcm.rollback();
+            dirty = false;
+        }
+    }
+    
+    /**
+     * 关闭
+     * 
+     * 未提交的更新会随连接一起回滚，暂存的数据也要丢弃；
+     * 只做过查询时，查到的数据可以放心写入二级缓存。
+     */
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (dirty) {
+                tcm.rollback();
+            } else {
+                tcm.commit();
+            }
+        } finally {
+            delegate.close();
+        }
+    }
+    
+    private MappedStatement getMappedStatement(String statementId) {
+        MappedStatement ms = configuration.getMappedStatement(statementId);
+        if (ms == null) {
+            throw new MyBatisException("未找到SQL语句: " + statementId);
+        }
+        return ms;
+    }
+    
+    /**
+     * 按需让二级缓存失效
+     * 
+     * 能确定写了哪些表时只让读过这些表的结果失效（所有namespace）；
+     * 确定不了时提交后增加全局纪元，所有namespace的结果都失效，同时清空本namespace的缓存。
+     */
+    private void flushCacheIfRequired(MappedStatement ms) {
+        if (!ms.isFlushCache()) {
+            return;
+        }
+        Set<String> writeTables = ms.getWriteTables();
+        if (writeTables != null && !writeTables.isEmpty()) {
+            logger.debug("执行{}后失效的表: {}", ms.getId(), writeTables);
+            tcm.invalidateTables(writeTables);
+            return;
+        }
+        tcm.invalidateTables(Collections.singleton(TableVersions.ANY_TABLE));
+        Cache cache = ms.getCache();
+        if (cache != null) {
+            logger.debug("执行{}前清空二级缓存: {}", ms.getId(), cache.getId());
+            tcm.clear(cache);
+        }
+    }
+}
+
@@ -1,5 +1,10 @@
 package com.mybatis.executor;
 
+import com.mybatis.cache.CacheKey;
+import com.mybatis.cursor.Cursor;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.session.ResultHandler;
+
 import java.sql.SQLException;
 import java.util.List;
 
@@ -17,6 +22,8 @@ import java.util.List;
  * 2. ReuseExecutor（复用执行器）- 复用Statement对象
  * 3. BatchExecutor（批量执行器）- 批量执行SQL，提高性能
  * 
+ * 开启二级缓存时，外面再套一层CachingExecutor（装饰器模式）。
+ * 
  * 核心职责：
  * 1. 获取MappedStatement
  * 2. 处理SQL参数
@@ -42,6 +49,73 @@ public interface Executor {
      */
     <E> List<E> query(String statementId, Object parameter) throws SQLException;
     
+    /**
+     * 执行查询操作（已经算好CacheKey）
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数对象
+     * @param key 缓存Key
+     * @param <E> 结果类型
+     * @return 查询结果列表
+     * @throws SQLException SQL异常
+     */
+    <E> List<E> query(MappedStatement ms, Object parameter, CacheKey key) throws SQLException;
+    
+    /**
+     * 创建缓存Key（一级缓存和二级缓存共用）
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数对象
+     * @return 缓存Key
+     */
+    CacheKey createCacheKey(MappedStatement ms, Object parameter);
+    
+    /**
+     * 执行游标查询
+     * 
+     * 结果逐行映射，不放入一级缓存。
+     * 
+     * @param statementId SQL语句ID
+     * @param parameter 参数对象
+     * @param <E> 结果类型
+     * @return 游标（调用方负责关闭）
+     * @throws SQLException SQL异常
+     */
+    <E> Cursor<E> queryCursor(String statementId, Object parameter) throws SQLException;
+    
+    /**
+     * 执行游标查询（已经找到MappedStatement）
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数对象
+     * @param <E> 结果类型
+     * @return 游标（调用方负责关闭）
+     * @throws SQLException SQL异常
+     */
+    <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter) throws SQLException;
+    
+    /**
+     * 执行回调查询
+     * 
+     * 每映射一行就交给resultHandler，不累积结果，不放入一级缓存。
+     * 
+     * @param statementId SQL语句ID
+     * @param parameter 参数对象
+     * @param resultHandler 结果处理器
+     * @throws SQLException SQL异常
+     */
+    void query(String statementId, Object parameter, ResultHandler<?> resultHandler) throws SQLException;
+    
+    /**
+     * 执行回调查询（已经找到MappedStatement）
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数对象
+     * @param resultHandler 结果处理器
+     * @throws SQLException SQL异常
+     */
+    void query(MappedStatement ms, Object parameter, ResultHandler<?> resultHandler) throws SQLException;
+    
     /**
      * 执行更新操作（INSERT、UPDATE、DELETE）
      * 
@@ -52,6 +126,26 @@ public interface Executor {
      */
     int update(String statementId, Object parameter) throws SQLException;
     
+    /**
+     * 执行更新操作（已经找到MappedStatement）
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数对象
+     * @return 影响的行数
+     * @throws SQLException SQL异常
+     */
+    int update(MappedStatement ms, Object parameter) throws SQLException;
+    
+    /**
+     * 刷新批处理语句
+     * 
+     * 只有BatchExecutor会真正攒批，其他执行器返回空列表。
+     * 
+     * @return 每一批的执行结果
+     * @throws SQLException SQL异常
+     */
+    List<BatchResult> flushStatements() throws SQLException;
+    
     /**
      * 提交事务
      * 
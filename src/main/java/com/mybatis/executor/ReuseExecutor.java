@@ -0,0 +1,206 @@
+package com.mybatis.executor;
+
+import com.mybatis.cursor.Cursor;
+import com.mybatis.executor.statement.StatementHandler;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.ResultSetType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.ResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 复用执行器
+ * 
+ * ReuseExecutor在SqlSession的生命周期内缓存PreparedStatement，
+ * 相同的SQL只会预编译一次，后续执行直接复用已经创建好的Statement。
+ * 
+ * 特点：
+ * 1. 以预编译后的SQL文本为key缓存Statement ⭐
+ * 2. 缓存有上限（statementCacheSize），超出后按LRU关闭最久未使用的Statement ⭐
+ * 3. 执行完毕后不关闭Statement，只有doClose()时才统一关闭
+ * 4. 继承BaseExecutor，拥有一级缓存功能
+ * 
+ * 与SimpleExecutor的区别：
+ * - SimpleExecutor：每次新建Statement，用完关闭
+ * - ReuseExecutor：缓存Statement，多次复用，省去驱动重复解析SQL的开销
+ * 
+ * 适用场景：
+ * - 同一个SqlSession内反复执行相同的SQL（例如循环中按ID查询）
+ * 
+ * @author 学习者
+ */
+public class ReuseExecutor extends BaseExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReuseExecutor.class);
+    
+    /**
+     * Statement缓存 ⭐⭐⭐⭐⭐
+     * key: 预编译的SQL（非FORWARD_ONLY时带上结果集类型）
+     * value: 已创建的PreparedStatement
+     * 
+     * 使用accessOrder=true的LinkedHashMap实现LRU，
+     * 超出上限时关闭并移除最久未使用的Statement。
+     */
+    private final Map<String, Statement> statementMap;
+    
+    public ReuseExecutor(Configuration configuration, Connection connection) {
+        super(configuration, connection);
+        // 至少缓存1个：上限为0时刚预编译的Statement会在put之后立即被关闭，调用方拿到的是已关闭的Statement
+        final int maxStatements = Math.max(1, configuration.getStatementCacheSize());
+        this.statementMap = new LinkedHashMap<String, Statement>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Statement> eldest) {
+                if (size() > maxStatements) {
+                    logger.debug("Statement缓存已满，关闭最久未使用的Statement: {}", eldest.getKey());
+                    closeStatement(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * 执行查询（子类实现）
+     * 
+     * ReuseExecutor的策略：
+     * - 优先从缓存中获取Statement
+     * - 执行完不关闭，留给下次复用
+     */
+    @Override
+    protected <E> List<E> doQuery(MappedStatement ms, Object parameter, ResultHandler<?> resultHandler) throws SQLException {
+        logger.debug("ReuseExecutor.doQuery: {}", ms.getId());
+        
+        // 1. 创建StatementHandler
+        StatementHandler handler = new StatementHandler(configuration, ms);
+        
+        // 2. 获取Statement（优先复用）⭐
+        Statement stmt = prepareStatement(handler);
+        
+        // 3. 设置参数
+        handler.parameterize(stmt, parameter);
+        
+        // 4. 执行查询
+        List<E> result = handler.query(stmt, resultHandler);
+        
+        logger.debug("doQuery完成: {} [rows={}]", ms.getId(), result.size());
+        
+        return result;
+    }
+    
+    /**
+     * 执行游标查询（子类实现）
+     * 
+     * 同样优先复用缓存的Statement。
+     * 注意：同一条语句再次执行时，上一次打开的游标会被驱动关闭，所以游标要先读完再执行同一条语句。
+     */
+    @Override
+    protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter) throws SQLException {
+        logger.debug("ReuseExecutor.doQueryCursor: {}", ms.getId());
+        
+        StatementHandler handler = new StatementHandler(configuration, ms);
+        Statement stmt = prepareStatement(handler);
+        handler.parameterize(stmt, parameter);
+        return handler.queryCursor(stmt);
+    }
+    
+    /**
+     * 执行更新（子类实现）
+     * 
+     * ReuseExecutor的策略：
+     * - 优先从缓存中获取Statement
+     * - 执行完不关闭，留给下次复用
+     */
+    @Override
+    protected int doUpdate(MappedStatement ms, Object parameter) throws SQLException {
+        logger.debug("ReuseExecutor.doUpdate: {}", ms.getId());
+        
+        // 1. 创建StatementHandler
+        StatementHandler handler = new StatementHandler(configuration, ms);
+        
+        // 2. 获取Statement（优先复用）⭐
+        Statement stmt = prepareStatement(handler);
+        
+        // 3. 设置参数
+        handler.parameterize(stmt, parameter);
+        
+        // 4. 执行更新
+        int rows = handler.update(stmt);
+        
+        logger.debug("doUpdate完成: {} [rows={}]", ms.getId(), rows);
+        
+        return rows;
+    }
+    
+    /**
+     * 刷新批处理
+     * 
+     * ReuseExecutor不攒批，更新操作都已立即执行
+     */
+    @Override
+    protected List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
+        return Collections.emptyList();
+    }
+    
+    /**
+     * 关闭时的清理工作
+     * 
+     * 关闭所有缓存的Statement ⭐
+     */
+    @Override
+    protected void doClose() throws SQLException {
+        logger.debug("ReuseExecutor.doClose [缓存的Statement数量={}]", statementMap.size());
+        for (Statement stmt : statementMap.values()) {
+            closeStatement(stmt);
+        }
+        statementMap.clear();
+    }
+    
+    /**
+     * 获取Statement
+     * 
+     * 缓存中存在且未关闭则直接复用，否则新建并放入缓存。
+     */
+    private Statement prepareStatement(StatementHandler handler) throws SQLException {
+        String sql = handler.getBoundSql().getSql();
+        // 结果集类型只能在创建时指定，非默认类型单独缓存
+        ResultSetType resultSetType = handler.getResultSetType();
+        String key = resultSetType == ResultSetType.FORWARD_ONLY ? sql : resultSetType + ":" + sql;
+        Statement stmt = statementMap.get(key);
+        if (stmt != null && !stmt.isClosed()) {
+            logger.debug("复用Statement: {}", sql);
+            // 同一条SQL可能来自fetchSize、timeout不同的语句，重新设置一次
+            handler.applyStatementSettings(stmt);
+            return stmt;
+        }
+        
+        stmt = handler.prepare(connection);
+        statementMap.put(key, stmt);
+        return stmt;
+    }
+    
+    /**
+     * 关闭Statement
+     */
+    private void closeStatement(Statement stmt) {
+        if (stmt != null) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                logger.warn("关闭Statement失败", e);
+            }
+        }
+    }
+}
+
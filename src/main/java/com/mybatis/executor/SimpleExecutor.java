@@ -1,14 +1,17 @@
 package com.mybatis.executor;
 
+import com.mybatis.cursor.Cursor;
 import com.mybatis.executor.statement.StatementHandler;
 import com.mybatis.mapping.MappedStatement;
 import com.mybatis.session.Configuration;
+import com.mybatis.session.ResultHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -52,22 +55,22 @@ public class SimpleExecutor extends BaseExecutor {
      * - 执行完立即关闭
      */
     @Override
-    protected <E> List<E> doQuery(MappedStatement ms, Object parameter) throws SQLException {
+    protected <E> List<E> doQuery(MappedStatement ms, Object parameter, ResultHandler<?> resultHandler) throws SQLException {
         Statement stmt = null;
         try {
             logger.debug("SimpleExecutor.doQuery: {}", ms.getId());
             
             // 1. 创建StatementHandler
-            StatementHandler handler = new StatementHandler(configuration);
+            StatementHandler handler = new StatementHandler(configuration, ms);
             
             // 2. 准备Statement（每次都新建）⭐
-            stmt = handler.prepare(connection, ms.getSql());
+            stmt = handler.prepare(connection);
             
             // 3. 设置参数
             handler.parameterize(stmt, parameter);
             
             // 4. 执行查询
-            List<E> result = handler.query(stmt, ms.getResultType());
+            List<E> result = handler.query(stmt, resultHandler);
             
             logger.debug("doQuery完成: {} [rows={}]", ms.getId(), result.size());
             
@@ -79,6 +82,27 @@ public class SimpleExecutor extends BaseExecutor {
         }
     }
     
+    /**
+     * 执行游标查询（子类实现）
+     * 
+     * 每次新建Statement，并设置closeOnCompletion：游标关闭结果集时Statement随之关闭
+     */
+    @Override
+    protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter) throws SQLException {
+        logger.debug("SimpleExecutor.doQueryCursor: {}", ms.getId());
+        
+        StatementHandler handler = new StatementHandler(configuration, ms);
+        Statement stmt = handler.prepare(connection);
+        try {
+            stmt.closeOnCompletion();
+            handler.parameterize(stmt, parameter);
+            return handler.queryCursor(stmt);
+        } catch (SQLException | RuntimeException e) {
+            closeStatement(stmt);
+            throw e;
+        }
+    }
+    
     /**
      * 执行更新（子类实现）
      * 
@@ -93,10 +117,10 @@ public class SimpleExecutor extends BaseExecutor {
             logger.debug("SimpleExecutor.doUpdate: {}", ms.getId());
             
             // 1. 创建StatementHandler
-            StatementHandler handler = new StatementHandler(configuration);
+            StatementHandler handler = new StatementHandler(configuration, ms);
             
             // 2. 准备Statement（每次都新建）⭐
-            stmt = handler.prepare(connection, ms.getSql());
+            stmt = handler.prepare(connection);
             
             // 3. 设置参数
             handler.parameterize(stmt, parameter);
@@ -114,6 +138,16 @@ public class SimpleExecutor extends BaseExecutor {
         }
     }
     
+    /**
+     * 刷新批处理
+     * 
+     * SimpleExecutor不攒批，更新操作都已立即执行
+     */
+    @Override
+    protected List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
+        return Collections.emptyList();
+    }
+    
     /**
      * 关闭时的清理工作
      */
@@ -0,0 +1,49 @@
+package com.mybatis.executor.result;
+
+import com.mybatis.session.ResultContext;
+
+/**
+ * 结果上下文的默认实现
+ * 
+ * 同一次查询复用同一个对象，每一行调用nextResultObject()更新当前对象。
+ * 
+ * @author 学习者
+ * @param <T> 结果类型
+ */
+public class DefaultResultContext<T> implements ResultContext<T> {
+    
+    private T resultObject;
+    
+    private int resultCount;
+    
+    private boolean stopped;
+    
+    /**
+     * 切换到下一行的对象
+     */
+    public void nextResultObject(T resultObject) {
+        resultCount++;
+        this.resultObject = resultObject;
+    }
+    
+    @Override
+    public T getResultObject() {
+        return resultObject;
+    }
+    
+    @Override
+    public int getResultCount() {
+        return resultCount;
+    }
+    
+    @Override
+    public boolean isStopped() {
+        return stopped;
+    }
+    
+    @Override
+    public void stop() {
+        this.stopped = true;
+    }
+}
+
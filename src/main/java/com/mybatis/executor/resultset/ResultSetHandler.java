@@ -1,17 +1,20 @@
 package com.mybatis.executor.resultset;
 
+import com.mybatis.cursor.Cursor;
+import com.mybatis.cursor.defaults.DefaultCursor;
 import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.executor.result.DefaultResultContext;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.ResultHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Field;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -39,6 +42,15 @@ public class ResultSetHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(ResultSetHandler.class);
     
+    /**
+     * 全局配置对象
+     */
+    private final Configuration configuration;
+    
+    public ResultSetHandler(Configuration configuration) {
+        this.configuration = configuration;
+    }
+    
     /**
      * 处理结果集
      * 
@@ -57,16 +69,12 @@ public class ResultSetHandler {
         
         logger.debug("开始处理结果集，目标类型: {}", resultType.getName());
         
-        // 获取结果集元数据
-        ResultSetMetaData metaData = resultSet.getMetaData();
-        int columnCount = metaData.getColumnCount();
-        
-        logger.debug("结果集包含{}列", columnCount);
+        RowMapper<E> rowMapper = createRowMapper(resultSet.getMetaData(), resultType);
         
         // 遍历结果集
         while (resultSet.next()) {
             // 创建结果对象
-            E rowObject = createResultObject(resultSet, resultType, metaData, columnCount);
+            E rowObject = rowMapper.mapRow(resultSet);
             resultList.add(rowObject);
         }
         
@@ -75,6 +83,74 @@ public class ResultSetHandler {
         return resultList;
     }
     
+    /**
+     * 逐行处理结果集（推模式）
+     * 
+     * 每映射一行就交给ResultHandler，不会累积到List中；
+     * ResultHandler调用ResultContext.stop()后不再读取后面的行。
+     * 
+     * @param resultSet 结果集
+     * @param resultType 返回类型
+     * @param resultHandler 结果处理器
+     */
+    @SuppressWarnings("unchecked")
+    public void handleResultSet(ResultSet resultSet, Class<?> resultType,
+                                ResultHandler<?> resultHandler) throws SQLException {
+        if (resultType == null) {
+            logger.warn("resultType为空，不处理结果集");
+            return;
+        }
+        
+        RowMapper<Object> rowMapper = createRowMapper(resultSet.getMetaData(), resultType);
+        ResultHandler<Object> handler = (ResultHandler<Object>) resultHandler;
+        DefaultResultContext<Object> context = new DefaultResultContext<>();
+        
+        while (!context.isStopped() && resultSet.next()) {
+            context.nextResultObject(rowMapper.mapRow(resultSet));
+            handler.handleResult(context);
+        }
+        
+        logger.debug("结果集处理完成，共{}行{}", context.getResultCount(), context.isStopped() ? "（提前停止）" : "");
+    }
+    
+    /**
+     * 把结果集包装成游标（逐行映射，不一次性加载到List）
+     * 
+     * @param resultSet 结果集（游标关闭时一起关闭）
+     * @param resultType 返回类型
+     * @param <E> 结果元素类型
+     * @return 游标
+     */
+    public <E> Cursor<E> handleCursorResultSet(ResultSet resultSet, Class<?> resultType) throws SQLException {
+        if (resultType == null) {
+            resultSet.close();
+            throw new MyBatisException("游标查询必须指定resultType");
+        }
+        logger.debug("打开游标，目标类型: {}", resultType.getName());
+        return new DefaultCursor<>(resultSet, createRowMapper(resultSet.getMetaData(), resultType));
+    }
+    
+    /**
+     * 创建当前结果集的行映射器
+     * 
+     * 根据结果类型和列信息只计算一次，之后每一行直接调用 ⭐
+     * 
+     * @param metaData 结果集元数据
+     * @param resultType 返回类型
+     * @param <E> 结果元素类型
+     * @return 行映射器
+     */
+    public <E> RowMapper<E> createRowMapper(ResultSetMetaData metaData, Class<?> resultType) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        
+        logger.debug("结果集包含{}列", columnCount);
+        
+        // JavaBean类型：行映射器按(结果类型, 列名)缓存 ⭐
+        RowMapper<?> beanMapper = isBeanType(resultType) ? getRowMapper(resultType, metaData) : null;
+        
+        return rs -> createResultObject(rs, resultType, metaData, columnCount, beanMapper);
+    }
+    
     /**
      * 创建结果对象
      * 
@@ -82,12 +158,14 @@ public class ResultSetHandler {
      * @param resultType 结果类型
      * @param metaData 元数据
      * @param columnCount 列数
+     * @param rowMapper JavaBean的行映射器（其他类型为null）
      * @param <E> 结果类型
      * @return 结果对象
      */
     @SuppressWarnings("unchecked")
     private <E> E createResultObject(ResultSet resultSet, Class<?> resultType, 
-                                      ResultSetMetaData metaData, int columnCount) throws SQLException {
+                                      ResultSetMetaData metaData, int columnCount,
+                                      RowMapper<?> rowMapper) throws SQLException {
         
         // 处理简单类型（String、Integer、Long等）
         if (isSimpleType(resultType)) {
@@ -100,7 +178,7 @@ public class ResultSetHandler {
         }
         
         // 处理JavaBean类型
-        return (E) handleBeanType(resultSet, resultType, metaData, columnCount);
+        return (E) rowMapper.mapRow(resultSet);
     }
     
     /**
@@ -122,59 +200,27 @@ public class ResultSetHandler {
     }
     
     /**
-     * 处理JavaBean类型
+     * 获取JavaBean的行映射器
      * 
-     * 核心流程：
-     * 1. 创建对象实例
-     * 2. 遍历所有列
-     * 3. 根据列名找到对应的属性
-     * 4. 设置属性值
+     * rowMapperType=BYTECODE：使用生成的字节码（不支持时自动回退到反射）
+     * rowMapperType=REFLECTION：使用缓存MethodHandle的RowMappingPlan
+     */
+    private RowMapper<?> getRowMapper(Class<?> resultType, ResultSetMetaData metaData) throws SQLException {
+        if (Configuration.ROW_MAPPER_BYTECODE.equalsIgnoreCase(configuration.getRowMapperType())) {
+            return RowMapperGenerator.forResultSet(resultType, metaData);
+        }
+        return RowMappingPlan.forResultSet(resultType, metaData);
+    }
+    
+    /**
+     * 是否按JavaBean映射（简单类型和Map以外的类型）
      * 
-     * 命名转换：
+     * JavaBean的映射由RowMapper完成：
      * - 数据库字段：user_name (下划线分隔)
      * - Java属性：userName (驼峰命名)
      */
-    private Object handleBeanType(ResultSet resultSet, Class<?> resultType, 
-                                   ResultSetMetaData metaData, int columnCount) throws SQLException {
-        try {
-            // 1. 创建对象实例
-            Object bean = resultType.newInstance();
-            
-            // 2. 获取所有字段
-            Field[] fields = resultType.getDeclaredFields();
-            Map<String, Field> fieldMap = new HashMap<>();
-            
-            for (Field field : fields) {
-                field.setAccessible(true);
-                // 支持驼峰命名和下划线命名
-                fieldMap.put(field.getName().toLowerCase(), field);
-                fieldMap.put(camelToUnderscore(field.getName()).toLowerCase(), field);
-            }
-            
-            // 3. 遍历所有列，设置属性值
-            for (int i = 1; i <= columnCount; i++) {
-                String columnName = metaData.getColumnLabel(i);
-                Object columnValue = resultSet.getObject(i);
-                
-                // 查找对应的字段
-                Field field = fieldMap.get(columnName.toLowerCase());
-                
-                if (field != null && columnValue != null) {
-                    // 类型转换
-                    Object value = convertType(columnValue, field.getType());
-                    field.set(bean, value);
-                    
-                    logger.trace("设置属性: {} = {}", field.getName(), value);
-                } else {
-                    logger.trace("未找到字段映射: {}", columnName);
-                }
-            }
-            
-            return bean;
-            
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new MyBatisException("创建结果对象失败: " + resultType, e);
-        }
+    private boolean isBeanType(Class<?> resultType) {
+        return !isSimpleType(resultType) && !Map.class.isAssignableFrom(resultType);
     }
     
     /**
@@ -188,7 +234,7 @@ public class ResultSetHandler {
      * - DECIMAL → BigDecimal
      * - TIMESTAMP → Date
      */
-    private Object convertType(Object value, Class<?> targetType) {
+    static Object convertType(Object value, Class<?> targetType) {
         if (value == null) {
             return null;
         }
@@ -240,32 +286,6 @@ public class ResultSetHandler {
         return value;
     }
     
-    /**
-     * 驼峰命名转下划线命名
-     * 
-     * 例如: userName → user_name
-     */
-    private String camelToUnderscore(String camelCase) {
-        if (camelCase == null || camelCase.isEmpty()) {
-            return camelCase;
-        }
-        
-        StringBuilder result = new StringBuilder();
-        result.append(Character.toLowerCase(camelCase.charAt(0)));
-        
-        for (int i = 1; i < camelCase.length(); i++) {
-            char ch = camelCase.charAt(i);
-            if (Character.isUpperCase(ch)) {
-                result.append('_');
-                result.append(Character.toLowerCase(ch));
-            } else {
-                result.append(ch);
-            }
-        }
-        
-        return result.toString();
-    }
-    
     /**
      * 判断是否为简单类型
      */
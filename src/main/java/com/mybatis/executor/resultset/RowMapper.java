@@ -0,0 +1,28 @@
+package com.mybatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 行映射器
+ * 
+ * 把ResultSet的当前行转换成一个结果对象。
+ * 
+ * 两种实现：
+ * - RowMappingPlan：通过缓存的MethodHandle赋值（默认）
+ * - RowMapperGenerator生成的类：直接调用typed getXxx和setter的字节码
+ * 
+ * @author 学习者
+ * @param <T> 结果类型
+ */
+public interface RowMapper<T> {
+    
+    /**
+     * 映射当前行（调用方负责resultSet.next()）
+     * 
+     * @param resultSet 结果集
+     * @return 结果对象
+     */
+    T mapRow(ResultSet resultSet) throws SQLException;
+}
+
@@ -0,0 +1,324 @@
+package com.mybatis.executor.resultset;
+
+import com.mybatis.reflection.Reflector;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 行映射器字节码生成器 ⭐⭐⭐⭐⭐
+ * 
+ * 对应配置：<setting name="rowMapperType" value="BYTECODE"/>
+ * 
+ * 使用cglib自带的ASM，为每个(结果类型, 列名签名)生成一个专用的RowMapper类。
+ * 生成的代码相当于手写：
+ * <pre>
+ * public Object mapRow(ResultSet rs) throws SQLException {
+ *     Product bean = new Product();
+ *     long id = rs.getLong(1);
+ *     if (!rs.wasNull()) bean.setId(Long.valueOf(id));
+ *     String productName = rs.getString(2);
+ *     if (productName != null) bean.setProductName(productName);
+ *     Timestamp createTime = rs.getTimestamp(7);
+ *     if (createTime != null) bean.setCreateTime(createTime.toLocalDateTime());
+ *     return bean;
+ * }
+ * </pre>
+ * 
+ * 与RowMappingPlan相比：没有MethodHandle调用、没有getObject之后的类型转换，
+ * 基本类型的属性也不需要装箱。
+ * 
+ * 不能生成时回退到RowMappingPlan：
+ * - 结果类型或无参构造器不是public
+ * - 某个匹配上的属性只能通过字段赋值（没有public setter）
+ * - 属性类型不在支持范围内
+ * 
+ * @author 学习者
+ */
+public final class RowMapperGenerator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RowMapperGenerator.class);
+    
+    private static final String RESULT_SET = Type.getInternalName(ResultSet.class);
+    
+    private static final String GENERATED_PACKAGE = "com/mybatis/executor/resultset/generated/";
+    
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    
+    /**
+     * 结果类型 → (列名签名 → 行映射器)
+     */
+    private static final ClassValue<ConcurrentHashMap<String, RowMapper<?>>> MAPPERS = new ClassValue<ConcurrentHashMap<String, RowMapper<?>>>() {
+        @Override
+        protected ConcurrentHashMap<String, RowMapper<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    
+    private RowMapperGenerator() {
+    }
+    
+    /**
+     * 获取生成的行映射器（同一个结果类型和列名签名只生成一次）
+     * 
+     * @param resultType 结果类型
+     * @param metaData 结果集元数据
+     * @return 生成的行映射器；不能生成时返回RowMappingPlan
+     */
+    public static RowMapper<?> forResultSet(Class<?> resultType, ResultSetMetaData metaData) throws SQLException {
+        String[] labels = RowMappingPlan.columnLabels(metaData);
+        String signature = String.join(",", labels);
+        
+        ConcurrentHashMap<String, RowMapper<?>> mappers = MAPPERS.get(resultType);
+        RowMapper<?> mapper = mappers.get(signature);
+        if (mapper == null) {
+            mapper = generate(resultType, labels);
+            if (mapper == null) {
+                mapper = RowMappingPlan.forResultSet(resultType, metaData);
+            }
+            RowMapper<?> existing = mappers.putIfAbsent(signature, mapper);
+            if (existing != null) {
+                mapper = existing;
+            }
+        }
+        return mapper;
+    }
+    
+    /**
+     * 生成行映射器
+     * 
+     * @return 生成的行映射器，不支持时返回null
+     */
+    private static RowMapper<?> generate(Class<?> resultType, String[] labels) {
+        if (!Modifier.isPublic(resultType.getModifiers()) || !hasPublicDefaultConstructor(resultType)) {
+            logger.debug("结果类型不是public或没有public无参构造器，使用反射映射: {}", resultType.getName());
+            return null;
+        }
+        
+        Reflector reflector = Reflector.forClass(resultType);
+        String[] properties = RowMappingPlan.matchProperties(reflector, labels);
+        Method[] setters = new Method[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            if (properties[i] == null) {
+                continue;
+            }
+            Method setter = reflector.getSetterMethod(properties[i]);
+            if (setter == null || !isSupported(setter.getParameterTypes()[0])) {
+                logger.debug("属性{}.{}不支持生成字节码，使用反射映射", resultType.getSimpleName(), properties[i]);
+                return null;
+            }
+            setters[i] = setter;
+        }
+        
+        String className = GENERATED_PACKAGE + "RowMapper$" + resultType.getSimpleName() + "$" + COUNTER.incrementAndGet();
+        byte[] bytecode = generateClass(className, resultType, setters);
+        try {
+            Class<?> mapperClass = new GeneratedClassLoader(resultType.getClassLoader())
+                .define(className.replace('/', '.'), bytecode);
+            RowMapper<?> mapper = (RowMapper<?>) mapperClass.getConstructor().newInstance();
+            logger.debug("生成行映射器: {} → {}", resultType.getSimpleName(), mapperClass.getSimpleName());
+            return mapper;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("生成行映射器失败，使用反射映射: {}", resultType.getName(), e);
+            return null;
+        }
+    }
+    
+    private static boolean hasPublicDefaultConstructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getConstructor();
+            return !Modifier.isAbstract(type.getModifiers()) && Modifier.isPublic(constructor.getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+    
+    private static boolean isSupported(Class<?> type) {
+        return type == String.class || type == BigDecimal.class
+            || type == long.class || type == Long.class
+            || type == int.class || type == Integer.class
+            || type == double.class || type == Double.class
+            || type == boolean.class || type == Boolean.class
+            || type == LocalDateTime.class || type == LocalDate.class
+            || type == java.util.Date.class || type == Timestamp.class;
+    }
+    
+    // ========================================
+    // 字节码生成
+    // ========================================
+    
+    /**
+     * 生成类：public final class RowMapper$Xxx$N implements RowMapper
+     */
+    private static byte[] generateClass(String className, Class<?> resultType, Method[] setters) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // 生成的代码不会在分支合并处出现不同的引用类型，不需要加载类
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null,
+            "java/lang/Object", new String[]{Type.getInternalName(RowMapper.class)});
+        
+        // 无参构造器
+        MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+        
+        // mapRow(ResultSet)
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "mapRow",
+            "(Ljava/sql/ResultSet;)Ljava/lang/Object;", null, new String[]{"java/sql/SQLException"});
+        mv.visitCode();
+        String beanType = Type.getInternalName(resultType);
+        mv.visitTypeInsn(Opcodes.NEW, beanType);
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, beanType, "<init>", "()V", false);
+        mv.visitVarInsn(Opcodes.ASTORE, 2);
+        
+        for (int i = 0; i < setters.length; i++) {
+            if (setters[i] != null) {
+                generateColumn(mv, beanType, i + 1, setters[i]);
+            }
+        }
+        
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+    
+    /**
+     * 生成一列的读取和赋值
+     * 
+     * 局部变量：0=this, 1=ResultSet, 2=bean, 3(4)=当前列的值
+     */
+    private static void generateColumn(MethodVisitor mv, String beanType, int column, Method setter) {
+        Class<?> type = setter.getParameterTypes()[0];
+        Label skip = new Label();
+        
+        if (type == long.class || type == Long.class) {
+            readPrimitive(mv, column, "getLong", "J", Opcodes.LSTORE, skip);
+            mv.visitVarInsn(Opcodes.LLOAD, 3);
+            box(mv, type, "java/lang/Long", "J");
+        } else if (type == int.class || type == Integer.class) {
+            readPrimitive(mv, column, "getInt", "I", Opcodes.ISTORE, skip);
+            mv.visitVarInsn(Opcodes.ILOAD, 3);
+            box(mv, type, "java/lang/Integer", "I");
+        } else if (type == double.class || type == Double.class) {
+            readPrimitive(mv, column, "getDouble", "D", Opcodes.DSTORE, skip);
+            mv.visitVarInsn(Opcodes.DLOAD, 3);
+            box(mv, type, "java/lang/Double", "D");
+        } else if (type == boolean.class || type == Boolean.class) {
+            readPrimitive(mv, column, "getBoolean", "Z", Opcodes.ISTORE, skip);
+            mv.visitVarInsn(Opcodes.ILOAD, 3);
+            box(mv, type, "java/lang/Boolean", "Z");
+        } else if (type == String.class) {
+            readReference(mv, column, "getString", "Ljava/lang/String;", skip);
+        } else if (type == BigDecimal.class) {
+            readReference(mv, column, "getBigDecimal", "Ljava/math/BigDecimal;", skip);
+        } else if (type == java.util.Date.class || type == Timestamp.class) {
+            readReference(mv, column, "getTimestamp", "Ljava/sql/Timestamp;", skip);
+        } else if (type == LocalDateTime.class) {
+            readReference(mv, column, "getTimestamp", "Ljava/sql/Timestamp;", skip);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/sql/Timestamp", "toLocalDateTime",
+                "()Ljava/time/LocalDateTime;", false);
+        } else if (type == LocalDate.class) {
+            readReference(mv, column, "getDate", "Ljava/sql/Date;", skip);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/sql/Date", "toLocalDate",
+                "()Ljava/time/LocalDate;", false);
+        }
+        
+        // bean.setXxx(value)
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, beanType, setter.getName(),
+            Type.getMethodDescriptor(setter), false);
+        Class<?> returnType = setter.getReturnType();
+        if (returnType == long.class || returnType == double.class) {
+            mv.visitInsn(Opcodes.POP2);
+        } else if (returnType != void.class) {
+            mv.visitInsn(Opcodes.POP);
+        }
+        mv.visitLabel(skip);
+    }
+    
+    /**
+     * value = rs.getXxx(column); if (rs.wasNull()) goto skip; 然后把bean压栈
+     */
+    private static void readPrimitive(MethodVisitor mv, int column, String getter, String descriptor,
+                                      int storeOpcode, Label skip) {
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitLdcInsn(column);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, RESULT_SET, getter, "(I)" + descriptor, true);
+        mv.visitVarInsn(storeOpcode, 3);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, RESULT_SET, "wasNull", "()Z", true);
+        mv.visitJumpInsn(Opcodes.IFNE, skip);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+    }
+    
+    /**
+     * value = rs.getXxx(column); if (value == null) goto skip; 然后把bean和value压栈
+     */
+    private static void readReference(MethodVisitor mv, int column, String getter, String descriptor, Label skip) {
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitLdcInsn(column);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, RESULT_SET, getter, "(I)" + descriptor, true);
+        mv.visitVarInsn(Opcodes.ASTORE, 3);
+        mv.visitVarInsn(Opcodes.ALOAD, 3);
+        mv.visitJumpInsn(Opcodes.IFNULL, skip);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitVarInsn(Opcodes.ALOAD, 3);
+    }
+    
+    /**
+     * 属性是包装类型时装箱（基本类型属性直接传值，不装箱）
+     */
+    private static void box(MethodVisitor mv, Class<?> type, String wrapper, String descriptor) {
+        if (!type.isPrimitive()) {
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper, "valueOf",
+                "(" + descriptor + ")L" + wrapper + ";", false);
+        }
+    }
+    
+    /**
+     * 加载生成的类
+     * 
+     * 父加载器是结果类型的类加载器，这样生成的类能直接访问结果类型；
+     * 每个生成的类单独一个加载器，结果类型被卸载时可以一起回收。
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+        
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent != null ? parent : RowMapperGenerator.class.getClassLoader());
+        }
+        
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
+
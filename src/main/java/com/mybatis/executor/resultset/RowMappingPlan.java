@@ -0,0 +1,264 @@
+package com.mybatis.executor.resultset;
+
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.reflection.Reflector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 行映射计划 ⭐⭐⭐⭐
+ * 
+ * 把"哪一列写到哪个属性、用哪个getXxx读"提前算好，每一行只需要：
+ * 1. 调用无参构造器创建对象
+ * 2. 对每个匹配上的列：reader.read(rs, i) + setter.invokeExact(bean, value)
+ * 
+ * 原来的做法是每一行都getDeclaredFields()、setAccessible、构建字段Map，
+ * 10万行的查询就要构建10万个Map。现在同一个(resultType, 列名签名)只计算一次。
+ * 
+ * 缓存：
+ * - 第一层：ClassValue，按结果类型区分
+ * - 第二层：ConcurrentHashMap，key是所有列名拼成的签名（同一个类被不同的SELECT使用时列不一样）
+ * 
+ * @author 学习者
+ */
+public class RowMappingPlan implements RowMapper<Object> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RowMappingPlan.class);
+    
+    /**
+     * 结果类型 → (列名签名 → 映射计划)
+     */
+    private static final ClassValue<ConcurrentHashMap<String, RowMappingPlan>> PLANS = new ClassValue<ConcurrentHashMap<String, RowMappingPlan>>() {
+        @Override
+        protected ConcurrentHashMap<String, RowMappingPlan> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    
+    private final Reflector reflector;
+    
+    /**
+     * 需要映射的列序号（从1开始）
+     */
+    private final int[] columns;
+    
+    /**
+     * 与columns一一对应：按目标属性类型选择的读取方法
+     */
+    private final ColumnReader[] readers;
+    
+    /**
+     * 与columns一一对应：属性的setter，签名为(Object,Object)void
+     */
+    private final MethodHandle[] setters;
+    
+    private RowMappingPlan(Reflector reflector, int[] columns, ColumnReader[] readers, MethodHandle[] setters) {
+        this.reflector = reflector;
+        this.columns = columns;
+        this.readers = readers;
+        this.setters = setters;
+    }
+    
+    /**
+     * 获取映射计划（同一个结果类型和列名签名只计算一次）
+     * 
+     * @param resultType 结果类型
+     * @param metaData 结果集元数据
+     * @return 映射计划
+     */
+    public static RowMappingPlan forResultSet(Class<?> resultType, ResultSetMetaData metaData) throws SQLException {
+        String[] labels = columnLabels(metaData);
+        String signature = String.join(",", labels);
+        
+        ConcurrentHashMap<String, RowMappingPlan> plans = PLANS.get(resultType);
+        RowMappingPlan plan = plans.get(signature);
+        if (plan == null) {
+            plan = build(resultType, labels);
+            RowMappingPlan existing = plans.putIfAbsent(signature, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+    
+    static String[] columnLabels(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        String[] labels = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+        return labels;
+    }
+    
+    /**
+     * 计算映射计划
+     * 
+     * 列名与属性名的匹配规则：忽略大小写和下划线
+     * - product_name → productName
+     * - PRODUCTNAME → productName
+     */
+    private static RowMappingPlan build(Class<?> resultType, String[] labels) {
+        Reflector reflector = Reflector.forClass(resultType);
+        if (!reflector.hasDefaultConstructor()) {
+            throw new MyBatisException("结果类型没有无参构造器: " + resultType.getName());
+        }
+        
+        String[] properties = matchProperties(reflector, labels);
+        List<Integer> columns = new ArrayList<>();
+        List<ColumnReader> readers = new ArrayList<>();
+        List<MethodHandle> setters = new ArrayList<>();
+        for (int i = 0; i < labels.length; i++) {
+            String property = properties[i];
+            if (property == null) {
+                continue;
+            }
+            columns.add(i + 1);
+            readers.add(readerFor(reflector.getSetterType(property)));
+            setters.add(reflector.getSetter(property));
+        }
+        
+        logger.debug("生成行映射计划: {} [匹配{}/{}列]", resultType.getSimpleName(), columns.size(), labels.length);
+        return new RowMappingPlan(reflector,
+            columns.stream().mapToInt(Integer::intValue).toArray(),
+            readers.toArray(new ColumnReader[0]),
+            setters.toArray(new MethodHandle[0]));
+    }
+    
+    /**
+     * 按列名匹配可写的属性
+     * 
+     * @return 与labels一一对应的属性名，没有匹配的列为null
+     */
+    static String[] matchProperties(Reflector reflector, String[] labels) {
+        Map<String, String> properties = new HashMap<>();
+        for (String property : reflector.getSetterNames()) {
+            properties.put(normalize(property), property);
+        }
+        
+        String[] matched = new String[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            matched[i] = properties.get(normalize(labels[i]));
+            if (matched[i] == null) {
+                logger.trace("未找到字段映射: {}", labels[i]);
+            }
+        }
+        return matched;
+    }
+    
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ENGLISH);
+    }
+    
+    /**
+     * 把当前行映射成对象
+     */
+    @Override
+    public Object mapRow(ResultSet resultSet) throws SQLException {
+        Object bean = reflector.newInstance();
+        for (int i = 0; i < columns.length; i++) {
+            Object value = readers[i].read(resultSet, columns[i]);
+            if (value == null) {
+                continue;
+            }
+            try {
+                setters[i].invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new MyBatisException("设置属性失败: " + reflector.getType().getName(), e);
+            }
+        }
+        return bean;
+    }
+    
+    // ========================================
+    // 按属性类型选择读取方法
+    // ========================================
+    
+    /**
+     * 读取一列的值（NULL返回null）
+     */
+    @FunctionalInterface
+    interface ColumnReader {
+        Object read(ResultSet rs, int column) throws SQLException;
+    }
+    
+    /**
+     * 根据目标属性类型选择ResultSet的getXxx方法
+     * 
+     * 直接调用类型化的getter，由驱动完成类型转换，避免getObject之后再做一次转换。
+     */
+    static ColumnReader readerFor(Class<?> type) {
+        if (type == String.class) {
+            return ResultSet::getString;
+        }
+        if (type == Long.class || type == long.class) {
+            return (rs, i) -> {
+                long value = rs.getLong(i);
+                return rs.wasNull() ? null : value;
+            };
+        }
+        if (type == Integer.class || type == int.class) {
+            return (rs, i) -> {
+                int value = rs.getInt(i);
+                return rs.wasNull() ? null : value;
+            };
+        }
+        if (type == Double.class || type == double.class) {
+            return (rs, i) -> {
+                double value = rs.getDouble(i);
+                return rs.wasNull() ? null : value;
+            };
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return (rs, i) -> {
+                boolean value = rs.getBoolean(i);
+                return rs.wasNull() ? null : value;
+            };
+        }
+        if (type == BigDecimal.class) {
+            return ResultSet::getBigDecimal;
+        }
+        if (type == LocalDateTime.class) {
+            return (rs, i) -> {
+                Timestamp value = rs.getTimestamp(i);
+                return value == null ? null : value.toLocalDateTime();
+            };
+        }
+        if (type == LocalDate.class) {
+            return (rs, i) -> {
+                java.sql.Date value = rs.getDate(i);
+                return value == null ? null : value.toLocalDate();
+            };
+        }
+        if (type == LocalTime.class) {
+            return (rs, i) -> {
+                java.sql.Time value = rs.getTime(i);
+                return value == null ? null : value.toLocalTime();
+            };
+        }
+        if (type == java.util.Date.class || type == Timestamp.class) {
+            return ResultSet::getTimestamp;
+        }
+        // 其他类型：getObject后按属性类型转换
+        return (rs, i) -> ResultSetHandler.convertType(rs.getObject(i), type);
+    }
+}
+
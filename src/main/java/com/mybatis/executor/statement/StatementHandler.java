@@ -1,14 +1,23 @@
 package com.mybatis.executor.statement;
 
+import com.mybatis.builder.SqlSourceBuilder;
+import com.mybatis.cursor.Cursor;
 import com.mybatis.executor.resultset.ResultSetHandler;
+import com.mybatis.binding.ParamMap;
+import com.mybatis.mapping.BoundSql;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.ParameterMapping;
+import com.mybatis.mapping.ResultSetType;
+import com.mybatis.reflection.MetaObject;
+import com.mybatis.session.ResultHandler;
 import com.mybatis.session.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * JDBC Statement处理器
@@ -45,46 +54,97 @@ public class StatementHandler {
     private ResultSetHandler resultSetHandler;
     
     /**
-     * #{} 占位符的正则表达式
-     * 匹配 #{id}、#{name}、#{user.id} 等格式
+     * 当前执行的SQL语句映射
      */
-    private static final Pattern PARAM_PATTERN = Pattern.compile("#\\{([^}]+)\\}");
+    private final MappedStatement mappedStatement;
     
-    public StatementHandler(Configuration configuration) {
+    /**
+     * 预编译好的SQL和参数映射（解析Mapper时生成）
+     */
+    private final BoundSql boundSql;
+    
+    public StatementHandler(Configuration configuration, MappedStatement mappedStatement) {
         this.configuration = configuration;
-        this.resultSetHandler = new ResultSetHandler();
+        this.mappedStatement = mappedStatement;
+        this.boundSql = mappedStatement.getBoundSql();
+        this.resultSetHandler = new ResultSetHandler(configuration);
     }
     
     /**
      * 准备Statement对象
      * 
-     * 将SQL中的#{param}占位符替换为?，创建PreparedStatement
+     * 直接使用解析Mapper时预编译好的SQL（#{param}已替换为?），执行时不再做正则替换 ⭐
      * 
      * 例如：
-     * 输入: SELECT * FROM user WHERE id = #{id}
-     * 输出: SELECT * FROM user WHERE id = ?
+     * 原始SQL: SELECT * FROM user WHERE id = #{id}
+     * 预编译SQL: SELECT * FROM user WHERE id = ?
      * 
      * @param connection 数据库连接
-     * @param sql 原始SQL（包含#{param}占位符）
      * @return PreparedStatement对象
      */
-    public Statement prepare(Connection connection, String sql) throws SQLException {
-        // 将#{param}替换为?
-        String preparedSql = sql.replaceAll("#\\{[^}]+\\}", "?");
-        
-        logger.debug("原始SQL: {}", sql);
-        logger.debug("预编译SQL: {}", preparedSql);
+    public Statement prepare(Connection connection) throws SQLException {
+        logger.debug("预编译SQL: {}", boundSql.getSql());
         
-        // 创建PreparedStatement
-        return connection.prepareStatement(preparedSql);
+        // 创建PreparedStatement（默认只进、只读的结果集）
+        PreparedStatement ps = connection.prepareStatement(boundSql.getSql(),
+            getResultSetType().getValue(), ResultSet.CONCUR_READ_ONLY);
+        try {
+            applyStatementSettings(ps);
+        } catch (SQLException e) {
+            ps.close();
+            throw e;
+        }
+        return ps;
+    }
+    
+    /**
+     * 设置执行参数 ⭐
+     * 
+     * <select>上的属性优先，未配置时使用Configuration中的全局默认值：
+     * - fetchSize：每次从数据库取多少行（游标、回调查询时决定内存占用）
+     * - timeout：超时后驱动取消查询，抛出SQLTimeoutException
+     * - maxRows：超出部分驱动直接丢弃
+     * 
+     * ReuseExecutor复用Statement时也会调用，因为同一条SQL可能来自配置不同的语句。
+     * 
+     * @param statement Statement对象
+     */
+    public void applyStatementSettings(Statement statement) throws SQLException {
+        Integer fetchSize = firstNonNull(mappedStatement.getFetchSize(), configuration.getDefaultFetchSize());
+        if (fetchSize != null) {
+            statement.setFetchSize(fetchSize);
+        }
+        Integer timeout = firstNonNull(mappedStatement.getTimeout(), configuration.getDefaultStatementTimeout());
+        statement.setQueryTimeout(timeout != null ? timeout : 0);
+        Integer maxRows = firstNonNull(mappedStatement.getMaxRows(), configuration.getDefaultMaxRows());
+        statement.setMaxRows(maxRows != null ? maxRows : 0);
+    }
+    
+    /**
+     * 实际使用的结果集类型（语句未指定时使用全局默认值，都未指定时为FORWARD_ONLY）
+     */
+    public ResultSetType getResultSetType() {
+        ResultSetType resultSetType = mappedStatement.getResultSetType();
+        if (resultSetType == ResultSetType.DEFAULT) {
+            resultSetType = configuration.getDefaultResultSetType();
+        }
+        return resultSetType == ResultSetType.DEFAULT ? ResultSetType.FORWARD_ONLY : resultSetType;
+    }
+    
+    private static Integer firstNonNull(Integer value, Integer defaultValue) {
+        return value != null ? value : defaultValue;
     }
     
     /**
      * 设置SQL参数
      * 
-     * 支持两种参数类型：
-     * 1. 简单类型（String、Integer、Long等）- 直接设置到第一个占位符
+     * 按BoundSql中的参数映射顺序，依次给每个?赋值：
+     * 1. 简单类型（String、Integer、Long等）- 每个占位符都绑定参数本身
      * 2. 复杂类型（JavaBean、Map）- 根据属性名匹配占位符
+     * 3. ParamMap（多参数Mapper方法）- 按预先算好的下标取方法参数
+     * 
+     * 取到的值是集合时按数组绑定（例如 id = ANY(#{ids})，需要驱动支持数组参数），
+     * 否则驱动会把整个集合序列化成一个Java对象。
      * 
      * 参数处理是MyBatis的核心功能之一，真实的MyBatis会有更复杂的参数处理逻辑。
      * 
@@ -92,45 +152,95 @@ public class StatementHandler {
      * @param parameter 参数对象
      */
     public void parameterize(Statement statement, Object parameter) throws SQLException {
-        if (parameter == null) {
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        if (parameterMappings.isEmpty()) {
             return;
         }
         
         PreparedStatement ps = (PreparedStatement) statement;
+        boolean simple = isSimpleType(parameter);
+        // 多参数Mapper方法：按解析MapperMethod时算好的下标取值
+        ParamMap paramMap = parameter instanceof ParamMap && ((ParamMap) parameter).isBoundTo(parameterMappings)
+            ? (ParamMap) parameter : null;
         
-        // 简单类型直接设置
-        if (isSimpleType(parameter)) {
-            logger.debug("设置参数: [1] = {}", parameter);
-            ps.setObject(1, parameter);
+        for (int i = 0; i < parameterMappings.size(); i++) {
+            ParameterMapping mapping = parameterMappings.get(i);
+            // 简单类型：参数本身；JavaBean/Map：按属性名取值（getter已由Reflector缓存）⭐
+            Object value;
+            if (paramMap != null) {
+                value = paramMap.getBoundValue(i);
+            } else {
+                value = simple ? parameter : MetaObject.getValue(parameter, mapping.getProperty());
+            }
+            logger.debug("设置参数: [{}] {} = {}", i + 1, mapping.getProperty(), value);
+            setParameter(ps, i + 1, value, mapping.getJdbcType());
+        }
+    }
+    
+    /**
+     * 给一个占位符赋值（指定了jdbcType时按jdbcType绑定）
+     */
+    private void setParameter(PreparedStatement ps, int index, Object value, JDBCType jdbcType) throws SQLException {
+        if (value instanceof Collection) {
+            value = ((Collection<?>) value).toArray();
+        }
+        if (value == null) {
+            ps.setNull(index, jdbcType != null ? jdbcType.getVendorTypeNumber() : Types.NULL);
+        } else if (jdbcType != null) {
+            ps.setObject(index, value, jdbcType.getVendorTypeNumber());
         } else {
-            // TODO: 复杂类型的参数处理将在后续优化
-            // 需要解析SQL中的#{param}，然后通过反射获取对象的属性值
-            logger.warn("暂不支持复杂类型参数: {}", parameter.getClass());
+            ps.setObject(index, value);
         }
     }
     
+    public BoundSql getBoundSql() {
+        return boundSql;
+    }
+    
     /**
      * 执行查询
      * 
      * @param statement Statement对象
-     * @param resultType 返回类型
+     * @param resultHandler 结果处理器（为null时把结果收集到List返回）
      * @param <E> 结果元素类型
-     * @return 查询结果列表
+     * @return 查询结果列表（使用resultHandler时为空列表）
      */
-    public <E> List<E> query(Statement statement, Class<?> resultType) throws SQLException {
+    public <E> List<E> query(Statement statement, ResultHandler<?> resultHandler) throws SQLException {
         // 执行查询
         PreparedStatement ps = (PreparedStatement) statement;
         ResultSet resultSet = ps.executeQuery();
         
         logger.debug("SQL执行成功，开始处理结果集");
         
-        // 处理结果集
-        List<E> result = resultSetHandler.handleResultSet(resultSet, resultType);
+        try {
+            // 处理结果集
+            if (resultHandler != null) {
+                resultSetHandler.handleResultSet(resultSet, mappedStatement.getResultType(), resultHandler);
+                return Collections.emptyList();
+            }
+            return resultSetHandler.handleResultSet(resultSet, mappedStatement.getResultType());
+        } finally {
+            // 关闭结果集
+            resultSet.close();
+        }
+    }
+    
+    /**
+     * 执行游标查询
+     * 
+     * 结果集不在这里读取，交给游标逐行映射。
+     * 
+     * @param statement Statement对象
+     * @param <E> 结果元素类型
+     * @return 游标
+     */
+    public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
+        PreparedStatement ps = (PreparedStatement) statement;
+        ResultSet resultSet = ps.executeQuery();
         
-        // 关闭结果集
-        resultSet.close();
+        logger.debug("SQL执行成功，打开游标");
         
-        return result;
+        return resultSetHandler.handleCursorResultSet(resultSet, mappedStatement.getResultType());
     }
     
     /**
@@ -148,6 +258,16 @@ public class StatementHandler {
         return rows;
     }
     
+    /**
+     * 添加到批处理（BatchExecutor使用）
+     * 
+     * @param statement Statement对象
+     */
+    public void batch(Statement statement) throws SQLException {
+        PreparedStatement ps = (PreparedStatement) statement;
+        ps.addBatch();
+    }
+    
     /**
      * 判断是否为简单类型
      * 
@@ -158,24 +278,7 @@ public class StatementHandler {
      * - 等等
      */
     private boolean isSimpleType(Object obj) {
-        if (obj == null) {
-            return true;
-        }
-        
-        Class<?> clazz = obj.getClass();
-        
-        return clazz.isPrimitive() ||
-               clazz == String.class ||
-               clazz == Integer.class ||
-               clazz == Long.class ||
-               clazz == Double.class ||
-               clazz == Float.class ||
-               clazz == Boolean.class ||
-               clazz == Byte.class ||
-               clazz == Short.class ||
-               clazz == Character.class ||
-               Number.class.isAssignableFrom(clazz) ||
-               java.util.Date.class.isAssignableFrom(clazz);
+        return obj == null || SqlSourceBuilder.isSimpleType(obj.getClass());
     }
 }
 
@@ -0,0 +1,49 @@
+package com.mybatis.mapping;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 预编译后的SQL ⭐⭐⭐
+ * 
+ * 在解析Mapper文件时，把SQL中的#{...}替换成?，并按出现顺序记录每个?对应的参数映射：
+ * 
+ * 原始SQL: UPDATE product SET price = #{price} WHERE id = #{id}
+ * sql:     UPDATE product SET price = ? WHERE id = ?
+ * parameterMappings: [price, id]
+ * 
+ * 每条语句只解析一次，执行时直接使用，不再做任何正则匹配和字符串替换。
+ * 
+ * @author 学习者
+ */
+public class BoundSql {
+    
+    /**
+     * 可以直接交给JDBC的SQL（占位符已替换为?）
+     */
+    private final String sql;
+    
+    /**
+     * 参数映射，顺序与SQL中的?一一对应
+     */
+    private final List<ParameterMapping> parameterMappings;
+    
+    public BoundSql(String sql, List<ParameterMapping> parameterMappings) {
+        this.sql = sql;
+        this.parameterMappings = Collections.unmodifiableList(parameterMappings);
+    }
+    
+    public String getSql() {
+        return sql;
+    }
+    
+    public List<ParameterMapping> getParameterMappings() {
+        return parameterMappings;
+    }
+    
+    @Override
+    public String toString() {
+        return "BoundSql{sql=" + sql + ", parameterMappings=" + parameterMappings + "}";
+    }
+}
+
@@ -1,7 +1,14 @@
 package com.mybatis.mapping;
 
+import com.mybatis.builder.SqlSourceBuilder;
+import com.mybatis.builder.TableExtractor;
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheKey;
 import com.mybatis.session.Configuration;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * MappedStatement - SQL语句映射对象
  * 
@@ -15,6 +22,9 @@ import com.mybatis.session.Configuration;
  * 4. 返回值类型
  * 5. 缓存配置
  * 6. 结果映射配置
+ * 7. 执行参数（fetchSize、timeout、resultSetType、maxRows）
+ * 8. 读写的表（缓存按表失效）
+ * 9. 二级缓存的过期时间和提前刷新（cacheTtl、refreshAhead）
  * 
  * 生命周期：
  * - 创建：在配置文件解析阶段创建
@@ -46,6 +56,11 @@ public class MappedStatement {
      */
     private String sql;
     
+    /**
+     * 预编译后的SQL（#{}已替换为?，附带参数映射）⭐
+     */
+    private BoundSql boundSql;
+    
     /**
      * 参数类型
      * 例如：java.lang.Long, com.mybatis.entity.User
@@ -59,10 +74,66 @@ public class MappedStatement {
     private Class<?> resultType;
     
     /**
-     * 是否使用缓存
+     * 是否使用二级缓存（只对SELECT生效）
      */
     private boolean useCache = true;
     
+    /**
+     * 执行前是否清空二级缓存（INSERT/UPDATE/DELETE默认为true）
+     */
+    private boolean flushCache;
+    
+    /**
+     * 所属namespace的二级缓存（没有配置<cache/>时为null）
+     */
+    private Cache cache;
+    
+    /**
+     * SQL读取的表（null表示无法确定）
+     */
+    private Set<String> readTables;
+    
+    /**
+     * SQL写入的表（null表示无法确定）
+     */
+    private Set<String> writeTables;
+    
+    /**
+     * 每次从数据库取多少行（null表示使用全局默认值）
+     */
+    private Integer fetchSize;
+    
+    /**
+     * 超时时间，单位秒（null表示使用全局默认值）
+     */
+    private Integer timeout;
+    
+    /**
+     * 结果集类型
+     */
+    private ResultSetType resultSetType = ResultSetType.DEFAULT;
+    
+    /**
+     * 最多返回多少行（null表示使用全局默认值）
+     */
+    private Integer maxRows;
+    
+    /**
+     * 二级缓存中结果的存活时间，毫秒（null表示不过期）
+     */
+    private Long cacheTtl;
+    
+    /**
+     * 提前刷新的比例（0~1）：结果存活超过cacheTtl * refreshAhead后，
+     * 读取时仍然返回旧结果，同时在后台重新查询（null表示不提前刷新）
+     */
+    private Double refreshAhead;
+    
+    /**
+     * 缓存Key的前缀（语句ID + SQL），构建时计算一次 ⭐
+     */
+    private CacheKey cacheKeyPrefix;
+    
     /**
      * 私有构造方法，使用Builder模式创建对象
      */
@@ -87,6 +158,10 @@ public class MappedStatement {
         return sql;
     }
     
+    public BoundSql getBoundSql() {
+        return boundSql;
+    }
+    
     public Class<?> getParameterType() {
         return parameterType;
     }
@@ -99,6 +174,50 @@ public class MappedStatement {
         return useCache;
     }
     
+    public boolean isFlushCache() {
+        return flushCache;
+    }
+    
+    public Cache getCache() {
+        return cache;
+    }
+    
+    public Set<String> getReadTables() {
+        return readTables;
+    }
+    
+    public Set<String> getWriteTables() {
+        return writeTables;
+    }
+    
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+    
+    public Integer getTimeout() {
+        return timeout;
+    }
+    
+    public ResultSetType getResultSetType() {
+        return resultSetType;
+    }
+    
+    public Integer getMaxRows() {
+        return maxRows;
+    }
+    
+    public Long getCacheTtl() {
+        return cacheTtl;
+    }
+    
+    public Double getRefreshAhead() {
+        return refreshAhead;
+    }
+    
+    public CacheKey getCacheKeyPrefix() {
+        return cacheKeyPrefix;
+    }
+    
     // ==================== Builder建造者模式 ====================
     
     /**
@@ -111,10 +230,13 @@ public class MappedStatement {
     public static class Builder {
         private MappedStatement mappedStatement = new MappedStatement();
         
+        private boolean tablesResolved;
+        
         public Builder(Configuration configuration, String id, SqlCommandType sqlCommandType) {
             mappedStatement.configuration = configuration;
             mappedStatement.id = id;
             mappedStatement.sqlCommandType = sqlCommandType;
+            mappedStatement.flushCache = sqlCommandType != SqlCommandType.SELECT;
         }
         
         public Builder sql(String sql) {
@@ -122,6 +244,11 @@ public class MappedStatement {
             return this;
         }
         
+        public Builder boundSql(BoundSql boundSql) {
+            mappedStatement.boundSql = boundSql;
+            return this;
+        }
+        
         public Builder parameterType(Class<?> parameterType) {
             mappedStatement.parameterType = parameterType;
             return this;
@@ -137,7 +264,70 @@ public class MappedStatement {
             return this;
         }
         
+        public Builder flushCache(boolean flushCache) {
+            mappedStatement.flushCache = flushCache;
+            return this;
+        }
+        
+        public Builder cache(Cache cache) {
+            mappedStatement.cache = cache;
+            return this;
+        }
+        
+        public Builder tables(Set<String> readTables, Set<String> writeTables) {
+            mappedStatement.readTables = readTables;
+            mappedStatement.writeTables = writeTables;
+            tablesResolved = true;
+            return this;
+        }
+        
+        public Builder fetchSize(Integer fetchSize) {
+            mappedStatement.fetchSize = fetchSize;
+            return this;
+        }
+        
+        public Builder timeout(Integer timeout) {
+            mappedStatement.timeout = timeout;
+            return this;
+        }
+        
+        public Builder resultSetType(ResultSetType resultSetType) {
+            mappedStatement.resultSetType = resultSetType == null ? ResultSetType.DEFAULT : resultSetType;
+            return this;
+        }
+        
+        public Builder maxRows(Integer maxRows) {
+            mappedStatement.maxRows = maxRows;
+            return this;
+        }
+        
+        public Builder cacheTtl(Long cacheTtl) {
+            mappedStatement.cacheTtl = cacheTtl;
+            return this;
+        }
+        
+        public Builder refreshAhead(Double refreshAhead) {
+            mappedStatement.refreshAhead = refreshAhead;
+            return this;
+        }
+        
+        private void resolveTables(String sql) {
+            mappedStatement.readTables = TableExtractor.readTables(sql);
+            mappedStatement.writeTables = mappedStatement.sqlCommandType == SqlCommandType.SELECT
+                ? Collections.<String>emptySet() : TableExtractor.writeTables(sql);
+        }
+        
         public MappedStatement build() {
+            // 没有指定BoundSql时，在这里预编译一次
+            if (mappedStatement.boundSql == null && mappedStatement.sql != null) {
+                mappedStatement.boundSql = SqlSourceBuilder.parse(mappedStatement.sql, mappedStatement.parameterType);
+            }
+            // 没有指定读写的表时，从SQL中提取
+            if (!tablesResolved && mappedStatement.sql != null) {
+                resolveTables(mappedStatement.sql);
+            }
+            // 查询时不再重复哈希语句ID和SQL
+            mappedStatement.cacheKeyPrefix = CacheKey.prefix(mappedStatement.id, mappedStatement.sql);
             return mappedStatement;
         }
     }
@@ -0,0 +1,59 @@
+package com.mybatis.mapping;
+
+import java.sql.JDBCType;
+
+/**
+ * 参数映射
+ * 
+ * 描述SQL中一个?占位符应该绑定什么值，对应一个#{...}：
+ * - #{id}                              → property=id
+ * - #{price,jdbcType=DECIMAL}          → property=price, jdbcType=DECIMAL
+ * - #{createTime,javaType=java.util.Date} → property=createTime, javaType=Date
+ * 
+ * 在解析Mapper文件时创建，之后不再变化（不可变对象，可以被多个线程共享）。
+ * 
+ * @author 学习者
+ */
+public class ParameterMapping {
+    
+    /**
+     * 属性名（#{}中的名字）
+     */
+    private final String property;
+    
+    /**
+     * 属性的Java类型（无法确定时为Object.class）
+     */
+    private final Class<?> javaType;
+    
+    /**
+     * JDBC类型（未指定时为null，此时由驱动推断）
+     */
+    private final JDBCType jdbcType;
+    
+    public ParameterMapping(String property, Class<?> javaType, JDBCType jdbcType) {
+        this.property = property;
+        this.javaType = javaType;
+        this.jdbcType = jdbcType;
+    }
+    
+    public String getProperty() {
+        return property;
+    }
+    
+    public Class<?> getJavaType() {
+        return javaType;
+    }
+    
+    public JDBCType getJdbcType() {
+        return jdbcType;
+    }
+    
+    @Override
+    public String toString() {
+        return "ParameterMapping{property=" + property
+            + ", javaType=" + javaType.getSimpleName()
+            + (jdbcType != null ? ", jdbcType=" + jdbcType : "") + "}";
+    }
+}
+
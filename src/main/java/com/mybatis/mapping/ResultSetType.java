@@ -0,0 +1,48 @@
+package com.mybatis.mapping;
+
+import java.sql.ResultSet;
+
+/**
+ * 结果集类型枚举
+ * 
+ * 对应<select>标签的resultSetType属性，创建PreparedStatement时传给驱动。
+ * 
+ * @author 学习者
+ */
+public enum ResultSetType {
+    
+    /**
+     * 不指定，使用全局默认值（全局也没有配置时为FORWARD_ONLY）
+     */
+    DEFAULT(-1),
+    
+    /**
+     * 只能向前滚动
+     * 特点：驱动可以边读边丢弃，配合fetchSize实现流式读取
+     */
+    FORWARD_ONLY(ResultSet.TYPE_FORWARD_ONLY),
+    
+    /**
+     * 可以任意滚动，不感知其他事务的修改
+     */
+    SCROLL_INSENSITIVE(ResultSet.TYPE_SCROLL_INSENSITIVE),
+    
+    /**
+     * 可以任意滚动，感知其他事务的修改
+     */
+    SCROLL_SENSITIVE(ResultSet.TYPE_SCROLL_SENSITIVE);
+    
+    /**
+     * 对应的JDBC常量
+     */
+    private final int value;
+    
+    ResultSetType(int value) {
+        this.value = value;
+    }
+    
+    public int getValue() {
+        return value;
+    }
+}
+
@@ -0,0 +1,51 @@
+package com.mybatis.reflection;
+
+import java.util.Map;
+
+/**
+ * 属性路径访问工具
+ * 
+ * 按属性路径从参数对象中取值，支持：
+ * - JavaBean：#{productName} → product.getProductName()
+ * - Map：#{name} → map.get("name")
+ * - 嵌套属性：#{user.id} → param.getUser().getId()
+ * 
+ * JavaBean的属性访问都通过Reflector缓存的MethodHandle完成，不会在每次调用时做反射查找。
+ * 
+ * @author 学习者
+ */
+public final class MetaObject {
+    
+    private MetaObject() {
+    }
+    
+    /**
+     * 按属性路径取值（路径中任意一段为null时返回null）
+     * 
+     * @param object 根对象（JavaBean或Map）
+     * @param path 属性路径，例如 id、user.id
+     * @return 属性值
+     */
+    public static Object getValue(Object object, String path) {
+        int start = 0;
+        Object current = object;
+        while (current != null) {
+            int dot = path.indexOf('.', start);
+            String property = dot < 0 ? path.substring(start) : path.substring(start, dot);
+            current = getProperty(current, property);
+            if (dot < 0) {
+                return current;
+            }
+            start = dot + 1;
+        }
+        return null;
+    }
+    
+    private static Object getProperty(Object object, String property) {
+        if (object instanceof Map) {
+            return ((Map<?, ?>) object).get(property);
+        }
+        return Reflector.forClass(object.getClass()).getValue(object, property);
+    }
+}
+
@@ -0,0 +1,306 @@
+package com.mybatis.reflection;
+
+import com.mybatis.exceptions.MyBatisException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 反射器 - 缓存一个类的属性访问方法 ⭐⭐⭐⭐
+ * 
+ * 每个类只解析一次：
+ * 1. 扫描getXxx()/isXxx()/setXxx()方法，没有getter/setter的字段直接访问字段
+ * 2. 转换成MethodHandle，并统一适配成(Object)Object和(Object,Object)void的签名
+ * 3. 放到ClassValue里缓存，之后所有调用都复用
+ * 
+ * 为什么用MethodHandle而不是Method.invoke：
+ * - Method.invoke每次调用都要做访问检查、参数数组装箱
+ * - MethodHandle在创建时完成检查，调用时接近直接调用的性能
+ * 
+ * 为什么用ClassValue缓存：
+ * - 线程安全，读取无锁
+ * - 与Class的生命周期绑定，类被卸载时缓存也会被回收，不会造成ClassLoader泄漏
+ * 
+ * 使用示例：
+ * <pre>
+ * Reflector reflector = Reflector.forClass(Product.class);
+ * Object price = reflector.getValue(product, "price");
+ * </pre>
+ * 
+ * @author 学习者
+ */
+public class Reflector {
+    
+    /**
+     * 全局缓存：Class → Reflector
+     */
+    private static final ClassValue<Reflector> REFLECTORS = new ClassValue<Reflector>() {
+        @Override
+        protected Reflector computeValue(Class<?> type) {
+            return new Reflector(type);
+        }
+    };
+    
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    
+    private final Class<?> type;
+    
+    /**
+     * 属性名 → getter，签名统一为(Object)Object
+     */
+    private final Map<String, MethodHandle> getters = new HashMap<>();
+    
+    /**
+     * 属性名 → setter，签名统一为(Object,Object)void
+     */
+    private final Map<String, MethodHandle> setters = new HashMap<>();
+    
+    private final Map<String, Class<?>> getterTypes = new HashMap<>();
+    
+    private final Map<String, Class<?>> setterTypes = new HashMap<>();
+    
+    /**
+     * 属性名 → setter方法（通过字段直接赋值的属性没有）
+     */
+    private final Map<String, Method> setterMethods = new HashMap<>();
+    
+    /**
+     * 无参构造器，签名为()Object（没有无参构造器时为null）
+     */
+    private MethodHandle defaultConstructor;
+    
+    private Reflector(Class<?> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            addDefaultConstructor(lookup);
+            addMethods(lookup);
+            addFields(lookup);
+        } catch (IllegalAccessException e) {
+            throw new MyBatisException("解析类的属性失败: " + type.getName(), e);
+        }
+    }
+    
+    /**
+     * 获取某个类的Reflector（只在第一次调用时解析）
+     */
+    public static Reflector forClass(Class<?> type) {
+        return REFLECTORS.get(type);
+    }
+    
+    private void addDefaultConstructor(MethodHandles.Lookup lookup) throws IllegalAccessException {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            if (trySetAccessible(constructor)) {
+                defaultConstructor = lookup.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+            }
+        } catch (NoSuchMethodException e) {
+            // 没有无参构造器，不能作为结果对象
+        }
+    }
+    
+    /**
+     * 扫描public的getter/setter方法
+     */
+    private void addMethods(MethodHandles.Lookup lookup) throws IllegalAccessException {
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String name = method.getName();
+            int paramCount = method.getParameterCount();
+            
+            if (paramCount == 0 && method.getReturnType() != void.class) {
+                String property = null;
+                if (name.startsWith("get") && name.length() > 3) {
+                    property = decapitalize(name.substring(3));
+                } else if (name.startsWith("is") && name.length() > 2
+                        && (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+                    property = decapitalize(name.substring(2));
+                }
+                if (property != null && !getters.containsKey(property) && trySetAccessible(method)) {
+                    getters.put(property, lookup.unreflect(method).asType(GETTER_TYPE));
+                    getterTypes.put(property, method.getReturnType());
+                }
+            } else if (paramCount == 1 && name.startsWith("set") && name.length() > 3) {
+                String property = decapitalize(name.substring(3));
+                if (!setters.containsKey(property) && trySetAccessible(method)) {
+                    setters.put(property, lookup.unreflect(method).asType(SETTER_TYPE));
+                    setterTypes.put(property, method.getParameterTypes()[0]);
+                    setterMethods.put(property, method);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 没有getter/setter的字段：直接访问字段（包括父类的字段）
+     */
+    private void addFields(MethodHandles.Lookup lookup) throws IllegalAccessException {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                String property = field.getName();
+                if (!getters.containsKey(property) && trySetAccessible(field)) {
+                    getters.put(property, lookup.unreflectGetter(field).asType(GETTER_TYPE));
+                    getterTypes.put(property, field.getType());
+                }
+                if (!setters.containsKey(property) && !Modifier.isFinal(modifiers) && trySetAccessible(field)) {
+                    setters.put(property, lookup.unreflectSetter(field).asType(SETTER_TYPE));
+                    setterTypes.put(property, field.getType());
+                }
+            }
+        }
+    }
+    
+    /**
+     * 非public类的public方法、private字段都需要先setAccessible
+     */
+    private boolean trySetAccessible(AccessibleObject member) {
+        try {
+            member.setAccessible(true);
+            return true;
+        } catch (RuntimeException e) {
+            // JDK模块系统禁止访问的成员，跳过
+            return false;
+        }
+    }
+    
+    /**
+     * 属性名首字母小写（getURL这种连续大写的保持不变，与JavaBeans规范一致）
+     */
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+    
+    // ==================== 属性访问 ====================
+    
+    /**
+     * 通过无参构造器创建对象
+     */
+    public Object newInstance() {
+        if (defaultConstructor == null) {
+            throw new MyBatisException("类" + type.getName() + "没有无参构造器");
+        }
+        try {
+            return (Object) defaultConstructor.invokeExact();
+        } catch (Throwable e) {
+            throw new MyBatisException("创建对象失败: " + type.getName(), e);
+        }
+    }
+    
+    /**
+     * 读取属性值
+     * 
+     * @param bean 对象
+     * @param property 属性名
+     * @return 属性值
+     */
+    public Object getValue(Object bean, String property) {
+        MethodHandle getter = getters.get(property);
+        if (getter == null) {
+            throw new MyBatisException("类" + type.getName() + "中没有可读的属性: " + property);
+        }
+        try {
+            return (Object) getter.invokeExact(bean);
+        } catch (Throwable e) {
+            throw new MyBatisException("读取属性失败: " + type.getName() + "." + property, e);
+        }
+    }
+    
+    /**
+     * 设置属性值
+     * 
+     * @param bean 对象
+     * @param property 属性名
+     * @param value 属性值
+     */
+    public void setValue(Object bean, String property, Object value) {
+        MethodHandle setter = setters.get(property);
+        if (setter == null) {
+            throw new MyBatisException("类" + type.getName() + "中没有可写的属性: " + property);
+        }
+        try {
+            setter.invokeExact(bean, value);
+        } catch (Throwable e) {
+            throw new MyBatisException("设置属性失败: " + type.getName() + "." + property, e);
+        }
+    }
+    
+    public boolean hasDefaultConstructor() {
+        return defaultConstructor != null;
+    }
+    
+    public boolean hasGetter(String property) {
+        return getters.containsKey(property);
+    }
+    
+    public boolean hasSetter(String property) {
+        return setters.containsKey(property);
+    }
+    
+    /**
+     * 获取getter，签名为(Object)Object
+     */
+    public MethodHandle getGetter(String property) {
+        return getters.get(property);
+    }
+    
+    /**
+     * 获取setter，签名为(Object,Object)void
+     */
+    public MethodHandle getSetter(String property) {
+        return setters.get(property);
+    }
+    
+    public Class<?> getGetterType(String property) {
+        return getterTypes.get(property);
+    }
+    
+    public Class<?> getSetterType(String property) {
+        return setterTypes.get(property);
+    }
+    
+    /**
+     * 获取setter方法（生成字节码时需要方法描述符）
+     * 
+     * @return setter方法，属性没有setter（直接访问字段）时返回null
+     */
+    public Method getSetterMethod(String property) {
+        return setterMethods.get(property);
+    }
+    
+    public Set<String> getGetterNames() {
+        return Collections.unmodifiableSet(getters.keySet());
+    }
+    
+    public Set<String> getSetterNames() {
+        return Collections.unmodifiableSet(setters.keySet());
+    }
+    
+    public Class<?> getType() {
+        return type;
+    }
+}
+
@@ -0,0 +1,263 @@
+package com.mybatis.session;
+
+import com.mybatis.exceptions.MyBatisException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 异步Mapper方法的JDBC工作线程池
+ * 
+ * Mapper方法返回CompletableFuture（或CompletionStage）时，语句不在调用线程上执行，
+ * 而是交给这个线程池：调用线程立即拿到Future，数据库查询期间可以去做别的事。
+ * 
+ * 执行规则：
+ * 1. 每个任务自己打开一个SqlSession（autoCommit，连接来自数据源/连接池），执行完就关闭
+ *    ——调用方SqlSession的事务和一级缓存不参与异步执行
+ * 2. 线程数和队列长度都是有界的（asyncWorkerThreads、asyncWorkerQueueSize），
+ *    队列满时Future直接以异常结束，由调用方决定重试还是降级（背压）
+ * 3. Future在工作线程上完成，thenApply等回调默认也在工作线程上执行，耗时的回调应该换到自己的线程池
+ * 
+ * 线程是守护线程，第一次提交任务时才创建，空闲60秒后回收。
+ * 
+ * 虚拟线程模式（asyncWorkerType=VIRTUAL）：
+ * 每个任务一个虚拟线程，阻塞在JDBC调用上的任务不占用平台线程，几千个并发调用也只需要很少的平台线程。
+ * 并发数不再受asyncWorkerThreads限制，同时执行和等待连接的任务最多asyncWorkerQueueSize个，
+ * 超过时同样以异常结束；真正访问数据库的并发数由连接池的poolMaximumActiveConnections决定。
+ * 框架内部（连接池、缓存、Statement缓存）只使用ReentrantLock，不会在阻塞时钉住载体线程。
+ * 项目编译目标是Java 8，虚拟线程通过反射创建；运行在Java 21以下时打印警告并使用平台线程池。
+ * 
+ * @author 学习者
+ */
+public class AsyncWorkerPool {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AsyncWorkerPool.class);
+    
+    /**
+     * Thread.ofVirtual().name("mybatis-async-virtual-", 0).factory()，不支持时为null
+     */
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = virtualThreadFactory();
+    
+    private final Configuration configuration;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private volatile ExecutorService threadPool;
+    
+    /**
+     * 虚拟线程模式下限制同时存在的任务数（平台线程池模式为null，由队列限制）
+     * 
+     * 和threadPool一起在lock中创建、在shutdown()中清空
+     */
+    private volatile Semaphore permits;
+    
+    private volatile int maxVirtualTasks;
+    
+    private SqlSessionFactory sqlSessionFactory;
+    
+    public AsyncWorkerPool(Configuration configuration) {
+        this.configuration = configuration;
+    }
+    
+    /**
+     * 提交一个异步任务：在工作线程上打开SqlSession，执行work，关闭SqlSession
+     * 
+     * @param statementId 语句ID（用于日志和错误信息）
+     * @param work 使用SqlSession执行语句
+     * @param <T> 结果类型
+     * @return 执行结果；队列已满或执行失败时以异常结束
+     */
+    public <T> CompletableFuture<T> submit(String statementId, Function<SqlSession, T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ExecutorService pool = threadPool();
+        // 任务结束时归还给取得许可的那个Semaphore，期间线程池被shutdown()重建也不会还错
+        Semaphore taskPermits = permits;
+        if (taskPermits != null && !taskPermits.tryAcquire()) {
+            future.completeExceptionally(rejected(statementId, pool, null));
+            return future;
+        }
+        try {
+            pool.execute(() -> {
+                SqlSession sqlSession = null;
+                try {
+                    sqlSession = sqlSessionFactory.openSession(true);
+                    future.complete(work.apply(sqlSession));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    if (sqlSession != null) {
+                        sqlSession.close();
+                    }
+                    if (taskPermits != null) {
+                        taskPermits.release();
+                    }
+                }
+            });
+            logger.debug("提交异步语句: {}", statementId);
+        } catch (RejectedExecutionException e) {
+            if (taskPermits != null) {
+                taskPermits.release();
+            }
+            future.completeExceptionally(rejected(statementId, pool, e));
+        }
+        return future;
+    }
+    
+    /**
+     * 拒绝原因：取到线程池之后它被shutdown()关闭了，或者队列（虚拟线程模式下的许可）已满
+     */
+    private MyBatisException rejected(String statementId, ExecutorService pool, RejectedExecutionException cause) {
+        if (pool.isShutdown()) {
+            return new MyBatisException("异步工作线程池已关闭: " + statementId, cause);
+        }
+        return new MyBatisException("异步任务队列已满（asyncWorkerQueueSize="
+            + configuration.getAsyncWorkerQueueSize() + "）: " + statementId, cause);
+    }
+    
+    /**
+     * 是否使用虚拟线程执行（第一次提交任务之前返回false）
+     */
+    public boolean isVirtual() {
+        return threadPool != null && permits != null;
+    }
+    
+    /**
+     * 等待中的任务数（虚拟线程模式没有等待队列，总是0）
+     */
+    public int getQueuedTasks() {
+        ExecutorService pool = threadPool;
+        return pool instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) pool).getQueue().size() : 0;
+    }
+    
+    /**
+     * 正在执行的任务数
+     */
+    public int getActiveTasks() {
+        ExecutorService pool = threadPool;
+        if (pool instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) pool).getActiveCount();
+        }
+        Semaphore current = permits;
+        return pool == null || current == null ? 0 : maxVirtualTasks - current.availablePermits();
+    }
+    
+    /**
+     * 关闭线程池，等待已提交的任务执行完（最多timeoutMillis毫秒）
+     * 
+     * 之后再提交任务会按当前配置重新创建线程池。
+     * 
+     * @param timeoutMillis 最长等待时间
+     * @return 所有任务都已结束时返回true
+     */
+    public boolean shutdown(long timeoutMillis) throws InterruptedException {
+        ExecutorService pool;
+        lock.lock();
+        try {
+            pool = threadPool;
+            threadPool = null;
+            // 下次按当时的配置重新创建，可能是平台线程池
+            permits = null;
+            maxVirtualTasks = 0;
+        } finally {
+            lock.unlock();
+        }
+        if (pool == null) {
+            return true;
+        }
+        pool.shutdown();
+        return pool.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * 当前JVM是否支持虚拟线程（Java 21+）
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+    
+    private ExecutorService threadPool() {
+        ExecutorService pool = threadPool;
+        if (pool != null) {
+            return pool;
+        }
+        lock.lock();
+        try {
+            if (threadPool == null) {
+                sqlSessionFactory = new DefaultSqlSessionFactory(configuration);
+                int queueSize = Math.max(1, configuration.getAsyncWorkerQueueSize());
+                boolean virtual = Configuration.ASYNC_WORKER_VIRTUAL.equalsIgnoreCase(configuration.getAsyncWorkerType());
+                if (virtual && !isVirtualThreadSupported()) {
+                    logger.warn("当前JVM（{}）不支持虚拟线程，asyncWorkerType=VIRTUAL改用平台线程池",
+                        System.getProperty("java.version"));
+                    virtual = false;
+                }
+                if (virtual) {
+                    maxVirtualTasks = queueSize;
+                    permits = new Semaphore(queueSize);
+                    threadPool = newVirtualThreadExecutor();
+                    logger.info("异步工作线程池已创建 [虚拟线程, maxTasks={}]", queueSize);
+                } else {
+                    threadPool = newPlatformThreadPool(queueSize);
+                }
+            }
+            return threadPool;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private ThreadPoolExecutor newPlatformThreadPool(int queueSize) {
+        int threads = Math.max(1, configuration.getAsyncWorkerThreads());
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "mybatis-async-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        logger.info("异步工作线程池已创建 [threads={}, queueSize={}]", threads, queueSize);
+        return executor;
+    }
+    
+    // ========================================
+    // 虚拟线程（反射调用Java 21 API，项目本身按Java 8编译）
+    // ========================================
+    
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "mybatis-async-virtual-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 21以下没有Thread.ofVirtual()；Java 19/20需要--enable-preview，否则抛UnsupportedOperationException
+            return null;
+        }
+    }
+    
+    /**
+     * 每个任务一个虚拟线程（相当于Executors.newThreadPerTaskExecutor(virtualThreadFactory)）
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                .invoke(null, VIRTUAL_THREAD_FACTORY);
+        } catch (ReflectiveOperationException e) {
+            throw new MyBatisException("创建虚拟线程执行器失败", e);
+        }
+    }
+}
+
@@ -1,9 +1,27 @@
 package com.mybatis.session;
 
 import com.mybatis.binding.MapperRegistry;
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheStats;
+import com.mybatis.cache.CacheStatsJmx;
+import com.mybatis.cache.TableVersions;
+import com.mybatis.datasource.unpooled.UnpooledDataSource;
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.executor.BatchExecutor;
+import com.mybatis.executor.CacheRefresher;
+import com.mybatis.executor.CachingExecutor;
+import com.mybatis.executor.Executor;
+import com.mybatis.executor.ReuseExecutor;
+import com.mybatis.executor.SimpleExecutor;
 import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.ResultSetType;
 import com.mybatis.plugin.InterceptorChain;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,6 +41,36 @@ import java.util.Map;
  */
 public class Configuration {
     
+    /**
+     * 行映射方式：通过缓存的MethodHandle赋值
+     */
+    public static final String ROW_MAPPER_REFLECTION = "REFLECTION";
+    
+    /**
+     * 行映射方式：为每个结果类型生成字节码
+     */
+    public static final String ROW_MAPPER_BYTECODE = "BYTECODE";
+    
+    /**
+     * Mapper实现方式：JDK动态代理
+     */
+    public static final String MAPPER_PROXY_JDK = "JDK";
+    
+    /**
+     * Mapper实现方式：注册时为每个Mapper接口生成实现类
+     */
+    public static final String MAPPER_PROXY_BYTECODE = "BYTECODE";
+    
+    /**
+     * 异步Mapper方法的执行方式：固定大小的平台线程池
+     */
+    public static final String ASYNC_WORKER_PLATFORM = "PLATFORM";
+    
+    /**
+     * 异步Mapper方法的执行方式：每个任务一个虚拟线程（Java 21+，否则回退到平台线程池）
+     */
+    public static final String ASYNC_WORKER_VIRTUAL = "VIRTUAL";
+    
     /**
      * Mapper注册中心
      */
@@ -48,11 +96,46 @@ public class Configuration {
     private String jdbcUsername;
     private String jdbcPassword;
     
+    /**
+     * 数据源（由<dataSource type="...">创建，未配置时按jdbc*属性创建非池化数据源）
+     */
+    private volatile DataSource dataSource;
+    
     /**
      * 是否开启二级缓存
      */
     private boolean cacheEnabled = true;
     
+    /**
+     * 是否统计二级缓存的命中率等指标（StatsCache）
+     */
+    private boolean cacheStatisticsEnabled = true;
+    
+    /**
+     * 是否把二级缓存的统计注册到JMX
+     */
+    private boolean cacheJmxEnabled = false;
+    
+    /**
+     * 二级缓存后台刷新（refreshAhead）的线程数
+     */
+    private int cacheRefreshThreads = 2;
+    
+    /**
+     * 异步Mapper方法（返回CompletableFuture）的工作线程数
+     */
+    private int asyncWorkerThreads = 8;
+    
+    /**
+     * 异步Mapper方法的等待队列长度（队列满时Future以异常结束）；虚拟线程模式下为最多同时存在的任务数
+     */
+    private int asyncWorkerQueueSize = 1024;
+    
+    /**
+     * 异步Mapper方法的执行方式: PLATFORM, VIRTUAL
+     */
+    private String asyncWorkerType = ASYNC_WORKER_PLATFORM;
+    
     /**
      * 是否开启延迟加载
      */
@@ -63,6 +146,68 @@ public class Configuration {
      */
     private String defaultExecutorType = "SIMPLE";
     
+    /**
+     * ReuseExecutor每个SqlSession最多缓存的Statement数量（小于1时按1处理）
+     */
+    private int statementCacheSize = 256;
+    
+    /**
+     * BatchExecutor每批最多攒多少条记录（小于等于0表示不限制）
+     */
+    private int batchSize = 1000;
+    
+    /**
+     * JavaBean结果的行映射方式: REFLECTION, BYTECODE
+     */
+    private String rowMapperType = ROW_MAPPER_REFLECTION;
+    
+    /**
+     * Mapper接口的实现方式: JDK, BYTECODE（只影响之后注册的Mapper）
+     */
+    private String mapperProxyType = MAPPER_PROXY_JDK;
+    
+    /**
+     * 默认的fetchSize（null表示使用驱动的默认值）
+     */
+    private Integer defaultFetchSize;
+    
+    /**
+     * 默认的超时时间，单位秒（null表示不限制）
+     */
+    private Integer defaultStatementTimeout;
+    
+    /**
+     * 默认的结果集类型（DEFAULT表示FORWARD_ONLY）
+     */
+    private ResultSetType defaultResultSetType = ResultSetType.DEFAULT;
+    
+    /**
+     * 默认最多返回多少行（null表示不限制）
+     */
+    private Integer defaultMaxRows;
+    
+    /**
+     * 二级缓存
+     * key: namespace
+     * value: 该namespace下所有语句共享的缓存
+     */
+    private final Map<String, Cache> caches = new HashMap<>();
+    
+    /**
+     * 表版本号（二级缓存按表失效）
+     */
+    private final TableVersions tableVersions = new TableVersions();
+    
+    /**
+     * 二级缓存的后台刷新器（refreshAhead）
+     */
+    private final CacheRefresher cacheRefresher = new CacheRefresher(this);
+    
+    /**
+     * 异步Mapper方法的工作线程池
+     */
+    private final AsyncWorkerPool asyncWorkerPool = new AsyncWorkerPool(this);
+    
     // ==================== MappedStatement相关 ====================
     
     public void addMappedStatement(String key, MappedStatement statement) {
@@ -79,6 +224,22 @@ public class Configuration {
     
     // ==================== 数据库配置相关 ====================
     
+    /**
+     * 获取数据源
+     * 
+     * 没有通过<dataSource>配置时，使用jdbc*属性创建一个UnpooledDataSource
+     */
+    public DataSource getDataSource() {
+        if (dataSource == null) {
+            dataSource = new UnpooledDataSource(jdbcDriver, jdbcUrl, jdbcUsername, jdbcPassword);
+        }
+        return dataSource;
+    }
+    
+    public void setDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
     public String getJdbcDriver() {
         return jdbcDriver;
     }
@@ -121,6 +282,54 @@ public class Configuration {
         this.cacheEnabled = cacheEnabled;
     }
     
+    public boolean isCacheStatisticsEnabled() {
+        return cacheStatisticsEnabled;
+    }
+    
+    public void setCacheStatisticsEnabled(boolean cacheStatisticsEnabled) {
+        this.cacheStatisticsEnabled = cacheStatisticsEnabled;
+    }
+    
+    public boolean isCacheJmxEnabled() {
+        return cacheJmxEnabled;
+    }
+    
+    public void setCacheJmxEnabled(boolean cacheJmxEnabled) {
+        this.cacheJmxEnabled = cacheJmxEnabled;
+    }
+    
+    public int getCacheRefreshThreads() {
+        return cacheRefreshThreads;
+    }
+    
+    public void setCacheRefreshThreads(int cacheRefreshThreads) {
+        this.cacheRefreshThreads = cacheRefreshThreads;
+    }
+    
+    public int getAsyncWorkerThreads() {
+        return asyncWorkerThreads;
+    }
+    
+    public void setAsyncWorkerThreads(int asyncWorkerThreads) {
+        this.asyncWorkerThreads = asyncWorkerThreads;
+    }
+    
+    public int getAsyncWorkerQueueSize() {
+        return asyncWorkerQueueSize;
+    }
+    
+    public void setAsyncWorkerQueueSize(int asyncWorkerQueueSize) {
+        this.asyncWorkerQueueSize = asyncWorkerQueueSize;
+    }
+    
+    public String getAsyncWorkerType() {
+        return asyncWorkerType;
+    }
+    
+    public void setAsyncWorkerType(String asyncWorkerType) {
+        this.asyncWorkerType = asyncWorkerType;
+    }
+    
     public boolean isLazyLoadingEnabled() {
         return lazyLoadingEnabled;
     }
@@ -137,6 +346,164 @@ public class Configuration {
         this.defaultExecutorType = defaultExecutorType;
     }
     
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+    
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public String getRowMapperType() {
+        return rowMapperType;
+    }
+    
+    public void setRowMapperType(String rowMapperType) {
+        this.rowMapperType = rowMapperType;
+    }
+    
+    public String getMapperProxyType() {
+        return mapperProxyType;
+    }
+    
+    public void setMapperProxyType(String mapperProxyType) {
+        this.mapperProxyType = mapperProxyType;
+    }
+    
+    public Integer getDefaultFetchSize() {
+        return defaultFetchSize;
+    }
+    
+    public void setDefaultFetchSize(Integer defaultFetchSize) {
+        this.defaultFetchSize = defaultFetchSize;
+    }
+    
+    public Integer getDefaultStatementTimeout() {
+        return defaultStatementTimeout;
+    }
+    
+    public void setDefaultStatementTimeout(Integer defaultStatementTimeout) {
+        this.defaultStatementTimeout = defaultStatementTimeout;
+    }
+    
+    public ResultSetType getDefaultResultSetType() {
+        return defaultResultSetType;
+    }
+    
+    public void setDefaultResultSetType(ResultSetType defaultResultSetType) {
+        this.defaultResultSetType = defaultResultSetType == null ? ResultSetType.DEFAULT : defaultResultSetType;
+    }
+    
+    public Integer getDefaultMaxRows() {
+        return defaultMaxRows;
+    }
+    
+    public void setDefaultMaxRows(Integer defaultMaxRows) {
+        this.defaultMaxRows = defaultMaxRows;
+    }
+    
+    // ==================== 二级缓存相关 ====================
+    
+    public void addCache(Cache cache) {
+        caches.put(cache.getId(), cache);
+        if (cacheJmxEnabled) {
+            CacheStatsJmx.register(cache);
+        }
+    }
+    
+    public Cache getCache(String id) {
+        return caches.get(id);
+    }
+    
+    public boolean hasCache(String id) {
+        return caches.containsKey(id);
+    }
+    
+    public Collection<Cache> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+    
+    /**
+     * 获取二级缓存的统计
+     * 
+     * @param id 缓存ID（namespace）
+     * @return 缓存统计，缓存不存在或没有开启统计时返回null
+     */
+    public CacheStats getCacheStats(String id) {
+        Cache cache = caches.get(id);
+        return cache == null ? null : cache.getStats();
+    }
+    
+    public TableVersions getTableVersions() {
+        return tableVersions;
+    }
+    
+    public CacheRefresher getCacheRefresher() {
+        return cacheRefresher;
+    }
+    
+    public AsyncWorkerPool getAsyncWorkerPool() {
+        return asyncWorkerPool;
+    }
+    
+    // ==================== Executor相关 ====================
+    
+    /**
+     * 创建执行器
+     * 
+     * 根据defaultExecutorType选择执行策略：
+     * - SIMPLE：SimpleExecutor，每次新建Statement
+     * - REUSE：ReuseExecutor，复用Statement
+     * - BATCH：BatchExecutor，批量执行更新
+     * 
+     * cacheEnabled为true时再用CachingExecutor装饰（二级缓存），最后应用插件拦截。
+     * 
+     * @param connection 数据库连接
+     * @return 执行器
+     */
+    public Executor newExecutor(Connection connection) {
+        String executorType = defaultExecutorType == null ? "SIMPLE" : defaultExecutorType.toUpperCase();
+        
+        Executor executor;
+        switch (executorType) {
+            case "SIMPLE":
+                executor = new SimpleExecutor(this, connection);
+                break;
+            case "REUSE":
+                executor = new ReuseExecutor(this, connection);
+                break;
+            case "BATCH":
+                executor = new BatchExecutor(this, connection);
+                break;
+            default:
+                throw new MyBatisException("不支持的执行器类型: " + defaultExecutorType);
+        }
+        
+        // 开启二级缓存时，用CachingExecutor装饰 ⭐
+        if (cacheEnabled) {
+            executor = new CachingExecutor(this, executor, isAutoCommit(connection));
+        }
+        
+        // 插件拦截
+        return (Executor) interceptorChain.pluginAll(executor);
+    }
+    
+    private static boolean isAutoCommit(Connection connection) {
+        try {
+            return connection == null || connection.getAutoCommit();
+        } catch (SQLException e) {
+            throw new MyBatisException("获取autoCommit失败", e);
+        }
+    }
+    
     // ==================== Mapper注册相关 ====================
     
     /**
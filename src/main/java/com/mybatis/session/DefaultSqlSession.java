@@ -1,14 +1,17 @@
 package com.mybatis.session;
 
+import com.mybatis.cursor.Cursor;
 import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.executor.BatchResult;
 import com.mybatis.executor.Executor;
-import com.mybatis.executor.SimpleExecutor;
+import com.mybatis.mapping.MappedStatement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -62,74 +65,69 @@ public class DefaultSqlSession implements SqlSession {
      */
     private boolean autoCommit;
     
-    public DefaultSqlSession(Configuration configuration, boolean autoCommit) {
+    /**
+     * 打开过的游标（关闭会话时一起关闭）
+     * 
+     * 已关闭或读完的游标在登记新游标时移除，长会话里反复打开游标不会让列表一直变长
+     */
+    private final List<Cursor<?>> cursorList = new ArrayList<>();
+    
+    /**
+     * @param connection 从数据源借出的连接（close()时归还）
+     */
+    public DefaultSqlSession(Configuration configuration, Connection connection, boolean autoCommit) {
         this.configuration = configuration;
+        this.connection = connection;
         this.autoCommit = autoCommit;
         
-        // 获取数据库连接
-        this.connection = getConnection();
-        
-        // 创建SQL执行器
-        this.executor = new SimpleExecutor(configuration, connection);
+        // 创建SQL执行器（根据defaultExecutorType选择）
+        this.executor = configuration.newExecutor(connection);
         
         logger.debug("SqlSession创建成功 [autoCommit={}]", autoCommit);
     }
     
     /**
-     * 获取数据库连接
+     * 查询单个对象
      */
-    private Connection getConnection() {
+    @Override
+    public <T> T selectOne(String statementId, Object parameter) {
+        logger.debug("执行selectOne: {}", statementId);
+        return single(selectList(statementId, parameter));
+    }
+    
+    @Override
+    public <E> List<E> selectList(String statementId, Object parameter) {
+        logger.debug("执行selectList: {}", statementId);
         try {
-            // 加载数据库驱动
-            Class.forName(configuration.getJdbcDriver());
-            
-            // 建立连接
-            Connection conn = DriverManager.getConnection(
-                configuration.getJdbcUrl(),
-                configuration.getJdbcUsername(),
-                configuration.getJdbcPassword()
-            );
-            
-            // 设置事务提交模式
-            conn.setAutoCommit(autoCommit);
-            
-            logger.debug("数据库连接建立成功");
-            return conn;
-            
-        } catch (ClassNotFoundException e) {
-            throw new MyBatisException("数据库驱动未找到: " + configuration.getJdbcDriver(), e);
+            return executor.query(statementId, parameter);
         } catch (SQLException e) {
-            throw new MyBatisException("获取数据库连接失败", e);
+            throw new MyBatisException("查询失败: " + statementId, e);
         }
     }
     
     /**
-     * 查询单个对象
+     * 游标查询
      */
     @Override
-    public <T> T selectOne(String statementId, Object parameter) {
-        logger.debug("执行selectOne: {}", statementId);
-        List<T> list = selectList(statementId, parameter);
-        
-        if (list == null || list.isEmpty()) {
-            return null;
-        }
-        
-        if (list.size() > 1) {
-            throw new MyBatisException("期望查询一条记录，但实际返回了" + list.size() + "条");
+    public <T> Cursor<T> selectCursor(String statementId, Object parameter) {
+        logger.debug("执行selectCursor: {}", statementId);
+        try {
+            Cursor<T> cursor = executor.queryCursor(statementId, parameter);
+            registerCursor(cursor);
+            return cursor;
+        } catch (SQLException e) {
+            throw new MyBatisException("游标查询失败: " + statementId, e);
         }
-        
-        return list.get(0);
     }
     
     /**
-     * 查询列表
+     * 回调查询
      */
     @Override
-    public <E> List<E> selectList(String statementId, Object parameter) {
-        logger.debug("执行selectList: {}", statementId);
+    public <T> void select(String statementId, Object parameter, ResultHandler<T> handler) {
+        logger.debug("执行select: {}", statementId);
         try {
-            return executor.query(statementId, parameter);
+            executor.query(statementId, parameter, handler);
         } catch (SQLException e) {
             throw new MyBatisException("查询失败: " + statementId, e);
         }
@@ -174,16 +172,90 @@ public class DefaultSqlSession implements SqlSession {
         }
     }
     
+    /**
+     * 按已解析的MappedStatement查询单个对象（Mapper代理直接调用，省去按ID查找）
+     */
+    @Override
+    public <T> T selectOne(MappedStatement ms, Object parameter) {
+        return single(selectList(ms, parameter));
+    }
+    
+    @Override
+    public <E> List<E> selectList(MappedStatement ms, Object parameter) {
+        try {
+            return executor.query(ms, parameter, executor.createCacheKey(ms, parameter));
+        } catch (SQLException e) {
+            throw new MyBatisException("查询失败: " + ms.getId(), e);
+        }
+    }
+    
+    @Override
+    public <T> Cursor<T> selectCursor(MappedStatement ms, Object parameter) {
+        try {
+            Cursor<T> cursor = executor.queryCursor(ms, parameter);
+            registerCursor(cursor);
+            return cursor;
+        } catch (SQLException e) {
+            throw new MyBatisException("游标查询失败: " + ms.getId(), e);
+        }
+    }
+    
+    @Override
+    public <T> void select(MappedStatement ms, Object parameter, ResultHandler<T> handler) {
+        try {
+            executor.query(ms, parameter, handler);
+        } catch (SQLException e) {
+            throw new MyBatisException("查询失败: " + ms.getId(), e);
+        }
+    }
+    
+    @Override
+    public int update(MappedStatement ms, Object parameter) {
+        try {
+            return executor.update(ms, parameter);
+        } catch (SQLException e) {
+            throw new MyBatisException("更新失败: " + ms.getId(), e);
+        }
+    }
+    
+    /**
+     * selectOne：没有结果返回null，多于一条时报错
+     */
+    private <T> T single(List<T> list) {
+        if (list == null || list.isEmpty()) {
+            return null;
+        }
+        
+        if (list.size() > 1) {
+            throw new MyBatisException("期望查询一条记录，但实际返回了" + list.size() + "条");
+        }
+        
+        return list.get(0);
+    }
+    
+    /**
+     * 执行攒批中的语句
+     */
+    @Override
+    public List<BatchResult> flushStatements() {
+        logger.debug("刷新批处理");
+        try {
+            return executor.flushStatements();
+        } catch (SQLException e) {
+            throw new MyBatisException("批处理执行失败", e);
+        }
+    }
+    
     /**
      * 提交事务
+     * 
+     * 交给Executor处理：先执行攒批语句、清空一级缓存，再提交连接
      */
     @Override
     public void commit() {
         logger.debug("提交事务");
         try {
-            if (!autoCommit && connection != null) {
-                connection.commit();
-            }
+            executor.commit();
         } catch (SQLException e) {
             throw new MyBatisException("事务提交失败", e);
         }
@@ -191,14 +263,14 @@ public class DefaultSqlSession implements SqlSession {
     
     /**
      * 回滚事务
+     * 
+     * 交给Executor处理：丢弃攒批语句、清空一级缓存，再回滚连接
      */
     @Override
     public void rollback() {
         logger.debug("回滚事务");
         try {
-            if (!autoCommit && connection != null) {
-                connection.rollback();
-            }
+            executor.rollback();
         } catch (SQLException e) {
             throw new MyBatisException("事务回滚失败", e);
         }
@@ -211,6 +283,9 @@ public class DefaultSqlSession implements SqlSession {
     public void close() {
         logger.debug("关闭SqlSession");
         
+        // 关闭未关闭的游标
+        closeCursors();
+        
         // 关闭执行器
         if (executor != null) {
             try {
@@ -220,17 +295,33 @@ public class DefaultSqlSession implements SqlSession {
             }
         }
         
-        // 关闭数据库连接
+        // 关闭数据库连接（池化数据源：归还到连接池）
         if (connection != null) {
             try {
                 connection.close();
-                logger.debug("数据库连接已关闭");
+                logger.debug("数据库连接已释放");
             } catch (SQLException e) {
                 logger.error("关闭数据库连接失败", e);
             }
         }
     }
     
+    private void registerCursor(Cursor<?> cursor) {
+        cursorList.removeIf(opened -> !opened.isOpen());
+        cursorList.add(cursor);
+    }
+    
+    private void closeCursors() {
+        for (Cursor<?> cursor : cursorList) {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                logger.warn("关闭游标失败", e);
+            }
+        }
+        cursorList.clear();
+    }
+    
     /**
      * 获取Mapper代理对象
      * 
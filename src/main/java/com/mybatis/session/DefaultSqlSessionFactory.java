@@ -1,8 +1,14 @@
 package com.mybatis.session;
 
+import com.mybatis.datasource.pooled.PooledDataSource;
+import com.mybatis.exceptions.MyBatisException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
 /**
  * SqlSessionFactory的默认实现
  * 
@@ -16,7 +22,7 @@ import org.slf4j.LoggerFactory;
  * 生命周期：
  * - 应用启动时创建
  * - 应用运行期间一直存在
- * - 应用关闭时销毁
+ * - 应用关闭时调用close()
  * 
  * @author 学习者
  */
@@ -24,6 +30,11 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
     
     private static final Logger logger = LoggerFactory.getLogger(DefaultSqlSessionFactory.class);
     
+    /**
+     * 关闭时等待异步查询结束的最长时间（毫秒）
+     */
+    private static final long ASYNC_SHUTDOWN_TIMEOUT = 5000;
+    
     /**
      * 全局配置对象
      */
@@ -49,7 +60,7 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
      * 
      * 每次调用都会：
      * 1. 创建一个新的SqlSession对象
-     * 2. 从数据源获取一个数据库连接
+     * 2. 从数据源借出一个数据库连接（POOLED时从连接池获取，SqlSession关闭时归还）
      * 3. 设置事务的自动提交模式
      * 
      * @param autoCommit 是否自动提交事务
@@ -58,7 +69,50 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
     @Override
     public SqlSession openSession(boolean autoCommit) {
         logger.debug("打开SqlSession [autoCommit={}]", autoCommit);
-        return new DefaultSqlSession(configuration, autoCommit);
+        Connection connection = null;
+        try {
+            connection = configuration.getDataSource().getConnection();
+            connection.setAutoCommit(autoCommit);
+            return new DefaultSqlSession(configuration, connection, autoCommit);
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(connection);
+            if (e instanceof MyBatisException) {
+                throw (MyBatisException) e;
+            }
+            throw new MyBatisException("获取数据库连接失败", e);
+        }
+    }
+    
+    private void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("释放数据库连接失败", e);
+        }
+    }
+    
+    /**
+     * 关闭SqlSessionFactory
+     * 
+     * 先关闭异步线程池（异步查询还要用连接），再关闭连接池中的所有连接。
+     */
+    @Override
+    public void close() {
+        try {
+            if (!configuration.getAsyncWorkerPool().shutdown(ASYNC_SHUTDOWN_TIMEOUT)) {
+                logger.warn("异步查询在{}ms内没有全部结束", ASYNC_SHUTDOWN_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        DataSource dataSource = configuration.getDataSource();
+        if (dataSource instanceof PooledDataSource) {
+            ((PooledDataSource) dataSource).forceCloseAll();
+        }
+        logger.info("SqlSessionFactory已关闭");
     }
     
     /**
@@ -0,0 +1,34 @@
+package com.mybatis.session;
+
+/**
+ * 结果上下文
+ * 
+ * ResultHandler每处理一行都会拿到它：当前行的对象、已经处理的行数，
+ * 以及提前结束遍历的stop()方法。
+ * 
+ * @author 学习者
+ * @param <T> 结果类型
+ */
+public interface ResultContext<T> {
+    
+    /**
+     * 当前行映射出的对象
+     */
+    T getResultObject();
+    
+    /**
+     * 已经处理的行数（包括当前行）
+     */
+    int getResultCount();
+    
+    /**
+     * 是否已经调用过stop()
+     */
+    boolean isStopped();
+    
+    /**
+     * 停止遍历：处理完当前行后不再读取后面的行
+     */
+    void stop();
+}
+
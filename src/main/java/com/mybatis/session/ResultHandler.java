@@ -0,0 +1,32 @@
+package com.mybatis.session;
+
+/**
+ * 结果处理器 - 推模式逐行处理查询结果 ⭐⭐⭐⭐
+ * 
+ * 与Cursor（拉模式）相对：由框架遍历ResultSet，每映射一行就回调一次handleResult。
+ * 结果不会放进List，也不会放进一级缓存，内存占用与结果集大小无关。
+ * 
+ * 使用示例：
+ * <pre>
+ * session.select("ProductMapper.selectAll", null, (ResultHandler&lt;Product&gt;) context -&gt; {
+ *     export(context.getResultObject());
+ *     if (context.getResultCount() &gt;= 10000) {
+ *         context.stop();
+ *     }
+ * });
+ * </pre>
+ * 
+ * @author 学习者
+ * @param <T> 结果类型
+ */
+@FunctionalInterface
+public interface ResultHandler<T> {
+    
+    /**
+     * 处理一行结果
+     * 
+     * @param resultContext 结果上下文
+     */
+    void handleResult(ResultContext<? extends T> resultContext);
+}
+
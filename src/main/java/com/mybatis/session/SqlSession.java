@@ -1,5 +1,9 @@
 package com.mybatis.session;
 
+import com.mybatis.cursor.Cursor;
+import com.mybatis.executor.BatchResult;
+import com.mybatis.mapping.MappedStatement;
+
 import java.util.List;
 
 /**
@@ -46,6 +50,32 @@ public interface SqlSession {
      */
     <E> List<E> selectList(String statementId, Object parameter);
     
+    /**
+     * 游标查询
+     * 
+     * 结果逐行读取，不会一次性加载到内存，也不会放入一级缓存。
+     * 游标需要在SqlSession关闭前读取完毕；SqlSession关闭时会关闭所有未关闭的游标。
+     * 
+     * @param statementId SQL语句ID
+     * @param parameter 参数对象
+     * @param <T> 结果类型
+     * @return 游标
+     */
+    <T> Cursor<T> selectCursor(String statementId, Object parameter);
+    
+    /**
+     * 回调查询
+     * 
+     * 每映射一行就调用一次handler，结果不会累积到List中，也不会放入一级缓存，
+     * 适合导出等大结果集场景。handler中调用ResultContext.stop()可以提前结束。
+     * 
+     * @param statementId SQL语句ID
+     * @param parameter 参数对象
+     * @param handler 结果处理器
+     * @param <T> 结果类型
+     */
+    <T> void select(String statementId, Object parameter, ResultHandler<T> handler);
+    
     /**
      * 插入操作
      * 
@@ -73,8 +103,72 @@ public interface SqlSession {
      */
     int delete(String statementId, Object parameter);
     
+    // ==================== 已经找到MappedStatement的重载（Mapper方法调用）====================
+    
+    /**
+     * 查询单个对象
+     * 
+     * 和selectOne(String, Object)相同，只是不再按statementId查找MappedStatement。
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数对象
+     * @param <T> 返回类型
+     * @return 查询结果对象
+     */
+    <T> T selectOne(MappedStatement ms, Object parameter);
+    
+    /**
+     * 查询列表
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数对象
+     * @param <E> 列表元素类型
+     * @return 查询结果列表
+     */
+    <E> List<E> selectList(MappedStatement ms, Object parameter);
+    
+    /**
+     * 游标查询
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数对象
+     * @param <T> 结果类型
+     * @return 游标
+     */
+    <T> Cursor<T> selectCursor(MappedStatement ms, Object parameter);
+    
+    /**
+     * 回调查询
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数对象
+     * @param handler 结果处理器
+     * @param <T> 结果类型
+     */
+    <T> void select(MappedStatement ms, Object parameter, ResultHandler<T> handler);
+    
+    /**
+     * 增删改操作
+     * 
+     * @param ms MappedStatement
+     * @param parameter 参数对象
+     * @return 影响的行数
+     */
+    int update(MappedStatement ms, Object parameter);
+    
+    /**
+     * 执行所有攒批中的语句
+     * 
+     * 只有BATCH执行器会返回结果，其他执行器返回空列表。
+     * 
+     * @return 每一批的执行结果（包含每条记录的影响行数）
+     */
+    List<BatchResult> flushStatements();
+    
     /**
      * 提交事务
+     * 
+     * 提交前会先执行所有攒批中的语句
      */
     void commit();
     
@@ -12,7 +12,7 @@ package com.mybatis.session;
  * 生命周期：
  * - 创建：应用启动时通过SqlSessionFactoryBuilder创建
  * - 作用域：应用级别，全局唯一（单例）
- * - 销毁：随应用结束而销毁
+ * - 销毁：应用结束时调用close()，关闭连接池和后台线程
  * 
  * 线程安全：SqlSessionFactory是线程安全的，可以被多个线程共享使用
  * 
@@ -29,6 +29,9 @@ package com.mybatis.session;
  * 
  * // 4. 关闭会话
  * session.close();
+ * 
+ * // 5. 应用关闭时关闭工厂
+ * factory.close();
  * </pre>
  * 
  * @author 学习者
@@ -61,5 +64,13 @@ public interface SqlSessionFactory {
      * @return Configuration对象
      */
     Configuration getConfiguration();
+    
+    /**
+     * 关闭SqlSessionFactory（应用关闭时调用）
+     * 
+     * - 等待已提交的异步查询执行完，然后关闭异步线程池
+     * - 数据源是连接池时，关闭池中的所有物理连接
+     */
+    void close();
 }
 
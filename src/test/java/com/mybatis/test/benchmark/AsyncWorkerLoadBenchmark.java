@@ -0,0 +1,168 @@
+package com.mybatis.test.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.AsyncWorkerPool;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.session.SqlSessionFactoryBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 异步工作线程池负载测试：10000个并发调用，对比平台线程池和虚拟线程
+ * 
+ * 数据库是内存H2，每条语句通过SLEEP_MS(5)模拟5ms的数据库耗时，连接池最多200个连接。
+ * 一次性提交10000个异步调用，等待全部完成，输出吞吐量和线程数：
+ * 1. PLATFORM 32线程：常见的线程池大小，吞吐量受线程数限制
+ * 2. PLATFORM 200线程：线程数和连接数一样多，每个线程都是一个平台线程
+ * 3. VIRTUAL：每个调用一个虚拟线程，并发数只受连接池限制（Java 21+，否则回退到平台线程池）
+ * 
+ * 运行（加上-Djdk.tracePinnedThreads=full时，虚拟线程被钉住会打印堆栈）：
+ * <pre>
+ * mvn test-compile
+ * java -cp target/test-classes:target/classes:&lt;测试classpath&gt; com.mybatis.test.benchmark.AsyncWorkerLoadBenchmark
+ * </pre>
+ * 
+ * @author 学习者
+ */
+public class AsyncWorkerLoadBenchmark {
+    
+    private static final String URL = "jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;MODE=MySQL";
+    
+    private static final String STATEMENT_ID = "load.selectSlow";
+    
+    private static final int CALLERS = 10000;
+    
+    private static final int CONNECTIONS = 200;
+    
+    private static final int LATENCY_MILLIS = 5;
+    
+    public static void main(String[] args) throws Exception {
+        // 每条语句的DEBUG日志会让控制台输出成为瓶颈
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        for (Logger logger : loggerContext.getLoggerList()) {
+            if (logger.getName().startsWith("com.mybatis")) {
+                logger.setLevel(Level.WARN);
+            }
+        }
+        createSchema();
+        
+        System.out.printf("Java %s, %d个并发调用, 每条语句%dms, 连接池%d个连接%n",
+                System.getProperty("java.version"), CALLERS, LATENCY_MILLIS, CONNECTIONS);
+        run(Configuration.ASYNC_WORKER_PLATFORM, 32);
+        run(Configuration.ASYNC_WORKER_PLATFORM, CONNECTIONS);
+        if (AsyncWorkerPool.isVirtualThreadSupported()) {
+            run(Configuration.ASYNC_WORKER_VIRTUAL, 0);
+        } else {
+            System.out.println("VIRTUAL: 当前JVM不支持虚拟线程（需要Java 21+），跳过");
+        }
+    }
+    
+    private static void run(String workerType, int threads) throws Exception {
+        SqlSessionFactory factory = buildFactory(workerType, threads);
+        AsyncWorkerPool pool = factory.getConfiguration().getAsyncWorkerPool();
+        
+        // 预热：建立连接、加载类
+        submitAll(pool, CONNECTIONS * 2);
+        
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        threadBean.resetPeakThreadCount();
+        long start = System.nanoTime();
+        int failed = submitAll(pool, CALLERS);
+        long elapsed = System.nanoTime() - start;
+        
+        System.out.printf("%-8s %-10s %6.0f ms  %8.0f 次/秒  失败%d  平台线程峰值%d%n",
+                workerType, pool.isVirtual() ? "virtual" : threads + "线程",
+                elapsed / 1e6, CALLERS / (elapsed / 1e9), failed, threadBean.getPeakThreadCount());
+        
+        // 关闭线程池，平台线程不会带到下一轮
+        pool.shutdown(10000);
+    }
+    
+    /**
+     * 一次性提交count个异步调用，等待全部完成
+     * 
+     * @return 失败的调用数
+     */
+    private static int submitAll(AsyncWorkerPool pool, int count) throws InterruptedException {
+        List<CompletableFuture<Object>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = i % 100 + 1;
+            futures.add(pool.submit(STATEMENT_ID, session -> session.selectOne(STATEMENT_ID, id)));
+        }
+        int failed = 0;
+        for (CompletableFuture<Object> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+    
+    private static SqlSessionFactory buildFactory(String workerType, int threads) {
+        String xml = "<configuration>"
+                + "<settings>"
+                + "<setting name=\"cacheEnabled\" value=\"false\"/>"
+                + "<setting name=\"asyncWorkerType\" value=\"" + workerType + "\"/>"
+                + "<setting name=\"asyncWorkerThreads\" value=\"" + Math.max(1, threads) + "\"/>"
+                + "<setting name=\"asyncWorkerQueueSize\" value=\"" + CALLERS + "\"/>"
+                + "</settings>"
+                + "<environments default=\"load\"><environment id=\"load\"><dataSource type=\"POOLED\">"
+                + "<property name=\"driver\" value=\"org.h2.Driver\"/>"
+                + "<property name=\"url\" value=\"" + URL + "\"/>"
+                + "<property name=\"username\" value=\"sa\"/>"
+                + "<property name=\"password\" value=\"\"/>"
+                + "<property name=\"poolMaximumActiveConnections\" value=\"" + CONNECTIONS + "\"/>"
+                + "<property name=\"poolMaximumIdleConnections\" value=\"" + CONNECTIONS + "\"/>"
+                + "</dataSource></environment></environments>"
+                + "<mappers/>"
+                + "</configuration>";
+        SqlSessionFactory factory = new SqlSessionFactoryBuilder()
+                .build(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        
+        Configuration configuration = factory.getConfiguration();
+        configuration.addMappedStatement(STATEMENT_ID,
+                new MappedStatement.Builder(configuration, STATEMENT_ID, SqlCommandType.SELECT)
+                        .sql("SELECT id FROM load_item WHERE id = #{id} AND SLEEP_MS(" + LATENCY_MILLIS + ") = 0")
+                        .parameterType(Long.class)
+                        .resultType(Long.class)
+                        .build());
+        return factory;
+    }
+    
+    private static void createSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE ALIAS IF NOT EXISTS SLEEP_MS FOR \"" + AsyncWorkerLoadBenchmark.class.getName() + ".sleep\"");
+            statement.execute("CREATE TABLE IF NOT EXISTS load_item (id BIGINT PRIMARY KEY)");
+            statement.execute("MERGE INTO load_item KEY (id) SELECT X FROM SYSTEM_RANGE(1, 100)");
+        }
+    }
+    
+    /**
+     * SLEEP_MS(ms)：模拟数据库耗时
+     */
+    public static int sleep(int millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return 0;
+    }
+}
+
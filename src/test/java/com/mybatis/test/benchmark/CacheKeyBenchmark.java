@@ -0,0 +1,173 @@
+package com.mybatis.test.benchmark;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheKey;
+import com.mybatis.cache.impl.PerpetualCache;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheKey基准测试：一次缓存查找（创建CacheKey + getObject）的耗时和分配
+ * 
+ * 1. baselineKeyLookup：改动之前的CacheKey（BaselineCacheKey，ArrayList保存每个update的对象），
+ *    update(语句ID)、update(SQL)、update(参数)，每次都哈希SQL文本
+ * 2. updateKeyLookup：现在的CacheKey，仍然用update逐个添加
+ * 3. compactKeyLookup：MappedStatement预先算好的前缀 + 参数值数组（BaseExecutor.createCacheKey的写法）
+ * 
+ * 运行（-prof gc输出每次查找分配的字节数 gc.alloc.rate.norm）：
+ * <pre>
+ * mvn test-compile
+ * java -cp target/test-classes:target/classes:&lt;测试classpath&gt; com.mybatis.test.benchmark.CacheKeyBenchmark
+ * </pre>
+ * 
+ * @author 学习者
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+    
+    private static final String SQL = "SELECT id, product_name, price, stock, category, description, created_time, "
+            + "updated_time FROM product WHERE id = #{id} AND status = 1";
+    
+    private MappedStatement ms;
+    
+    private Cache cache;
+    
+    private Long parameter;
+    
+    @Setup
+    public void setup() {
+        ms = new MappedStatement.Builder(new Configuration(), "com.mybatis.test.mapper.ProductMapper.selectById",
+                SqlCommandType.SELECT)
+                .sql(SQL)
+                .parameterType(Long.class)
+                .build();
+        parameter = 1L;
+        
+        cache = new PerpetualCache("benchmark");
+        cache.putObject(baselineKey(ms, parameter), "product");
+        cache.putObject(updateKey(ms, parameter), "product");
+        cache.putObject(compactKey(ms, parameter), "product");
+    }
+    
+    @Benchmark
+    public Object baselineKeyLookup() {
+        return cache.getObject(baselineKey(ms, parameter));
+    }
+    
+    @Benchmark
+    public Object updateKeyLookup() {
+        return cache.getObject(updateKey(ms, parameter));
+    }
+    
+    @Benchmark
+    public Object compactKeyLookup() {
+        return cache.getObject(compactKey(ms, parameter));
+    }
+    
+    private static BaselineCacheKey baselineKey(MappedStatement ms, Object parameter) {
+        BaselineCacheKey cacheKey = new BaselineCacheKey();
+        cacheKey.update(ms.getId());
+        cacheKey.update(ms.getSql());
+        cacheKey.update(parameter);
+        return cacheKey;
+    }
+    
+    private static CacheKey updateKey(MappedStatement ms, Object parameter) {
+        CacheKey cacheKey = new CacheKey();
+        cacheKey.update(ms.getId());
+        cacheKey.update(ms.getSql());
+        cacheKey.update(parameter);
+        return cacheKey;
+    }
+    
+    private static CacheKey compactKey(MappedStatement ms, Object parameter) {
+        return new CacheKey(ms.getCacheKeyPrefix(), new Object[]{parameter});
+    }
+    
+    /**
+     * 改动之前的CacheKey（只保留基准测试用到的update/equals/hashCode，数组参数的处理省略）
+     */
+    static final class BaselineCacheKey {
+        
+        private final int multiplier = 37;
+        
+        private int hashcode = 17;
+        
+        private long checksum;
+        
+        private int count;
+        
+        private final List<Object> updateList = new ArrayList<>();
+        
+        void update(Object object) {
+            int baseHashCode = object == null ? 1 : object.hashCode();
+            
+            count++;
+            checksum += baseHashCode;
+            baseHashCode *= count;
+            
+            hashcode = multiplier * hashcode + baseHashCode;
+            
+            updateList.add(object);
+        }
+        
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof BaselineCacheKey)) {
+                return false;
+            }
+            BaselineCacheKey cacheKey = (BaselineCacheKey) object;
+            if (hashcode != cacheKey.hashcode || checksum != cacheKey.checksum || count != cacheKey.count) {
+                return false;
+            }
+            for (int i = 0; i < updateList.size(); i++) {
+                Object thisObject = updateList.get(i);
+                Object thatObject = cacheKey.updateList.get(i);
+                if (thisObject == null ? thatObject != null : !thisObject.equals(thatObject)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheKeyBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
+
@@ -0,0 +1,156 @@
+package com.mybatis.test.binding;
+
+import com.mybatis.annotations.Param;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Mapper实现方式测试（内存H2）：生成的实现类（BYTECODE）和JDK动态代理的行为必须一致
+ * 
+ * @author 学习者
+ */
+public class MapperClassGeneratorTest {
+    
+    private static final String DATABASE = "mapperClass";
+    
+    public interface ItemMapper {
+        
+        long countAll();
+        
+        void touch(Long id);
+        
+        String selectLabel(@Param("id") long id, @Param("suffix") String suffix);
+        
+        List<String> selectNames();
+        
+        default String describe(long id) {
+            return selectLabel(id, "#") + "/" + countAll();
+        }
+    }
+    
+    @BeforeClass
+    public static void createTable() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS mapper_item (id BIGINT PRIMARY KEY, name VARCHAR(20), touched INT)",
+                "MERGE INTO mapper_item KEY (id) VALUES (1, 'a', 0), (2, 'b', 0)");
+    }
+    
+    @Test
+    public void generatedClassIsUsedOnlyInBytecodeMode() {
+        assertFalse(Proxy.isProxyClass(call(Configuration.MAPPER_PROXY_BYTECODE, mapper -> mapper).getClass()));
+        assertTrue(Proxy.isProxyClass(call(Configuration.MAPPER_PROXY_JDK, mapper -> mapper).getClass()));
+    }
+    
+    @Test
+    public void primitiveReturn() {
+        assertBothModes(ItemMapper::countAll);
+        assertEquals(2L, (long) call(Configuration.MAPPER_PROXY_BYTECODE, ItemMapper::countAll));
+    }
+    
+    @Test
+    public void voidReturn() {
+        for (String mode : Arrays.asList(Configuration.MAPPER_PROXY_BYTECODE, Configuration.MAPPER_PROXY_JDK)) {
+            call(mode, mapper -> {
+                mapper.touch(1L);
+                return null;
+            });
+        }
+    }
+    
+    @Test
+    public void paramAnnotatedMethod() {
+        assertBothModes(mapper -> mapper.selectLabel(2L, "!"));
+        assertEquals("b!", call(Configuration.MAPPER_PROXY_BYTECODE, mapper -> mapper.selectLabel(2L, "!")));
+    }
+    
+    @Test
+    public void listReturn() {
+        assertBothModes(ItemMapper::selectNames);
+    }
+    
+    @Test
+    public void defaultMethod() {
+        assertBothModes(mapper -> mapper.describe(1L));
+        assertEquals("a#/2", call(Configuration.MAPPER_PROXY_BYTECODE, mapper -> mapper.describe(1L)));
+    }
+    
+    @Test
+    public void objectMethods() {
+        for (String mode : Arrays.asList(Configuration.MAPPER_PROXY_BYTECODE, Configuration.MAPPER_PROXY_JDK)) {
+            SqlSessionFactory factory = buildFactory(mode);
+            SqlSession session = factory.openSession(true);
+            try {
+                ItemMapper mapper = session.getMapper(ItemMapper.class);
+                ItemMapper other = session.getMapper(ItemMapper.class);
+                assertTrue(mode, mapper.equals(mapper));
+                assertFalse(mode, mapper.equals(other));
+                assertEquals(mode, mapper.hashCode(), mapper.hashCode());
+                assertNotEquals(mode, mapper.toString(), other.toString());
+            } finally {
+                session.close();
+                factory.close();
+            }
+        }
+    }
+    
+    private interface MapperCall<R> {
+        R apply(ItemMapper mapper);
+    }
+    
+    private static <R> void assertBothModes(MapperCall<R> call) {
+        assertEquals(call(Configuration.MAPPER_PROXY_JDK, call), call(Configuration.MAPPER_PROXY_BYTECODE, call));
+    }
+    
+    private static <R> R call(String mode, MapperCall<R> call) {
+        SqlSessionFactory factory = buildFactory(mode);
+        SqlSession session = factory.openSession(true);
+        try {
+            return call.apply(session.getMapper(ItemMapper.class));
+        } finally {
+            session.close();
+            factory.close();
+        }
+    }
+    
+    private static SqlSessionFactory buildFactory(String mode) {
+        SqlSessionFactory factory = H2Support.buildFactory(DATABASE, H2Support.setting("mapperProxyType", mode), "");
+        Configuration configuration = factory.getConfiguration();
+        String namespace = ItemMapper.class.getName();
+        addStatement(configuration, namespace + ".countAll", SqlCommandType.SELECT,
+                "SELECT COUNT(*) FROM mapper_item", null, Long.class);
+        addStatement(configuration, namespace + ".touch", SqlCommandType.UPDATE,
+                "UPDATE mapper_item SET touched = touched + 1 WHERE id = #{id}", Long.class, null);
+        addStatement(configuration, namespace + ".selectLabel", SqlCommandType.SELECT,
+                "SELECT CONCAT(name, #{suffix}) FROM mapper_item WHERE id = #{id}", Map.class, String.class);
+        addStatement(configuration, namespace + ".selectNames", SqlCommandType.SELECT,
+                "SELECT name FROM mapper_item ORDER BY id", null, String.class);
+        configuration.addMapper(ItemMapper.class);
+        return factory;
+    }
+    
+    private static void addStatement(Configuration configuration, String id, SqlCommandType type, String sql,
+                                     Class<?> parameterType, Class<?> resultType) {
+        configuration.addMappedStatement(id, new MappedStatement.Builder(configuration, id, type)
+                .sql(sql)
+                .parameterType(parameterType)
+                .resultType(resultType)
+                .build());
+    }
+}
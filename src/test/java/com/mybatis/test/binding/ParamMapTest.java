@@ -0,0 +1,146 @@
+package com.mybatis.test.binding;
+
+import com.mybatis.annotations.Param;
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Mapper方法参数绑定测试（ParamMap / @Param，内存H2）
+ * 
+ * @author 学习者
+ */
+public class ParamMapTest {
+    
+    private static final String DATABASE = "paramMap";
+    
+    public interface ParamMapper {
+        
+        /** 单个没有@Param的参数：直接作为SQL参数 */
+        String nameById(Long id);
+        
+        /** 多个没有@Param的参数：按param1、param2取 */
+        long countBetween(Long min, Long max);
+        
+        /** @Param命名，同时可以用paramN */
+        long countByNameAndMin(@Param("name") String name, @Param("min") Long min);
+        
+        /** @Param的参数是Map：#{filter.xxx}按key取 */
+        long countByFilter(@Param("filter") Map<String, Object> filter, @Param("min") Long min);
+        
+        /** @Param的参数是集合（H2按数组绑定） */
+        List<String> namesIn(@Param("ids") List<Long> ids);
+        
+        /** #{missing}没有对应的方法参数 */
+        String missing(@Param("id") Long id);
+    }
+    
+    private SqlSessionFactory factory;
+    
+    @Before
+    public void setUp() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS param_item (id BIGINT PRIMARY KEY, name VARCHAR(20))",
+                "MERGE INTO param_item KEY (id) VALUES (1, 'a'), (2, 'b'), (3, 'a')");
+        factory = H2Support.buildFactory(DATABASE);
+        Configuration configuration = factory.getConfiguration();
+        String namespace = ParamMapper.class.getName();
+        addStatement(configuration, namespace + ".nameById",
+                "SELECT name FROM param_item WHERE id = #{id}", Long.class, String.class);
+        addStatement(configuration, namespace + ".countBetween",
+                "SELECT COUNT(*) FROM param_item WHERE id BETWEEN #{param1} AND #{param2}", Map.class, Long.class);
+        addStatement(configuration, namespace + ".countByNameAndMin",
+                "SELECT COUNT(*) FROM param_item WHERE name = #{name} AND id >= #{param2}", Map.class, Long.class);
+        addStatement(configuration, namespace + ".countByFilter",
+                "SELECT COUNT(*) FROM param_item WHERE name = #{filter.name} AND id >= #{min}", Map.class, Long.class);
+        addStatement(configuration, namespace + ".namesIn",
+                "SELECT name FROM param_item WHERE id = ANY(#{ids}) ORDER BY id", Map.class, String.class);
+        addStatement(configuration, namespace + ".missing",
+                "SELECT name FROM param_item WHERE id = #{missing}", Map.class, String.class);
+        configuration.addMapper(ParamMapper.class);
+    }
+    
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+    
+    @Test
+    public void singleUnannotatedParameterIsPassedDirectly() {
+        assertEquals("b", call(mapper -> mapper.nameById(2L)));
+    }
+    
+    @Test
+    public void unannotatedParametersUseParamNAliases() {
+        assertEquals(Long.valueOf(2), call(mapper -> mapper.countBetween(2L, 3L)));
+    }
+    
+    @Test
+    public void annotatedParametersAlsoHaveParamNAliases() {
+        assertEquals(Long.valueOf(1), call(mapper -> mapper.countByNameAndMin("a", 2L)));
+    }
+    
+    @Test
+    public void nestedPathIntoMapParameter() {
+        Map<String, Object> filter = new HashMap<>();
+        filter.put("name", "a");
+        assertEquals(Long.valueOf(2), call(mapper -> mapper.countByFilter(filter, 1L)));
+    }
+    
+    @Test
+    public void collectionParameterIsBoundAsOneValue() {
+        assertEquals(Arrays.asList("a", "a"), call(mapper -> mapper.namesIn(Arrays.asList(1L, 3L))));
+        assertEquals(Collections.emptyList(), call(mapper -> mapper.namesIn(Collections.emptyList())));
+    }
+    
+    @Test
+    public void missingParameterNameIsReported() {
+        try {
+            call(mapper -> mapper.missing(1L));
+            fail("#{missing}没有对应的方法参数，应该报错");
+        } catch (MyBatisException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("#{missing}"));
+            assertTrue(e.getMessage(), e.getMessage().contains("[id, param1]"));
+        }
+    }
+    
+    private interface MapperCall<R> {
+        R apply(ParamMapper mapper);
+    }
+    
+    private <R> R call(MapperCall<R> call) {
+        SqlSession session = factory.openSession(true);
+        try {
+            return call.apply(session.getMapper(ParamMapper.class));
+        } finally {
+            session.close();
+        }
+    }
+    
+    private static void addStatement(Configuration configuration, String id, String sql,
+                                     Class<?> parameterType, Class<?> resultType) {
+        configuration.addMappedStatement(id, new MappedStatement.Builder(configuration, id, SqlCommandType.SELECT)
+                .sql(sql)
+                .parameterType(parameterType)
+                .resultType(resultType)
+                .build());
+    }
+}
@@ -0,0 +1,104 @@
+package com.mybatis.test.builder;
+
+import com.mybatis.builder.SqlSourceBuilder;
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.BoundSql;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.ParameterMapping;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.test.entity.Product;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.JDBCType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * SqlSourceBuilder测试
+ * 
+ * #{}在构建MappedStatement时就解析成BoundSql，执行时直接用，不再跑正则。
+ * 
+ * @author 学习者
+ */
+public class SqlSourceBuilderTest {
+    
+    @Test
+    public void builderPrecompilesOnce() {
+        MappedStatement ms = new MappedStatement.Builder(new Configuration(), "sqlSource.update", SqlCommandType.UPDATE)
+                .sql("UPDATE product SET price = #{price} WHERE id = #{id}")
+                .parameterType(Product.class)
+                .build();
+        
+        BoundSql boundSql = ms.getBoundSql();
+        assertEquals("UPDATE product SET price = ? WHERE id = ?", boundSql.getSql());
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        assertEquals(2, mappings.size());
+        assertEquals("price", mappings.get(0).getProperty());
+        assertEquals(BigDecimal.class, mappings.get(0).getJavaType());
+        assertEquals("id", mappings.get(1).getProperty());
+        assertEquals(Long.class, mappings.get(1).getJavaType());
+        // 每次执行拿到的是同一个BoundSql
+        assertSame(boundSql, ms.getBoundSql());
+    }
+    
+    @Test
+    public void explicitTypesOverrideInference() {
+        BoundSql boundSql = SqlSourceBuilder.parse(
+                "SELECT * FROM product WHERE create_time > #{ createTime , javaType=java.time.LocalDateTime, jdbcType=TIMESTAMP }"
+                        + " AND price < #{price,jdbcType=DECIMAL}", Map.class);
+        
+        assertEquals("SELECT * FROM product WHERE create_time > ? AND price < ?", boundSql.getSql());
+        ParameterMapping createTime = boundSql.getParameterMappings().get(0);
+        assertEquals("createTime", createTime.getProperty());
+        assertEquals(LocalDateTime.class, createTime.getJavaType());
+        assertEquals(JDBCType.TIMESTAMP, createTime.getJdbcType());
+        // Map参数推断不出类型
+        ParameterMapping price = boundSql.getParameterMappings().get(1);
+        assertEquals(Object.class, price.getJavaType());
+        assertEquals(JDBCType.DECIMAL, price.getJdbcType());
+    }
+    
+    @Test
+    public void simpleParameterTypeIsThePlaceholderType() {
+        BoundSql boundSql = SqlSourceBuilder.parse("SELECT * FROM product WHERE id = #{id}", Long.class);
+        
+        ParameterMapping id = boundSql.getParameterMappings().get(0);
+        assertEquals(Long.class, id.getJavaType());
+        assertNull(id.getJdbcType());
+    }
+    
+    @Test
+    public void sqlWithoutPlaceholdersIsUnchanged() {
+        String sql = "SELECT COUNT(*) FROM product";
+        BoundSql boundSql = SqlSourceBuilder.parse(sql, null);
+        
+        assertEquals(sql, boundSql.getSql());
+        assertEquals(0, boundSql.getParameterMappings().size());
+    }
+    
+    @Test
+    public void malformedPlaceholdersFailAtBuildTime() {
+        assertParseFails("SELECT * FROM product WHERE id = #{ }", null);
+        assertParseFails("SELECT * FROM product WHERE id = #{id,mode=IN}", null);
+        assertParseFails("SELECT * FROM product WHERE id = #{id,jdbcType=NUMBERISH}", null);
+        assertParseFails("SELECT * FROM product WHERE id = #{id,javaType=com.example.Missing}", null);
+        assertParseFails("SELECT * FROM product WHERE id = #{missing}", Product.class);
+    }
+    
+    private static void assertParseFails(String sql, Class<?> parameterType) {
+        try {
+            SqlSourceBuilder.parse(sql, parameterType);
+            fail("应该在解析时报错: " + sql);
+        } catch (MyBatisException expected) {
+            // 期望的异常
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.mybatis.test.builder;
+
+import com.mybatis.builder.xml.XMLMapperBuilder;
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.executor.statement.StatementHandler;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.ResultSetType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 语句执行参数测试：fetchSize、timeout、maxRows、resultSetType
+ * 
+ * <select>上的属性优先，没有配置时使用全局setting。
+ * 
+ * @author 学习者
+ */
+public class StatementSettingsTest {
+    
+    private static final String DATABASE = "statementSettings";
+    
+    private static final String MAPPER = "<mapper namespace=\"statementSettings\">"
+            + "<select id=\"tuned\" fetchSize=\"100\" timeout=\"5\" maxRows=\"2\" resultSetType=\"scroll_insensitive\""
+            + " resultType=\"java.lang.Long\">SELECT id FROM settings_item ORDER BY id</select>"
+            + "<select id=\"plain\" resultType=\"java.lang.Long\">SELECT id FROM settings_item ORDER BY id</select>"
+            + "</mapper>";
+    
+    @Test
+    public void statementAttributesAreParsed() {
+        Configuration configuration = new Configuration();
+        parse(MAPPER, configuration);
+        
+        MappedStatement tuned = configuration.getMappedStatement("statementSettings.tuned");
+        assertEquals(Integer.valueOf(100), tuned.getFetchSize());
+        assertEquals(Integer.valueOf(5), tuned.getTimeout());
+        assertEquals(Integer.valueOf(2), tuned.getMaxRows());
+        assertEquals(ResultSetType.SCROLL_INSENSITIVE, tuned.getResultSetType());
+        
+        MappedStatement plain = configuration.getMappedStatement("statementSettings.plain");
+        assertNull(plain.getFetchSize());
+        assertNull(plain.getTimeout());
+        assertNull(plain.getMaxRows());
+        assertEquals(ResultSetType.DEFAULT, plain.getResultSetType());
+    }
+    
+    @Test
+    public void invalidAttributesFailAtParseTime() {
+        assertParseFails("<select id=\"a\" fetchSize=\"many\" resultType=\"java.lang.Long\">SELECT 1</select>", "fetchSize");
+        assertParseFails("<select id=\"b\" timeout=\"1.5\" resultType=\"java.lang.Long\">SELECT 1</select>", "timeout");
+        assertParseFails("<select id=\"c\" resultSetType=\"BACKWARD\" resultType=\"java.lang.Long\">SELECT 1</select>",
+                "BACKWARD");
+    }
+    
+    @Test
+    public void statementAttributesWinOverGlobalSettings() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS settings_item (id BIGINT PRIMARY KEY)",
+                "MERGE INTO settings_item KEY (id) VALUES (1), (2), (3)");
+        SqlSessionFactory factory = H2Support.buildFactory(DATABASE,
+                H2Support.setting("defaultFetchSize", 50)
+                        + H2Support.setting("defaultStatementTimeout", 30)
+                        + H2Support.setting("defaultMaxRows", 1)
+                        + H2Support.setting("defaultResultSetType", "FORWARD_ONLY"), "");
+        try {
+            Configuration configuration = factory.getConfiguration();
+            assertEquals(Integer.valueOf(50), configuration.getDefaultFetchSize());
+            assertEquals(Integer.valueOf(30), configuration.getDefaultStatementTimeout());
+            assertEquals(Integer.valueOf(1), configuration.getDefaultMaxRows());
+            assertEquals(ResultSetType.FORWARD_ONLY, configuration.getDefaultResultSetType());
+            parse(MAPPER, configuration);
+            
+            try (Connection connection = DriverManager.getConnection(H2Support.url(DATABASE), "sa", "")) {
+                try (Statement tuned = prepare(configuration, "statementSettings.tuned", connection)) {
+                    assertEquals(100, tuned.getFetchSize());
+                    assertEquals(5, tuned.getQueryTimeout());
+                    assertEquals(2, tuned.getMaxRows());
+                    assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, tuned.getResultSetType());
+                }
+                try (Statement plain = prepare(configuration, "statementSettings.plain", connection)) {
+                    assertEquals(50, plain.getFetchSize());
+                    assertEquals(30, plain.getQueryTimeout());
+                    assertEquals(1, plain.getMaxRows());
+                    assertEquals(ResultSet.TYPE_FORWARD_ONLY, plain.getResultSetType());
+                }
+            }
+            
+            // maxRows由驱动生效：超出部分不会返回
+            SqlSession session = factory.openSession();
+            try {
+                assertEquals(Arrays.asList(1L, 2L), session.selectList("statementSettings.tuned", null));
+                assertEquals(Arrays.asList(1L), session.selectList("statementSettings.plain", null));
+            } finally {
+                session.close();
+            }
+        } finally {
+            factory.close();
+        }
+    }
+    
+    private static Statement prepare(Configuration configuration, String statementId, Connection connection)
+            throws SQLException {
+        return new StatementHandler(configuration, configuration.getMappedStatement(statementId)).prepare(connection);
+    }
+    
+    private static void parse(String xml, Configuration configuration) {
+        new XMLMapperBuilder(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), configuration).parse();
+    }
+    
+    private static void assertParseFails(String statement, String expectedInMessage) {
+        try {
+            parse("<mapper namespace=\"statementSettings.invalid\">" + statement + "</mapper>", new Configuration());
+            fail("应该在解析时报错: " + statement);
+        } catch (MyBatisException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(expectedInMessage));
+        }
+    }
+}
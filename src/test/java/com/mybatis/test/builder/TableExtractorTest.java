@@ -0,0 +1,71 @@
+package com.mybatis.test.builder;
+
+import com.mybatis.builder.TableExtractor;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * TableExtractor测试
+ * 
+ * 提取不全的表比提取不出来更危险：前者会让缓存静默地返回过期数据，
+ * 所以多表更新、双引号标识符、不读表的查询都必须返回null（退回到清空整个缓存）。
+ * 
+ * @author 学习者
+ */
+public class TableExtractorTest {
+    
+    @Test
+    public void singleTableStatements() {
+        assertEquals(Collections.singleton("product"),
+                TableExtractor.writeTables("UPDATE product SET stock = #{stock} WHERE id = #{id}"));
+        assertEquals(Collections.singleton("product"),
+                TableExtractor.writeTables("UPDATE LOW_PRIORITY `shop`.`product` p SET p.stock = 1"));
+        assertEquals(Collections.singleton("product"),
+                TableExtractor.writeTables("DELETE FROM product WHERE id IN (1, 2, 3)"));
+        assertEquals(Collections.singleton("product"),
+                TableExtractor.writeTables("INSERT INTO product (name, price) VALUES (#{name}, #{price})"));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("product", "user")),
+                TableExtractor.readTables("SELECT * FROM product p JOIN user u ON p.uid = u.id WHERE u.name = \"a\""));
+    }
+    
+    @Test
+    public void multiTableUpdateIsUnknown() {
+        assertNull(TableExtractor.writeTables(
+                "UPDATE product p JOIN stock s ON s.product_id = p.id SET p.qty = 1, s.qty = 2"));
+        assertNull(TableExtractor.writeTables("UPDATE product p, stock s SET p.qty = s.qty WHERE s.product_id = p.id"));
+    }
+    
+    @Test
+    public void multiTableDeleteIsUnknown() {
+        assertNull(TableExtractor.writeTables(
+                "DELETE p, s FROM product p JOIN stock s ON s.product_id = p.id WHERE p.id = 1"));
+        assertNull(TableExtractor.writeTables("DELETE p FROM product p JOIN stock s ON s.product_id = p.id"));
+        assertNull(TableExtractor.writeTables("DELETE FROM p USING product p JOIN stock s ON s.product_id = p.id"));
+    }
+    
+    @Test
+    public void quotedIdentifierIsUnknown() {
+        assertNull(TableExtractor.writeTables("UPDATE \"order\" SET x = 1"));
+        assertNull(TableExtractor.writeTables("DELETE FROM \"order\" WHERE id = 1"));
+        assertNull(TableExtractor.readTables("SELECT * FROM \"order\""));
+        assertNull(TableExtractor.readTables("SELECT * FROM product p JOIN \"order\" o ON o.pid = p.id"));
+    }
+    
+    @Test
+    public void emptyReadSetIsUnknown() {
+        assertNull(TableExtractor.readTables("SELECT now()"));
+        assertNull(TableExtractor.readTables("SELECT 1"));
+    }
+    
+    @Test
+    public void viewIsReadAsItsOwnName() {
+        // 视图看不出来：写product不会让它失效，读视图的语句需要useCache="false"或cacheTtl
+        assertEquals(Collections.singleton("product_view"), TableExtractor.readTables("SELECT * FROM product_view"));
+    }
+}
@@ -0,0 +1,179 @@
+package com.mybatis.test.cache;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheBuilder;
+import com.mybatis.cache.decorators.BlockingCache;
+import com.mybatis.cache.impl.PerpetualCache;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BlockingCache测试（内存H2）
+ * 
+ * 1. 同一个事务里重复查询同一个key不会等自己持有的锁
+ * 2. 两个会话同时未命中同一个key，只有一个查数据库，另一个等提交后直接命中
+ * 3. 不是持有者的写入不会提前释放锁，removeObject真正删除数据
+ * 
+ * @author 学习者
+ */
+public class BlockingCacheTest {
+    
+    private static final String DATABASE = "blocking";
+    
+    private static final String STATEMENT_ID = "dl.byId";
+    
+    /**
+     * 查询次数（每查一行加一）
+     */
+    private static final AtomicInteger QUERIES = new AtomicInteger();
+    
+    @BeforeClass
+    public static void createSchema() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE ALIAS IF NOT EXISTS COUNT_QUERY FOR \"" + BlockingCacheTest.class.getName() + ".countQuery\"",
+                "CREATE TABLE IF NOT EXISTS dl_item (id BIGINT PRIMARY KEY)",
+                "MERGE INTO dl_item KEY (id) SELECT X FROM SYSTEM_RANGE(1, 10)");
+    }
+    
+    @Test
+    public void repeatedReadInsideTransaction() throws Exception {
+        SqlSessionFactory factory = buildFactory();
+        
+        AtomicReference<Object> first = new AtomicReference<>();
+        AtomicReference<Object> second = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            SqlSession session = factory.openSession(false);
+            try {
+                first.set(session.selectOne(STATEMENT_ID, 1L));
+                second.set(session.selectOne(STATEMENT_ID, 1L));
+                session.commit();
+            } finally {
+                session.close();
+            }
+        });
+        thread.start();
+        thread.join(5000);
+        
+        assertFalse("同一个事务里第二次查询不应等待自己持有的锁", thread.isAlive());
+        assertEquals(Long.valueOf(1L), first.get());
+        assertEquals(Long.valueOf(1L), second.get());
+        
+        // 提交后其他会话直接命中
+        SqlSession session = factory.openSession(false);
+        try {
+            int queries = QUERIES.get();
+            assertEquals(Long.valueOf(1L), session.selectOne(STATEMENT_ID, 1L));
+            assertEquals(queries, QUERIES.get());
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Test
+    public void concurrentMissesCollapse() throws Exception {
+        SqlSessionFactory factory = buildFactory();
+        
+        SqlSession loader = factory.openSession(false);
+        assertEquals(Long.valueOf(2L), loader.selectOne(STATEMENT_ID, 2L));
+        int queries = QUERIES.get();
+        
+        AtomicReference<Object> result = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            SqlSession session = factory.openSession(false);
+            try {
+                result.set(session.selectOne(STATEMENT_ID, 2L));
+            } finally {
+                session.close();
+            }
+        });
+        waiter.start();
+        awaitWaiting(waiter);
+        assertEquals("持有锁的事务提交前，其他会话不应查数据库", queries, QUERIES.get());
+        
+        loader.commit();
+        loader.close();
+        waiter.join(5000);
+        
+        assertFalse(waiter.isAlive());
+        assertEquals(Long.valueOf(2L), result.get());
+        assertEquals("等待的会话应直接命中第一个会话写入的结果", queries, QUERIES.get());
+    }
+    
+    @Test
+    public void onlyOwnerReleasesLock() throws Exception {
+        BlockingCache cache = new BlockingCache(new PerpetualCache("owner"));
+        Object owner = new Object();
+        assertNull(cache.getObject("k", owner));
+        
+        AtomicReference<Object> result = new AtomicReference<>();
+        Thread waiter = new Thread(() -> result.set(cache.getObject("k")));
+        waiter.start();
+        awaitWaiting(waiter);
+        
+        // 其他调用方（例如后台刷新）写入同一个key，不能放行等待的线程
+        Thread refresher = new Thread(() -> cache.putObject("k", "refreshed"));
+        refresher.start();
+        refresher.join(5000);
+        Thread.sleep(100);
+        assertTrue("不是持有者的写入不应释放锁", waiter.isAlive());
+        
+        cache.putObject("k", "loaded", owner);
+        waiter.join(5000);
+        assertEquals("loaded", result.get());
+        
+        // removeObject真正删除数据
+        cache.removeObject("k");
+        assertNull(cache.getObject("k", owner));
+        cache.releaseLock("k", owner);
+    }
+    
+    /**
+     * 等待线程阻塞在锁上
+     */
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, thread.getState());
+    }
+    
+    private static SqlSessionFactory buildFactory() {
+        SqlSessionFactory factory = H2Support.buildFactory(DATABASE);
+        
+        Configuration configuration = factory.getConfiguration();
+        Cache cache = new CacheBuilder("dl").blocking(true).build();
+        configuration.addCache(cache);
+        configuration.addMappedStatement(STATEMENT_ID,
+                new MappedStatement.Builder(configuration, STATEMENT_ID, SqlCommandType.SELECT)
+                        .sql("SELECT id FROM dl_item WHERE id = #{id} AND COUNT_QUERY() = 0")
+                        .parameterType(Long.class)
+                        .resultType(Long.class)
+                        .cache(cache)
+                        .build());
+        return factory;
+    }
+    
+    /**
+     * COUNT_QUERY()：记录查询次数
+     */
+    public static int countQuery() {
+        QUERIES.incrementAndGet();
+        return 0;
+    }
+}
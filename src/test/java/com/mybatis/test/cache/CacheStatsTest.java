@@ -0,0 +1,68 @@
+package com.mybatis.test.cache;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheBuilder;
+import com.mybatis.cache.CacheStats;
+import com.mybatis.cache.impl.ConcurrentCache;
+import com.mybatis.cache.impl.TinyLfuCache;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 淘汰次数和清空次数测试
+ * 
+ * 淘汰次数由淘汰策略在真正淘汰时记录：覆盖已有的key、清空缓存都不算淘汰。
+ * 
+ * @author 学习者
+ */
+public class CacheStatsTest {
+    
+    @Test
+    public void overwriteIsNotEviction() {
+        Cache cache = new CacheBuilder("overwrite").size(10).build();
+        for (int i = 0; i < 5; i++) {
+            cache.putObject("k", i);
+        }
+        assertEquals(0, cache.getStats().getEvictionCount());
+        assertEquals(5, cache.getStats().getPutCount());
+    }
+    
+    @Test
+    public void lruEvictionsAreExact() {
+        Cache cache = new CacheBuilder("lru").size(10).build();
+        for (int i = 0; i < 25; i++) {
+            cache.putObject(i, i);
+        }
+        assertEquals(15, cache.getStats().getEvictionCount());
+    }
+    
+    @Test
+    public void tinyLfuAndConcurrentCacheReportEvictions() {
+        Cache tinyLfu = new CacheBuilder("tinyLfu").implementation(TinyLfuCache.class).size(10).build();
+        Cache concurrent = new CacheBuilder("concurrent").implementation(ConcurrentCache.class).size(10).build();
+        for (int i = 0; i < 25; i++) {
+            tinyLfu.putObject(i, i);
+            concurrent.putObject(i, i);
+        }
+        assertEquals(25 - tinyLfu.getSize(), tinyLfu.getStats().getEvictionCount());
+        assertEquals(25 - concurrent.getSize(), concurrent.getStats().getEvictionCount());
+    }
+    
+    @Test
+    public void scheduledClearIsCountedAsClear() throws InterruptedException {
+        Cache cache = new CacheBuilder("scheduled").size(10).clearInterval(10L).build();
+        for (int i = 0; i < 5; i++) {
+            cache.putObject(i, i);
+        }
+        Thread.sleep(30);
+        cache.putObject("k", "v");
+        
+        CacheStats stats = cache.getStats();
+        assertEquals(0, stats.getEvictionCount());
+        assertEquals(1, stats.getClearCount());
+        
+        cache.clear();
+        assertEquals(2, stats.getClearCount());
+    }
+}
@@ -0,0 +1,112 @@
+package com.mybatis.test.cache;
+
+import com.mybatis.cache.CacheStats;
+import com.mybatis.cache.impl.ConcurrentCache;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ConcurrentCache测试
+ * 
+ * CLOCK淘汰：有访问标记的节点多给一次机会；多线程读写时容量不超过上限，
+ * 读到的值一定是这个key写入的值。
+ * 
+ * @author 学习者
+ */
+public class ConcurrentCacheTest {
+    
+    private static final int THREADS = 8;
+    
+    private static final int KEYS_PER_THREAD = 10000;
+    
+    @Test
+    public void referencedKeyGetsSecondChance() {
+        // 容量16时只有一个段，淘汰顺序是确定的
+        ConcurrentCache cache = new ConcurrentCache("clock");
+        cache.setSize(16);
+        for (int i = 0; i < 16; i++) {
+            cache.putObject("k" + i, i);
+        }
+        assertEquals(0, cache.getObject("k0"));
+        
+        cache.putObject("k16", 16);
+        
+        assertEquals(16, cache.getSize());
+        assertEquals(0, cache.getObject("k0"));
+        assertNull(cache.getObject("k1"));
+        assertEquals(16, cache.getObject("k16"));
+    }
+    
+    @Test
+    public void removedKeyCanBeWrittenAgain() {
+        ConcurrentCache cache = new ConcurrentCache("clockRemove");
+        cache.setSize(16);
+        cache.putObject("k", 1);
+        assertEquals(1, cache.removeObject("k"));
+        cache.putObject("k", 2);
+        // CLOCK队列里还留着第一次写入的节点，淘汰时必须跳过它而不是删掉新节点
+        for (int i = 0; i < 15; i++) {
+            cache.putObject("f" + i, i);
+        }
+        cache.getObject("k");
+        cache.putObject("extra", -1);
+        
+        assertEquals(16, cache.getSize());
+        assertEquals(2, cache.getObject("k"));
+    }
+    
+    @Test
+    public void staysBoundedUnderContention() throws Exception {
+        int size = 256;
+        ConcurrentCache cache = new ConcurrentCache("clockContention");
+        cache.setSize(size);
+        CacheStats stats = new CacheStats();
+        cache.setStats(stats);
+        
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                        String key = thread + ":" + i;
+                        cache.putObject(key, key);
+                        // 随机读一些自己写过的key，制造访问标记
+                        String probe = thread + ":" + random.nextInt(i + 1);
+                        Object value = cache.getObject(probe);
+                        if (value != null) {
+                            assertEquals(probe, value);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        int remaining = cache.getSize();
+        assertTrue("size=" + remaining, remaining <= size);
+        // 没有removeObject：每个写入的key要么还在，要么被淘汰过一次
+        assertEquals(THREADS * KEYS_PER_THREAD, remaining + stats.getEvictionCount());
+    }
+}
@@ -0,0 +1,76 @@
+package com.mybatis.test.cache;
+
+import com.mybatis.cache.CacheStats;
+import com.mybatis.cache.decorators.FifoCache;
+import com.mybatis.cache.decorators.SizeBoundedCache;
+import com.mybatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 按写入顺序淘汰的装饰器测试：FifoCache、SizeBoundedCache
+ * 
+ * @author 学习者
+ */
+public class EvictionOrderTest {
+    
+    @Test
+    public void fifoEvictsOldestAndSkipsRemovedKeys() {
+        FifoCache cache = new FifoCache(new PerpetualCache("fifo"));
+        CacheStats stats = new CacheStats();
+        cache.setStats(stats);
+        cache.setSize(2);
+        
+        cache.putObject("a", 1);
+        cache.putObject("b", 2);
+        // 更新已有的key不改变顺序
+        cache.putObject("a", 3);
+        cache.putObject("c", 4);
+        assertNull(cache.getObject("a"));
+        assertEquals(1, stats.getEvictionCount());
+        
+        // 移除的key不再占位置
+        cache.removeObject("b");
+        cache.putObject("d", 5);
+        assertNotNull(cache.getObject("c"));
+        assertNotNull(cache.getObject("d"));
+        assertEquals(1, stats.getEvictionCount());
+    }
+    
+    @Test
+    public void sizeBoundedEvictsOldestRowsFirst() {
+        SizeBoundedCache cache = new SizeBoundedCache(new PerpetualCache("rows"));
+        CacheStats stats = new CacheStats();
+        cache.setStats(stats);
+        cache.setMaxRows(5);
+        
+        cache.putObject("a", Arrays.asList(1, 2));
+        cache.putObject("b", Arrays.asList(1, 2));
+        cache.putObject("c", Collections.singletonList(1));
+        // 替换a：a的权重重新计算并移到最后
+        cache.putObject("a", Collections.singletonList(1));
+        cache.putObject("d", Arrays.asList(1, 2));
+        // 总行数 b2 + c1 + a1 + d2 = 6 > 5：移除最早的b
+        assertNull(cache.getObject("b"));
+        assertNotNull(cache.getObject("a"));
+        assertNotNull(cache.getObject("c"));
+        assertNotNull(cache.getObject("d"));
+        assertEquals(1, stats.getEvictionCount());
+        
+        // 超过maxRows的单个值不缓存
+        cache.putObject("big", Arrays.asList(1, 2, 3, 4, 5, 6));
+        assertNull(cache.getObject("big"));
+        
+        // 移除后释放行数：c1 + d2 + e2 = 5，不淘汰
+        cache.removeObject("a");
+        cache.putObject("e", Arrays.asList(1, 2));
+        assertNotNull(cache.getObject("c"));
+        assertEquals(1, stats.getEvictionCount());
+    }
+}
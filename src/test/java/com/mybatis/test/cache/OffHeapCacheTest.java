@@ -0,0 +1,145 @@
+package com.mybatis.test.cache;
+
+import com.mybatis.builder.xml.XMLMapperBuilder;
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheBuilder;
+import com.mybatis.cache.impl.JavaSerializationCodec;
+import com.mybatis.cache.impl.OffHeapCache;
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.session.Configuration;
+import com.mybatis.test.entity.Product;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * OffHeapCache测试
+ * 
+ * 写二级缓存发生在事务提交之后，结果对象不能序列化时不能抛异常，只是不缓存；
+ * 能在解析Mapper时发现的，直接在解析时报错。
+ * 
+ * OffHeapCache自己保证线程安全，解码在锁外进行，移除时不解码。
+ * 
+ * @author 学习者
+ */
+public class OffHeapCacheTest {
+    
+    @Test
+    public void unserializableValueIsSkipped() {
+        OffHeapCache cache = new OffHeapCache("offHeap");
+        cache.putObject("ok", Collections.singletonList("row"));
+        cache.putObject("bad", Collections.singletonList(new Product()));
+        cache.putObject("bad", Collections.singletonList(new Product()));
+        
+        assertNull(cache.getObject("bad"));
+        assertEquals(Collections.singletonList("row"), cache.getObject("ok"));
+        assertEquals(1, cache.getSize());
+    }
+    
+    @Test
+    public void unserializableResultTypeIsRejectedAtBuildTime() {
+        String xml = "<mapper namespace=\"offheap.ProductMapper\">"
+                + "<cache type=\"" + OffHeapCache.class.getName() + "\"/>"
+                + "<select id=\"selectAll\" resultType=\"" + Product.class.getName() + "\">SELECT * FROM product</select>"
+                + "</mapper>";
+        try {
+            new XMLMapperBuilder(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), new Configuration()).parse();
+            fail("resultType没有实现Serializable时应在解析时报错");
+        } catch (MyBatisException e) {
+            assertTrue(e.getMessage().contains(Product.class.getName()));
+        }
+    }
+    
+    @Test
+    public void useCacheFalseSkipsCheck() {
+        String xml = "<mapper namespace=\"offheap.ProductMapper2\">"
+                + "<cache type=\"" + OffHeapCache.class.getName() + "\"/>"
+                + "<select id=\"selectAll\" useCache=\"false\" resultType=\"" + Product.class.getName() + "\">"
+                + "SELECT * FROM product</select>"
+                + "</mapper>";
+        new XMLMapperBuilder(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), new Configuration()).parse();
+    }
+    
+    @Test
+    public void removeObjectFreesWithoutDecoding() {
+        CountingCodec codec = new CountingCodec();
+        OffHeapCache cache = new OffHeapCache("offHeapRemove");
+        cache.setCodec(codec);
+        cache.putObject("key", Collections.singletonList("row"));
+        assertTrue(cache.getMemoryBytes() > 0);
+        
+        assertNull(cache.removeObject("key"));
+        assertEquals(0, codec.decodes.get());
+        assertEquals(0, cache.getMemoryBytes());
+        assertNull(cache.getObject("key"));
+    }
+    
+    @Test
+    public void builderDoesNotAddGlobalLock() {
+        Cache cache = new CacheBuilder("offHeapBuilder").implementation(OffHeapCache.class).statistics(false).build();
+        assertTrue(cache instanceof OffHeapCache);
+    }
+    
+    @Test
+    public void concurrentReadsSeeWholeValues() throws Exception {
+        OffHeapCache cache = new OffHeapCache("offHeapConcurrent");
+        // slab很小，读写期间不断回收slab
+        cache.setSlabSize(4096);
+        cache.setMaxBytes(16384);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                String prefix = "t" + t + "-";
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        String key = prefix + (i % 50);
+                        List<String> value = Collections.singletonList(key + "#" + i);
+                        cache.putObject(key, value);
+                        Object read = cache.getObject(key);
+                        // 可能已经被其他线程的写入挤出去，但读到的一定是完整的某个版本
+                        if (read != null) {
+                            String row = ((List<?>) read).get(0).toString();
+                            assertTrue(row, row.startsWith(key + "#"));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertNotNull(cache.getCodec());
+    }
+    
+    /**
+     * 记录decode次数的编解码器
+     */
+    private static final class CountingCodec extends JavaSerializationCodec {
+        
+        private final AtomicInteger decodes = new AtomicInteger();
+        
+        @Override
+        public Object decode(byte[] bytes) {
+            decodes.incrementAndGet();
+            return super.decode(bytes);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.mybatis.test.cache;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.decorators.LruCache;
+import com.mybatis.cache.impl.PerpetualCache;
+import com.mybatis.cache.impl.TinyLfuCache;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TinyLfuCache命中率模拟
+ * 
+ * 用合成的访问序列分别回放到TinyLfuCache和LruCache，对比命中率：
+ * 1. Zipf分布：少量热点key占大部分访问（类似selectById）
+ * 2. Zipf + 周期性扫描：热点访问中间穿插一次性访问大量不同的key（类似全表扫描）
+ * 
+ * @author 学习者
+ */
+public class TinyLfuCacheSimulatorTest {
+    
+    private static final int CACHE_SIZE = 1000;
+    
+    private static final int KEY_SPACE = 100_000;
+    
+    private static final int ACCESSES = 500_000;
+    
+    @Test
+    public void zipfTrace() {
+        long[] trace = zipfTrace(ACCESSES, 0.9, new Random(42));
+        
+        double lfu = replay(newTinyLfu(), trace);
+        double lru = replay(newLru(), trace);
+        report("Zipf", lfu, lru);
+        
+        assertTrue("Zipf分布下TinyLFU命中率不应低于LRU", lfu >= lru);
+    }
+    
+    @Test
+    public void zipfWithScansTrace() {
+        long[] trace = withScans(zipfTrace(ACCESSES, 0.9, new Random(7)), 20_000, 5_000);
+        
+        double lfu = replay(newTinyLfu(), trace);
+        double lru = replay(newLru(), trace);
+        report("Zipf + 扫描", lfu, lru);
+        
+        assertTrue("扫描不应挤掉TinyLFU中的热点数据", lfu > lru + 0.05);
+    }
+    
+    @Test
+    public void basicOperations() {
+        TinyLfuCache cache = new TinyLfuCache("basic");
+        cache.setSize(10);
+        for (int i = 0; i < 100; i++) {
+            cache.putObject(i, "v" + i);
+        }
+        assertEquals(10, cache.getSize());
+        
+        cache.putObject("k", "v1");
+        cache.putObject("k", "v2");
+        assertEquals("v2", cache.getObject("k"));
+        assertEquals("v2", cache.removeObject("k"));
+        assertNull(cache.getObject("k"));
+        
+        cache.clear();
+        assertEquals(0, cache.getSize());
+    }
+    
+    private static double replay(Cache cache, long[] trace) {
+        int hits = 0;
+        for (long key : trace) {
+            if (cache.getObject(key) != null) {
+                hits++;
+            } else {
+                cache.putObject(key, Boolean.TRUE);
+            }
+        }
+        return (double) hits / trace.length;
+    }
+    
+    private static Cache newTinyLfu() {
+        TinyLfuCache cache = new TinyLfuCache("TinyLFU");
+        cache.setSize(CACHE_SIZE);
+        return cache;
+    }
+    
+    private static Cache newLru() {
+        LruCache cache = new LruCache(new PerpetualCache("LRU"));
+        cache.setSize(CACHE_SIZE);
+        return cache;
+    }
+    
+    private static void report(String name, double lfu, double lru) {
+        System.out.printf("%s: TinyLFU命中率=%.2f%%, LRU命中率=%.2f%%%n", name, lfu * 100, lru * 100);
+    }
+    
+    /**
+     * 按Zipf分布生成访问序列（key 0最热）
+     */
+    private static long[] zipfTrace(int length, double skew, Random random) {
+        double[] cdf = new double[KEY_SPACE];
+        double sum = 0;
+        for (int i = 0; i < KEY_SPACE; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        
+        long[] trace = new long[length];
+        for (int i = 0; i < length; i++) {
+            double target = random.nextDouble() * sum;
+            int low = 0;
+            int high = KEY_SPACE - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cdf[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            trace[i] = low;
+        }
+        return trace;
+    }
+    
+    /**
+     * 每隔interval次访问插入一次长度为scanLength的扫描（每次扫描的key都不重复）
+     */
+    private static long[] withScans(long[] trace, int interval, int scanLength) {
+        int scans = trace.length / interval;
+        long[] result = new long[trace.length + scans * scanLength];
+        long scanKey = KEY_SPACE;
+        int pos = 0;
+        for (int i = 0; i < trace.length; i++) {
+            if (i > 0 && i % interval == 0) {
+                for (int j = 0; j < scanLength; j++) {
+                    result[pos++] = scanKey++;
+                }
+            }
+            result[pos++] = trace[i];
+        }
+        return Arrays.copyOf(result, pos);
+    }
+}
+
@@ -0,0 +1,107 @@
+package com.mybatis.test.datasource;
+
+import com.mybatis.datasource.pooled.PoolState;
+import com.mybatis.datasource.pooled.PooledDataSource;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * PooledDataSource测试（内存H2）：空闲回收、补足最小空闲连接、泄漏检测、关闭
+ * 
+ * @author 学习者
+ */
+public class PooledDataSourceTest {
+    
+    private static final String DATABASE = "pooled";
+    
+    @Test
+    public void borrowEvictsIdleConnectionsDownToMinimum() throws Exception {
+        PooledDataSource dataSource = newDataSource();
+        try {
+            List<Connection> connections = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                connections.add(dataSource.getConnection());
+            }
+            for (Connection connection : connections) {
+                connection.close();
+            }
+            PoolState state = dataSource.getPoolState();
+            assertEquals(4, state.getIdleConnectionCount());
+            
+            Thread.sleep(150);
+            Connection connection = dataSource.getConnection();
+            // 4个空闲连接都超时了，回收到只剩2个，再借走1个
+            assertEquals(2, state.getEvictedIdleCount());
+            assertEquals(1, state.getIdleConnectionCount());
+            connection.close();
+        } finally {
+            dataSource.forceCloseAll();
+        }
+    }
+    
+    @Test
+    public void borrowRefillsIdleConnectionsToMinimum() throws Exception {
+        PooledDataSource dataSource = newDataSource();
+        try {
+            Connection first = dataSource.getConnection();
+            PoolState state = dataSource.getPoolState();
+            assertEquals(0, state.getIdleConnectionCount());
+            
+            Thread.sleep(150);
+            Connection second = dataSource.getConnection();
+            // 到了回收周期：借连接的同时把空闲连接补足到poolMinimumIdleConnections
+            assertEquals(2, state.getIdleConnectionCount());
+            assertEquals(2, state.getActiveConnectionCount());
+            second.close();
+            first.close();
+        } finally {
+            dataSource.forceCloseAll();
+        }
+    }
+    
+    @Test
+    public void leakedConnectionIsReportedOnce() throws Exception {
+        PooledDataSource dataSource = newDataSource();
+        dataSource.setPoolLeakDetectionThreshold(50);
+        try {
+            Connection leaked = dataSource.getConnection();
+            Thread.sleep(100);
+            dataSource.evictIdleConnections();
+            dataSource.evictIdleConnections();
+            assertEquals(1, dataSource.getPoolState().getLeakedConnectionCount());
+            leaked.close();
+        } finally {
+            dataSource.forceCloseAll();
+        }
+    }
+    
+    @Test
+    public void closingFactoryClosesPooledConnections() throws SQLException {
+        SqlSessionFactory factory = H2Support.buildFactory(DATABASE);
+        SqlSession session = factory.openSession();
+        session.close();
+        PooledDataSource dataSource = (PooledDataSource) factory.getConfiguration().getDataSource();
+        assertEquals(1, dataSource.getPoolState().getIdleConnectionCount());
+        
+        factory.close();
+        assertEquals(0, dataSource.getPoolState().getIdleConnectionCount());
+        assertEquals(0, dataSource.getPoolState().getActiveConnectionCount());
+    }
+    
+    private static PooledDataSource newDataSource() {
+        PooledDataSource dataSource = new PooledDataSource("org.h2.Driver", H2Support.url(DATABASE), "sa", "");
+        dataSource.setPoolMinimumIdleConnections(2);
+        dataSource.setPoolIdleTimeout(50);
+        dataSource.setPoolTimeBetweenEvictionRuns(100);
+        return dataSource;
+    }
+}
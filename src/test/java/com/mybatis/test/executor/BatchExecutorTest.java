@@ -0,0 +1,152 @@
+package com.mybatis.test.executor;
+
+import com.mybatis.executor.BatchExecutor;
+import com.mybatis.executor.BatchResult;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BatchExecutor测试（内存H2）
+ * 
+ * @author 学习者
+ */
+public class BatchExecutorTest {
+    
+    private static final String DATABASE = "batch";
+    
+    private static final String INSERT_ID = "batchTest.insert";
+    
+    private static final String BUMP_ID = "batchTest.bump";
+    
+    private static final String COUNT_ID = "batchTest.count";
+    
+    private SqlSessionFactory factory;
+    
+    @Before
+    public void setUp() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS batch_row (id BIGINT PRIMARY KEY, qty INT)",
+                "DELETE FROM batch_row");
+        factory = H2Support.buildFactory(DATABASE, H2Support.setting("defaultExecutorType", "BATCH")
+                + H2Support.setting("batchSize", 2), "");
+        Configuration configuration = factory.getConfiguration();
+        addStatement(configuration, INSERT_ID, SqlCommandType.INSERT,
+                "INSERT INTO batch_row (id, qty) VALUES (#{id}, 0)", Long.class, null);
+        addStatement(configuration, BUMP_ID, SqlCommandType.UPDATE,
+                "UPDATE batch_row SET qty = qty + 1", null, null);
+        addStatement(configuration, COUNT_ID, SqlCommandType.SELECT,
+                "SELECT COUNT(*) FROM batch_row", null, Long.class);
+    }
+    
+    @Test
+    public void consecutiveUpdatesShareOneBatchResult() {
+        SqlSession session = factory.openSession();
+        try {
+            for (long id = 1; id <= 5; id++) {
+                assertEquals(BatchExecutor.BATCH_UPDATE_RETURN_VALUE, session.insert(INSERT_ID, id));
+            }
+            List<BatchResult> results = session.flushStatements();
+            // batchSize=2分成了3次executeBatch，结果合并成一个
+            assertEquals(1, results.size());
+            assertEquals(INSERT_ID, results.get(0).getMappedStatement().getId());
+            assertArrayEquals(new int[] {1, 1, 1, 1, 1}, results.get(0).getUpdateCounts());
+            session.commit();
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Test
+    public void statementChangeStartsNewBatch() {
+        SqlSession session = factory.openSession();
+        try {
+            session.insert(INSERT_ID, 1L);
+            session.insert(INSERT_ID, 2L);
+            session.update(BUMP_ID, null);
+            session.insert(INSERT_ID, 3L);
+            List<BatchResult> results = session.flushStatements();
+            assertEquals(3, results.size());
+            assertArrayEquals(new int[] {1, 1}, results.get(0).getUpdateCounts());
+            assertEquals(BUMP_ID, results.get(1).getMappedStatement().getId());
+            assertArrayEquals(new int[] {2}, results.get(1).getUpdateCounts());
+            assertArrayEquals(new int[] {1}, results.get(2).getUpdateCounts());
+            session.commit();
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Test
+    public void selectFlushesPendingBatch() {
+        SqlSession session = factory.openSession();
+        try {
+            session.insert(INSERT_ID, 1L);
+            assertEquals(Long.valueOf(1), session.selectOne(COUNT_ID, null));
+            // 查询前执行过的批次仍然由flushStatements()返回
+            List<BatchResult> results = session.flushStatements();
+            assertEquals(1, results.size());
+            session.commit();
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Test
+    public void commitExecutesAndClearsBatches() {
+        SqlSession session = factory.openSession();
+        try {
+            session.insert(INSERT_ID, 1L);
+            session.commit();
+            assertTrue(session.flushStatements().isEmpty());
+        } finally {
+            session.close();
+        }
+        assertEquals(1L, count());
+    }
+    
+    @Test
+    public void rollbackDiscardsBatches() {
+        SqlSession session = factory.openSession();
+        try {
+            session.insert(INSERT_ID, 1L);
+            session.rollback();
+            assertTrue(session.flushStatements().isEmpty());
+            session.commit();
+        } finally {
+            session.close();
+        }
+        assertEquals(0L, count());
+    }
+    
+    private long count() {
+        SqlSession session = factory.openSession(true);
+        try {
+            Long count = session.selectOne(COUNT_ID, null);
+            return count;
+        } finally {
+            session.close();
+        }
+    }
+    
+    private static void addStatement(Configuration configuration, String id, SqlCommandType type, String sql,
+                                     Class<?> parameterType, Class<?> resultType) {
+        configuration.addMappedStatement(id, new MappedStatement.Builder(configuration, id, type)
+                .sql(sql)
+                .parameterType(parameterType)
+                .resultType(resultType)
+                .build());
+    }
+}
@@ -0,0 +1,77 @@
+package com.mybatis.test.executor;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheBuilder;
+import com.mybatis.cache.CacheKey;
+import com.mybatis.cache.TableTaggedValue;
+import com.mybatis.executor.CacheRefresher;
+import com.mybatis.executor.SimpleExecutor;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CacheRefresher测试（内存H2）
+ * 
+ * 后台刷新用的是调用方的参数对象：提交刷新之后参数被修改时，不能把新参数的结果写到原来的key下。
+ * 
+ * @author 学习者
+ */
+public class CacheRefresherTest {
+    
+    private static final String DATABASE = "refresher";
+    
+    private static final String STATEMENT_ID = "refresh.byId";
+    
+    @Test
+    public void mutatedParameterIsNotWrittenUnderOldKey() throws Exception {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS refresh_item (id BIGINT PRIMARY KEY, name VARCHAR(20))",
+                "MERGE INTO refresh_item KEY (id) VALUES (1, 'one'), (2, 'two')");
+        SqlSessionFactory factory = H2Support.buildFactory(DATABASE);
+        Configuration configuration = factory.getConfiguration();
+        Cache cache = new CacheBuilder("refresh").build();
+        configuration.addCache(cache);
+        MappedStatement ms = new MappedStatement.Builder(configuration, STATEMENT_ID, SqlCommandType.SELECT)
+                .sql("SELECT name FROM refresh_item WHERE id = #{id}")
+                .parameterType(Map.class)
+                .resultType(String.class)
+                .cache(cache)
+                .build();
+        configuration.addMappedStatement(STATEMENT_ID, ms);
+        
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put("id", 1L);
+        CacheKey key = new SimpleExecutor(configuration, null).createCacheKey(ms, parameter);
+        
+        CacheRefresher refresher = configuration.getCacheRefresher();
+        
+        // 提交刷新后调用方改了参数：跳过
+        parameter.put("id", 2L);
+        refresher.refresh(ms, parameter, key);
+        Thread.sleep(500);
+        assertNull(cache.getObject(key));
+        
+        // 参数没变：正常写入
+        parameter.put("id", 1L);
+        refresher.refresh(ms, parameter, key);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getObject(key) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Object cached = cache.getObject(key);
+        assertTrue(cached instanceof TableTaggedValue);
+        assertEquals(Collections.singletonList("one"), ((TableTaggedValue) cached).getValue());
+    }
+}
@@ -0,0 +1,68 @@
+package com.mybatis.test.executor;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheBuilder;
+import com.mybatis.cache.TableVersions;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * CachingExecutor + BatchExecutor（autoCommit）测试（内存H2）
+ * 
+ * 批处理执行之前不能增加表的版本号：否则其他会话拿到新版本号后读到的还是旧数据，
+ * 会被当成最新结果缓存起来。
+ * 
+ * @author 学习者
+ */
+public class CachingExecutorBatchTest {
+    
+    private static final String DATABASE = "cachingBatch";
+    
+    private static final String STATEMENT_ID = "batch.updateQty";
+    
+    @Test
+    public void tableVersionBumpedAfterBatchExecutes() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS batch_item (id BIGINT PRIMARY KEY, qty INT)",
+                "MERGE INTO batch_item KEY (id) VALUES (1, 0)");
+        SqlSessionFactory factory = buildFactory();
+        TableVersions tableVersions = factory.getConfiguration().getTableVersions();
+        String[] tables = {"batch_item"};
+        long before = tableVersions.snapshot(tables)[0];
+        
+        SqlSession session = factory.openSession(true);
+        try {
+            session.update(STATEMENT_ID, 1L);
+            assertEquals("批处理还没执行，版本号不应增加", before, tableVersions.snapshot(tables)[0]);
+            
+            session.flushStatements();
+            assertEquals(before + 1, tableVersions.snapshot(tables)[0]);
+        } finally {
+            session.close();
+        }
+    }
+    
+    private static SqlSessionFactory buildFactory() {
+        SqlSessionFactory factory = H2Support.buildFactory(DATABASE, H2Support.setting("defaultExecutorType", "BATCH"), "");
+        
+        Configuration configuration = factory.getConfiguration();
+        Cache cache = new CacheBuilder("batch").build();
+        configuration.addCache(cache);
+        configuration.addMappedStatement(STATEMENT_ID,
+                new MappedStatement.Builder(configuration, STATEMENT_ID, SqlCommandType.UPDATE)
+                        .sql("UPDATE batch_item SET qty = qty + 1 WHERE id = #{id}")
+                        .parameterType(Long.class)
+                        .cache(cache)
+                        .build());
+        return factory;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mybatis.test.executor;
+
+import com.mybatis.cache.Cache;
+import com.mybatis.cache.CacheBuilder;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 解析不出写了哪些表时的二级缓存失效测试（内存H2）
+ * 
+ * 写入语句不知道写了哪些表时，提交后所有namespace里的缓存结果都要过期，
+ * 包括能确定读了哪些表的查询。
+ * 
+ * @author 学习者
+ */
+public class CachingExecutorEpochTest {
+    
+    private static final String DATABASE = "cachingEpoch";
+    
+    private static final String SELECT_ID = "reader.nameById";
+    
+    private static final String UPDATE_ID = "writer.rename";
+    
+    @Test
+    public void unknownTableWriteInvalidatesOtherNamespaces() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS epoch_item (id BIGINT PRIMARY KEY, name VARCHAR(20))",
+                "MERGE INTO epoch_item KEY (id) VALUES (1, 'old')");
+        SqlSessionFactory factory = buildFactory();
+        
+        assertEquals("old", selectName(factory));
+        // 绕过框架直接改库：还能读到旧值，说明确实走了二级缓存
+        H2Support.execute(DATABASE, "UPDATE epoch_item SET name = 'direct' WHERE id = 1");
+        assertEquals("old", selectName(factory));
+        
+        SqlSession session = factory.openSession();
+        try {
+            session.update(UPDATE_ID, 1L);
+            session.commit();
+        } finally {
+            session.close();
+        }
+        assertEquals("new", selectName(factory));
+    }
+    
+    private static String selectName(SqlSessionFactory factory) {
+        SqlSession session = factory.openSession(true);
+        try {
+            return session.selectOne(SELECT_ID, 1L);
+        } finally {
+            session.close();
+        }
+    }
+    
+    private static SqlSessionFactory buildFactory() {
+        SqlSessionFactory factory = H2Support.buildFactory(DATABASE);
+        Configuration configuration = factory.getConfiguration();
+        
+        Cache readerCache = new CacheBuilder("reader").build();
+        configuration.addCache(readerCache);
+        configuration.addMappedStatement(SELECT_ID,
+                new MappedStatement.Builder(configuration, SELECT_ID, SqlCommandType.SELECT)
+                        .sql("SELECT name FROM epoch_item WHERE id = #{id}")
+                        .parameterType(Long.class)
+                        .resultType(String.class)
+                        .useCache(true)
+                        .cache(readerCache)
+                        .tables(Collections.singleton("epoch_item"), Collections.emptySet())
+                        .build());
+        
+        Cache writerCache = new CacheBuilder("writer").build();
+        configuration.addCache(writerCache);
+        configuration.addMappedStatement(UPDATE_ID,
+                new MappedStatement.Builder(configuration, UPDATE_ID, SqlCommandType.UPDATE)
+                        .sql("UPDATE epoch_item SET name = 'new' WHERE id = #{id}")
+                        .parameterType(Long.class)
+                        .cache(writerCache)
+                        .tables(null, null)
+                        .build());
+        return factory;
+    }
+}
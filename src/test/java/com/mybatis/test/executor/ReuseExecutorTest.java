@@ -0,0 +1,138 @@
+package com.mybatis.test.executor;
+
+import com.mybatis.executor.ReuseExecutor;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.test.support.H2Support;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ReuseExecutor测试（内存H2）
+ * 
+ * 连接用代理包一层，记录预编译了哪些Statement。
+ * 
+ * @author 学习者
+ */
+public class ReuseExecutorTest {
+    
+    private static final String DATABASE = "reuse";
+    
+    private static final String NAME_ID = "reuseTest.name";
+    
+    private static final String QTY_ID = "reuseTest.qty";
+    
+    private static final String CODE_ID = "reuseTest.code";
+    
+    private Configuration configuration;
+    
+    private Connection target;
+    
+    /**
+     * 预编译出来的Statement（按创建顺序）
+     */
+    private final List<Statement> prepared = new ArrayList<>();
+    
+    @Before
+    public void setUp() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS reuse_item (id BIGINT PRIMARY KEY, name VARCHAR(20), qty INT, code VARCHAR(20))",
+                "MERGE INTO reuse_item KEY (id) VALUES (1, 'a', 10, 'x1'), (2, 'b', 20, 'x2')");
+        configuration = H2Support.buildFactory(DATABASE).getConfiguration();
+        addSelect(NAME_ID, "SELECT name FROM reuse_item WHERE id = #{id}", String.class);
+        addSelect(QTY_ID, "SELECT qty FROM reuse_item WHERE id = #{id}", Integer.class);
+        addSelect(CODE_ID, "SELECT code FROM reuse_item WHERE id = #{id}", String.class);
+        target = DriverManager.getConnection(H2Support.url(DATABASE), "sa", "");
+    }
+    
+    @After
+    public void tearDown() throws SQLException {
+        target.close();
+    }
+    
+    @Test
+    public void zeroCacheSizeStillReusesOneStatement() throws SQLException {
+        configuration.setStatementCacheSize(0);
+        ReuseExecutor executor = new ReuseExecutor(configuration, countingConnection());
+        
+        // 上限为0时如果不按1处理，put之后Statement立即被关闭，这里会拿到已关闭的Statement
+        assertEquals(Collections.singletonList("a"), executor.query(NAME_ID, 1L));
+        assertEquals(Collections.singletonList("b"), executor.query(NAME_ID, 2L));
+        assertEquals(1, prepared.size());
+        
+        executor.close();
+        assertTrue(prepared.get(0).isClosed());
+    }
+    
+    @Test
+    public void leastRecentlyUsedStatementIsClosedWhenFull() throws SQLException {
+        configuration.setStatementCacheSize(2);
+        ReuseExecutor executor = new ReuseExecutor(configuration, countingConnection());
+        
+        executor.query(NAME_ID, 1L);
+        executor.query(QTY_ID, 1L);
+        // 访问一次NAME，QTY变成最久未使用
+        executor.query(NAME_ID, 2L);
+        executor.query(CODE_ID, 1L);
+        
+        assertEquals(3, prepared.size());
+        Statement name = prepared.get(0);
+        Statement qty = prepared.get(1);
+        Statement code = prepared.get(2);
+        assertFalse(name.isClosed());
+        assertTrue(qty.isClosed());
+        assertFalse(code.isClosed());
+        
+        // 被淘汰的语句再执行时重新预编译
+        assertEquals(Collections.singletonList(20), executor.query(QTY_ID, 2L));
+        assertEquals(4, prepared.size());
+        
+        executor.close();
+        for (Statement statement : prepared) {
+            assertTrue(statement.isClosed());
+        }
+    }
+    
+    private void addSelect(String id, String sql, Class<?> resultType) {
+        configuration.addMappedStatement(id, new MappedStatement.Builder(configuration, id, SqlCommandType.SELECT)
+                .sql(sql)
+                .parameterType(Long.class)
+                .resultType(resultType)
+                .build());
+    }
+    
+    /**
+     * 记录prepareStatement结果的连接代理
+     */
+    private Connection countingConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if ("prepareStatement".equals(method.getName())) {
+                        prepared.add((Statement) result);
+                    }
+                    return result;
+                });
+    }
+}
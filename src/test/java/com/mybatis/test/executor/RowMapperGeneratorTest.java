@@ -0,0 +1,249 @@
+package com.mybatis.test.executor;
+
+import com.mybatis.executor.resultset.RowMapper;
+import com.mybatis.executor.resultset.RowMapperGenerator;
+import com.mybatis.executor.resultset.RowMappingPlan;
+import com.mybatis.test.support.H2Support;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RowMapperGenerator测试（内存H2）
+ * 
+ * 生成的行映射器和反射映射（RowMappingPlan）的结果必须一致，
+ * 不能生成时回退到RowMappingPlan。
+ * 
+ * @author 学习者
+ */
+public class RowMapperGeneratorTest {
+    
+    private static final String DATABASE = "rowMapper";
+    
+    private static final String SELECT = "SELECT id, qty, price, amount, active, created_at, birthday, name"
+            + " FROM mapper_row ORDER BY id";
+    
+    @BeforeClass
+    public static void createTable() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS mapper_row (id BIGINT PRIMARY KEY, qty INT, price DOUBLE,"
+                        + " amount DECIMAL(10, 2), active BOOLEAN, created_at TIMESTAMP, birthday DATE,"
+                        + " name VARCHAR(20), at_time TIME)",
+                "MERGE INTO mapper_row KEY (id) VALUES"
+                        + " (1, 3, 9.5, 12.34, TRUE, TIMESTAMP '2024-01-02 03:04:05', DATE '2000-01-31', 'one', TIME '10:20:30'),"
+                        + " (2, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL)");
+    }
+    
+    @Test
+    public void generatedMapperReadsPrimitiveBoxedAndTemporalColumns() throws SQLException {
+        List<Row> rows = map(SELECT, Row.class, true);
+        
+        Row first = rows.get(0);
+        assertEquals(1L, first.getId());
+        assertEquals(Integer.valueOf(3), first.getQty());
+        assertEquals(9.5, first.getPrice(), 0.0);
+        assertEquals(new BigDecimal("12.34"), first.getAmount());
+        assertTrue(first.isActive());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), first.getCreatedAt());
+        assertEquals(LocalDate.of(2000, 1, 31), first.getBirthday());
+        assertEquals("one", first.getName());
+    }
+    
+    @Test
+    public void sqlNullLeavesPropertyUntouched() throws SQLException {
+        Row second = map(SELECT, Row.class, true).get(1);
+        // 基本类型属性保留默认值，包装类型和引用类型为null
+        assertEquals(-1.0, second.getPrice(), 0.0);
+        assertFalse(second.isActive());
+        assertNull(second.getQty());
+        assertNull(second.getAmount());
+        assertNull(second.getCreatedAt());
+        assertNull(second.getBirthday());
+        assertNull(second.getName());
+    }
+    
+    @Test
+    public void generatedMapperMatchesReflectionMapper() throws SQLException {
+        assertEquals(map(SELECT, Row.class, false), map(SELECT, Row.class, true));
+    }
+    
+    @Test
+    public void unsupportedPropertyFallsBackToReflection() throws SQLException {
+        assertTrue(mapperFor("SELECT id, at_time FROM mapper_row", TimeRow.class) instanceof RowMappingPlan);
+        assertFalse(mapperFor(SELECT, Row.class) instanceof RowMappingPlan);
+        
+        List<TimeRow> rows = map("SELECT id, at_time FROM mapper_row ORDER BY id", TimeRow.class, true);
+        assertEquals(LocalTime.of(10, 20, 30), rows.get(0).getAtTime());
+        assertNull(rows.get(1).getAtTime());
+    }
+    
+    @Test
+    public void nonPublicTypeFallsBackToReflection() throws SQLException {
+        assertTrue(mapperFor("SELECT id FROM mapper_row", HiddenRow.class) instanceof RowMappingPlan);
+    }
+    
+    private static RowMapper<?> mapperFor(String sql, Class<?> type) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(H2Support.url(DATABASE), "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return RowMapperGenerator.forResultSet(type, rs.getMetaData());
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> map(String sql, Class<T> type, boolean generated) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(H2Support.url(DATABASE), "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            RowMapper<?> mapper = generated
+                    ? RowMapperGenerator.forResultSet(type, rs.getMetaData())
+                    : RowMappingPlan.forResultSet(type, rs.getMetaData());
+            List<T> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add((T) mapper.mapRow(rs));
+            }
+            return rows;
+        }
+    }
+    
+    public static class Row {
+        private long id;
+        private Integer qty;
+        private double price = -1.0;
+        private BigDecimal amount;
+        private boolean active;
+        private LocalDateTime createdAt;
+        private LocalDate birthday;
+        private String name;
+        
+        public long getId() {
+            return id;
+        }
+        
+        public void setId(long id) {
+            this.id = id;
+        }
+        
+        public Integer getQty() {
+            return qty;
+        }
+        
+        public void setQty(Integer qty) {
+            this.qty = qty;
+        }
+        
+        public double getPrice() {
+            return price;
+        }
+        
+        public void setPrice(double price) {
+            this.price = price;
+        }
+        
+        public BigDecimal getAmount() {
+            return amount;
+        }
+        
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+        
+        public boolean isActive() {
+            return active;
+        }
+        
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+        
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+        
+        public void setCreatedAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+        }
+        
+        public LocalDate getBirthday() {
+            return birthday;
+        }
+        
+        public void setBirthday(LocalDate birthday) {
+            this.birthday = birthday;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Row)) {
+                return false;
+            }
+            Row row = (Row) o;
+            return id == row.id && Double.compare(price, row.price) == 0 && active == row.active
+                    && Objects.equals(qty, row.qty) && Objects.equals(amount, row.amount)
+                    && Objects.equals(createdAt, row.createdAt) && Objects.equals(birthday, row.birthday)
+                    && Objects.equals(name, row.name);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, qty, price, amount, active, createdAt, birthday, name);
+        }
+    }
+    
+    /**
+     * LocalTime不在字节码生成的支持范围内
+     */
+    public static class TimeRow {
+        private Long id;
+        private LocalTime atTime;
+        
+        public Long getId() {
+            return id;
+        }
+        
+        public void setId(Long id) {
+            this.id = id;
+        }
+        
+        public LocalTime getAtTime() {
+            return atTime;
+        }
+        
+        public void setAtTime(LocalTime atTime) {
+            this.atTime = atTime;
+        }
+    }
+    
+    static class HiddenRow {
+        private Long id;
+        
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+}
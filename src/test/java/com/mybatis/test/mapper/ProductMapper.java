@@ -1,7 +1,9 @@
 package com.mybatis.test.mapper;
 
+import com.mybatis.annotations.Param;
 import com.mybatis.test.entity.Product;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -46,6 +48,15 @@ public interface ProductMapper {
      */
     List<Product> selectByCategory(String category);
     
+    /**
+     * 按价格区间查询商品
+     * 
+     * @param min 最低价格（包含）
+     * @param max 最高价格（包含）
+     * @return 价格在区间内的商品，按价格升序
+     */
+    List<Product> selectByPriceRange(@Param("min") BigDecimal min, @Param("max") BigDecimal max);
+    
     /**
      * 插入商品
      * 
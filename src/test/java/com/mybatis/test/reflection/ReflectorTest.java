@@ -0,0 +1,160 @@
+package com.mybatis.test.reflection;
+
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.reflection.Reflector;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Reflector测试
+ * 
+ * getter/setter和字段都转换成MethodHandle访问；非public的类、private字段也要能读写。
+ * 
+ * @author 学习者
+ */
+public class ReflectorTest {
+    
+    /**
+     * 父类字段：没有getter/setter，直接访问字段
+     */
+    private static class BaseRow {
+        
+        private Long id;
+    }
+    
+    /**
+     * 非public类，混合了getter/setter、只有字段、final字段的属性
+     */
+    private static class Row extends BaseRow {
+        
+        private String name;
+        
+        private int qty;
+        
+        private boolean active;
+        
+        private String url;
+        
+        private final String code = "fixed";
+        
+        private String note;
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            // 经过setter写入，和直接写字段区分开
+            this.name = name == null ? null : name.trim();
+        }
+        
+        public int getQty() {
+            return qty;
+        }
+        
+        public void setQty(int qty) {
+            this.qty = qty;
+        }
+        
+        public boolean isActive() {
+            return active;
+        }
+        
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+        
+        public String getURL() {
+            return url;
+        }
+    }
+    
+    /**
+     * 没有无参构造器
+     */
+    private static class NoDefault {
+        
+        private final String value;
+        
+        NoDefault(String value) {
+            this.value = value;
+        }
+    }
+    
+    @Test
+    public void reflectorIsCachedPerClass() {
+        assertSame(Reflector.forClass(Row.class), Reflector.forClass(Row.class));
+    }
+    
+    @Test
+    public void accessorsAndFieldsAreReadable() {
+        Reflector reflector = Reflector.forClass(Row.class);
+        Row row = (Row) reflector.newInstance();
+        
+        reflector.setValue(row, "id", 7L);
+        reflector.setValue(row, "name", "  widget ");
+        reflector.setValue(row, "qty", 3);
+        reflector.setValue(row, "active", Boolean.TRUE);
+        reflector.setValue(row, "note", "n");
+        
+        assertEquals(7L, reflector.getValue(row, "id"));
+        assertEquals("widget", reflector.getValue(row, "name"));
+        assertEquals(3, reflector.getValue(row, "qty"));
+        assertEquals(Boolean.TRUE, reflector.getValue(row, "active"));
+        assertEquals("n", reflector.getValue(row, "note"));
+        assertEquals("fixed", reflector.getValue(row, "code"));
+    }
+    
+    @Test
+    public void propertyMetadata() {
+        Reflector reflector = Reflector.forClass(Row.class);
+        
+        assertEquals(int.class, reflector.getSetterType("qty"));
+        assertEquals(Long.class, reflector.getGetterType("id"));
+        assertNotNull(reflector.getSetterMethod("name"));
+        // 通过字段赋值的属性没有setter方法
+        assertNull(reflector.getSetterMethod("note"));
+        // getURL连续大写，属性名保持URL
+        assertTrue(reflector.hasGetter("URL"));
+        // final字段只读
+        assertTrue(reflector.hasGetter("code"));
+        assertFalse(reflector.hasSetter("code"));
+    }
+    
+    @Test
+    public void invalidAccessFailsWithPropertyName() {
+        Reflector reflector = Reflector.forClass(Row.class);
+        Row row = new Row();
+        
+        assertFails(() -> reflector.getValue(row, "missing"), "missing");
+        assertFails(() -> reflector.setValue(row, "code", "x"), "code");
+        // null不能拆箱成int
+        assertFails(() -> reflector.setValue(row, "qty", null), "qty");
+        assertFails(() -> reflector.setValue(row, "qty", "3"), "qty");
+    }
+    
+    @Test
+    public void classWithoutDefaultConstructor() {
+        Reflector reflector = Reflector.forClass(NoDefault.class);
+        
+        assertFalse(reflector.hasDefaultConstructor());
+        assertEquals("v", reflector.getValue(new NoDefault("v"), "value"));
+        assertFails(reflector::newInstance, NoDefault.class.getName());
+    }
+    
+    private static void assertFails(Runnable action, String expectedInMessage) {
+        try {
+            action.run();
+            fail("应该抛出MyBatisException");
+        } catch (MyBatisException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(expectedInMessage));
+        }
+    }
+}
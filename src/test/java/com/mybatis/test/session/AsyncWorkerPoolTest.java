@@ -0,0 +1,163 @@
+package com.mybatis.test.session;
+
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.AsyncWorkerPool;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 异步Mapper方法和AsyncWorkerPool测试（内存H2，平台线程池：1个线程、队列长度1）
+ * 
+ * @author 学习者
+ */
+public class AsyncWorkerPoolTest {
+    
+    private static final String DATABASE = "asyncWorker";
+    
+    public interface AsyncMapper {
+        
+        CompletableFuture<List<String>> selectNames();
+        
+        CompletableFuture<String> selectName(Long id);
+    }
+    
+    private SqlSessionFactory factory;
+    
+    @Before
+    public void setUp() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS async_item (id BIGINT PRIMARY KEY, name VARCHAR(20))",
+                "MERGE INTO async_item KEY (id) VALUES (1, 'a'), (2, 'b')");
+        factory = H2Support.buildFactory(DATABASE, H2Support.setting("asyncWorkerThreads", 1)
+                + H2Support.setting("asyncWorkerQueueSize", 1), "");
+        Configuration configuration = factory.getConfiguration();
+        String namespace = AsyncMapper.class.getName();
+        addStatement(configuration, namespace + ".selectNames", "SELECT name FROM async_item ORDER BY id", null);
+        addStatement(configuration, namespace + ".selectName", "SELECT name FROM async_item WHERE id = #{id}", Long.class);
+        configuration.addMapper(AsyncMapper.class);
+    }
+    
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+    
+    @Test
+    public void asyncListAndSingleRow() throws Exception {
+        SqlSession session = factory.openSession(true);
+        try {
+            AsyncMapper mapper = session.getMapper(AsyncMapper.class);
+            CompletableFuture<List<String>> names = mapper.selectNames();
+            CompletableFuture<String> name = mapper.selectName(2L);
+            assertEquals(Arrays.asList("a", "b"), names.get(5, TimeUnit.SECONDS));
+            assertEquals("b", name.get(5, TimeUnit.SECONDS));
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Test
+    public void fullQueueRejectsImmediately() throws Exception {
+        AsyncWorkerPool pool = factory.getConfiguration().getAsyncWorkerPool();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> running = pool.submit("blocking", session -> {
+            started.countDown();
+            await(release);
+            return "done";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> queued = pool.submit("queued", session -> "queued");
+        CompletableFuture<Object> rejected = pool.submit("rejected", session -> "rejected");
+        
+        assertTrue(rejected.isCompletedExceptionally());
+        assertTrue(causeOf(rejected).getMessage().contains("队列已满"));
+        
+        release.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void submitRacingShutdownIsReportedAsShutDown() throws Exception {
+        // 队列足够大：被拒绝只可能是因为取到的线程池刚被关闭
+        factory.getConfiguration().setAsyncWorkerQueueSize(10000);
+        AsyncWorkerPool pool = factory.getConfiguration().getAsyncWorkerPool();
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread closer = new Thread(() -> {
+            while (!stop.get()) {
+                try {
+                    pool.shutdown(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        closer.start();
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2000; i++) {
+                futures.add(pool.submit("race", session -> null));
+            }
+        } finally {
+            stop.set(true);
+            closer.join();
+        }
+        for (CompletableFuture<Object> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                String message = e.getCause().getMessage();
+                assertTrue(message, message.contains("已关闭"));
+            }
+        }
+    }
+    
+    private static Throwable causeOf(CompletableFuture<?> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("应该以异常结束");
+            return null;
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof MyBatisException);
+            return e.getCause();
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void addStatement(Configuration configuration, String id, String sql, Class<?> parameterType) {
+        configuration.addMappedStatement(id, new MappedStatement.Builder(configuration, id, SqlCommandType.SELECT)
+                .sql(sql)
+                .parameterType(parameterType)
+                .resultType(String.class)
+                .build());
+    }
+}
@@ -0,0 +1,98 @@
+package com.mybatis.test.session;
+
+import com.mybatis.cursor.Cursor;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.DefaultSqlSession;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DefaultSqlSession登记游标测试（内存H2）
+ * 
+ * 会话只保留还打开着的游标；关闭会话时关闭剩下的游标。
+ * 
+ * @author 学习者
+ */
+public class DefaultSqlSessionCursorTest {
+    
+    private static final String DATABASE = "sessionCursor";
+    
+    private static final String SELECT_NAMES = "sessionCursor.selectNames";
+    
+    private SqlSessionFactory factory;
+    
+    @Before
+    public void setUp() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS cursor_item (id BIGINT PRIMARY KEY, name VARCHAR(20))",
+                "MERGE INTO cursor_item KEY (id) VALUES (1, 'a'), (2, 'b'), (3, 'c')");
+        factory = H2Support.buildFactory(DATABASE);
+        Configuration configuration = factory.getConfiguration();
+        configuration.addMappedStatement(SELECT_NAMES,
+                new MappedStatement.Builder(configuration, SELECT_NAMES, SqlCommandType.SELECT)
+                        .sql("SELECT name FROM cursor_item ORDER BY id")
+                        .resultType(String.class)
+                        .build());
+    }
+    
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+    
+    @Test
+    public void consumedAndClosedCursorsAreNotKept() throws Exception {
+        SqlSession session = factory.openSession();
+        try {
+            for (int i = 0; i < 100; i++) {
+                Cursor<String> cursor = session.selectCursor(SELECT_NAMES, null);
+                if (i % 2 == 0) {
+                    int rows = 0;
+                    for (String ignored : cursor) {
+                        rows++;
+                    }
+                    assertEquals(3, rows);
+                    assertTrue(cursor.isConsumed());
+                } else {
+                    cursor.close();
+                }
+            }
+            Cursor<String> open = session.selectCursor(SELECT_NAMES, null);
+            
+            assertEquals(1, cursorList(session).size());
+            assertTrue(open.isOpen());
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Test
+    public void closingSessionClosesOpenCursors() {
+        SqlSession session = factory.openSession();
+        Cursor<String> cursor = session.selectCursor(SELECT_NAMES, null);
+        assertTrue(cursor.iterator().hasNext());
+        session.close();
+        
+        assertFalse(cursor.isOpen());
+    }
+    
+    private static List<?> cursorList(SqlSession session) throws Exception {
+        Field field = DefaultSqlSession.class.getDeclaredField("cursorList");
+        field.setAccessible(true);
+        return (List<?>) field.get(session);
+    }
+}
@@ -0,0 +1,153 @@
+package com.mybatis.test.session;
+
+import com.mybatis.exceptions.MyBatisException;
+import com.mybatis.mapping.MappedStatement;
+import com.mybatis.mapping.SqlCommandType;
+import com.mybatis.session.Configuration;
+import com.mybatis.session.ResultContext;
+import com.mybatis.session.ResultHandler;
+import com.mybatis.session.SqlSession;
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.test.support.H2Support;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * ResultHandler回调查询测试（内存H2）
+ * 
+ * @author 学习者
+ */
+public class ResultHandlerTest {
+    
+    private static final String DATABASE = "resultHandler";
+    
+    private static final String NAMES_ID = "resultHandlerTest.names";
+    
+    private static final String NAME_BY_ID = "resultHandlerTest.nameById";
+    
+    public interface ScanMapper {
+        
+        /** 带ResultHandler参数、返回void：逐行回调 */
+        void namesFrom(Long minId, ResultHandler<String> handler);
+    }
+    
+    private SqlSessionFactory factory;
+    
+    @Before
+    public void setUp() throws SQLException {
+        H2Support.execute(DATABASE,
+                "CREATE TABLE IF NOT EXISTS handler_item (id BIGINT PRIMARY KEY, name VARCHAR(20))",
+                "MERGE INTO handler_item KEY (id) VALUES (1, 'a'), (2, 'b'), (3, 'c'), (4, 'd'), (5, 'e')");
+        factory = H2Support.buildFactory(DATABASE);
+        Configuration configuration = factory.getConfiguration();
+        addSelect(configuration, NAMES_ID, "SELECT name FROM handler_item ORDER BY id", null);
+        addSelect(configuration, NAME_BY_ID, "SELECT name FROM handler_item WHERE id = #{id}", Long.class);
+        addSelect(configuration, ScanMapper.class.getName() + ".namesFrom",
+                "SELECT name FROM handler_item WHERE id >= #{minId} ORDER BY id", Long.class);
+        configuration.addMapper(ScanMapper.class);
+    }
+    
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+    
+    @Test
+    public void everyRowIsHandedOverInOrder() {
+        List<String> names = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        SqlSession session = factory.openSession();
+        try {
+            session.select(NAMES_ID, null, (ResultContext<? extends String> context) -> {
+                names.add(context.getResultObject());
+                counts.add(context.getResultCount());
+            });
+        } finally {
+            session.close();
+        }
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), names);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), counts);
+    }
+    
+    @Test
+    public void stopEndsTheReadAfterTheCurrentRow() {
+        List<String> names = new ArrayList<>();
+        SqlSession session = factory.openSession();
+        try {
+            session.select(NAMES_ID, null, (ResultContext<? extends String> context) -> {
+                names.add(context.getResultObject());
+                if (context.getResultCount() == 2) {
+                    context.stop();
+                    assertTrue(context.isStopped());
+                }
+            });
+        } finally {
+            session.close();
+        }
+        assertEquals(Arrays.asList("a", "b"), names);
+    }
+    
+    @Test
+    public void callbackSelectBypassesLocalCache() throws SQLException {
+        SqlSession session = factory.openSession();
+        try {
+            assertEquals("a", session.selectOne(NAME_BY_ID, 1L));
+            H2Support.execute(DATABASE, "UPDATE handler_item SET name = 'z' WHERE id = 1");
+            
+            // 不读一级缓存
+            List<String> names = new ArrayList<>();
+            session.select(NAME_BY_ID, 1L, (ResultContext<? extends String> context) ->
+                    names.add(context.getResultObject()));
+            assertEquals(Collections.singletonList("z"), names);
+            // 也不写一级缓存：selectOne仍然是第一次查询缓存的结果
+            assertEquals("a", session.selectOne(NAME_BY_ID, 1L));
+        } finally {
+            session.close();
+            H2Support.execute(DATABASE, "UPDATE handler_item SET name = 'a' WHERE id = 1");
+        }
+    }
+    
+    @Test
+    public void mapperMethodWithResultHandlerArgument() {
+        List<String> names = new ArrayList<>();
+        SqlSession session = factory.openSession();
+        try {
+            session.getMapper(ScanMapper.class).namesFrom(4L, context -> names.add(context.getResultObject()));
+        } finally {
+            session.close();
+        }
+        assertEquals(Arrays.asList("d", "e"), names);
+    }
+    
+    @Test
+    public void nullHandlerIsRejected() {
+        SqlSession session = factory.openSession();
+        try {
+            session.select(NAMES_ID, null, null);
+            fail("ResultHandler为null时应该报错");
+        } catch (MyBatisException expected) {
+            // 期望的异常
+        } finally {
+            session.close();
+        }
+    }
+    
+    private static void addSelect(Configuration configuration, String id, String sql, Class<?> parameterType) {
+        configuration.addMappedStatement(id, new MappedStatement.Builder(configuration, id, SqlCommandType.SELECT)
+                .sql(sql)
+                .parameterType(parameterType)
+                .resultType(String.class)
+                .build());
+    }
+}
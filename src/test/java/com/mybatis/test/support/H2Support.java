@@ -0,0 +1,81 @@
+package com.mybatis.test.support;
+
+import com.mybatis.session.SqlSessionFactory;
+import com.mybatis.session.SqlSessionFactoryBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 测试用的内存H2数据库
+ * 
+ * 每个测试类用自己的库名（jdbc:h2:mem:名字），互不影响；
+ * SqlSessionFactory用POOLED数据源，语句由测试通过Configuration.addMappedStatement添加。
+ * 
+ * @author 学习者
+ */
+public final class H2Support {
+    
+    private H2Support() {
+    }
+    
+    /**
+     * 内存库的URL（MySQL兼容模式，最后一个连接关闭后不删除数据）
+     */
+    public static String url(String database) {
+        return "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;MODE=MySQL";
+    }
+    
+    /**
+     * 直接用JDBC执行建表、造数据的语句
+     */
+    public static void execute(String database, String... sqls) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url(database), "sa", "");
+             Statement statement = connection.createStatement()) {
+            for (String sql : sqls) {
+                statement.execute(sql);
+            }
+        }
+    }
+    
+    public static SqlSessionFactory buildFactory(String database) {
+        return buildFactory(database, "", "");
+    }
+    
+    /**
+     * @param settings &lt;setting&gt;标签（没有时为空字符串）
+     * @param poolProperties 数据源的额外&lt;property&gt;标签（没有时为空字符串）
+     */
+    public static SqlSessionFactory buildFactory(String database, String settings, String poolProperties) {
+        String xml = "<configuration>"
+                + "<settings>" + settings + "</settings>"
+                + "<environments default=\"h2\"><environment id=\"h2\"><dataSource type=\"POOLED\">"
+                + "<property name=\"driver\" value=\"org.h2.Driver\"/>"
+                + "<property name=\"url\" value=\"" + url(database) + "\"/>"
+                + "<property name=\"username\" value=\"sa\"/>"
+                + "<property name=\"password\" value=\"\"/>"
+                + poolProperties
+                + "</dataSource></environment></environments>"
+                + "<mappers/>"
+                + "</configuration>";
+        return new SqlSessionFactoryBuilder().build(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * 一个&lt;setting&gt;标签
+     */
+    public static String setting(String name, Object value) {
+        return "<setting name=\"" + name + "\" value=\"" + value + "\"/>";
+    }
+    
+    /**
+     * 一个数据源&lt;property&gt;标签
+     */
+    public static String property(String name, Object value) {
+        return "<property name=\"" + name + "\" value=\"" + value + "\"/>";
+    }
+}